@@ -0,0 +1,186 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.ControlFlowGraph.Branch;
+import com.google.javascript.jscomp.NodeTraversal.AbstractPostOrderCallback;
+import com.google.javascript.jscomp.benchmarks.Corpus;
+import com.google.javascript.jscomp.graph.DiGraph;
+import com.google.javascript.jscomp.graph.DiGraph.DiGraphEdge;
+import com.google.javascript.jscomp.graph.DiGraph.DiGraphNode;
+import com.google.javascript.jscomp.graph.LinkedDirectedGraph;
+import com.google.javascript.rhino.Node;
+import com.google.javascript.rhino.Token;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the control flow graphs of all the functions of a corpus: building
+ * them with {@link ControlFlowAnalysis}, and building and walking graphs with
+ * the same edges as a {@link ControlFlowGraph} and as the
+ * {@link LinkedDirectedGraph} it used to be. Run with {@code -prof gc} to
+ * compare how much the two representations allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ControlFlowGraphBenchmark {
+
+  @Param({Corpus.SYNTHETIC, Corpus.EXTERNS})
+  public String corpus;
+
+  private Compiler compiler;
+
+  private List<Node> functions;
+
+  private List<GraphEdges> graphs;
+
+  @Setup
+  public void setUp() throws IOException {
+    compiler = Corpus.parse(ImmutableList.<SourceFile>of(),
+        Corpus.load(corpus), Corpus.createOptions());
+    final List<Node> functions = new ArrayList<>();
+    NodeTraversal.traverse(compiler, compiler.getRoot(),
+        new AbstractPostOrderCallback() {
+          @Override
+          public void visit(NodeTraversal t, Node n, Node parent) {
+            if (n.getType() == Token.FUNCTION) {
+              functions.add(n);
+            }
+          }
+        });
+    this.functions = functions;
+    graphs = new ArrayList<>();
+    for (Node function : functions) {
+      graphs.add(new GraphEdges(analyze(function)));
+    }
+  }
+
+  private ControlFlowGraph<Node> analyze(Node function) {
+    ControlFlowAnalysis cfa = new ControlFlowAnalysis(compiler, false, true);
+    cfa.process(null, function);
+    return cfa.getCfg();
+  }
+
+  /** Returns the number of edges of the graphs. */
+  @Benchmark
+  public int controlFlowAnalysis() {
+    int count = 0;
+    for (Node function : functions) {
+      count += analyze(function).getEdges().size();
+    }
+    return count;
+  }
+
+  /** Returns the number of edges seen walking the graphs. */
+  @Benchmark
+  public int controlFlowGraph() {
+    int count = 0;
+    for (GraphEdges edges : graphs) {
+      ControlFlowGraph<Node> cfg =
+          new ControlFlowGraph<>(edges.values[1], true, true);
+      count += walk(edges.build(cfg));
+    }
+    return count;
+  }
+
+  /** Returns the number of edges seen walking the graphs. */
+  @Benchmark
+  public int linkedDirectedGraph() {
+    int count = 0;
+    for (GraphEdges edges : graphs) {
+      LinkedDirectedGraph<Node, Branch> graph = LinkedDirectedGraph.create();
+      graph.createDirectedGraphNode(edges.values[0]);
+      graph.createDirectedGraphNode(edges.values[1]);
+      count += walk(edges.build(graph));
+    }
+    return count;
+  }
+
+  /** Visits the edges of every node in both directions, as the analyses do. */
+  private static int walk(DiGraph<Node, Branch> graph) {
+    int count = 0;
+    for (DiGraphNode<Node, Branch> node : graph.getDirectedGraphNodes()) {
+      for (DiGraphEdge<Node, Branch> edge : node.getOutEdges()) {
+        if (edge.getValue() != Branch.ON_EX) {
+          count++;
+        }
+      }
+      count += node.getInEdges().size();
+    }
+    return count;
+  }
+
+  /**
+   * The nodes and edges of a control flow graph, with the implicit return
+   * first and the entry second.
+   */
+  private static final class GraphEdges {
+    final Node[] values;
+    final int[] sources;
+    final int[] destinations;
+    final Branch[] branches;
+
+    GraphEdges(ControlFlowGraph<Node> cfg) {
+      values = new Node[cfg.getNodeCount()];
+      for (DiGraphNode<Node, Branch> node : cfg.getDirectedGraphNodes()) {
+        values[cfg.getNodeId(node)] = node.getValue();
+      }
+      List<DiGraphEdge<Node, Branch>> edges = cfg.getEdges();
+      sources = new int[edges.size()];
+      destinations = new int[edges.size()];
+      branches = new Branch[edges.size()];
+      for (int i = 0; i < edges.size(); i++) {
+        DiGraphEdge<Node, Branch> edge = edges.get(i);
+        sources[i] = cfg.getNodeId(edge.getSource());
+        destinations[i] = cfg.getNodeId(edge.getDestination());
+        branches[i] = edge.getValue();
+      }
+    }
+
+    <G extends DiGraph<Node, Branch>> G build(G graph) {
+      // The implicit return and the entry already exist.
+      for (int i = 2; i < values.length; i++) {
+        graph.createDirectedGraphNode(values[i]);
+      }
+      for (int i = 0; i < branches.length; i++) {
+        graph.connect(
+            values[sources[i]], branches[i], values[destinations[i]]);
+      }
+      return graph;
+    }
+  }
+}
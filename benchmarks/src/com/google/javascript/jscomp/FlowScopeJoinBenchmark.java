@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.benchmarks.Corpus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures type inference on one large generated function with many local
+ * variables and many branches, where most of the time goes to joining the
+ * flow scopes of the branches. Each branch changes the types of a couple of
+ * variables, so a join only has a few slots that differ.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class FlowScopeJoinBenchmark {
+
+  /** The number of local variables, and of branches, in the function. */
+  @Param({"100", "400"})
+  public int size;
+
+  private List<SourceFile> externs;
+
+  private List<SourceFile> inputs;
+
+  private Compiler compiler;
+
+  @Setup
+  public void generate() throws IOException {
+    externs = Corpus.loadExterns(Corpus.SYNTHETIC);
+    inputs = ImmutableList.of(
+        SourceFile.fromCode("function.js", generateFunction(size)));
+  }
+
+  @Setup(Level.Invocation)
+  public void parse() {
+    CompilerOptions options = Corpus.createOptions();
+    options.setCheckTypes(true);
+    compiler = Corpus.parse(externs, inputs, options);
+  }
+
+  @Benchmark
+  public TypedScope inferTypes() {
+    MemoizedScopeCreator scopeCreator =
+        new MemoizedScopeCreator(new TypedScopeCreator(compiler));
+    TypedScope topScope = scopeCreator.createScope(compiler.getRoot(), null);
+    new TypeInferencePass(compiler, compiler.getReverseAbstractInterpreter(),
+        topScope, scopeCreator).process(null, compiler.getJsRoot());
+    return topScope;
+  }
+
+  /**
+   * Generates a function with the given number of variables, followed by as
+   * many branches, each in a loop, that assign to two of the variables.
+   */
+  static String generateFunction(int size) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("/** @param {number} n */\n")
+        .append("function large(n) {\n");
+    for (int i = 0; i < size; i++) {
+      sb.append("  var v").append(i).append(" = ").append(i).append(";\n");
+    }
+    for (int i = 0; i < size; i++) {
+      int other = (i * 7 + 3) % size;
+      sb.append("  for (var i").append(i).append(" = 0; i").append(i)
+          .append(" < n; i").append(i).append("++) {\n")
+          .append("    if (n % ").append(i + 2).append(" == 0) {\n")
+          .append("      v").append(i).append(" = 'v' + v").append(other)
+          .append(";\n")
+          .append("    } else if (n > ").append(i).append(") {\n")
+          .append("      v").append(other).append(" = null;\n")
+          .append("    }\n")
+          .append("  }\n");
+    }
+    sb.append("  return v0;\n")
+        .append("}\n");
+    return sb.toString();
+  }
+}
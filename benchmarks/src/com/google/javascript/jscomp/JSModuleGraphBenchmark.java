@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a large {@link JSModuleGraph}, and the dependency queries
+ * that the cross module passes make for every symbol they look at, on random
+ * pairs of modules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class JSModuleGraphBenchmark {
+
+  private static final int QUERIES = 100000;
+
+  @Param({"1000", "5000"})
+  public int moduleCount;
+
+  private List<JSModule> modules;
+
+  private JSModuleGraph graph;
+
+  private JSModule[] queries;
+
+  @Setup
+  public void setUp() {
+    // Each module depends on the first one and a few random earlier ones.
+    Random random = new Random(42);
+    modules = new ArrayList<>();
+    for (int i = 0; i < moduleCount; i++) {
+      JSModule module = new JSModule("m" + i);
+      if (i > 0) {
+        module.addDependency(modules.get(0));
+        for (int j = random.nextInt(4); j > 0; j--) {
+          module.addDependency(modules.get(random.nextInt(i)));
+        }
+      }
+      modules.add(module);
+    }
+    graph = new JSModuleGraph(modules);
+    queries = new JSModule[2 * QUERIES];
+    for (int i = 0; i < queries.length; i++) {
+      queries[i] = modules.get(random.nextInt(moduleCount));
+    }
+  }
+
+  /** Returns the number of modules. */
+  @Benchmark
+  public int create() {
+    return new JSModuleGraph(modules).getModuleCount();
+  }
+
+  /** Returns the number of pairs where the first module depends on the other. */
+  @Benchmark
+  public int dependsOn() {
+    int count = 0;
+    for (int i = 0; i < queries.length; i += 2) {
+      if (graph.dependsOn(queries[i], queries[i + 1])) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /** Returns the sum of the depths of the deepest common dependencies. */
+  @Benchmark
+  public int getDeepestCommonDependencyInclusive() {
+    int depth = 0;
+    for (int i = 0; i < queries.length; i += 2) {
+      depth += graph.getDeepestCommonDependencyInclusive(
+          queries[i], queries[i + 1]).getDepth();
+    }
+    return depth;
+  }
+}
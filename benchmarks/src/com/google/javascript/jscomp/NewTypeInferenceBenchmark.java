@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.javascript.jscomp.benchmarks.Corpus;
+import com.google.javascript.rhino.Node;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the new type inference the way the default pass config runs it:
+ * {@link GlobalTypeInfo} collects the declarations, then
+ * {@link NewTypeInference} analyzes every function. Most of the time goes
+ * to updating the persistent maps of the type environments, so run with
+ * {@code -prof gc} to see the allocation rate too, e.g.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar NewTypeInference -prof gc \
+ *     -p corpus=app.js,lib.js
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class NewTypeInferenceBenchmark {
+
+  @Param({Corpus.SYNTHETIC, Corpus.EXTERNS})
+  public String corpus;
+
+  private List<SourceFile> externs;
+
+  private List<SourceFile> inputs;
+
+  private Compiler compiler;
+
+  @Setup
+  public void loadCorpus() throws IOException {
+    externs = Corpus.loadExterns(corpus);
+    inputs = Corpus.load(corpus);
+  }
+
+  @Setup(Level.Invocation)
+  public void parse() {
+    CompilerOptions options = Corpus.createOptions();
+    options.setNewTypeInference(true);
+    compiler = Corpus.parse(externs, inputs, options);
+  }
+
+  @Benchmark
+  public Compiler newTypeInference() {
+    Node externsRoot = compiler.getRoot().getFirstChild();
+    compiler.getSymbolTable().process(externsRoot, compiler.getJsRoot());
+    new NewTypeInference(compiler).process(externsRoot, compiler.getJsRoot());
+    return compiler;
+  }
+}
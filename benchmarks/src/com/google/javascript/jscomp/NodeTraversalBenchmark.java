@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.NodeTraversal.AbstractPostOrderCallback;
+import com.google.javascript.jscomp.NodeTraversal.ScopedCallback;
+import com.google.javascript.jscomp.benchmarks.Corpus;
+import com.google.javascript.rhino.Node;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link NodeTraversal}, which nearly every pass is built on:
+ * a bare traversal of the tree, and one that also creates the scope of
+ * every function it enters, as the passes that look up variables do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class NodeTraversalBenchmark {
+
+  @Param({Corpus.SYNTHETIC, Corpus.EXTERNS})
+  public String corpus;
+
+  private Compiler compiler;
+
+  private Node root;
+
+  @Setup
+  public void setUp() throws IOException {
+    compiler = Corpus.parse(ImmutableList.<SourceFile>of(),
+        Corpus.load(corpus), Corpus.createOptions());
+    // Inputs annotated with @externs, like the default externs, are moved to
+    // the externs, so traverse both.
+    root = compiler.getRoot();
+  }
+
+  /** Returns the number of nodes visited. */
+  @Benchmark
+  public int traverse() {
+    NodeCounter counter = new NodeCounter();
+    NodeTraversal.traverse(compiler, root, counter);
+    return counter.count;
+  }
+
+  /** Returns the number of variables declared in the scopes entered. */
+  @Benchmark
+  public int traverseWithScopes() {
+    ScopeCounter counter = new ScopeCounter();
+    NodeTraversal.traverse(compiler, root, counter);
+    return counter.count;
+  }
+
+  private static class NodeCounter extends AbstractPostOrderCallback {
+    int count;
+
+    @Override
+    public void visit(NodeTraversal t, Node n, Node parent) {
+      count++;
+    }
+  }
+
+  private static class ScopeCounter extends AbstractPostOrderCallback
+      implements ScopedCallback {
+    int count;
+
+    @Override
+    public void enterScope(NodeTraversal t) {
+      count += t.getScope().getVarCount();
+    }
+
+    @Override
+    public void exitScope(NodeTraversal t) {}
+
+    @Override
+    public void visit(NodeTraversal t, Node n, Node parent) {}
+  }
+}
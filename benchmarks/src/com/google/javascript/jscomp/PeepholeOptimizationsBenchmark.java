@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.benchmarks.Corpus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a {@link PeepholeOptimizationsPass} made of the same
+ * optimizations as the main peephole pass of the default pass config.
+ * The pass rewrites the tree, so every invocation runs on a freshly parsed
+ * one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PeepholeOptimizationsBenchmark {
+
+  // The externs have nothing to optimize.
+  @Param({Corpus.SYNTHETIC})
+  public String corpus;
+
+  private List<SourceFile> inputs;
+
+  private Compiler compiler;
+
+  @Setup
+  public void loadCorpus() throws IOException {
+    inputs = Corpus.load(corpus);
+  }
+
+  @Setup(Level.Invocation)
+  public void parse() {
+    compiler = Corpus.parse(
+        ImmutableList.<SourceFile>of(), inputs, Corpus.createOptions());
+  }
+
+  @Benchmark
+  public Compiler peepholeOptimizations() {
+    boolean late = false;
+    new PeepholeOptimizationsPass(compiler,
+        new PeepholeMinimizeConditions(late),
+        new PeepholeSubstituteAlternateSyntax(late),
+        new PeepholeReplaceKnownMethods(late),
+        new PeepholeRemoveDeadCode(),
+        new PeepholeFoldConstants(late),
+        new PeepholeCollectPropertyAssignments())
+        .process(null, compiler.getJsRoot());
+    return compiler;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.javascript.jscomp.benchmarks.Corpus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures type inference the way the default pass config runs it: the
+ * global typed scope is created, then {@link TypeInferencePass} creates the
+ * function scopes and propagates the types through them. Inference
+ * annotates the tree and fills the type registry, so every invocation runs
+ * on a freshly parsed tree and a new registry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TypeInferenceBenchmark {
+
+  @Param({Corpus.SYNTHETIC, Corpus.EXTERNS})
+  public String corpus;
+
+  private List<SourceFile> externs;
+
+  private List<SourceFile> inputs;
+
+  private Compiler compiler;
+
+  @Setup
+  public void loadCorpus() throws IOException {
+    externs = Corpus.loadExterns(corpus);
+    inputs = Corpus.load(corpus);
+  }
+
+  @Setup(Level.Invocation)
+  public void parse() {
+    CompilerOptions options = Corpus.createOptions();
+    options.setCheckTypes(true);
+    compiler = Corpus.parse(externs, inputs, options);
+  }
+
+  @Benchmark
+  public TypedScope inferTypes() {
+    MemoizedScopeCreator scopeCreator =
+        new MemoizedScopeCreator(new TypedScopeCreator(compiler));
+    TypedScope topScope = scopeCreator.createScope(compiler.getRoot(), null);
+    new TypeInferencePass(compiler, compiler.getReverseAbstractInterpreter(),
+        topScope, scopeCreator).process(null, compiler.getJsRoot());
+    return topScope;
+  }
+}
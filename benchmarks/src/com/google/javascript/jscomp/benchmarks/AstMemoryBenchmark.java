@@ -0,0 +1,146 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.CompilationLevel;
+import com.google.javascript.jscomp.Compiler;
+import com.google.javascript.jscomp.CompilerOptions;
+import com.google.javascript.jscomp.SourceFile;
+import com.google.javascript.jscomp.WarningLevel;
+import com.google.javascript.rhino.JSDocInfo;
+import com.google.javascript.rhino.Node;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Reports how much heap the compiler retains per AST node. The files of a
+ * {@link Corpus} (by default, the default externs) are parsed as code, or
+ * with --compile compiled with simple optimizations, by several compilers,
+ * and the growth of the heap is divided by the number of nodes the
+ * compilers hold on to. JMH measures time rather than retained memory, so
+ * this runs on its own, with a fixed heap size, e.g.
+ *
+ * <pre>
+ * java -Xms2g -Xmx2g -cp benchmarks/target/benchmarks.jar \
+ *     com.google.javascript.jscomp.benchmarks.AstMemoryBenchmark \
+ *     [--compile] [--copies=N] [corpus]
+ * </pre>
+ *
+ * The numbers include everything the compiler retains besides the tree
+ * (source code, JSDoc, scopes), so they are only meaningful when compared
+ * between two builds.
+ */
+public final class AstMemoryBenchmark {
+
+  private AstMemoryBenchmark() {}
+
+  public static void main(String[] args) throws IOException {
+    boolean compile = false;
+    int copies = 10;
+    String corpus = Corpus.EXTERNS;
+    for (String arg : args) {
+      if (arg.equals("--compile")) {
+        compile = true;
+      } else if (arg.startsWith("--copies=")) {
+        copies = Integer.parseInt(arg.substring("--copies=".length()));
+      } else {
+        corpus = arg;
+      }
+    }
+    Compiler.setLoggingLevel(Level.OFF);
+    List<SourceFile> inputs = Corpus.load(corpus);
+    // Warm up, so that the heap holds the code of the inputs and whatever
+    // the compiler sets up once before the baseline is taken.
+    if (compile) {
+      compile(inputs);
+    } else {
+      parse(inputs);
+    }
+
+    long before = usedHeap();
+    List<Compiler> compilers = new ArrayList<>();
+    long nodes = 0;
+    for (int i = 0; i < copies; i++) {
+      Compiler compiler = compile ? compile(inputs) : parse(inputs);
+      compilers.add(compiler);
+      nodes += countNodes(compiler.getRoot());
+    }
+    long after = usedHeap();
+
+    System.out.println("compilers: " + compilers.size());
+    System.out.println("nodes: " + nodes);
+    System.out.println("retained bytes: " + (after - before));
+    System.out.printf("bytes per node: %.1f%n", (double) (after - before) / nodes);
+  }
+
+  private static Compiler parse(List<SourceFile> inputs) {
+    return Corpus.parse(
+        ImmutableList.<SourceFile>of(), inputs, Corpus.createOptions());
+  }
+
+  private static Compiler compile(List<SourceFile> inputs) {
+    CompilerOptions options = Corpus.createOptions();
+    CompilationLevel.SIMPLE_OPTIMIZATIONS
+        .setOptionsForCompilationLevel(options);
+    WarningLevel.QUIET.setOptionsForWarningLevel(options);
+    Compiler compiler = new Compiler();
+    compiler.compile(ImmutableList.<SourceFile>of(), inputs, options);
+    return compiler;
+  }
+
+  private static long countNodes(Node n) {
+    long count = 1;
+    JSDocInfo info = n.getJSDocInfo();
+    if (info != null) {
+      for (Node typeNode : info.getTypeNodes()) {
+        count += countNodes(typeNode);
+      }
+    }
+    for (Node child = n.getFirstChild(); child != null;
+         child = child.getNext()) {
+      count += countNodes(child);
+    }
+    return count;
+  }
+
+  /**
+   * Returns the heap in use after a full collection. The usage that the
+   * memory pools record after a collection is more stable than the current
+   * usage, which counts the allocation buffers of the threads.
+   */
+  private static long usedHeap() {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    long used = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      MemoryUsage usage = pool.getCollectionUsage();
+      if (pool.getType() == MemoryType.HEAP && usage != null) {
+        used += usage.getUsed();
+      }
+    }
+    return used;
+  }
+}
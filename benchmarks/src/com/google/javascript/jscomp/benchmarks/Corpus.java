@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.benchmarks;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.CommandLineRunner;
+import com.google.javascript.jscomp.Compiler;
+import com.google.javascript.jscomp.CompilerOptions;
+import com.google.javascript.jscomp.SourceFile;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The inputs the benchmarks run over. A corpus is named by the "corpus"
+ * parameter of a benchmark, which is one of
+ * <ul>
+ * <li>{@code synthetic}: generated code that exercises most of the
+ *     language, with type annotations, constant expressions and dead
+ *     branches for the checks and the optimizations to work on;
+ * <li>{@code externs}: the default externs, a large body of real-world
+ *     declarations and JSDoc;
+ * <li>a comma-separated list of paths to JavaScript files, e.g.
+ *     {@code -p corpus=app.js,lib.js}, to measure real-world code.
+ * </ul>
+ */
+public final class Corpus {
+
+  public static final String SYNTHETIC = "synthetic";
+
+  public static final String EXTERNS = "externs";
+
+  // The number of units the synthetic corpus is made of. Each unit is a
+  // constructor with a method and a helper function, about 40 lines.
+  private static final int SYNTHETIC_UNITS = 500;
+
+  private Corpus() {}
+
+  /** Returns the files of the corpus with the given name. */
+  public static List<SourceFile> load(String name) throws IOException {
+    switch (name) {
+      case SYNTHETIC:
+        return ImmutableList.of(
+            SourceFile.fromCode("synthetic.js", generate(SYNTHETIC_UNITS)));
+      case EXTERNS:
+        return CommandLineRunner.getBuiltinExterns(createOptions());
+      default:
+        ImmutableList.Builder<SourceFile> files = ImmutableList.builder();
+        for (String path : Splitter.on(',').omitEmptyStrings().split(name)) {
+          files.add(SourceFile.fromFile(path));
+        }
+        return files.build();
+    }
+  }
+
+  /**
+   * Returns the externs to compile the corpus with the given name against:
+   * the default externs, unless the corpus is made of them.
+   */
+  public static List<SourceFile> loadExterns(String name) throws IOException {
+    return name.equals(EXTERNS)
+        ? ImmutableList.<SourceFile>of()
+        : CommandLineRunner.getBuiltinExterns(createOptions());
+  }
+
+  /** Returns the options the benchmarks compile with by default. */
+  public static CompilerOptions createOptions() {
+    CompilerOptions options = new CompilerOptions();
+    options.setLanguageIn(CompilerOptions.LanguageMode.ECMASCRIPT5);
+    return options;
+  }
+
+  /** Returns a compiler that has parsed the given files without errors. */
+  public static Compiler parse(List<SourceFile> externs,
+      List<SourceFile> inputs, CompilerOptions options) {
+    Compiler compiler = new Compiler();
+    compiler.init(externs, inputs, options);
+    compiler.parse();
+    Preconditions.checkState(!compiler.hasErrors(),
+        "The corpus has errors: %s", Arrays.toString(compiler.getErrors()));
+    return compiler;
+  }
+
+  /** Generates a program made of the given number of units. */
+  static String generate(int units) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < units; i++) {
+      String name = "Class" + i;
+      sb.append("/**\n")
+          .append(" * @constructor\n")
+          .append(" * @param {number} x\n")
+          .append(" */\n")
+          .append("function ").append(name).append("(x) {\n")
+          .append("  this.x = x;\n")
+          .append("  this.name = 'class' + '").append(i).append("';\n")
+          .append("}\n\n")
+          .append("/**\n")
+          .append(" * @param {number} y\n")
+          .append(" * @return {number}\n")
+          .append(" */\n")
+          .append(name).append(".prototype.method = function(y) {\n")
+          .append("  var total = 0;\n")
+          .append("  for (var i = 0; i < y; i++) {\n")
+          .append("    if (i % 2 == 0 && true) {\n")
+          .append("      total += this.x * (3 + 4);\n")
+          .append("    } else {\n")
+          .append("      total -= helper").append(i).append("(i, 'a').length;\n")
+          .append("    }\n")
+          .append("  }\n")
+          .append("  var obj = {a: 1, 'b': 'str' + 'ing', c: [1, 2, 3]};\n")
+          .append("  return total + obj.a + obj.c.length;\n")
+          .append("};\n\n")
+          .append("/**\n")
+          .append(" * @param {*} a\n")
+          .append(" * @param {string} b\n")
+          .append(" * @return {string}\n")
+          .append(" */\n")
+          .append("function helper").append(i).append("(a, b) {\n")
+          .append("  if (false) {\n")
+          .append("    return '';\n")
+          .append("  }\n")
+          .append("  return typeof a == 'undefined' ? b : String(a) + b;\n")
+          .append("}\n\n");
+      if (i > 0) {
+        sb.append("var instance").append(i).append(" = new Class")
+            .append(i - 1).append("(").append(i).append(");\n")
+            .append("instance").append(i).append(".method(")
+            .append(i).append(");\n\n");
+      }
+    }
+    return sb.toString();
+  }
+}
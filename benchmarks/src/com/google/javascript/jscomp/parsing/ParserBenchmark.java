@@ -0,0 +1,155 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.parsing;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.javascript.jscomp.SourceFile;
+import com.google.javascript.jscomp.benchmarks.Corpus;
+import com.google.javascript.jscomp.parsing.parser.Parser;
+import com.google.javascript.jscomp.parsing.parser.Scanner;
+import com.google.javascript.jscomp.parsing.parser.TokenType;
+import com.google.javascript.jscomp.parsing.parser.trees.Comment;
+import com.google.javascript.jscomp.parsing.parser.trees.ProgramTree;
+import com.google.javascript.jscomp.parsing.parser.util.SourcePosition;
+import com.google.javascript.jscomp.parsing.parser.util.SourceRange;
+import com.google.javascript.rhino.ErrorReporter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the front end: scanning the source into tokens, parsing the
+ * tokens into a parse tree, and building the AST from the parse tree with
+ * {@link IRFactory}, which includes parsing the JSDoc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ParserBenchmark {
+
+  @Param({Corpus.SYNTHETIC, Corpus.EXTERNS})
+  public String corpus;
+
+  private List<SourceFile> files;
+
+  private List<ProgramTree> trees;
+
+  private Config config;
+
+  @Setup
+  public void setUp() throws IOException {
+    files = Corpus.load(corpus);
+    config = ParserRunner.createConfig(
+        false, Config.LanguageMode.ECMASCRIPT5, ImmutableSet.<String>of());
+    trees = new ArrayList<>();
+    for (SourceFile file : files) {
+      trees.add(parse(file));
+    }
+  }
+
+  /** Returns the number of tokens in the corpus. */
+  @Benchmark
+  public int scan() throws IOException {
+    int tokens = 0;
+    for (SourceFile file : files) {
+      Scanner scanner = new Scanner(
+          NULL_PARSER_REPORTER, NULL_COMMENT_RECORDER, toParserFile(file));
+      while (scanner.nextToken().type != TokenType.END_OF_FILE) {
+        tokens++;
+      }
+    }
+    return tokens;
+  }
+
+  @Benchmark
+  public void parse(Blackhole blackhole) throws IOException {
+    for (SourceFile file : files) {
+      blackhole.consume(parse(file));
+    }
+  }
+
+  @Benchmark
+  public void transformTree(Blackhole blackhole) throws IOException {
+    for (int i = 0; i < files.size(); i++) {
+      SourceFile file = files.get(i);
+      blackhole.consume(IRFactory.transformTree(
+          trees.get(i), file, file.getCode(), config, NULL_REPORTER));
+    }
+  }
+
+  private static ProgramTree parse(SourceFile file) throws IOException {
+    Parser parser = new Parser(
+        new Parser.Config(Parser.Config.Mode.ES5),
+        NULL_PARSER_REPORTER,
+        toParserFile(file));
+    return parser.parseProgram();
+  }
+
+  private static com.google.javascript.jscomp.parsing.parser.SourceFile
+      toParserFile(SourceFile file) throws IOException {
+    return new com.google.javascript.jscomp.parsing.parser.SourceFile(
+        file.getName(), file.getCode());
+  }
+
+  private static final Scanner.CommentRecorder NULL_COMMENT_RECORDER =
+      new Scanner.CommentRecorder() {
+        @Override
+        public void recordComment(
+            Comment.Type type, SourceRange range, String value) {}
+      };
+
+  private static final
+      com.google.javascript.jscomp.parsing.parser.util.ErrorReporter
+      NULL_PARSER_REPORTER =
+          new com.google.javascript.jscomp.parsing.parser.util.ErrorReporter() {
+            @Override
+            protected void reportError(
+                SourcePosition location, String message) {}
+
+            @Override
+            protected void reportWarning(
+                SourcePosition location, String message) {}
+          };
+
+  private static final ErrorReporter NULL_REPORTER = new ErrorReporter() {
+    @Override
+    public void warning(
+        String message, String sourceName, int line, int lineOffset) {}
+
+    @Override
+    public void error(
+        String message, String sourceName, int line, int lineOffset) {}
+  };
+}
@@ -26,14 +26,21 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -47,22 +54,44 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
     SourceMappingReversable {
   static final int UNMAPPED = -1;
 
+  /** The number of decoded lines kept by a lazily parsed source map. */
+  static final int DECODED_LINE_CACHE_SIZE = 1024;
+
   private String[] sources;
   private String[] names;
   private int lineCount;
   // Slots in the lines list will be null if the line does not have any entries.
+  // Null when the mappings are decoded lazily.
   private ArrayList<ArrayList<Entry>> lines = null;
+  // When the mappings are decoded lazily: the bytes of the mappings, the
+  // offsets at which each line starts followed by the offset after the end of
+  // the last line plus one, and the source file id, source line, source column
+  // and name id that the first entry of each line is relative to.
+  private ByteBuffer mappings;
+  private int[] lineStarts;
+  private int[] lineStates;
+  private Map<Integer, ArrayList<Entry>> decodedLines;
   /** originalFile path ==> original line ==> target mappings */
   private Map<String, Map<Integer, Collection<OriginalMapping>>>
       reverseSourceMapping;
   private String sourceRoot;
   private Map<String, Object> extensions = new LinkedHashMap<>();
+  private int sectionParallelism = 1;
 
 
   public SourceMapConsumerV3() {
 
   }
 
+  /**
+   * Sets the number of sections of an index map that are parsed at the same
+   * time. The section supplier must be thread safe if this is greater than 1.
+   */
+  public void setSectionParallelism(int parallelism) {
+    Preconditions.checkArgument(parallelism > 0);
+    this.sectionParallelism = parallelism;
+  }
+
   static class DefaultSourceMapSupplier implements SourceMapSupplier {
     @Override
     public String getSourceMap(String url) {
@@ -97,49 +126,175 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
   public void parse(JsonObject sourceMapRoot, SourceMapSupplier sectionSupplier)
       throws SourceMapParseException {
     try {
-      // Check basic assertions about the format.
-      int version = sourceMapRoot.get("version").getAsInt();
-      if (version != 3) {
-        throw new SourceMapParseException("Unknown version: " + version);
-      }
-
-      if (sourceMapRoot.has("file")
-          && sourceMapRoot.get("file").getAsString().isEmpty()) {
-        throw new SourceMapParseException("File entry is empty");
-      }
-
-      if (sourceMapRoot.has("sections")) {
-        // Looks like a index map, try to parse it that way.
-        parseMetaMap(sourceMapRoot, sectionSupplier);
+      if (!parseHeader(sourceMapRoot, sectionSupplier)) {
         return;
       }
-
-      lineCount = sourceMapRoot.has("lineCount")
-          ? sourceMapRoot.get("lineCount").getAsInt() : -1;
       String lineMap = sourceMapRoot.get("mappings").getAsString();
 
-      sources = getJavaStringArray(sourceMapRoot.get("sources").getAsJsonArray());
-      names = getJavaStringArray(sourceMapRoot.get("names").getAsJsonArray());
-
       if (lineCount >= 0) {
         lines = new ArrayList<>(lineCount);
       } else {
         lines = new ArrayList<>();
       }
 
-      if (sourceMapRoot.has("sourceRoot")) {
-        sourceRoot = sourceMapRoot.get("sourceRoot").getAsString();
-      }
+      new MappingBuilder(new StringCharIterator(lineMap)).build();
+    } catch (JsonParseException ex) {
+      throw new SourceMapParseException("JSON parse exception: " + ex);
+    }
+  }
 
-      for (Map.Entry<String, JsonElement> entry : sourceMapRoot.entrySet()) {
-        if (entry.getKey().startsWith("x_")) {
-          extensions.put(entry.getKey(), entry.getValue());
-        }
-      }
+  /**
+   * Parses the source map in the given file, which is mapped into memory
+   * rather than read. Only the line starts of the mappings are indexed up
+   * front; the entries of a line are decoded when it is first looked up, and
+   * the most recently used lines are kept. This is meant for very large maps
+   * of which only a few lines are looked up, as when deobfuscating stack
+   * traces. Looking up mappings in a lazily parsed map is not thread safe.
+   * Index maps are parsed completely.
+   */
+  public void parseLazily(File file, SourceMapSupplier sectionSupplier)
+      throws IOException, SourceMapParseException {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+         FileChannel channel = raf.getChannel()) {
+      // The mapping stays valid after the channel is closed.
+      parseLazily(
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()),
+          sectionSupplier);
+    }
+  }
 
-      new MappingBuilder(lineMap).build();
+  /**
+   * Parses the UTF-8 encoded source map in the given buffer, decoding the
+   * mappings lazily, see {@link #parseLazily(File, SourceMapSupplier)}.
+   */
+  void parseLazily(ByteBuffer contents, SourceMapSupplier sectionSupplier)
+      throws SourceMapParseException {
+    try {
+      JsonObject sourceMapRoot = new JsonObject();
+      int[] mappingsRange = new int[2];
+      new JsonMemberScanner(contents).scan(sourceMapRoot, mappingsRange);
+      if (!parseHeader(sourceMapRoot, sectionSupplier)) {
+        return;
+      }
+      if (mappingsRange[1] == 0) {
+        throw new SourceMapParseException("Mappings entry is missing");
+      }
+      ByteBuffer buffer = contents.duplicate();
+      buffer.limit(mappingsRange[1]);
+      buffer.position(mappingsRange[0]);
+      mappings = buffer.slice();
+      lines = null;
+      indexLines();
+      decodedLines = new LinkedHashMap<Integer, ArrayList<Entry>>(
+          16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(
+            Map.Entry<Integer, ArrayList<Entry>> eldest) {
+          return size() > DECODED_LINE_CACHE_SIZE;
+        }
+      };
     } catch (JsonParseException ex) {
       throw new SourceMapParseException("JSON parse exception: " + ex);
+    } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+      throw new SourceMapParseException("Invalid mappings: " + ex);
+    }
+  }
+
+  /**
+   * Parses everything but the mappings.
+   * @return Whether the mappings are still to be parsed, which they are not
+   *     for index maps.
+   */
+  private boolean parseHeader(
+      JsonObject sourceMapRoot, SourceMapSupplier sectionSupplier)
+      throws SourceMapParseException {
+    // Check basic assertions about the format.
+    int version = sourceMapRoot.get("version").getAsInt();
+    if (version != 3) {
+      throw new SourceMapParseException("Unknown version: " + version);
+    }
+
+    if (sourceMapRoot.has("file")
+        && sourceMapRoot.get("file").getAsString().isEmpty()) {
+      throw new SourceMapParseException("File entry is empty");
+    }
+
+    if (sourceMapRoot.has("sections")) {
+      // Looks like a index map, try to parse it that way.
+      parseMetaMap(sourceMapRoot, sectionSupplier);
+      return false;
+    }
+
+    lineCount = sourceMapRoot.has("lineCount")
+        ? sourceMapRoot.get("lineCount").getAsInt() : -1;
+
+    sources = getJavaStringArray(sourceMapRoot.get("sources").getAsJsonArray());
+    names = getJavaStringArray(sourceMapRoot.get("names").getAsJsonArray());
+
+    if (sourceMapRoot.has("sourceRoot")) {
+      sourceRoot = sourceMapRoot.get("sourceRoot").getAsString();
+    }
+
+    for (Map.Entry<String, JsonElement> entry : sourceMapRoot.entrySet()) {
+      if (entry.getKey().startsWith("x_")) {
+        extensions.put(entry.getKey(), entry.getValue());
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Finds where the lines of the lazily decoded mappings start, and the
+   * values their first entries are relative to. This decodes every value, but
+   * doesn't create any entries.
+   */
+  private void indexLines() throws SourceMapParseException {
+    int length = mappings.limit();
+    int count = 0;
+    for (int i = 0; i < length; i++) {
+      if (mappings.get(i) == ';') {
+        count++;
+      }
+    }
+    if (length > 0 && mappings.get(length - 1) != ';') {
+      // The last line has no trailing line separator.
+      count++;
+    }
+    lineStarts = new int[count + 1];
+    lineStates = new int[4 * count];
+    lineStarts[count] = length + 1;
+
+    ByteBufferCharIterator content = new ByteBufferCharIterator(mappings, 0);
+    int[] state = new int[4];
+    int line = 0;
+    while (content.hasNext()) {
+      char c = content.peek();
+      if (c == ';') {
+        content.next();
+        line++;
+        if (line < count) {
+          lineStarts[line] = content.current;
+          System.arraycopy(state, 0, lineStates, 4 * line, 4);
+        }
+      } else if (c == ',') {
+        content.next();
+      } else {
+        int entryValues = 0;
+        while (content.hasNext()
+            && (c = content.peek()) != ',' && c != ';') {
+          int value = Base64VLQ.decode(content);
+          // The first value is the generated column, which is reset on
+          // every line.
+          if (entryValues > 0 && entryValues <= state.length) {
+            state[entryValues - 1] += value;
+          }
+          entryValues++;
+        }
+        if (entryValues != 1 && entryValues != 4 && entryValues != 5) {
+          throw new SourceMapParseException(
+              "Unexpected number of values for entry:" + entryValues);
+        }
+      }
     }
   }
 
@@ -173,10 +328,10 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
         throw new SourceMapParseException("Invalid map format");
       }
 
-      SourceMapGeneratorV3 generator = new SourceMapGeneratorV3();
-      JsonArray sections = sourceMapRoot.get("sections").getAsJsonArray();
-      for (int i = 0, count = sections.size(); i < count; i++) {
-        JsonObject section = sections.get(i).getAsJsonObject();
+      JsonArray sectionArray = sourceMapRoot.get("sections").getAsJsonArray();
+      List<SourceMapSection> sections = new ArrayList<>();
+      for (int i = 0, count = sectionArray.size(); i < count; i++) {
+        JsonObject section = sectionArray.get(i).getAsJsonObject();
         if (section.has("map") && section.has("url")) {
           throw new SourceMapParseException(
               "Invalid map format: section may not have both 'map' and 'url'");
@@ -184,21 +339,20 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
         JsonObject offset = section.get("offset").getAsJsonObject();
         int line = offset.get("line").getAsInt();
         int column =  offset.get("column").getAsInt();
-        String mapSectionContents;
         if (section.has("url")) {
-          String url = section.get("url").getAsString();
-          mapSectionContents = sectionSupplier.getSourceMap(url);
-          if (mapSectionContents == null) {
-            throw new SourceMapParseException("Unable to retrieve: " + url);
-          }
+          sections.add(SourceMapSection.forURL(
+              section.get("url").getAsString(), line, column));
         } else if (section.has("map")) {
-          mapSectionContents = section.get("map").toString();
+          sections.add(SourceMapSection.forMap(
+              section.get("map").toString(), line, column));
         } else {
           throw new SourceMapParseException(
               "Invalid map format: section must have either 'map' or 'url'");
         }
-        generator.mergeMapSection(line, column, mapSectionContents);
       }
+      SourceMapGeneratorV3 generator = new SourceMapGeneratorV3();
+      generator.mergeMapSections(
+          sections, sectionSupplier, sectionParallelism);
 
       StringBuilder sb = new StringBuilder();
       try {
@@ -209,20 +363,56 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
       }
 
       parse(sb.toString());
-    } catch (IOException ex) {
-      throw new SourceMapParseException("IO exception: " + ex);
     } catch (JsonParseException ex) {
       throw new SourceMapParseException("JSON parse exception: " + ex);
     }
   }
 
+  /** Returns the number of lines of the generated file that are mapped. */
+  private int getGeneratedLineCount() {
+    return lines != null ? lines.size() : lineStarts.length - 1;
+  }
+
+  /**
+   * Returns the entries of a line of the generated file, or null if it has
+   * none. Lazily decoded lines are decoded on first use.
+   */
+  private ArrayList<Entry> getLine(int line) {
+    if (lines != null) {
+      return lines.get(line);
+    }
+    // The range excludes the line separator.
+    int start = lineStarts[line];
+    int end = lineStarts[line + 1] - 1;
+    if (start == end) {
+      return null;
+    }
+    ArrayList<Entry> entries = decodedLines.get(line);
+    if (entries == null) {
+      ByteBuffer buffer = mappings.duplicate();
+      buffer.limit(end);
+      MappingBuilder builder = new MappingBuilder(
+          new ByteBufferCharIterator(buffer, start));
+      builder.line = line;
+      builder.previousSrcId = lineStates[4 * line];
+      builder.previousSrcLine = lineStates[4 * line + 1];
+      builder.previousSrcColumn = lineStates[4 * line + 2];
+      builder.previousNameId = lineStates[4 * line + 3];
+      entries = builder.nextLine();
+      if (entries != null) {
+        decodedLines.put(line, entries);
+      }
+    }
+    return entries;
+  }
+
   @Override
   public OriginalMapping getMappingForLine(int lineNumber, int column) {
     // Normalize the line and column numbers to 0.
     lineNumber--;
     column--;
 
-    if (lineNumber < 0 || lineNumber >= lines.size()) {
+    if (lineNumber < 0 || lineNumber >= getGeneratedLineCount()) {
       return null;
     }
 
@@ -230,12 +420,12 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
     Preconditions.checkState(column >= 0);
 
 
+    ArrayList<Entry> entries = getLine(lineNumber);
     // If the line is empty return the previous mapping.
-    if (lines.get(lineNumber) == null) {
+    if (entries == null) {
       return getPreviousMapping(lineNumber);
     }
 
-    ArrayList<Entry> entries = lines.get(lineNumber);
     // No empty lists.
     Preconditions.checkState(!entries.isEmpty());
     if (entries.get(0).getGeneratedColumn() > column) {
@@ -306,7 +496,7 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
 
   private class MappingBuilder {
     private static final int MAX_ENTRY_VALUES = 5;
-    private final StringCharIterator content;
+    private final PeekingCharIterator content;
     private int line = 0;
     private int previousCol = 0;
     private int previousSrcId = 0;
@@ -314,56 +504,48 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
     private int previousSrcColumn = 0;
     private int previousNameId = 0;
 
-    MappingBuilder(String lineMap) {
-      this.content = new StringCharIterator(lineMap);
+    MappingBuilder(PeekingCharIterator content) {
+      this.content = content;
     }
 
     void build() {
-      int [] temp = new int[MAX_ENTRY_VALUES];
-      ArrayList<Entry> entries = new ArrayList<>();
+      // Some source map generator (e.g.UglifyJS) generates lines without
+      // a trailing line separator, so the last line may end with the content.
       while (content.hasNext()) {
-        // ';' denotes a new line.
-        if (tryConsumeToken(';')) {
-          // The line is complete, store the result
-          completeLine(entries);
-          if (!entries.isEmpty()) {
-            // A new array list for the next line.
-            entries = new ArrayList<>();
-          }
-        } else {
-          // grab the next entry for the current line.
-          int entryValues = 0;
-          while (!entryComplete()) {
-            temp[entryValues] = nextValue();
-            entryValues++;
-          }
-          Entry entry = decodeEntry(temp, entryValues);
-
-          validateEntry(entry);
-          entries.add(entry);
+        lines.add(nextLine());
+      }
+    }
 
-          // Consume the separating token, if there is one.
-          tryConsumeToken(',');
+    /**
+     * Decodes the entries up to the next line separator, or the end of the
+     * content, and consumes the separator.
+     * @return The entries of the line, or null if the line is empty.
+     */
+    ArrayList<Entry> nextLine() {
+      int [] temp = new int[MAX_ENTRY_VALUES];
+      ArrayList<Entry> entries = null;
+      // ';' denotes a new line.
+      while (content.hasNext() && !tryConsumeToken(';')) {
+        // grab the next entry for the current line.
+        int entryValues = 0;
+        while (!entryComplete()) {
+          temp[entryValues] = nextValue();
+          entryValues++;
         }
-      }
+        Entry entry = decodeEntry(temp, entryValues);
 
-      // Some source map generator (e.g.UglifyJS) generates lines without
-      // a trailing line separator. So add the rest of the content.
-      if (!entries.isEmpty()) {
-        completeLine(entries);
-      }
-    }
+        validateEntry(entry);
+        if (entries == null) {
+          entries = new ArrayList<>();
+        }
+        entries.add(entry);
 
-    private void completeLine(ArrayList<Entry> entries) {
-      // The line is complete, store the result for the line,
-      // null if the line is empty.
-      if (!entries.isEmpty()) {
-        lines.add(entries);
-      } else {
-        lines.add(null);
+        // Consume the separating token, if there is one.
+        tryConsumeToken(',');
       }
       line++;
       previousCol = 0;
+      return entries;
     }
 
     /**
@@ -506,13 +688,14 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
    * such entry exists.
    */
   private OriginalMapping getPreviousMapping(int lineNumber) {
+    ArrayList<Entry> entries;
     do {
       if (lineNumber == 0) {
         return null;
       }
       lineNumber--;
-    } while (lines.get(lineNumber) == null);
-    ArrayList<Entry> entries = lines.get(lineNumber);
+      entries = getLine(lineNumber);
+    } while (entries == null);
     return getOriginalMappingForEntry(entries.get(entries.size() - 1));
   }
 
@@ -543,8 +726,9 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
   private void createReverseMapping() {
     reverseSourceMapping = new HashMap<>();
 
-    for (int targetLine = 0; targetLine < lines.size(); targetLine++) {
-      ArrayList<Entry> entries = lines.get(targetLine);
+    int lineCount = getGeneratedLineCount();
+    for (int targetLine = 0; targetLine < lineCount; targetLine++) {
+      ArrayList<Entry> entries = getLine(targetLine);
 
       if (entries != null) {
         for (Entry entry : entries) {
@@ -580,11 +764,16 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
     }
   }
 
+  /** A CharIterator that can look at the next character without consuming it. */
+  private interface PeekingCharIterator extends CharIterator {
+    char peek();
+  }
+
   /**
    * A implementation of the Base64VLQ CharIterator used for decoding the
    * mappings encoded in the JSON string.
    */
-  private static class StringCharIterator implements CharIterator {
+  private static class StringCharIterator implements PeekingCharIterator {
     final String content;
     final int length;
     int current = 0;
@@ -599,7 +788,8 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
       return content.charAt(current++);
     }
 
-    char peek() {
+    @Override
+    public char peek() {
       return content.charAt(current);
     }
 
@@ -609,6 +799,166 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
     }
   }
 
+  /**
+   * A CharIterator over the bytes of lazily decoded mappings, which are all
+   * ASCII characters, up to the limit of the buffer.
+   */
+  private static class ByteBufferCharIterator implements PeekingCharIterator {
+    final ByteBuffer content;
+    final int length;
+    int current;
+
+    ByteBufferCharIterator(ByteBuffer content, int start) {
+      this.content = content;
+      this.length = content.limit();
+      this.current = start;
+    }
+
+    @Override
+    public char next() {
+      return (char) content.get(current++);
+    }
+
+    @Override
+    public char peek() {
+      return (char) content.get(current);
+    }
+
+    @Override
+    public boolean hasNext() {
+      return current < length;
+    }
+  }
+
+  /**
+   * Reads the members of the top-level object of a UTF-8 encoded source map
+   * without parsing the mappings, which make up most of a large map, or the
+   * sources' contents, which the consumer doesn't use.
+   */
+  private static class JsonMemberScanner {
+    private final ByteBuffer content;
+    private int current;
+
+    JsonMemberScanner(ByteBuffer content) {
+      this.content = content;
+      this.current = content.position();
+    }
+
+    /**
+     * Adds the members to the given object, except the mappings, whose start
+     * and end offsets within the quotes are stored in the given range.
+     */
+    void scan(JsonObject object, int[] range) throws SourceMapParseException {
+      expect('{');
+      if (peek() == '}') {
+        return;
+      }
+      while (true) {
+        int keyStart = current;
+        skipValue();
+        JsonElement key = parse(keyStart, current);
+        if (!key.isJsonPrimitive()) {
+          throw new SourceMapParseException("Invalid member name: " + key);
+        }
+        String name = key.getAsString();
+        expect(':');
+        peek();
+        int valueStart = current;
+        skipValue();
+        if (name.equals("mappings")) {
+          if (content.get(valueStart) != '"') {
+            throw new SourceMapParseException("Mappings must be a string");
+          }
+          for (int i = valueStart + 1; i < current - 1; i++) {
+            if (content.get(i) == '\\') {
+              throw new SourceMapParseException(
+                  "Unexpected escape sequence in mappings");
+            }
+          }
+          range[0] = valueStart + 1;
+          range[1] = current - 1;
+        } else if (!name.equals("sourcesContent")) {
+          object.add(name, parse(valueStart, current));
+        }
+        if (peek() == '}') {
+          return;
+        }
+        expect(',');
+      }
+    }
+
+    private JsonElement parse(int start, int end) {
+      byte[] bytes = new byte[end - start];
+      ByteBuffer buffer = content.duplicate();
+      buffer.position(start);
+      buffer.get(bytes);
+      return new JsonParser().parse(
+          new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /** Skips any whitespace and returns the next character. */
+    private char peek() throws SourceMapParseException {
+      while (current < content.limit()) {
+        char c = (char) content.get(current);
+        if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+          return c;
+        }
+        current++;
+      }
+      throw new SourceMapParseException("Unexpected end of source map");
+    }
+
+    private void expect(char c) throws SourceMapParseException {
+      if (peek() != c) {
+        throw new SourceMapParseException(
+            "Expected '" + c + "' at offset " + current);
+      }
+      current++;
+    }
+
+    /**
+     * Skips a value, without checking much more than that its brackets and
+     * quotes are balanced. The members that are kept are parsed later.
+     */
+    private void skipValue() throws SourceMapParseException {
+      int depth = 0;
+      do {
+        char c = peek();
+        current++;
+        if (c == '"') {
+          while (true) {
+            if (current >= content.limit()) {
+              throw new SourceMapParseException("Unterminated string");
+            }
+            byte b = content.get(current++);
+            if (b == '\\') {
+              current++;
+            } else if (b == '"') {
+              break;
+            }
+          }
+        } else if (c == '{' || c == '[') {
+          depth++;
+        } else if (c == '}' || c == ']') {
+          depth--;
+        } else if (c != ',' && c != ':') {
+          // A number or a literal.
+          while (current < content.limit()) {
+            c = (char) content.get(current);
+            if (c == ',' || c == '}' || c == ']' || c == ':'
+                || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+              break;
+            }
+            current++;
+          }
+        }
+      } while (depth > 0);
+      if (depth < 0) {
+        throw new SourceMapParseException("Unbalanced brackets");
+      }
+    }
+  }
+
   /**
    * Represents a mapping entry in the source map.
    */
@@ -727,9 +1077,9 @@ public final class SourceMapConsumerV3 implements SourceMapConsumer,
     FilePosition sourceStartPosition = null;
     FilePosition startPosition = null;
 
-    final int lineCount = lines.size();
+    final int lineCount = getGeneratedLineCount();
     for (int i = 0; i < lineCount; i++) {
-      ArrayList<Entry> line = lines.get(i);
+      ArrayList<Entry> line = getLine(i);
       if (line != null) {
         final int entryCount = line.size();
         for (int j = 0; j < entryCount; j++) {
@@ -18,17 +18,27 @@ package com.google.debugging.sourcemap;
 
 import com.google.common.annotations.GwtIncompatible;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.debugging.sourcemap.SourceMapConsumerV3.EntryVisitor;
 import com.google.gson.Gson;
 
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.annotation.Nullable;
 
@@ -66,23 +76,46 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
 
   private static final int UNMAPPED = -1;
 
+  // The values that make up a mapping in the mappings buffer, and their
+  // offsets. Source and name ids index the sourceFiles and originalNames
+  // lists. Generated positions are indexed by 0, original positions by 1
+  // for legacy reasons via the Rhino Node class.
+  private static final int SOURCE_FILE = 0;
+  private static final int ORIGINAL_LINE = 1;
+  private static final int ORIGINAL_COLUMN = 2;
+  private static final int ORIGINAL_NAME = 3;
+  private static final int START_LINE = 4;
+  private static final int START_COLUMN = 5;
+  private static final int END_LINE = 6;
+  private static final int END_COLUMN = 7;
+  private static final int MAPPING_SIZE = 8;
 
   /**
-   * A pre-order traversal ordered list of mappings stored in this map.
+   * The mappings stored in this map, in the order of a pre-order traversal,
+   * as MAPPING_SIZE ints each. Large outputs have millions of mappings, and
+   * they take far less memory this way than as objects.
    */
-  private List<Mapping> mappings = new ArrayList<>();
+  private int[] mappings = new int[64 * MAPPING_SIZE];
 
   /**
-   * A map of source names to source name index
+   * The number of mappings in the mappings buffer.
    */
-  private LinkedHashMap<String, Integer> sourceFileMap =
-       new LinkedHashMap<>();
+  private int mappingCount = 0;
 
   /**
-   * A map of source names to source name index
+   * The source names of the mappings, in the order they were first added,
+   * and their ids. These are not the ids written out, which only count the
+   * sources of the mappings that are used.
    */
-  private LinkedHashMap<String, Integer> originalNameMap =
-       new LinkedHashMap<>();
+  private final List<String> sourceFiles = new ArrayList<>();
+  private final Map<String, Integer> sourceFileIds = new HashMap<>();
+
+  /**
+   * The original names of the mappings, in the order they were first added,
+   * and their ids.
+   */
+  private final List<String> originalNames = new ArrayList<>();
+  private final Map<String, Integer> originalNameIds = new HashMap<>();
 
   /**
    * Cache of the last mappings source name.
@@ -94,11 +127,6 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
    */
   private int lastSourceFileIndex = -1;
 
-  /**
-   * For validation store the last mapping added.
-   */
-  private Mapping lastMapping;
-
   /**
    * The position that the current source map is offset in the
    * buffer being used to generated the compiled source file.
@@ -130,10 +158,11 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
    */
   @Override
   public void reset() {
-    mappings.clear();
-    lastMapping = null;
-    sourceFileMap.clear();
-    originalNameMap.clear();
+    mappingCount = 0;
+    sourceFiles.clear();
+    sourceFileIds.clear();
+    originalNames.clear();
+    originalNameIds.clear();
     lastSourceFile = null;
     lastSourceFileIndex = -1;
     offsetPosition = new FilePosition(0, 0);
@@ -207,59 +236,60 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
       return;
     }
 
-    FilePosition adjustedStart = startPosition;
-    FilePosition adjustedEnd = endPosition;
-
-    if (offsetPosition.getLine() != 0
-        || offsetPosition.getColumn() != 0) {
-      // If the mapping is found on the first line, we need to offset
-      // its character position by the number of characters found on
-      // the *last* line of the source file to which the code is
-      // being generated.
-      int offsetLine = offsetPosition.getLine();
-      int startOffsetPosition = offsetPosition.getColumn();
-      int endOffsetPosition = offsetPosition.getColumn();
-
-      if (startPosition.getLine() > 0) {
-        startOffsetPosition = 0;
-      }
-
-      if (endPosition.getLine() > 0) {
-        endOffsetPosition = 0;
-      }
-
-      adjustedStart = new FilePosition(
-          startPosition.getLine() + offsetLine,
-          startPosition.getColumn() + startOffsetPosition);
-
-      adjustedEnd = new FilePosition(
-          endPosition.getLine() + offsetLine,
-          endPosition.getColumn() + endOffsetPosition);
+    int startLine = startPosition.getLine();
+    int startColumn = startPosition.getColumn();
+    int endLine = endPosition.getLine();
+    int endColumn = endPosition.getColumn();
+
+    // If the mapping is found on the first line, we need to offset
+    // its character position by the number of characters found on
+    // the *last* line of the source file to which the code is
+    // being generated.
+    if (startLine == 0) {
+      startColumn += offsetPosition.getColumn();
+    }
+    if (endLine == 0) {
+      endColumn += offsetPosition.getColumn();
     }
+    startLine += offsetPosition.getLine();
+    endLine += offsetPosition.getLine();
 
-    // Create the new mapping.
-    Mapping mapping = new Mapping();
-    mapping.sourceFile = sourceName;
-    mapping.originalPosition = sourceStartPosition;
-    mapping.originalName = symbolName;
-    mapping.startPosition = adjustedStart;
-    mapping.endPosition = adjustedEnd;
+    addMapping(getSourceId(sourceName),
+        sourceStartPosition.getLine(), sourceStartPosition.getColumn(),
+        symbolName == null ? UNMAPPED : getNameId(symbolName),
+        startLine, startColumn, endLine, endColumn);
+  }
 
+  /**
+   * Adds a mapping with adjusted generated positions.
+   */
+  private void addMapping(int sourceId, int originalLine, int originalColumn,
+      int nameId, int startLine, int startColumn, int endLine, int endColumn) {
     // Validate the mappings are in a proper order.
-    if (lastMapping != null) {
-      int lastLine = lastMapping.startPosition.getLine();
-      int lastColumn = lastMapping.startPosition.getColumn();
-      int nextLine = mapping.startPosition.getLine();
-      int nextColumn = mapping.startPosition.getColumn();
-      Preconditions.checkState(nextLine > lastLine
-          || (nextLine == lastLine && nextColumn >= lastColumn),
+    if (mappingCount > 0) {
+      int last = (mappingCount - 1) * MAPPING_SIZE;
+      int lastLine = mappings[last + START_LINE];
+      int lastColumn = mappings[last + START_COLUMN];
+      Preconditions.checkState(startLine > lastLine
+          || (startLine == lastLine && startColumn >= lastColumn),
           "Incorrect source mappings order, previous : (%s,%s)\n"
           + "new : (%s,%s)",
-          lastLine, lastColumn, nextLine, nextColumn);
+          lastLine, lastColumn, startLine, startColumn);
     }
 
-    lastMapping = mapping;
-    mappings.add(mapping);
+    int offset = mappingCount * MAPPING_SIZE;
+    if (offset == mappings.length) {
+      mappings = Arrays.copyOf(mappings, 2 * offset);
+    }
+    mappings[offset + SOURCE_FILE] = sourceId;
+    mappings[offset + ORIGINAL_LINE] = originalLine;
+    mappings[offset + ORIGINAL_COLUMN] = originalColumn;
+    mappings[offset + ORIGINAL_NAME] = nameId;
+    mappings[offset + START_LINE] = startLine;
+    mappings[offset + START_COLUMN] = startColumn;
+    mappings[offset + END_LINE] = endLine;
+    mappings[offset + END_COLUMN] = endColumn;
+    mappingCount++;
   }
 
   class ConsumerEntryVisitor implements EntryVisitor {
@@ -292,6 +322,119 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
     section.visitMappings(new ConsumerEntryVisitor());
   }
 
+  /**
+   * Merges the given sections in order, as {@link #mergeMapSection(int, int,
+   * String)} does each of them, parsing and offsetting up to
+   * {@code parallelism} sections at the same time. The mappings of the
+   * sections are then appended to this map in order. Any extension in the
+   * sections will be ignored.
+   *
+   * @param sections The sections to be appended, in order
+   * @param sectionSupplier The supplier of the maps of URL sections, which
+   *     must be thread safe if {@code parallelism} is greater than 1
+   * @param parallelism The number of sections to parse at the same time
+   * @throws SourceMapParseException
+   */
+  public void mergeMapSections(List<SourceMapSection> sections,
+      final SourceMapSupplier sectionSupplier, int parallelism)
+      throws SourceMapParseException {
+    Preconditions.checkArgument(parallelism > 0);
+    if (parallelism == 1 || sections.size() < 2) {
+      for (SourceMapSection section : sections) {
+        appendSection(section, parseSection(section, sectionSupplier));
+      }
+      return;
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(
+        Math.min(parallelism, sections.size()),
+        new ThreadFactoryBuilder()
+            .setNameFormat("sourcemap-merger-%d")
+            .setDaemon(true)
+            .build());
+    try {
+      // Only the sections up to parallelism ahead of the one being appended
+      // are submitted, so that the sections that are parsed early don't
+      // pile up while an earlier one is still being parsed.
+      Deque<Future<SourceMapGeneratorV3>> window = new ArrayDeque<>();
+      int next = 0;
+      for (int i = 0; i < sections.size(); i++) {
+        for (; next < sections.size() && next <= i + parallelism; next++) {
+          final SourceMapSection section = sections.get(next);
+          window.add(pool.submit(new Callable<SourceMapGeneratorV3>() {
+            @Override
+            public SourceMapGeneratorV3 call()
+                throws SourceMapParseException {
+              return parseSection(section, sectionSupplier);
+            }
+          }));
+        }
+        appendSection(sections.get(i), window.remove().get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      Throwables.propagateIfInstanceOf(
+          e.getCause(), SourceMapParseException.class);
+      throw Throwables.propagate(e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Returns a map with the mappings of the given section, at their positions
+   * in the merged map.
+   */
+  private static SourceMapGeneratorV3 parseSection(
+      SourceMapSection section, SourceMapSupplier sectionSupplier)
+      throws SourceMapParseException {
+    String contents = section.getSectionValue();
+    if (section.getSectionType() == SourceMapSection.SectionType.URL) {
+      try {
+        contents = sectionSupplier == null
+            ? null : sectionSupplier.getSourceMap(contents);
+      } catch (IOException ex) {
+        throw new SourceMapParseException("IO exception: " + ex);
+      }
+      if (contents == null) {
+        throw new SourceMapParseException(
+            "Unable to retrieve: " + section.getSectionValue());
+      }
+    }
+    SourceMapGeneratorV3 generator = new SourceMapGeneratorV3();
+    generator.mergeMapSection(section.getLine(), section.getColumn(), contents);
+    return generator;
+  }
+
+  /**
+   * Appends the mappings of a parsed section, mapping its source and name
+   * ids to the ids of this map.
+   */
+  private void appendSection(
+      SourceMapSection section, SourceMapGeneratorV3 parsed) {
+    setStartingPosition(section.getLine(), section.getColumn());
+    int[] sourceIds = new int[parsed.sourceFiles.size()];
+    for (int i = 0; i < sourceIds.length; i++) {
+      sourceIds[i] = getSourceId(parsed.sourceFiles.get(i));
+    }
+    int[] nameIds = new int[parsed.originalNames.size()];
+    for (int i = 0; i < nameIds.length; i++) {
+      nameIds[i] = getNameId(parsed.originalNames.get(i));
+    }
+    int[] values = parsed.mappings;
+    for (int offset = 0; offset < parsed.mappingCount * MAPPING_SIZE;
+        offset += MAPPING_SIZE) {
+      int nameId = values[offset + ORIGINAL_NAME];
+      addMapping(sourceIds[values[offset + SOURCE_FILE]],
+          values[offset + ORIGINAL_LINE], values[offset + ORIGINAL_COLUMN],
+          nameId == UNMAPPED ? UNMAPPED : nameIds[nameId],
+          values[offset + START_LINE], values[offset + START_COLUMN],
+          values[offset + END_LINE], values[offset + END_COLUMN]);
+    }
+  }
+
   /**
    * Works like {@link #mergeMapSection(int, int, String)}, except that
    * extensions from the @{code mapSectionContents} are merged to the top level
@@ -353,7 +496,9 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
    */
   @Override
   public void appendTo(Appendable out, String name) throws IOException {
-    int maxLine = prepMappings() + 1;
+    BitSet used = new BitSet(mappingCount);
+    int maxLine = prepMappings(used) + 1;
+    LineMapper lineMapper = new LineMapper(out, maxLine);
 
     // Add the header fields.
     out.append("{\n");
@@ -369,7 +514,7 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
     // Add the mappings themselves.
     appendFieldStart(out, "mappings");
     // out.append("[");
-    (new LineMapper(out, maxLine)).appendLineMappings();
+    lineMapper.appendLineMappings();
 
     // out.append("]");
     appendFieldEnd(out);
@@ -377,14 +522,14 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
     // Files names
     appendFieldStart(out, "sources");
     out.append("[");
-    addSourceNameMap(out);
+    addNameMap(out, lineMapper.writtenSourceFiles);
     out.append("]");
     appendFieldEnd(out);
 
     // Files names
     appendFieldStart(out, "names");
     out.append("[");
-    addSymbolNameMap(out);
+    addNameMap(out, lineMapper.writtenOriginalNames);
     out.append("]");
     appendFieldEnd(out);
 
@@ -464,25 +609,10 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
     return this.extensions.get(name);
   }
 
-  /**
-   * Writes the source name map to 'out'.
-   */
-  private void addSourceNameMap(Appendable out) throws IOException {
-    addNameMap(out, sourceFileMap);
-  }
-
-  /**
-   * Writes the source name map to 'out'.
-   */
-  private void addSymbolNameMap(Appendable out) throws IOException {
-    addNameMap(out, originalNameMap);
-  }
-
-  private void addNameMap(Appendable out, Map<String, Integer> map)
+  private void addNameMap(Appendable out, List<String> names)
       throws IOException {
     int i = 0;
-    for (Entry<String, Integer> entry : map.entrySet()) {
-      String key = entry.getKey();
+    for (String key : names) {
       if (i != 0) {
         out.append(",");
       }
@@ -532,21 +662,16 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
   }
 
   /**
-   * Assigns sequential ids to used mappings, and returns the last line mapped.
+   * Marks the used mappings, and returns the last line mapped.
    */
-  private int prepMappings() throws IOException {
+  private int prepMappings(BitSet used) throws IOException {
     // Mark any unused mappings.
-    (new MappingTraversal()).traverse(new UsedMappingCheck());
+    (new MappingTraversal()).traverse(new UsedMappingCheck(used));
 
-    // Renumber used mappings and keep track of the last line.
-    int id = 0;
+    // Keep track of the last line.
     int maxLine = 0;
-    for (Mapping m : mappings) {
-      if (m.used) {
-        m.id = id++;
-        int endPositionLine = m.endPosition.getLine();
-        maxLine = Math.max(maxLine, endPositionLine);
-      }
+    for (int m = used.nextSetBit(0); m >= 0; m = used.nextSetBit(m + 1)) {
+      maxLine = Math.max(maxLine, mappings[m * MAPPING_SIZE + END_LINE]);
     }
 
     // Adjust for the prefix.
@@ -554,84 +679,44 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
   }
 
   /**
-   * A mapping from a given position in an input source file to a given position
-   * in the generated code.
+   * Mark any visited mapping as "used".
    */
-  static class Mapping {
-    /**
-     * A unique ID for this mapping for record keeping purposes.
-     */
-    int id = UNMAPPED;
-
-    /**
-     * The source file index.
-     */
-    String sourceFile;
+  private static class UsedMappingCheck implements MappingVisitor {
+    private final BitSet used;
 
-    /**
-     * The position of the code in the input source file. Both
-     * the line number and the character index are indexed by
-     * 1 for legacy reasons via the Rhino Node class.
-     */
-    FilePosition originalPosition;
-
-    /**
-     * The starting position of the code in the generated source
-     * file which this mapping represents. Indexed by 0.
-     */
-    FilePosition startPosition;
-
-    /**
-     * The ending position of the code in the generated source
-     * file which this mapping represents. Indexed by 0.
-     */
-    FilePosition endPosition;
-
-    /**
-     * The original name of the token found at the position
-     * represented by this mapping (if any).
-     */
-    String originalName;
-
-    /**
-     * Whether the mapping is actually used by the source map.
-     */
-    boolean used = false;
-  }
+    UsedMappingCheck(BitSet used) {
+      this.used = used;
+    }
 
-  /**
-   * Mark any visited mapping as "used".
-   */
-  private class UsedMappingCheck implements MappingVisitor {
     /**
      * @throws IOException
      */
     @Override
-    public void visit(Mapping m, int line, int col, int nextLine, int nextCol)
+    public void visit(int m, int line, int col, int nextLine, int nextCol)
         throws IOException {
-      if (m != null) {
-        m.used = true;
+      if (m != UNMAPPED) {
+        used.set(m);
       }
     }
   }
 
   private interface MappingVisitor {
     /**
-     * @param m The mapping for the current code segment. null if the segment
-     *     is unmapped.
+     * @param m The index of the mapping for the current code segment.
+     *     UNMAPPED if the segment is unmapped.
      * @param line The starting line for this code segment.
      * @param col The starting column for this code segment.
      * @param endLine The ending line
      * @param endCol The ending column
      * @throws IOException
      */
-    void visit(Mapping m, int line, int col, int endLine, int endCol)
+    void visit(int m, int line, int col, int endLine, int endCol)
         throws IOException;
   }
 
   /**
    * Walk the mappings and visit each segment of the mappings, unmapped
-   * segments are visited with a null mapping, unused mapping are not visited.
+   * segments are visited with UNMAPPED, unused mapping are not visited.
    */
   private class MappingTraversal {
     // The last line and column written
@@ -646,29 +731,33 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
       // The mapping list is ordered as a pre-order traversal.  The mapping
       // positions give us enough information to rebuild the stack and this
       // allows the building of the source map in O(n) time.
-      Deque<Mapping> stack = new ArrayDeque<>();
-      for (Mapping m : mappings) {
+      int[] stack = new int[16];
+      int depth = 0;
+      for (int m = 0; m < mappingCount; m++) {
         // Find the closest ancestor of the current mapping:
         // An overlapping mapping is an ancestor of the current mapping, any
         // non-overlapping mappings are siblings (or cousins) and must be
         // closed in the reverse order of when they encountered.
-        while (!stack.isEmpty() && !isOverlapped(stack.peek(), m)) {
-          Mapping previous = stack.pop();
+        while (depth > 0 && !isOverlapped(stack[depth - 1], m)) {
+          int previous = stack[--depth];
           maybeVisit(v, previous);
         }
 
         // Any gaps between the current line position and the start of the
         // current mapping belong to the parent.
-        Mapping parent = stack.peek();
+        int parent = depth > 0 ? stack[depth - 1] : UNMAPPED;
         maybeVisitParent(v, parent, m);
 
-        stack.push(m);
+        if (depth == stack.length) {
+          stack = Arrays.copyOf(stack, 2 * depth);
+        }
+        stack[depth++] = m;
       }
 
       // There are no more children to be had, simply close the remaining
       // mappings in the reverse order of when they encountered.
-      while (!stack.isEmpty()) {
-        Mapping m = stack.pop();
+      while (depth > 0) {
+        int m = stack[--depth];
         maybeVisit(v, m);
       }
     }
@@ -676,16 +765,14 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
     /**
      * @return The line adjusted for the prefix position.
      */
-    private int getAdjustedLine(FilePosition p) {
-      return p.getLine() + prefixPosition.getLine();
+    private int getAdjustedLine(int rawLine) {
+      return rawLine + prefixPosition.getLine();
     }
 
     /**
      * @return The column adjusted for the prefix position.
      */
-    private int getAdjustedCol(FilePosition p) {
-      int rawLine = p.getLine();
-      int rawCol = p.getColumn();
+    private int getAdjustedCol(int rawLine, int rawCol) {
       // Only the first line needs the character position adjusted.
       return (rawLine != 0)
           ? rawCol : rawCol + prefixPosition.getColumn();
@@ -694,12 +781,12 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
     /**
      * @return Whether m1 ends before m2 starts.
      */
-    private boolean isOverlapped(Mapping m1, Mapping m2) {
+    private boolean isOverlapped(int m1, int m2) {
       // No need to use adjusted values here, relative positions are sufficient.
-      int l1 = m1.endPosition.getLine();
-      int l2 = m2.startPosition.getLine();
-      int c1 = m1.endPosition.getColumn();
-      int c2 = m2.startPosition.getColumn();
+      int l1 = mappings[m1 * MAPPING_SIZE + END_LINE];
+      int l2 = mappings[m2 * MAPPING_SIZE + START_LINE];
+      int c1 = mappings[m1 * MAPPING_SIZE + END_COLUMN];
+      int c2 = mappings[m2 * MAPPING_SIZE + START_COLUMN];
 
       return (l1 == l2 && c1 >= c2) || l1 > l2;
     }
@@ -708,9 +795,11 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
      * Write any needed entries from the current position to the end of the
      * provided mapping.
      */
-    private void maybeVisit(MappingVisitor v, Mapping m) throws IOException {
-      int nextLine = getAdjustedLine(m.endPosition);
-      int nextCol = getAdjustedCol(m.endPosition);
+    private void maybeVisit(MappingVisitor v, int m) throws IOException {
+      int endLine = mappings[m * MAPPING_SIZE + END_LINE];
+      int nextLine = getAdjustedLine(endLine);
+      int nextCol = getAdjustedCol(
+          endLine, mappings[m * MAPPING_SIZE + END_COLUMN]);
       // If this anything remaining in this mapping beyond the
       // current line and column position, write it out now.
       if (line < nextLine || (line == nextLine && col < nextCol)) {
@@ -721,11 +810,13 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
     /**
      * Write any needed entries to complete the provided mapping.
      */
-    private void maybeVisitParent(MappingVisitor v, Mapping parent, Mapping m)
+    private void maybeVisitParent(MappingVisitor v, int parent, int m)
         throws IOException {
-      int nextLine = getAdjustedLine(m.startPosition);
-      int nextCol = getAdjustedCol(m.startPosition);
-      // If the previous value is null, no mapping exists.
+      int startLine = mappings[m * MAPPING_SIZE + START_LINE];
+      int nextLine = getAdjustedLine(startLine);
+      int nextCol = getAdjustedCol(
+          startLine, mappings[m * MAPPING_SIZE + START_COLUMN]);
+      // If the previous value is UNMAPPED, no mapping exists.
       Preconditions.checkState(line < nextLine || col <= nextCol);
       if (line < nextLine || (line == nextLine && col < nextCol)) {
         visit(v, parent, nextLine, nextCol);
@@ -736,7 +827,7 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
      * Write any entries needed between the current position the next position
      * and update the current position.
      */
-    private void visit(MappingVisitor v, Mapping m,
+    private void visit(MappingVisitor v, int m,
         int nextLine, int nextCol)
         throws IOException {
       Preconditions.checkState(line <= nextLine);
@@ -813,12 +904,13 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
   private int getSourceId(String sourceName) {
     if (sourceName != lastSourceFile) {
       lastSourceFile = sourceName;
-      Integer index = sourceFileMap.get(sourceName);
+      Integer index = sourceFileIds.get(sourceName);
       if (index != null) {
         lastSourceFileIndex = index;
       } else {
-        lastSourceFileIndex = sourceFileMap.size();
-        sourceFileMap.put(sourceName, lastSourceFileIndex);
+        lastSourceFileIndex = sourceFiles.size();
+        sourceFileIds.put(sourceName, lastSourceFileIndex);
+        sourceFiles.add(sourceName);
       }
     }
     return lastSourceFileIndex;
@@ -826,12 +918,13 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
 
   private int getNameId(String symbolName) {
     int originalNameIndex;
-    Integer index = originalNameMap.get(symbolName);
+    Integer index = originalNameIds.get(symbolName);
     if (index != null) {
       originalNameIndex = index;
     } else {
-      originalNameIndex = originalNameMap.size();
-      originalNameMap.put(symbolName, originalNameIndex);
+      originalNameIndex = originalNames.size();
+      originalNameIds.put(symbolName, originalNameIndex);
+      originalNames.add(symbolName);
     }
     return originalNameIndex;
   }
@@ -841,6 +934,14 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
     private final Appendable out;
     private final int maxLine; // TODO(johnlenz): This shouldn't be necessary to track.
 
+    // The source and original names written out, in the order they are
+    // first used, and the ids they are written with, by the ids in the
+    // mappings.
+    final List<String> writtenSourceFiles = new ArrayList<>();
+    final List<String> writtenOriginalNames = new ArrayList<>();
+    private final int[] sourceFileOutputIds = newOutputIds(sourceFiles);
+    private final int[] originalNameOutputIds = newOutputIds(originalNames);
+
     private int previousLine = -1;
     private int previousColumn = 0;
 
@@ -859,7 +960,7 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
      * As each segment is visited write out the appropriate line mapping.
      */
     @Override
-    public void visit(Mapping m, int line, int col, int nextLine, int nextCol)
+    public void visit(int m, int line, int col, int nextLine, int nextCol)
       throws IOException {
       if (previousLine != line) {
         previousColumn = 0;
@@ -877,7 +978,7 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
           previousLine = line;
           previousColumn = col;
         } else {
-          Preconditions.checkState(m == null);
+          Preconditions.checkState(m == UNMAPPED);
         }
       }
 
@@ -897,34 +998,58 @@ public final class SourceMapGeneratorV3 implements SourceMapGenerator {
      * The values are stored as relative to the last seen values for each
      * field and encoded as Base64VLQs.
      */
-    void writeEntry(Mapping m, int column) throws IOException {
+    void writeEntry(int m, int column) throws IOException {
       // The relative generated column number
       Base64VLQ.encode(out, column - previousColumn);
       previousColumn = column;
-      if (m != null) {
+      if (m != UNMAPPED) {
+        int offset = m * MAPPING_SIZE;
+
         // The relative source file id
-        int sourceId = getSourceId(m.sourceFile);
+        int sourceId = getOutputId(sourceFileOutputIds, sourceFiles,
+            writtenSourceFiles, mappings[offset + SOURCE_FILE]);
         Base64VLQ.encode(out, sourceId - previousSourceFileId);
         previousSourceFileId = sourceId;
 
         // The relative source file line and column
-        int srcline = m.originalPosition.getLine();
-        int srcColumn = m.originalPosition.getColumn();
+        int srcline = mappings[offset + ORIGINAL_LINE];
+        int srcColumn = mappings[offset + ORIGINAL_COLUMN];
         Base64VLQ.encode(out, srcline - previousSourceLine);
         previousSourceLine = srcline;
 
         Base64VLQ.encode(out, srcColumn - previousSourceColumn);
         previousSourceColumn = srcColumn;
 
-        if (m.originalName != null) {
+        int originalName = mappings[offset + ORIGINAL_NAME];
+        if (originalName != UNMAPPED) {
           // The relative id for the associated symbol name
-          int nameId = getNameId(m.originalName);
+          int nameId = getOutputId(originalNameOutputIds, originalNames,
+              writtenOriginalNames, originalName);
           Base64VLQ.encode(out, (nameId - previousNameId));
           previousNameId = nameId;
         }
       }
     }
 
+    private int[] newOutputIds(List<String> names) {
+      int[] ids = new int[names.size()];
+      Arrays.fill(ids, UNMAPPED);
+      return ids;
+    }
+
+    /**
+     * Returns the id a name is written out with, numbering the names in the
+     * order they are first used.
+     */
+    private int getOutputId(
+        int[] outputIds, List<String> names, List<String> written, int id) {
+      if (outputIds[id] == UNMAPPED) {
+        outputIds[id] = written.size();
+        written.add(names.get(id));
+      }
+      return outputIds[id];
+    }
+
     // Append the line mapping entries.
     void appendLineMappings() throws IOException {
       // Start the first line.
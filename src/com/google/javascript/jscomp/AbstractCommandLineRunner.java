@@ -29,6 +29,11 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.io.ByteStreams;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.google.javascript.jscomp.CompilerOptions.TweakProcessing;
 import com.google.javascript.jscomp.deps.ClosureBundler;
 import com.google.javascript.jscomp.deps.SourceCodeEscapers;
@@ -37,18 +42,24 @@ import com.google.javascript.rhino.TokenStream;
 import com.google.protobuf.CodedOutputStream;
 
 import java.io.BufferedInputStream;
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.Flushable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintStream;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -171,6 +182,14 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
 
   private Map<String, String> parsedModuleWrappers = null;
 
+  // Whether this runner serves a single request of a persistent worker.
+  private boolean workerRequest = false;
+
+  // The builtin externs for each environment, shared between the requests
+  // of a persistent worker.
+  private Map<CompilerOptions.Environment, List<SourceFile>>
+      builtinExternsCache = null;
+
   static final String OUTPUT_MARKER = "%output%";
   private static final String OUTPUT_MARKER_JS_STRING = "%output|jsstring%";
 
@@ -432,6 +451,7 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
     options.moduleRoots = config.moduleRoots;
     options.angularPass = config.angularPass;
     options.tracer = config.tracerMode;
+    options.astCacheDirectory = config.astCacheDirectory;
     options.useNewTypeInference = config.useNewTypeInference;
   }
 
@@ -508,6 +528,26 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
     return externs;
   }
 
+  /**
+   * Returns the builtin externs for the given options. A persistent worker
+   * reads them once per environment and shares them between its requests.
+   *
+   * @return a mutable list
+   */
+  protected List<SourceFile> loadBuiltinExterns(CompilerOptions options)
+      throws IOException {
+    if (builtinExternsCache == null) {
+      return getBuiltinExterns(options);
+    }
+    List<SourceFile> externs =
+        builtinExternsCache.get(options.getEnvironment());
+    if (externs == null) {
+      externs = getBuiltinExterns(options);
+      builtinExternsCache.put(options.getEnvironment(), externs);
+    }
+    return new ArrayList<>(externs);
+  }
+
   /**
    * Runs the Compiler and calls System.exit() with the exit status of the
    * compiler.
@@ -534,6 +574,133 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
     }
   }
 
+  /**
+   * Creates the runner for a single request of a persistent worker, or
+   * returns null if the arguments are invalid, after reporting why to
+   * {@code err}. Runners that can serve as a persistent worker override
+   * this; the default fails every request, so {@link #runWorker} answers
+   * each one with an error rather than compiling.
+   */
+  protected AbstractCommandLineRunner<A, B> createWorkerRequestRunner(
+      String[] args, PrintStream out, PrintStream err) {
+    throw new UnsupportedOperationException(getClass().getName()
+        + " does not support worker mode: it does not override"
+        + " createWorkerRequestRunner.");
+  }
+
+  /**
+   * Runs as a persistent worker that serves compile requests read from
+   * {@code in} until the end of the stream, so that JVM startup, class
+   * loading, JIT warm-up and reading the builtin externs are paid once
+   * rather than per compile.
+   *
+   * Each request is a single line holding a JSON array of command-line
+   * arguments. Each response is a single line holding a JSON object with
+   * the request's exit code, its wall time in milliseconds, and the text it
+   * wrote to stdout and stderr. Requests are served one at a time.
+   */
+  public final void runWorker(InputStream in, OutputStream out)
+      throws IOException {
+    if (builtinExternsCache == null) {
+      builtinExternsCache = new HashMap<>();
+    }
+    BufferedReader requests =
+        new BufferedReader(new InputStreamReader(in, UTF_8));
+    Writer responses = new BufferedWriter(new OutputStreamWriter(out, UTF_8));
+    for (String request; (request = requests.readLine()) != null; ) {
+      if (request.trim().isEmpty()) {
+        continue;
+      }
+      responses.write(processWorkerRequest(request));
+      responses.write('\n');
+      responses.flush();
+    }
+  }
+
+  /**
+   * Runs as a persistent worker that accepts connections on the given port
+   * of the loopback interface, one at a time, and serves the requests of
+   * each connection as {@link #runWorker(InputStream, OutputStream)} does.
+   * Never returns normally.
+   */
+  public final void runWorker(int port) throws IOException {
+    try (ServerSocket server =
+        new ServerSocket(port, 0, InetAddress.getLoopbackAddress())) {
+      while (true) {
+        try (Socket socket = server.accept()) {
+          runWorker(socket.getInputStream(), socket.getOutputStream());
+        }
+      }
+    }
+  }
+
+  /**
+   * Runs one worker request and returns the JSON response.
+   */
+  @VisibleForTesting
+  String processWorkerRequest(String request) throws IOException {
+    ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+    ByteArrayOutputStream errBytes = new ByteArrayOutputStream();
+    PrintStream requestOut = new PrintStream(outBytes, true, UTF_8.name());
+    PrintStream requestErr = new PrintStream(errBytes, true, UTF_8.name());
+
+    long startTime = System.currentTimeMillis();
+    int exitCode;
+    try {
+      AbstractCommandLineRunner<A, B> runner = createWorkerRequestRunner(
+          parseWorkerRequest(request), requestOut, requestErr);
+      if (runner == null) {
+        exitCode = -1;
+      } else {
+        runner.workerRequest = true;
+        runner.builtinExternsCache = builtinExternsCache;
+        exitCode = runner.doRun();
+      }
+    } catch (FlagUsageException e) {
+      requestErr.println(e.getMessage());
+      exitCode = -1;
+    } catch (Throwable t) {
+      t.printStackTrace(requestErr);
+      exitCode = -2;
+    }
+    long elapsedTime = System.currentTimeMillis() - startTime;
+
+    requestOut.flush();
+    requestErr.flush();
+    JsonObject response = new JsonObject();
+    response.addProperty("exitCode", exitCode);
+    response.addProperty("elapsedMillis", elapsedTime);
+    response.addProperty("stdout", outBytes.toString(UTF_8.name()));
+    response.addProperty("stderr", errBytes.toString(UTF_8.name()));
+    return response.toString();
+  }
+
+  private static String[] parseWorkerRequest(String request)
+      throws FlagUsageException {
+    FlagUsageException malformed = new FlagUsageException(
+        "Malformed worker request, expected a JSON array of strings: "
+        + request);
+    JsonElement json;
+    try {
+      json = new JsonParser().parse(request);
+    } catch (JsonParseException e) {
+      throw malformed;
+    }
+    if (!json.isJsonArray()) {
+      throw malformed;
+    }
+    JsonArray array = json.getAsJsonArray();
+    String[] args = new String[array.size()];
+    int i = 0;
+    for (JsonElement arg : array) {
+      if (!arg.isJsonPrimitive()) {
+        throw malformed;
+      }
+      args[i++] = arg.getAsString();
+    }
+    return args;
+  }
+
   /**
    * Returns the PrintStream for writing errors associated with this
    * AbstractCommandLineRunner.
@@ -593,6 +760,10 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
         if (!allowStdIn) {
           throw new FlagUsageException("Can't specify stdin.");
         }
+        if (workerRequest) {
+          throw new FlagUsageException(
+              "Can't read from stdin in worker mode.");
+        }
         if (usingStdin) {
           throw new FlagUsageException("Can't specify stdin twice.");
         }
@@ -865,9 +1036,9 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
 
     String fileName = getModuleOutputFileName(m);
     String baseName = new File(fileName).getName();
-    writeOutput(out, compiler, compiler.toSource(m),
+    writeOutput(out, compiler, m,
         parsedModuleWrappers.get(m.getName()).replace("%basename%", baseName),
-        "%s", null);
+        "%s");
   }
 
   /**
@@ -909,6 +1080,45 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
     }
   }
 
+  /**
+   * Like {@link #writeOutput(Appendable, Compiler, String, String, String,
+   * Function)}, but streams the code of the given module, or of the whole
+   * program if the module is null, to the output as it is printed instead of
+   * building it in memory first.
+   */
+  static void writeOutput(Appendable out, Compiler compiler,
+      @Nullable JSModule module, String wrapper, String codePlaceholder)
+      throws IOException {
+    int pos = wrapper.indexOf(codePlaceholder);
+    String prefix = "";
+    if (pos > 0) {
+      prefix = wrapper.substring(0, pos);
+      out.append(prefix);
+    }
+
+    if (module == null) {
+      compiler.toSource(out);
+    } else {
+      compiler.toSource(out, module);
+    }
+
+    if (pos != -1) {
+      int suffixStart = pos + codePlaceholder.length();
+      if (suffixStart != wrapper.length()) {
+        // Something after placeholder?
+        out.append(wrapper.substring(suffixStart));
+      }
+    }
+    // Make sure we always end output with a line feed.
+    out.append('\n');
+
+    // If we have a source map, adjust its offsets to match
+    // the code WITHIN the wrapper.
+    if (pos != -1 && compiler.getSourceMap() != null) {
+      compiler.getSourceMap().setWrapperPrefix(prefix);
+    }
+  }
+
   /**
    * Creates any directories necessary to write a file that will have a given
    * path prefix.
@@ -1112,9 +1322,13 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
     }
 
     Appendable jsOutput = createDefaultOutput();
-    writeOutput(
-        jsOutput, compiler, compiler.toSource(), config.outputWrapper,
-        marker, escaper);
+    if (escaper == null) {
+      writeOutput(jsOutput, compiler, null, config.outputWrapper, marker);
+    } else {
+      writeOutput(
+          jsOutput, compiler, compiler.toSource(), config.outputWrapper,
+          marker, escaper);
+    }
     closeAppendable(jsOutput);
   }
 
@@ -2248,6 +2462,17 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
       return this;
     }
 
+    private String astCacheDirectory = null;
+
+    /**
+     * Sets a directory in which the parsed externs and inputs are cached
+     * between compilations.
+     */
+    CommandLineConfig setAstCacheDirectory(String astCacheDirectory) {
+      this.astCacheDirectory = astCacheDirectory;
+      return this;
+    }
+
     private boolean useNewTypeInference = false;
 
     CommandLineConfig setNewTypeInference(boolean useNewTypeInference) {
@@ -127,6 +127,12 @@ public abstract class AbstractCompiler implements SourceExcerptProvider {
    */
   public abstract void report(JSError error);
 
+  /**
+   * Makes {@link #report} add the errors of the current thread to the given
+   * buffer instead of reporting them, until it's called again with null.
+   */
+  abstract void setReportBuffer(@Nullable List<JSError> buffer);
+
   /**
    * Report an internal error.
    */
@@ -267,6 +273,11 @@ public abstract class AbstractCompiler implements SourceExcerptProvider {
   /** Passes that do cross-scope modifications use this (eg, InlineVariables) */
   abstract void reportChangeToEnclosingScope(Node n);
 
+  /**
+   * Returns the analyses that passes share until the code changes.
+   */
+  abstract AnalysisCache getAnalysisCache();
+
   /**
    * Returns true if compiling in IDE mode.
    */
@@ -293,6 +304,13 @@ public abstract class AbstractCompiler implements SourceExcerptProvider {
    */
   abstract Config getParserConfig(ConfigContext context);
 
+  /**
+   * Returns the cache of parsed ASTs to use for sources parsed in the given
+   * context, or null if those sources should always be parsed.
+   */
+  @Nullable
+  abstract PersistentAstCache getAstCache(ConfigContext context);
+
   /**
    * Normalizes the types of AST nodes in the given tree, and
    * annotates any nodes to which the coding convention applies so that passes
@@ -14,20 +14,17 @@
  * limitations under the License.
  */
 
-package com.google.javascript.jscomp.newtypes;
+package com.google.javascript.jscomp;
 
-import java.util.AbstractSet;
-
-/** A wrapper around a naive persistent set. */
-abstract class PersistentSet<K> extends AbstractSet<K> {
-  private static final PersistentSet EMPTY = NaivePersistentSet.create();
-
-  public abstract PersistentSet<K> with(K key);
+/**
+ * A {@link FunctionLocalPass} that needs no setup to process functions on a
+ * thread.
+ */
+abstract class AbstractFunctionLocalPass implements FunctionLocalPass {
 
-  public abstract PersistentSet<K> without(K key);
+  @Override
+  public void beginFunctions() {}
 
-  @SuppressWarnings("unchecked")
-  public static <K> PersistentSet<K> create()  {
-    return EMPTY;
-  }
+  @Override
+  public void endFunctions() {}
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.javascript.rhino.Node;
+
+/**
+ * Whole-program analyses that several passes compute in the same way, kept
+ * so that a pass can reuse the result of an earlier one instead of
+ * traversing the AST again.
+ * <p>
+ * A result is only valid for the AST it was computed on, so any reported
+ * code change drops all of them. Passes that change the AST without
+ * reporting it must not be followed by users of the cache. The exception
+ * are the memoized scopes, which inside the optimization loop only need to
+ * be dropped for the functions that changed, if the change is reported with
+ * {@link AbstractCompiler#reportChangeToEnclosingScope}.
+ * <p>
+ * Users may read the results but not change them, except together with the
+ * AST changes that they report.
+ *
+ */
+final class AnalysisCache implements CodeChangeHandler {
+  private final AbstractCompiler compiler;
+
+  private GlobalNamespace namespace;
+  private Node namespaceExternsRoot;
+  private Node namespaceRoot;
+
+  private ReferenceCollectingCallback references;
+  private Node referencesRoot;
+
+  private final MemoizedSyntacticScopeCreator scopeCreator;
+  private final MemoizedSyntacticScopeCreator es6ScopeCreator;
+  // Whether the PhaseOptimizer stamps the functions that code changes in.
+  private boolean trackingChangedScopes = false;
+
+  AnalysisCache(AbstractCompiler compiler) {
+    this.compiler = compiler;
+    this.scopeCreator = new MemoizedSyntacticScopeCreator(
+        compiler, SyntacticScopeCreator.makeUntyped(compiler));
+    this.es6ScopeCreator = new MemoizedSyntacticScopeCreator(
+        compiler, new Es6SyntacticScopeCreator(compiler));
+  }
+
+  @Override
+  public synchronized void reportChange() {
+    clear();
+  }
+
+  /**
+   * Drops the results for a change that the PhaseOptimizer stamped on the
+   * function that it happened in. Inside the optimization loop, the memoized
+   * scopes of the other functions stay valid. A plain code change may be in
+   * any function, even if the PhaseOptimizer stamps the one being traversed,
+   * so it drops them all.
+   */
+  synchronized void reportStampedChange() {
+    clearAnalyses();
+    if (!trackingChangedScopes) {
+      clearScopes();
+    }
+  }
+
+  /** Drops all the results, for example to let them be garbage collected. */
+  synchronized void clear() {
+    clearAnalyses();
+    clearScopes();
+  }
+
+  private void clearAnalyses() {
+    namespace = null;
+    namespaceExternsRoot = null;
+    namespaceRoot = null;
+    references = null;
+    referencesRoot = null;
+  }
+
+  private void clearScopes() {
+    scopeCreator.clear();
+    es6ScopeCreator.clear();
+  }
+
+  /**
+   * Records whether the PhaseOptimizer stamps functions with the time of the
+   * changes in them, as it does in the optimization loop. The change stamps
+   * of different loops can't be compared, so this drops the memoized scopes.
+   */
+  synchronized void setTrackingChangedScopes(boolean tracking) {
+    trackingChangedScopes = tracking;
+    clearScopes();
+  }
+
+  /**
+   * Returns a memoizing version of {@link SyntacticScopeCreator#makeUntyped}.
+   */
+  MemoizedSyntacticScopeCreator getScopeCreator() {
+    return scopeCreator;
+  }
+
+  /** Returns a memoizing version of {@link Es6SyntacticScopeCreator}. */
+  MemoizedSyntacticScopeCreator getEs6ScopeCreator() {
+    return es6ScopeCreator;
+  }
+
+  /**
+   * Returns the memoizing version of the scope creator that a
+   * {@link NodeTraversal} uses by default.
+   */
+  MemoizedSyntacticScopeCreator getDefaultScopeCreator() {
+    return compiler.getLanguageMode().isEs6OrHigher()
+        ? es6ScopeCreator : scopeCreator;
+  }
+
+  /**
+   * Returns the global namespace of the given tree, as built by
+   * {@code new GlobalNamespace(compiler, root)}.
+   */
+  GlobalNamespace getGlobalNamespace(Node root) {
+    return getGlobalNamespace(null, root);
+  }
+
+  /**
+   * Returns the global namespace of the given trees, as built by
+   * {@code new GlobalNamespace(compiler, externsRoot, root)}. The externs
+   * root may be null.
+   */
+  synchronized GlobalNamespace getGlobalNamespace(
+      Node externsRoot, Node root) {
+    if (namespace == null
+        || namespaceExternsRoot != externsRoot || namespaceRoot != root) {
+      // The namespace builds its index lazily, on first use.
+      namespace = new GlobalNamespace(compiler, externsRoot, root);
+      namespaceExternsRoot = externsRoot;
+      namespaceRoot = root;
+    }
+    return namespace;
+  }
+
+  /**
+   * Returns the references to all the variables declared in the given tree,
+   * as collected by a {@link ReferenceCollectingCallback} with
+   * {@link ReferenceCollectingCallback#DO_NOTHING_BEHAVIOR} traversing it
+   * with {@link NodeTraversal#traverseEs6}.
+   */
+  synchronized ReferenceCollectingCallback getReferences(Node root) {
+    if (references == null || referencesRoot != root) {
+      ReferenceCollectingCallback callback = new ReferenceCollectingCallback(
+          compiler, ReferenceCollectingCallback.DO_NOTHING_BEHAVIOR);
+      NodeTraversal.traverseEs6(compiler, root, callback);
+      references = callback;
+      referencesRoot = root;
+    }
+    return references;
+  }
+}
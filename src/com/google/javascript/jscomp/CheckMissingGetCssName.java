@@ -17,6 +17,7 @@ package com.google.javascript.jscomp;
 
 import com.google.common.annotations.GwtIncompatible;
 import com.google.javascript.jscomp.NodeTraversal.AbstractPostOrderCallback;
+import com.google.javascript.jscomp.NodeTraversal.Callback;
 import com.google.javascript.rhino.Node;
 
 import java.util.regex.Matcher;
@@ -30,7 +31,7 @@ import java.util.regex.Pattern;
  */
 @GwtIncompatible("java.util.regex")
 class CheckMissingGetCssName
-    extends AbstractPostOrderCallback implements CompilerPass {
+    extends AbstractPostOrderCallback implements ReadOnlyTraversalPass {
   private final AbstractCompiler compiler;
   private final CheckLevel level;
   private final Matcher blacklist;
@@ -56,6 +57,11 @@ class CheckMissingGetCssName
     NodeTraversal.traverseEs6(compiler, root, this);
   }
 
+  @Override
+  public Callback getCallback() {
+    return this;
+  }
+
   @Override
   public void visit(NodeTraversal t, Node n, Node parent) {
     if (n.isString() &&
@@ -17,6 +17,7 @@
 package com.google.javascript.jscomp;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import com.google.javascript.jscomp.DefaultPassConfig.HotSwapPassFactory;
 import com.google.javascript.jscomp.GlobalVarReferenceMap.GlobalVarRefCleanupPass;
 import com.google.javascript.rhino.FunctionTypeI;
@@ -106,7 +107,17 @@ class CleanupPasses extends PassConfig {
       if (creator instanceof MemoizedScopeCreator) {
         MemoizedScopeCreator scopeCreator = (MemoizedScopeCreator) creator;
         String newSrc = scriptRoot.getSourceFileName();
-        for (TypedVar var : scopeCreator.getAllSymbols()) {
+        // The function types of the script are held by the variables that it
+        // declares: those of its own scopes and its global variables.
+        List<TypedVar> vars = new ArrayList<>();
+        for (TypedScope scope : scopeCreator.getScopesForScript(newSrc)) {
+          Iterables.addAll(vars, scope.getAllSymbols());
+        }
+        TypedScope topScope = compiler.getTopScope();
+        if (topScope != null) {
+          vars.addAll(topScope.getVarsDeclaredIn(newSrc));
+        }
+        for (TypedVar var : vars) {
           TypeI type = var.getType();
           if (type != null) {
             FunctionTypeI fnType = type.toMaybeFunctionType();
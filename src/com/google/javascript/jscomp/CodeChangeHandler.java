@@ -18,6 +18,9 @@ package com.google.javascript.jscomp;
 
 /**
  * A simple listener for code change events.
+ * <p>
+ * When function-local passes run on several threads, changes are reported
+ * concurrently, so handlers must be safe to call from any thread.
  * @author nicksantos@google.com (Nick Santos)
  * @author dimvar@google.com (Dimitris Vardoulakis)
  */
@@ -25,6 +25,7 @@ import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.Token;
 import com.google.javascript.rhino.TypeIRegistry;
 
+import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
@@ -39,6 +40,10 @@ public final class CodePrinter {
   // The number of characters after which we insert a line break in the code
   static final int DEFAULT_LINE_LENGTH_THRESHOLD = 500;
 
+  // The number of characters buffered before the code that can no longer
+  // change is written to the output, when printing to an output.
+  static final int FLUSH_THRESHOLD = 8192;
+
 
   // There are two separate CodeConsumers, one for pretty-printing and
   // another for compact printing.
@@ -52,16 +57,25 @@ public final class CodePrinter {
     private final List<Mapping> allMappings;
     private final boolean createSrcMap;
     private final SourceMap.DetailLevel sourceMapDetailLevel;
+    // The output to which the code is flushed as it is printed, or null to
+    // keep all of the code in memory.
+    private final Appendable out;
+    // The code that has not been flushed to the output yet. Positions in the
+    // code are absolute, so that they stay valid across flushes.
     protected final StringBuilder code = new StringBuilder(1024);
+    private int flushedLength = 0;
+    private char lastFlushedChar = '\0';
     protected final int lineLengthThreshold;
     protected int lineLength = 0;
     protected int lineIndex = 0;
 
     MappedCodePrinter(
+        Appendable out,
         int lineLengthThreshold,
         boolean createSrcMap,
         SourceMap.DetailLevel sourceMapDetailLevel) {
       Preconditions.checkState(sourceMapDetailLevel != null);
+      this.out = out;
       this.lineLengthThreshold = lineLengthThreshold <= 0 ? Integer.MAX_VALUE :
         lineLengthThreshold;
       this.createSrcMap = createSrcMap;
@@ -202,12 +216,66 @@ public final class CodePrinter {
     }
 
     public String getCode() {
+      Preconditions.checkState(out == null);
       return code.toString();
     }
 
     @Override
     char getLastChar() {
-      return (code.length() > 0) ? code.charAt(code.length() - 1) : '\0';
+      return (code.length() > 0)
+          ? code.charAt(code.length() - 1) : lastFlushedChar;
+    }
+
+    /**
+     * Returns the length of the code printed so far, including the code
+     * already flushed to the output.
+     */
+    protected final int getCodeLength() {
+      return flushedLength + code.length();
+    }
+
+    /** Returns the length of the code already flushed to the output. */
+    protected final int getFlushedLength() {
+      return flushedLength;
+    }
+
+    /**
+     * Returns the position of the first character of the code that may
+     * still change. The code before it can be flushed to the output.
+     */
+    int getMutableCodeStart() {
+      return getCodeLength();
+    }
+
+    /**
+     * Flushes the code that can no longer change to the output, if there is
+     * an output and enough code has accumulated.
+     */
+    protected final void maybeFlush() {
+      if (out != null && code.length() >= FLUSH_THRESHOLD) {
+        flush(getMutableCodeStart() - flushedLength);
+      }
+    }
+
+    /** Flushes all the code to the output. */
+    final void flushAll() {
+      if (out != null) {
+        flush(code.length());
+      }
+    }
+
+    private void flush(int length) {
+      if (length <= 0) {
+        return;
+      }
+      try {
+        out.append(code, 0, length);
+      } catch (IOException e) {
+        throw new OutputException(e);
+      }
+      lastFlushedChar = code.charAt(length - 1);
+      code.delete(0, length);
+      flushedLength += length;
     }
 
     protected final int getCurrentCharIndex() {
@@ -234,10 +302,11 @@ public final class CodePrinter {
      *     into the source map.
      */
     private PrettyCodePrinter(
+        Appendable out,
         int lineLengthThreshold,
         boolean createSourceMap,
         SourceMap.DetailLevel sourceMapDetailLevel) {
-      super(lineLengthThreshold, createSourceMap, sourceMapDetailLevel);
+      super(out, lineLengthThreshold, createSourceMap, sourceMapDetailLevel);
     }
 
     /**
@@ -260,6 +329,7 @@ public final class CodePrinter {
         lineIndex += newlines;
         lineLength = str.length() - str.lastIndexOf('\n');
       }
+      maybeFlush();
     }
 
     /**
@@ -441,10 +511,10 @@ public final class CodePrinter {
    * @param sourceMapDetailLevel A filter to control which nodes get mapped into
    *     the source map.
    */
-    private CompactCodePrinter(boolean lineBreak,
+    private CompactCodePrinter(Appendable out, boolean lineBreak,
         boolean preferLineBreakAtEndOfFile, int lineLengthThreshold,
         boolean createSrcMap, SourceMap.DetailLevel sourceMapDetailLevel) {
-      super(lineLengthThreshold, createSrcMap, sourceMapDetailLevel);
+      super(out, lineLengthThreshold, createSrcMap, sourceMapDetailLevel);
       this.lineBreak = lineBreak;
       this.preferLineBreakAtEndOfFile = preferLineBreakAtEndOfFile;
     }
@@ -462,6 +532,7 @@ public final class CodePrinter {
         lineIndex += newlines;
         lineLength = str.length() - str.lastIndexOf('\n');
       }
+      maybeFlush();
     }
 
     /**
@@ -470,15 +541,26 @@ public final class CodePrinter {
     @Override
     void startNewLine() {
       if (lineLength > 0) {
-        prevCutPosition = code.length();
+        prevCutPosition = getCodeLength();
         prevLineStartPosition = lineStartPosition;
         code.append('\n');
         lineLength = 0;
         lineIndex++;
-        lineStartPosition = code.length();
+        lineStartPosition = getCodeLength();
+        maybeFlush();
       }
     }
 
+    /**
+     * A line break may still be inserted in the current line, and the line
+     * break that ended the previous line may still be moved to the end of
+     * the file.
+     */
+    @Override
+    int getMutableCodeStart() {
+      return prevCutPosition > 0 ? prevCutPosition : lineStartPosition;
+    }
+
     @Override
     void maybeLineBreak() {
       if (lineBreak) {
@@ -491,9 +573,9 @@ public final class CodePrinter {
       // Since we are at a legal line break, can we upgrade the
       // preferred break position?  We prefer to break after a
       // semicolon rather than before it.
-      int len = code.length();
+      int len = getCodeLength();
       if (preferredBreakPosition == len - 1) {
-        char ch = code.charAt(len - 1);
+        char ch = getLastChar();
         if (ch == ';') {
           preferredBreakPosition = len;
         }
@@ -512,7 +594,7 @@ public final class CodePrinter {
         if (preferredBreakPosition > lineStartPosition &&
             preferredBreakPosition < lineStartPosition + lineLength) {
           int position = preferredBreakPosition;
-          code.insert(position, '\n');
+          code.insert(position - getFlushedLength(), '\n');
           prevCutPosition = position;
           reportLineCut(lineIndex, position - lineStartPosition, true);
           lineIndex++;
@@ -526,7 +608,7 @@ public final class CodePrinter {
 
     @Override
     void notePreferredLineBreak() {
-      preferredBreakPosition = code.length();
+      preferredBreakPosition = getCodeLength();
     }
 
     @Override
@@ -543,9 +625,9 @@ public final class CodePrinter {
         // Shift the previous break to end of file by replacing it with a
         // <space> and adding a new break at end of file. Adding the space
         // handles cases like instanceof\nfoo. (it would be nice to avoid this)
-        code.setCharAt(prevCutPosition, ' ');
+        code.setCharAt(prevCutPosition - getFlushedLength(), ' ');
         lineStartPosition = prevLineStartPosition;
-        lineLength = code.length() - lineStartPosition;
+        lineLength = getCodeLength() - lineStartPosition;
         reportLineCut(lineIndex, prevCutPosition + 1, false);
         lineIndex--;
         prevCutPosition = 0;
@@ -662,7 +744,38 @@ public final class CodePrinter {
       }
 
       return toSource(root, Format.fromOptions(options, outputTypes, prettyPrint), options,
-          sourceMap, tagAsStrict, lineBreak, codeGeneratorFactory);
+          sourceMap, tagAsStrict, lineBreak, codeGeneratorFactory, null);
+    }
+
+    /**
+     * Generates the source code and writes it to the given output as it is
+     * generated, so that only a small part of it is held in memory.
+     */
+    public void writeTo(Appendable out) throws IOException {
+      if (root == null) {
+        throw new IllegalStateException(
+            "Cannot build without root node being specified");
+      }
+      Preconditions.checkNotNull(out);
+
+      try {
+        toSource(root, Format.fromOptions(options, outputTypes, prettyPrint), options,
+            sourceMap, tagAsStrict, lineBreak, codeGeneratorFactory, out);
+      } catch (OutputException e) {
+        throw e.getCause();
+      }
+    }
+  }
+
+  /** Wraps the exceptions thrown by the output of a code printer. */
+  private static final class OutputException extends RuntimeException {
+    OutputException(IOException cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized IOException getCause() {
+      return (IOException) super.getCause();
     }
   }
 
@@ -683,23 +796,26 @@ public final class CodePrinter {
   }
 
   /**
-   * Converts a tree to JS code
+   * Converts a tree to JS code. If an output is given, the code is written to
+   * it and null is returned.
    */
   private static String toSource(Node root, Format outputFormat,
       CompilerOptions options, SourceMap sourceMap, boolean tagAsStrict, boolean lineBreak,
-      CodeGeneratorFactory codeGeneratorFactory) {
+      CodeGeneratorFactory codeGeneratorFactory, Appendable out) {
     Preconditions.checkState(options.sourceMapDetailLevel != null);
 
     boolean createSourceMap = (sourceMap != null);
     MappedCodePrinter mcp =
         outputFormat == Format.COMPACT
         ? new CompactCodePrinter(
+            out,
             lineBreak,
             options.preferLineBreakAtEndOfFile,
             options.lineLengthThreshold,
             createSourceMap,
             options.sourceMapDetailLevel)
         : new PrettyCodePrinter(
+            out,
             options.lineLengthThreshold,
             createSourceMap,
             options.sourceMapDetailLevel);
@@ -712,7 +828,12 @@ public final class CodePrinter {
     cg.add(root);
     mcp.endFile();
 
-    String code = mcp.getCode();
+    String code = null;
+    if (out != null) {
+      mcp.flushAll();
+    } else {
+      code = mcp.getCode();
+    }
 
     if (createSourceMap) {
       mcp.generateSourceMap(sourceMap);
@@ -117,7 +117,7 @@ class CollapseProperties implements CompilerPass {
   @Override
   public void process(Node externs, Node root) {
     GlobalNamespace namespace;
-    namespace = new GlobalNamespace(compiler, root);
+    namespace = compiler.getAnalysisCache().getGlobalNamespace(root);
 
     if (inlineAliases) {
       inlineAliases(namespace);
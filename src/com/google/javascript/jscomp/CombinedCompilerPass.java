@@ -46,7 +46,7 @@ import java.util.List;
  *
  */
 final class CombinedCompilerPass implements HotSwapCompilerPass,
-    ScopedCallback {
+    ReadOnlyTraversalPass, ScopedCallback {
 
   /** The callbacks that this pass combines. */
   private final CallbackWrapper[] callbacks;
@@ -159,6 +159,11 @@ final class CombinedCompilerPass implements HotSwapCompilerPass,
     NodeTraversal.traverseEs6(compiler, scriptRoot, this);
   }
 
+  @Override
+  public Callback getCallback() {
+    return this;
+  }
+
   @Override
   public boolean shouldTraverse(NodeTraversal t, Node n, Node parent) {
     for (CallbackWrapper callback : callbacks) {
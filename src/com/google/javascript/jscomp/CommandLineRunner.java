@@ -550,6 +550,20 @@ public class CommandLineRunner extends
         usage = "A file containing additional command-line options.")
     private String flagFile = "";
 
+    @Option(name = "--worker_mode",
+        hidden = true,
+        handler = BooleanOptionHandler.class,
+        usage = "Runs as a persistent worker that reads compile requests, "
+        + "one JSON array of flags per line, from stdin and writes one JSON "
+        + "result per line to stdout.")
+    private boolean workerMode = false;
+
+    @Option(name = "--worker_port",
+        hidden = true,
+        usage = "In --worker_mode, serves requests from connections to this "
+        + "port on the loopback interface instead of from stdin.")
+    private int workerPort = 0;
+
     @Option(name = "--warnings_whitelist_file",
         hidden = true,
         usage = "A file containing warnings to suppress. Each line should be " +
@@ -569,6 +583,12 @@ public class CommandLineRunner extends
     private CompilerOptions.TracerMode tracerMode =
         CompilerOptions.TracerMode.OFF;
 
+    @Option(name = "--ast_cache_dir",
+        hidden = true,
+        usage = "A directory in which the parsed externs and inputs are "
+        + "cached between compilations.")
+    private String astCacheDir = null;
+
     @Option(name = "--new_type_inf",
         hidden = true,
         usage = "Checks for type errors using the new type inference algorithm.")
@@ -1106,6 +1126,7 @@ public class CommandLineRunner extends
           .setWarningsWhitelistFile(flags.warningsWhitelistFile)
           .setAngularPass(flags.angularPass)
           .setTracerMode(flags.tracerMode)
+          .setAstCacheDirectory(flags.astCacheDir)
           .setNewTypeInference(flags.useNewTypeInference);
     }
     errorStream = null;
@@ -1208,12 +1229,19 @@ public class CommandLineRunner extends
     if (isInTestMode()) {
       return externs;
     } else {
-      List<SourceFile> builtinExterns = getBuiltinExterns(options);
+      List<SourceFile> builtinExterns = loadBuiltinExterns(options);
       builtinExterns.addAll(externs);
       return builtinExterns;
     }
   }
 
+  @Override
+  protected CommandLineRunner createWorkerRequestRunner(
+      String[] args, PrintStream out, PrintStream err) {
+    CommandLineRunner runner = new CommandLineRunner(args, out, err);
+    return runner.shouldRunCompiler() ? runner : null;
+  }
+
   private ImmutableList<ConformanceConfig> loadConformanceConfigs(List<String> configPaths) {
     ImmutableList.Builder<ConformanceConfig> configs =
         ImmutableList.builder();
@@ -1339,7 +1367,19 @@ public class CommandLineRunner extends
    */
   public static void main(String[] args) {
     CommandLineRunner runner = new CommandLineRunner(args);
-    if (runner.shouldRunCompiler()) {
+    if (runner.shouldRunCompiler() && runner.flags.workerMode) {
+      try {
+        if (runner.flags.workerPort > 0) {
+          runner.runWorker(runner.flags.workerPort);
+        } else {
+          runner.runWorker(System.in, System.out);
+        }
+      } catch (IOException e) {
+        runner.reportError("ERROR - worker mode failed: " + e.getMessage());
+        System.exit(-2);
+      }
+      System.exit(0);
+    } else if (runner.shouldRunCompiler()) {
       runner.run();
     }
     if (runner.hasErrors()) {
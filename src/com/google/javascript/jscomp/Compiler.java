@@ -67,6 +67,14 @@ import java.util.ResourceBundle;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -168,6 +176,20 @@ public class Compiler extends AbstractCompiler {
   /** The source code map */
   private SourceMap sourceMap;
 
+  /**
+   * Scripts printed ahead of time by {@link #prePrintScripts}, by root. They
+   * are consumed by {@link #toSource(CodeBuilder, int, Node)}.
+   */
+  private final Map<Node, Future<PrintedScript>> prePrintedScripts =
+      new HashMap<>();
+
+  /**
+   * The threads that print scripts ahead of time, shared by all the calls
+   * that print the output. Idle threads exit, so the pool is never shut down.
+   */
+  private ThreadPoolExecutor printerPool;
+  private static final long PRINTER_KEEP_ALIVE_SECONDS = 5;
+
   /** The externs created from the exports.  */
   private String externExports = null;
 
@@ -195,6 +217,7 @@ public class Compiler extends AbstractCompiler {
   private JSTypeRegistry typeRegistry;
   private Config parserConfig = null;
   private Config externsParserConfig = null;
+  private PersistentAstCache astCache = null;
 
   private ReverseAbstractInterpreter abstractInterpreter;
   private TypeValidator typeValidator;
@@ -256,6 +279,7 @@ public class Compiler extends AbstractCompiler {
    */
   public Compiler(PrintStream stream) {
     addChangeHandler(recentChange);
+    addChangeHandler(analysisCache);
     outStream = stream;
   }
 
@@ -1267,6 +1291,10 @@ public class Compiler extends AbstractCompiler {
     beforePass(PARSING_PASS_NAME);
 
     try {
+      if (options.parseParallelism > 1) {
+        preParseInputs(options.parseParallelism);
+      }
+
       // Parse externs sources.
       for (CompilerInput input : externs) {
         Node n = input.getAstRoot(this);
@@ -1364,11 +1392,77 @@ public class Compiler extends AbstractCompiler {
       }
       return externAndJsRoot;
     } finally {
+      if (tracker != null && astCache != null) {
+        tracker.recordAstCacheStats(astCache.getHits(), astCache.getMisses());
+      }
       afterPass(PARSING_PASS_NAME);
       stopTracer(tracer, PARSING_PASS_NAME);
     }
   }
 
+  /**
+   * Parses all externs and inputs concurrently on a pool of worker threads.
+   * The workers only run the parser; diagnostics are buffered per input and
+   * the ASTs are installed by the usual serial calls to
+   * {@link CompilerInput#getAstRoot}, so errors are reported, and the
+   * trees are attached, in exactly the same order as for a serial parse.
+   */
+  private void preParseInputs(int parallelism) {
+    // Create the configs up front; they are lazily initialized.
+    final Config externsConfig = getParserConfig(ConfigContext.EXTERNS);
+    final Config config = getParserConfig(ConfigContext.DEFAULT);
+    final PersistentAstCache externsAstCache =
+        getAstCache(ConfigContext.EXTERNS);
+    final PersistentAstCache astCache = getAstCache(ConfigContext.DEFAULT);
+
+    ExecutorService executor = newWorkerPool(parallelism, "jscompiler-parser");
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (final CompilerInput input : Iterables.concat(externs, inputs)) {
+        futures.add(executor.submit(new Runnable() {
+          @Override
+          public void run() {
+            if (input.isExtern()) {
+              input.preParse(externsConfig, externsAstCache);
+            } else {
+              input.preParse(config, astCache);
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Creates a pool of daemon threads that get the same enlarged stack as the
+   * compiler thread.
+   */
+  static ThreadPoolExecutor newWorkerPool(
+      int parallelism, final String name) {
+    return new ThreadPoolExecutor(
+        parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<Runnable>(),
+        new ThreadFactory() {
+          @Override
+          public Thread newThread(Runnable r) {
+            Thread t = new Thread(null, r, name,
+                CompilerExecutor.COMPILER_STACK_SIZE);
+            t.setDaemon(true);
+            return t;
+          }
+        });
+  }
+
   /**
    * Hoists inputs with the @externs annotation into the externs list.
    */
@@ -1615,14 +1709,7 @@ public class Compiler extends AbstractCompiler {
         Tracer tracer = newTracer("toSource");
         try {
           CodeBuilder cb = new CodeBuilder();
-          if (jsRoot != null) {
-            int i = 0;
-            for (Node scriptNode = jsRoot.getFirstChild();
-                 scriptNode != null;
-                 scriptNode = scriptNode.getNext()) {
-              toSource(cb, i++, scriptNode);
-            }
-          }
+          toSource(cb);
           return cb.toString();
         } finally {
           stopTracer(tracer, "toSource");
@@ -1631,6 +1718,53 @@ public class Compiler extends AbstractCompiler {
     });
   }
 
+  /**
+   * Converts the main parse tree back to JS code, and writes the code to the
+   * given output as it is printed rather than building all of it in memory.
+   */
+  public void toSource(final Appendable out) throws IOException {
+    runWritingInCompilerThread(new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        Tracer tracer = newTracer("toSource");
+        try {
+          CodeBuilder cb = new CodeBuilder(out);
+          toSource(cb);
+          cb.flush();
+          return null;
+        } finally {
+          stopTracer(tracer, "toSource");
+        }
+      }
+    });
+  }
+
+  private void toSource(CodeBuilder cb) {
+    if (jsRoot != null) {
+      prePrintScripts(ImmutableList.of(jsRoot.children()));
+      int i = 0;
+      for (Node scriptNode = jsRoot.getFirstChild();
+           scriptNode != null;
+           scriptNode = scriptNode.getNext()) {
+        toSource(cb, i++, scriptNode);
+      }
+    }
+  }
+
+  /**
+   * Runs a callable that writes to an output in the compiler thread, and
+   * rethrows the exceptions of the output.
+   */
+  private void runWritingInCompilerThread(Callable<Void> callable)
+      throws IOException {
+    try {
+      runInCompilerThread(callable);
+    } catch (RuntimeException e) {
+      Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+      throw e;
+    }
+  }
+
   /**
    * Converts the parse tree for each input back to JS code.
    */
@@ -1641,12 +1775,17 @@ public class Compiler extends AbstractCompiler {
         Tracer tracer = newTracer("toSourceArray");
         try {
           int numInputs = inputs.size();
+          List<Node> scriptNodes = new ArrayList<>(numInputs);
+          for (CompilerInput input : inputs) {
+            scriptNodes.add(input.getAstRoot(Compiler.this));
+          }
+          prePrintScripts(ImmutableList.of(scriptNodes));
+
           String[] sources = new String[numInputs];
           CodeBuilder cb = new CodeBuilder();
           for (int i = 0; i < numInputs; i++) {
-            Node scriptNode = inputs.get(i).getAstRoot(Compiler.this);
             cb.reset();
-            toSource(cb, i, scriptNode);
+            toSource(cb, i, scriptNodes.get(i));
             sources[i] = cb.toString();
           }
           return sources;
@@ -1664,25 +1803,67 @@ public class Compiler extends AbstractCompiler {
     return runInCompilerThread(new Callable<String>() {
       @Override
       public String call() throws Exception {
-        List<CompilerInput> inputs = module.getInputs();
-        int numInputs = inputs.size();
-        if (numInputs == 0) {
-          return "";
-        }
         CodeBuilder cb = new CodeBuilder();
-        for (int i = 0; i < numInputs; i++) {
-          Node scriptNode = inputs.get(i).getAstRoot(Compiler.this);
-          if (scriptNode == null) {
-            throw new IllegalArgumentException(
-                "Bad module: " + module.getName());
-          }
-          toSource(cb, i, scriptNode);
-        }
+        toSource(cb, module);
         return cb.toString();
       }
     });
   }
 
+  /**
+   * Converts the parse tree for a module back to JS code, and writes the
+   * code to the given output as it is printed rather than building all of it
+   * in memory.
+   */
+  public void toSource(final Appendable out, final JSModule module)
+      throws IOException {
+    runWritingInCompilerThread(new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        CodeBuilder cb = new CodeBuilder(out);
+        toSource(cb, module);
+        cb.flush();
+        return null;
+      }
+    });
+  }
+
+  private void toSource(CodeBuilder cb, JSModule module) {
+    if (module.getInputs().isEmpty()) {
+      return;
+    }
+    List<Node> scriptNodes = getScriptNodes(module);
+    prePrintScripts(getUpcomingScriptNodes(module, scriptNodes));
+    for (int i = 0; i < scriptNodes.size(); i++) {
+      toSource(cb, i, scriptNodes.get(i));
+    }
+  }
+
+  /**
+   * Returns the scripts of a module that is about to be printed, followed by
+   * those of the modules after it in dependency order, as a caller that
+   * prints all the modules prints them next. As many modules as there are
+   * print threads are looked ahead.
+   */
+  private List<List<Node>> getUpcomingScriptNodes(
+      JSModule module, List<Node> scriptNodes) {
+    List<List<Node>> chunks = new ArrayList<>();
+    chunks.add(scriptNodes);
+    if (options.printParallelism <= 1 || moduleGraph == null) {
+      return chunks;
+    }
+    boolean upcoming = false;
+    for (JSModule next : moduleGraph.getAllModules()) {
+      if (chunks.size() > options.printParallelism) {
+        break;
+      }
+      if (upcoming && !next.getInputs().isEmpty()) {
+        chunks.add(getScriptNodes(next));
+      }
+      upcoming = upcoming || next == module;
+    }
+    return chunks;
+  }
 
   /**
    * Converts the parse tree for each input in a module back to JS code.
@@ -1697,17 +1878,14 @@ public class Compiler extends AbstractCompiler {
           return new String[0];
         }
 
+        List<Node> scriptNodes = getScriptNodes(module);
+        prePrintScripts(ImmutableList.of(scriptNodes));
+
         String[] sources = new String[numInputs];
         CodeBuilder cb = new CodeBuilder();
         for (int i = 0; i < numInputs; i++) {
-          Node scriptNode = inputs.get(i).getAstRoot(Compiler.this);
-          if (scriptNode == null) {
-            throw new IllegalArgumentException(
-                "Bad module input: " + inputs.get(i).getName());
-          }
-
           cb.reset();
-          toSource(cb, i, scriptNode);
+          toSource(cb, i, scriptNodes.get(i));
           sources[i] = cb.toString();
         }
         return sources;
@@ -1715,6 +1893,109 @@ public class Compiler extends AbstractCompiler {
     });
   }
 
+  /** Returns the roots of the inputs of a module. */
+  private List<Node> getScriptNodes(JSModule module) {
+    List<CompilerInput> inputs = module.getInputs();
+    List<Node> scriptNodes = new ArrayList<>(inputs.size());
+    for (CompilerInput input : inputs) {
+      Node scriptNode = input.getAstRoot(this);
+      if (scriptNode == null) {
+        throw new IllegalArgumentException(
+            "Bad module input: " + input.getName());
+      }
+      scriptNodes.add(scriptNode);
+    }
+    return scriptNodes;
+  }
+
+  /**
+   * Starts printing the scripts of the given chunks on a pool of worker
+   * threads when the print parallelism is above one, for
+   * {@link #toSource(CodeBuilder, int, Node)} to pick up. Scripts that are
+   * already printed or being printed are skipped. The first script of each
+   * chunk is printed as the first output, like the script at index 0 of a
+   * serial print. Printing only reads the AST, and each script records its
+   * source mappings separately, so the stitched output is identical to a
+   * serial print.
+   */
+  private void prePrintScripts(Iterable<? extends Iterable<Node>> chunks) {
+    if (options.printParallelism <= 1) {
+      return;
+    }
+    for (Iterable<Node> chunk : chunks) {
+      boolean firstOutput = true;
+      for (final Node scriptNode : chunk) {
+        final boolean first = firstOutput;
+        firstOutput = false;
+        if (prePrintedScripts.containsKey(scriptNode)) {
+          continue;
+        }
+        prePrintedScripts.put(scriptNode, getPrinterPool().submit(
+            new Callable<PrintedScript>() {
+              @Override
+              public PrintedScript call() {
+                SourceMap recorder =
+                    sourceMap != null ? SourceMap.createRecorder() : null;
+                return new PrintedScript(
+                    toSource(scriptNode, recorder, first), first, recorder);
+              }
+            }));
+      }
+    }
+  }
+
+  private ThreadPoolExecutor getPrinterPool() {
+    if (printerPool == null) {
+      printerPool =
+          newWorkerPool(options.printParallelism, "jscompiler-printer");
+      printerPool.setKeepAliveTime(
+          PRINTER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+      printerPool.allowCoreThreadTimeOut(true);
+    }
+    return printerPool;
+  }
+
+  /** The number of scripts printed or being printed ahead of time. */
+  @VisibleForTesting
+  int getPrePrintedScriptCount() {
+    return prePrintedScripts.size();
+  }
+
+  /**
+   * Returns the code printed ahead of time for a script, once it is done,
+   * or null if the script is not being printed ahead of time.
+   */
+  private PrintedScript takePrePrintedScript(Node root) {
+    Future<PrintedScript> printed = prePrintedScripts.remove(root);
+    if (printed == null) {
+      return null;
+    }
+    try {
+      return printed.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  /**
+   * The code printed for a script ahead of time, with the source mappings
+   * recorded while printing it.
+   */
+  private static final class PrintedScript {
+    final String code;
+    final boolean firstOutput;
+    final SourceMap mappings;
+
+    PrintedScript(String code, boolean firstOutput, SourceMap mappings) {
+      this.code = code;
+      this.firstOutput = firstOutput;
+      this.mappings = mappings;
+    }
+  }
+
   /**
    * Writes out JS code from a root node. If printing input delimiters, this
    * method will attach a comment to the start of the text indicating which
@@ -1766,23 +2047,29 @@ public class Compiler extends AbstractCompiler {
 
         // if LanguageMode is strict, only print 'use strict'
         // for the first input file
-        String code = toSource(root, sourceMap, inputSeqNum == 0);
-        if (!code.isEmpty()) {
-          cb.append(code);
-
+        boolean firstOutput = inputSeqNum == 0;
+        int start = cb.getLength();
+        PrintedScript printed = takePrePrintedScript(root);
+        if (printed != null && printed.firstOutput == firstOutput) {
+          cb.append(printed.code);
+          if (printed.mappings != null) {
+            sourceMap.addRecordedMappings(printed.mappings);
+          }
+        } else if (cb.isStreaming()) {
+          newCodePrinter(root, sourceMap, firstOutput).writeTo(cb);
+        } else {
+          cb.append(toSource(root, sourceMap, firstOutput));
+        }
+        if (cb.getLength() > start) {
           // In order to avoid parse ambiguity when files are concatenated
           // together, all files should end in a semi-colon. Do a quick
           // heuristic check if there's an obvious semi-colon already there.
-          int length = code.length();
-          char lastChar = code.charAt(length - 1);
-          char secondLastChar = length >= 2 ?
-              code.charAt(length - 2) : '\0';
-          boolean hasSemiColon = lastChar == ';' ||
-              (lastChar == '\n' && secondLastChar == ';');
+          boolean hasSemiColon = cb.endsWith(";") || cb.endsWith(";\n");
           if (!hasSemiColon) {
             cb.append(";");
           }
         }
+        cb.maybeFlush();
         return null;
       }
     });
@@ -1802,25 +2089,57 @@ public class Compiler extends AbstractCompiler {
    * Generates JavaScript source code for an AST.
    */
   private String toSource(Node n, SourceMap sourceMap, boolean firstOutput) {
+    return newCodePrinter(n, sourceMap, firstOutput).build();
+  }
+
+  private CodePrinter.Builder newCodePrinter(
+      Node n, SourceMap sourceMap, boolean firstOutput) {
     CodePrinter.Builder builder = new CodePrinter.Builder(n);
     builder.setCompilerOptions(options);
     builder.setSourceMap(sourceMap);
     builder.setTagAsStrict(firstOutput && options.getLanguageOut().isStrict());
-    return builder.build();
+    return builder;
   }
 
   /**
    * Stores a buffer of text to which more can be appended.  This is just like a
-   * StringBuilder except that we also track the number of lines.
+   * StringBuilder except that we also track the number of lines. A code
+   * builder created with an output only buffers the most recent text, and
+   * writes the rest to the output.
    */
-  public static class CodeBuilder {
+  public static class CodeBuilder implements Appendable {
+    // The number of characters buffered before they are written to the
+    // output, and the number that stay in the buffer for endsWith.
+    private static final int FLUSH_THRESHOLD = 8192;
+    private static final int RETAINED_LENGTH = 16;
+
     private final StringBuilder sb = new StringBuilder();
+    private final Appendable out;
+    private int flushedLength = 0;
     private int lineCount = 0;
     private int colCount = 0;
     private final Set<String> uniqueLicenses = new HashSet<>();
 
+    public CodeBuilder() {
+      this(null);
+    }
+
+    /**
+     * Creates a code builder that writes its text to the given output as it
+     * grows, rather than keeping all of it.
+     */
+    public CodeBuilder(Appendable out) {
+      this.out = out;
+    }
+
+    /** Whether the text is written to an output as it grows. */
+    boolean isStreaming() {
+      return out != null;
+    }
+
     /** Removes all text, but leaves the line count unchanged. */
     void reset() {
+      Preconditions.checkState(out == null);
       sb.setLength(0);
     }
 
@@ -1846,15 +2165,63 @@ public class Compiler extends AbstractCompiler {
       return this;
     }
 
-    /** Returns all text in the text buffer. */
+    @Override
+    public CodeBuilder append(CharSequence csq) throws IOException {
+      append(csq.toString());
+      maybeFlush();
+      return this;
+    }
+
+    @Override
+    public CodeBuilder append(CharSequence csq, int start, int end)
+        throws IOException {
+      append(csq.subSequence(start, end).toString());
+      maybeFlush();
+      return this;
+    }
+
+    @Override
+    public CodeBuilder append(char c) throws IOException {
+      append(String.valueOf(c));
+      maybeFlush();
+      return this;
+    }
+
+    /**
+     * Writes all but the most recent text to the output, if there is one and
+     * enough text has accumulated.
+     */
+    void maybeFlush() throws IOException {
+      if (out != null && sb.length() >= FLUSH_THRESHOLD) {
+        flush(sb.length() - RETAINED_LENGTH);
+      }
+    }
+
+    /** Writes all the buffered text to the output, if there is one. */
+    void flush() throws IOException {
+      if (out != null) {
+        flush(sb.length());
+      }
+    }
+
+    private void flush(int length) throws IOException {
+      out.append(sb, 0, length);
+      sb.delete(0, length);
+      flushedLength += length;
+    }
+
+    /**
+     * Returns all text in the text buffer, or only the text not written yet
+     * for a code builder with an output.
+     */
     @Override
     public String toString() {
       return sb.toString();
     }
 
-    /** Returns the length of the text buffer. */
+    /** Returns the length of the text, including the text written out. */
     public int getLength() {
-      return sb.length();
+      return flushedLength + sb.length();
     }
 
     /** Returns the (zero-based) index of the last line in the text buffer. */
@@ -1869,7 +2236,7 @@ public class Compiler extends AbstractCompiler {
 
     /** Determines whether the text ends with the given suffix. */
     boolean endsWith(String suffix) {
-      return (sb.length() > suffix.length())
+      return (sb.length() >= suffix.length())
           && suffix.equals(sb.substring(sb.length() - suffix.length()));
     }
 
@@ -1909,6 +2276,7 @@ public class Compiler extends AbstractCompiler {
     if (options.getCheckDeterminism()) {
       phaseOptimizer.setPrintAstHashcodes(true);
     }
+    phaseOptimizer.setParallelism(options.optimizationParallelism);
     phaseOptimizer.consume(optimizations);
     phaseOptimizer.process(externsRoot, jsRoot);
     phaseOptimizer = null;
@@ -1959,7 +2327,12 @@ public class Compiler extends AbstractCompiler {
   }
 
   protected final RecentChange recentChange = new RecentChange();
-  private final List<CodeChangeHandler> codeChangeHandlers = new ArrayList<>();
+  private final AnalysisCache analysisCache = new AnalysisCache(this);
+  // Function-local passes may report changes from several threads.
+  private final List<CodeChangeHandler> codeChangeHandlers =
+      new CopyOnWriteArrayList<>();
+  // Errors that function-local passes report are replayed in a fixed order.
+  private final ThreadLocal<List<JSError>> reportBuffer = new ThreadLocal<>();
 
   /** Name of the synthetic input that holds synthesized externs. */
   static final String SYNTHETIC_EXTERNS = "{SyntheticVarsDeclar}";
@@ -2001,15 +2374,24 @@ public class Compiler extends AbstractCompiler {
   @Override
   void reportChangeToEnclosingScope(Node n) {
     if (phaseOptimizer != null) {
-      phaseOptimizer.reportChangeToEnclosingScope(n);
-      phaseOptimizer.startCrossScopeReporting();
-      reportCodeChange();
-      phaseOptimizer.endCrossScopeReporting();
+      // Keeps the changes that other threads report meanwhile from being
+      // taken for cross-scope ones.
+      synchronized (phaseOptimizer) {
+        phaseOptimizer.reportChangeToEnclosingScope(n);
+        phaseOptimizer.startCrossScopeReporting();
+        reportCodeChange(true);
+        phaseOptimizer.endCrossScopeReporting();
+      }
     } else {
       reportCodeChange();
     }
   }
 
+  @Override
+  AnalysisCache getAnalysisCache() {
+    return analysisCache;
+  }
+
   /**
    * Some tests don't want to call the compiler "wholesale," they may not want
    * to call check and/or optimize. With this method, tests can execute custom
@@ -2022,8 +2404,21 @@ public class Compiler extends AbstractCompiler {
 
   @Override
   public void reportCodeChange() {
+    reportCodeChange(false);
+  }
+
+  /**
+   * @param stamped Whether the PhaseOptimizer stamped the change on the
+   *     function that it happened in, which lets the analysis cache keep the
+   *     memoized scopes of the other functions.
+   */
+  private void reportCodeChange(boolean stamped) {
     for (CodeChangeHandler handler : codeChangeHandlers) {
-      handler.reportChange();
+      if (stamped && handler == analysisCache) {
+        analysisCache.reportStampedChange();
+      } else {
+        handler.reportChange();
+      }
     }
   }
 
@@ -2079,6 +2474,17 @@ public class Compiler extends AbstractCompiler {
     }
   }
 
+  @Override
+  PersistentAstCache getAstCache(ConfigContext context) {
+    if (options.astCacheDirectory == null) {
+      return null;
+    }
+    if (astCache == null) {
+      astCache = new PersistentAstCache(new File(options.astCacheDirectory));
+    }
+    return astCache;
+  }
+
   protected Config createConfig(Config.LanguageMode mode) {
     return ParserRunner.createConfig(
         isIdeMode(),
@@ -2101,20 +2507,36 @@ public class Compiler extends AbstractCompiler {
 
   @Override
   public void report(JSError error) {
-    CheckLevel level = error.getDefaultLevel();
-    if (warningsGuard != null) {
-      CheckLevel newLevel = warningsGuard.level(error);
-      if (newLevel != null) {
-        level = newLevel;
-      }
+    List<JSError> buffer = reportBuffer.get();
+    if (buffer != null) {
+      buffer.add(error);
+      return;
     }
+    synchronized (this) {
+      CheckLevel level = error.getDefaultLevel();
+      if (warningsGuard != null) {
+        CheckLevel newLevel = warningsGuard.level(error);
+        if (newLevel != null) {
+          level = newLevel;
+        }
+      }
 
-    if (level.isOn()) {
-      initCompilerOptionsIfTesting();
-      if (getOptions().errorHandler != null) {
-        getOptions().errorHandler.report(level, error);
+      if (level.isOn()) {
+        initCompilerOptionsIfTesting();
+        if (getOptions().errorHandler != null) {
+          getOptions().errorHandler.report(level, error);
+        }
+        errorManager.report(level, error);
       }
-      errorManager.report(level, error);
+    }
+  }
+
+  @Override
+  void setReportBuffer(List<JSError> buffer) {
+    if (buffer == null) {
+      reportBuffer.remove();
+    } else {
+      reportBuffer.set(buffer);
     }
   }
 
@@ -2456,6 +2878,8 @@ public class Compiler extends AbstractCompiler {
     Node js = ast.getAstRoot(this);
     Preconditions.checkNotNull(js);
 
+    // The script was swapped in without a code change being reported.
+    analysisCache.clear();
     runHotSwap(originalRoot, js, this.getCleanupPassConfig());
     // NOTE: If hot swap passes that use GlobalNamespace are added, we will need
     // to revisit this approach to clearing GlobalNamespaces
@@ -2465,6 +2889,69 @@ public class Compiler extends AbstractCompiler {
     this.removeSyntheticVarsInput();
 
     runHotSwap(originalRoot, js, this.ensureDefaultPassConfig());
+    recheckDependentScripts(originalRoot, js);
+  }
+
+  /**
+   * Infers and checks the types of the scripts that depend on a replaced
+   * script again, as the types of their nodes may have changed. A script
+   * whose global variables get new types this way has its own dependents
+   * checked again in turn. The declared types of the global variables of a
+   * dependent script are kept.
+   */
+  private void recheckDependentScripts(Node originalRoot, Node js) {
+    TypedScope topScope = getTopScope();
+    if (topScope == null) {
+      return;
+    }
+    Set<String> names = new HashSet<>();
+    HotSwapDependents.addWrittenGlobalNames(originalRoot, topScope, names);
+    HotSwapDependents.addWrittenGlobalNames(js, topScope, names);
+    Set<Node> rechecked = new HashSet<>();
+    rechecked.add(js);
+    while (!names.isEmpty()) {
+      List<Node> dependents = new ArrayList<>();
+      for (Node script : jsRoot.children()) {
+        if (!rechecked.contains(script)
+            && HotSwapDependents.refersTo(script, names)) {
+          dependents.add(script);
+        }
+      }
+      names = new HashSet<>();
+      for (Node script : dependents) {
+        rechecked.add(script);
+        String scriptName = script.getSourceFileName();
+        Map<String, String> oldTypes = getGlobalVarTypes(scriptName);
+        getTypedScopeCreator().removeScopesForScript(scriptName);
+        HotSwapDependents.clearNameTypes(script);
+        // Type inference joins the new type of an inferred global variable
+        // with its old one, so start over from no type. Scripts that assign
+        // to the variable too are checked again if its type changes.
+        for (TypedVar var : getTopScope().getVarsDeclaredIn(scriptName)) {
+          if (var.isTypeInferred()) {
+            var.setType(null);
+          }
+        }
+        for (PassFactory passFactory :
+            ensureDefaultPassConfig().getTypeRecheckPasses()) {
+          runHotSwapPass(script, script, passFactory);
+        }
+        Map<String, String> newTypes = getGlobalVarTypes(scriptName);
+        for (Map.Entry<String, String> entry : newTypes.entrySet()) {
+          if (!entry.getValue().equals(oldTypes.get(entry.getKey()))) {
+            names.add(entry.getKey());
+          }
+        }
+      }
+    }
+  }
+
+  private Map<String, String> getGlobalVarTypes(String scriptName) {
+    Map<String, String> types = new HashMap<>();
+    for (TypedVar var : getTopScope().getVarsDeclaredIn(scriptName)) {
+      types.put(var.getName(), String.valueOf(var.getType()));
+    }
+    return types;
   }
 
   /**
@@ -20,6 +20,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.javascript.jscomp.deps.DependencyInfo;
 import com.google.javascript.jscomp.deps.JsFileParser;
+import com.google.javascript.jscomp.parsing.Config;
 import com.google.javascript.rhino.InputId;
 import com.google.javascript.rhino.Node;
 
@@ -31,6 +32,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 /**
  * A class for the internal representation of an input to the compiler.
  * Wraps a {@link SourceAst} and maintain state such as module for the input and
@@ -119,6 +122,16 @@ public class CompilerInput implements SourceAst, DependencyInfo {
     return root;
   }
 
+  /**
+   * Parses the input off the compiler thread, if it is JavaScript source.
+   * @see JsAst#preParse
+   */
+  void preParse(Config config, @Nullable PersistentAstCache cache) {
+    if (ast instanceof JsAst) {
+      ((JsAst) ast).preParse(config, cache);
+    }
+  }
+
   @Override
   public void clearAst() {
     ast.clearAst();
@@ -167,6 +167,42 @@ public class CompilerOptions {
 
   DependencyOptions dependencyOptions = new DependencyOptions();
 
+  /**
+   * The number of threads used to parse externs and inputs. With more than
+   * one thread the files are parsed concurrently, but the resulting ASTs and
+   * parse diagnostics are identical to a serial parse.
+   */
+  int parseParallelism = 1;
+
+  /**
+   * The number of threads used to print the output. With more than one
+   * thread the inputs are printed concurrently, but the resulting code and
+   * source maps are identical to a serial print.
+   */
+  int printParallelism = 1;
+
+  /**
+   * The number of threads used to run the function-local optimization
+   * passes. With more than one thread the functions of the same nesting
+   * depth are optimized concurrently, but the resulting code and the order
+   * of the reported diagnostics are identical to a serial run.
+   */
+  int optimizationParallelism = 1;
+
+  /**
+   * The number of threads used by the new type inference. With more than
+   * one thread the functions whose nested functions are done are analyzed
+   * concurrently, but the resulting types and warnings are identical to a
+   * serial run.
+   */
+  int newTypeInferenceParallelism = 1;
+
+  /**
+   * A directory in which parsed ASTs of externs and inputs are cached between
+   * compilations, or null to always parse every file.
+   */
+  String astCacheDirectory = null;
+
   /** Returns localized replacement for MSG_* variables */
   public MessageBundle messageBundle = null;
 
@@ -1788,6 +1824,63 @@ public class CompilerOptions {
     this.devMode = devMode;
   }
 
+  /**
+   * Sets the number of threads used to parse the externs and inputs.
+   */
+  public void setParseParallelism(int parseParallelism) {
+    Preconditions.checkArgument(parseParallelism > 0);
+    this.parseParallelism = parseParallelism;
+  }
+
+  public int getParseParallelism() {
+    return parseParallelism;
+  }
+
+  /**
+   * Sets the number of threads used to print the output.
+   */
+  public void setPrintParallelism(int printParallelism) {
+    Preconditions.checkArgument(printParallelism > 0);
+    this.printParallelism = printParallelism;
+  }
+
+  public int getPrintParallelism() {
+    return printParallelism;
+  }
+
+  /**
+   * Sets the number of threads used to run the function-local optimization
+   * passes.
+   */
+  public void setOptimizationParallelism(int optimizationParallelism) {
+    Preconditions.checkArgument(optimizationParallelism > 0);
+    this.optimizationParallelism = optimizationParallelism;
+  }
+
+  public int getOptimizationParallelism() {
+    return optimizationParallelism;
+  }
+
+  /**
+   * Sets the number of threads used by the new type inference.
+   */
+  public void setNewTypeInferenceParallelism(int newTypeInferenceParallelism) {
+    Preconditions.checkArgument(newTypeInferenceParallelism > 0);
+    this.newTypeInferenceParallelism = newTypeInferenceParallelism;
+  }
+
+  public int getNewTypeInferenceParallelism() {
+    return newTypeInferenceParallelism;
+  }
+
+  /**
+   * Sets a directory in which to cache the parsed ASTs of externs and inputs
+   * between compilations, or null to always parse every file.
+   */
+  public void setAstCacheDirectory(String astCacheDirectory) {
+    this.astCacheDirectory = astCacheDirectory;
+  }
+
   public void setCheckDeterminism(boolean checkDeterminism) {
     this.checkDeterminism = checkDeterminism;
     if (checkDeterminism) {
@@ -60,8 +60,8 @@ final class ControlFlowAnalysis implements Callback, CompilerPass {
 
   private Map<Node, Integer> astPosition;
 
-  // TODO(nicksantos): should these be node annotations?
-  private Map<DiGraphNode<Node, Branch>, Integer> nodePriorities;
+  // The priorities of the CFG nodes by node id, zero until assigned.
+  private int[] nodePriorities;
 
   // We order CFG nodes by by looking at the AST positions.
   // CFG nodes that come first lexically should be visited first, because
@@ -149,11 +149,13 @@ final class ControlFlowAnalysis implements Callback, CompilerPass {
     this.root = root;
     astPositionCounter = 0;
     astPosition = new HashMap<>();
-    nodePriorities = new HashMap<>();
-    cfg = new AstControlFlowGraph(computeFallThrough(root), nodePriorities,
-                                  edgeAnnotations);
+    AstControlFlowGraph astCfg =
+        new AstControlFlowGraph(computeFallThrough(root), edgeAnnotations);
+    cfg = astCfg;
     NodeTraversal.traverseEs6(compiler, root, this);
     astPosition.put(null, ++astPositionCounter); // the implicit return is last.
+    nodePriorities = new int[cfg.getNodeCount()];
+    astCfg.priorities = nodePriorities;
 
     // Now, generate the priority of nodes by doing a depth-first
     // search on the CFG.
@@ -168,7 +170,7 @@ final class ControlFlowAnalysis implements Callback, CompilerPass {
         Node value = candidate.getValue();
         if (value != null && value.isFunction()) {
           Preconditions.checkState(
-              !nodePriorities.containsKey(candidate) || candidate == entry);
+              !hasPriority(candidate) || candidate == entry);
           prioritizeFromEntryNode(candidate);
         }
       }
@@ -179,13 +181,21 @@ final class ControlFlowAnalysis implements Callback, CompilerPass {
     // Presumably, it doesn't really matter what priority they get, since
     // this shouldn't happen in real code.
     for (DiGraphNode<Node, Branch> candidate : cfg.getDirectedGraphNodes()) {
-      if (!nodePriorities.containsKey(candidate)) {
-        nodePriorities.put(candidate, ++priorityCounter);
+      if (!hasPriority(candidate)) {
+        setPriority(candidate, ++priorityCounter);
       }
     }
 
     // Again, the implicit return node is always last.
-    nodePriorities.put(cfg.getImplicitReturn(), ++priorityCounter);
+    setPriority(cfg.getImplicitReturn(), ++priorityCounter);
+  }
+
+  private boolean hasPriority(DiGraphNode<Node, Branch> node) {
+    return nodePriorities[cfg.getNodeId(node)] != 0;
+  }
+
+  private void setPriority(DiGraphNode<Node, Branch> node, int priority) {
+    nodePriorities[cfg.getNodeId(node)] = priority;
   }
 
   /**
@@ -199,11 +209,11 @@ final class ControlFlowAnalysis implements Callback, CompilerPass {
 
     while (!worklist.isEmpty()) {
       DiGraphNode<Node, Branch> current = worklist.remove();
-      if (nodePriorities.containsKey(current)) {
+      if (hasPriority(current)) {
         continue;
       }
 
-      nodePriorities.put(current, ++priorityCounter);
+      setPriority(current, ++priorityCounter);
 
       List<DiGraphNode<Node, Branch>> successors =
           cfg.getDirectedSuccNodes(current);
@@ -1024,20 +1034,17 @@ final class ControlFlowAnalysis implements Callback, CompilerPass {
    * pre-order traversal of the AST.
    */
   private static class AstControlFlowGraph extends ControlFlowGraph<Node> {
-    private final Map<DiGraphNode<Node, Branch>, Integer> priorities;
+    // The priorities of the nodes by id (set by ControlFlowAnalysis#process
+    // once all the nodes are created).
+    private int[] priorities;
 
     /**
      * Constructor.
      * @param entry The entry node.
-     * @param priorities The map from nodes to position in the AST (to be
-     *    filled by the {@link ControlFlowAnalysis#shouldTraverse}).
      */
-    private AstControlFlowGraph(Node entry,
-        Map<DiGraphNode<Node, Branch>, Integer> priorities,
-        boolean edgeAnnotations) {
+    private AstControlFlowGraph(Node entry, boolean edgeAnnotations) {
       super(entry,
           true /* node annotations */, edgeAnnotations);
-      this.priorities = priorities;
     }
 
     @Override
@@ -1072,8 +1079,8 @@ final class ControlFlowAnalysis implements Callback, CompilerPass {
      * @return An arbitrary counter used for comparing positions.
      */
     private int getPosition(DiGraphNode<Node, Branch> n) {
-      Integer priority = priorities.get(n);
-      Preconditions.checkNotNull(priority);
+      int priority = priorities[getNodeId(n)];
+      Preconditions.checkState(priority != 0);
       return priority;
     }
   }
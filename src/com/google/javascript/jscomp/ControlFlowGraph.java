@@ -16,21 +16,43 @@
 
 package com.google.javascript.jscomp;
 
+import com.google.common.base.Preconditions;
 import com.google.javascript.jscomp.NodeTraversal.Callback;
-import com.google.javascript.jscomp.graph.LinkedDirectedGraph;
+import com.google.javascript.jscomp.graph.Annotation;
+import com.google.javascript.jscomp.graph.DiGraph;
+import com.google.javascript.jscomp.graph.GraphNode;
+import com.google.javascript.jscomp.graph.GraphvizGraph;
+import com.google.javascript.jscomp.graph.SubGraph;
 import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.Token;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
 
 /**
  * Control flow graph.
+ * <p>
+ * The nodes are numbered in the order in which they are created. The edges
+ * are kept in two arrays, one sorted by source and one by destination, so
+ * that the out edges and the in edges of a node are ranges of these arrays
+ * (the compressed sparse row format). The arrays are computed when the graph
+ * is read after a change; {@link ControlFlowAnalysis} creates all of the
+ * graph before reading it, so they are computed once per graph.
  *
  *
  * @param <N> The instruction type of the control flow graph.
  */
-public class ControlFlowGraph<N> extends
-    LinkedDirectedGraph<N, ControlFlowGraph.Branch> {
+public class ControlFlowGraph<N> extends DiGraph<N, ControlFlowGraph.Branch>
+    implements GraphvizGraph {
 
   /**
    * A special node marked by the node value key null to a singleton
@@ -41,12 +63,31 @@ public class ControlFlowGraph<N> extends
 
   private final DiGraphNode<N, ControlFlowGraph.Branch> entry;
 
+  private final boolean useNodeAnnotations;
+  private final boolean useEdgeAnnotations;
+
+  private final Map<N, CfgNode<N>> nodesByValue = new HashMap<>();
+  // The nodes by id.
+  private final List<CfgNode<N>> nodes = new ArrayList<>();
+  // The edges, in the order in which they were created.
+  private final List<CfgEdge<N>> edges = new ArrayList<>();
+
+  // The out edges of the node with id i are outEdges[outStart[i]] to
+  // outEdges[outStart[i + 1] - 1], in the order in which they were created,
+  // and likewise for the in edges. Null when the graph has changed since
+  // they were computed.
+  private int[] outStart;
+  private CfgEdge<N>[] outEdges;
+  private int[] inStart;
+  private CfgEdge<N>[] inEdges;
+
   /**
    * Constructor.
    */
   ControlFlowGraph(
       N entry, boolean nodeAnnotations, boolean edgeAnnotations) {
-    super(nodeAnnotations, edgeAnnotations);
+    this.useNodeAnnotations = nodeAnnotations;
+    this.useEdgeAnnotations = edgeAnnotations;
     implicitReturn = createDirectedGraphNode(null);
     this.entry = createDirectedGraphNode(entry);
   }
@@ -202,4 +243,553 @@ public class ControlFlowGraph<N> extends
     }
     return s;
   }
+
+  /** Returns the number of nodes, which is one more than the largest id. */
+  int getNodeCount() {
+    return nodes.size();
+  }
+
+  /**
+   * Returns the id of a node of this graph. The ids go from zero to the
+   * number of nodes minus one, in the order in which the nodes were created.
+   */
+  int getNodeId(DiGraphNode<N, Branch> node) {
+    return ((CfgNode<N>) node).id;
+  }
+
+  @Override
+  public void connect(N srcValue, Branch edgeValue, N destValue) {
+    CfgNode<N> src = getNodeOrFail(srcValue);
+    CfgNode<N> dest = getNodeOrFail(destValue);
+    CfgEdge<N> edge = new CfgEdge<>(src, edgeValue, dest);
+    if (src.lastOut == null) {
+      src.firstOut = edge;
+    } else {
+      src.lastOut.nextOut = edge;
+    }
+    src.lastOut = edge;
+    edges.add(edge);
+    outStart = null;
+  }
+
+  @Override
+  public void disconnect(N n1, N n2) {
+    disconnectInDirection(n1, n2);
+    disconnectInDirection(n2, n1);
+  }
+
+  @Override
+  public void disconnectInDirection(N srcValue, N destValue) {
+    CfgNode<N> src = getNodeOrFail(srcValue);
+    CfgNode<N> dest = getNodeOrFail(destValue);
+    src.firstOut = null;
+    src.lastOut = null;
+    for (Iterator<CfgEdge<N>> it = edges.iterator(); it.hasNext();) {
+      CfgEdge<N> edge = it.next();
+      if (edge.source == src) {
+        edge.nextOut = null;
+        if (edge.dest == dest) {
+          it.remove();
+        } else if (src.lastOut == null) {
+          src.firstOut = src.lastOut = edge;
+        } else {
+          src.lastOut = src.lastOut.nextOut = edge;
+        }
+      }
+    }
+    outStart = null;
+  }
+
+  @Override
+  public Iterable<DiGraphNode<N, Branch>> getDirectedGraphNodes() {
+    return Collections.<DiGraphNode<N, Branch>>unmodifiableList(nodes);
+  }
+
+  @Override
+  public DiGraphNode<N, Branch> getDirectedGraphNode(N nodeValue) {
+    return nodesByValue.get(nodeValue);
+  }
+
+  @Override
+  public GraphNode<N, Branch> getNode(N nodeValue) {
+    return nodesByValue.get(nodeValue);
+  }
+
+  @Override
+  public List<DiGraphEdge<N, Branch>> getInEdges(N nodeValue) {
+    return this.<CfgNode<N>>getNodeOrFail(nodeValue).getInEdges();
+  }
+
+  @Override
+  public List<DiGraphEdge<N, Branch>> getOutEdges(N nodeValue) {
+    return this.<CfgNode<N>>getNodeOrFail(nodeValue).getOutEdges();
+  }
+
+  @Override
+  public DiGraphNode<N, Branch> createDirectedGraphNode(N nodeValue) {
+    CfgNode<N> node = nodesByValue.get(nodeValue);
+    if (node == null) {
+      node = new CfgNode<>(this, nodes.size(), nodeValue);
+      nodesByValue.put(nodeValue, node);
+      nodes.add(node);
+      outStart = null;
+    }
+    return node;
+  }
+
+  @Override
+  public GraphNode<N, Branch> createNode(N value) {
+    return createDirectedGraphNode(value);
+  }
+
+  @Override
+  public List<DiGraphEdge<N, Branch>> getEdges(N n1, N n2) {
+    List<DiGraphEdge<N, Branch>> result = getDirectedGraphEdges(n1, n2);
+    result.addAll(getDirectedGraphEdges(n2, n1));
+    return result;
+  }
+
+  @Override
+  public GraphEdge<N, Branch> getFirstEdge(N n1, N n2) {
+    CfgNode<N> node1 = getNodeOrFail(n1);
+    CfgNode<N> node2 = getNodeOrFail(n2);
+    for (CfgEdge<N> edge = node1.firstOut; edge != null;
+         edge = edge.nextOut) {
+      if (edge.dest == node2) {
+        return edge;
+      }
+    }
+    for (CfgEdge<N> edge = node2.firstOut; edge != null;
+         edge = edge.nextOut) {
+      if (edge.dest == node1) {
+        return edge;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public List<DiGraphEdge<N, Branch>> getDirectedGraphEdges(N n1, N n2) {
+    CfgNode<N> node1 = getNodeOrFail(n1);
+    CfgNode<N> node2 = getNodeOrFail(n2);
+    List<DiGraphEdge<N, Branch>> result = new ArrayList<>();
+    for (CfgEdge<N> edge = node1.firstOut; edge != null;
+         edge = edge.nextOut) {
+      if (edge.dest == node2) {
+        result.add(edge);
+      }
+    }
+    return result;
+  }
+
+  // The edges are found by following the out edges of the source, which
+  // doesn't need the arrays, so checking for edges while the graph is
+  // created doesn't recompute them.
+
+  @Override
+  public boolean isConnectedInDirection(N n1, N n2) {
+    return findEdge(n1, null, n2) != null;
+  }
+
+  @Override
+  public boolean isConnectedInDirection(N n1, Branch edgeValue, N n2) {
+    Preconditions.checkNotNull(edgeValue);
+    return findEdge(n1, edgeValue, n2) != null;
+  }
+
+  /** Finds an edge with the given value, or of any value if it is null. */
+  private CfgEdge<N> findEdge(N n1, Branch edgeValue, N n2) {
+    CfgNode<N> node1 = getNodeOrFail(n1);
+    CfgNode<N> node2 = getNodeOrFail(n2);
+    for (CfgEdge<N> edge = node1.firstOut; edge != null;
+         edge = edge.nextOut) {
+      if (edge.dest == node2
+          && (edgeValue == null || edge.value == edgeValue)) {
+        return edge;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public List<DiGraphNode<N, Branch>> getDirectedPredNodes(N nodeValue) {
+    return getDirectedPredNodes(nodesByValue.get(nodeValue));
+  }
+
+  @Override
+  public List<DiGraphNode<N, Branch>> getDirectedSuccNodes(N nodeValue) {
+    return getDirectedSuccNodes(nodesByValue.get(nodeValue));
+  }
+
+  @Override
+  public List<DiGraphNode<N, Branch>> getDirectedPredNodes(
+      DiGraphNode<N, Branch> dNode) {
+    Preconditions.checkNotNull(dNode);
+    compact();
+    int id = getNodeId(dNode);
+    List<DiGraphNode<N, Branch>> result =
+        new ArrayList<>(inStart[id + 1] - inStart[id]);
+    for (int i = inStart[id]; i < inStart[id + 1]; i++) {
+      result.add(inEdges[i].source);
+    }
+    return result;
+  }
+
+  @Override
+  public List<DiGraphNode<N, Branch>> getDirectedSuccNodes(
+      DiGraphNode<N, Branch> dNode) {
+    Preconditions.checkNotNull(dNode);
+    compact();
+    int id = getNodeId(dNode);
+    List<DiGraphNode<N, Branch>> result =
+        new ArrayList<>(outStart[id + 1] - outStart[id]);
+    for (int i = outStart[id]; i < outStart[id + 1]; i++) {
+      result.add(outEdges[i].dest);
+    }
+    return result;
+  }
+
+  @Override
+  public List<GraphvizEdge> getGraphvizEdges() {
+    compact();
+    List<GraphvizEdge> result = new ArrayList<>(outEdges.length);
+    Collections.addAll(result, outEdges);
+    return result;
+  }
+
+  @Override
+  public List<GraphvizNode> getGraphvizNodes() {
+    return new ArrayList<GraphvizNode>(nodes);
+  }
+
+  @Override
+  public String getName() {
+    return "ControlFlowGraph";
+  }
+
+  @Override
+  public boolean isDirected() {
+    return true;
+  }
+
+  @Override
+  public Collection<DiGraphNode<N, Branch>> getNodes() {
+    return Collections.<DiGraphNode<N, Branch>>unmodifiableList(nodes);
+  }
+
+  @Override
+  public List<GraphNode<N, Branch>> getNeighborNodes(N value) {
+    DiGraphNode<N, Branch> node = getDirectedGraphNode(value);
+    List<GraphNode<N, Branch>> result = new ArrayList<>();
+    result.addAll(getDirectedPredNodes(node));
+    result.addAll(getDirectedSuccNodes(node));
+    return result;
+  }
+
+  @Override
+  public List<DiGraphEdge<N, Branch>> getEdges() {
+    compact();
+    return new EdgeList<>(outEdges, 0, outEdges.length);
+  }
+
+  @Override
+  public int getNodeDegree(N value) {
+    CfgNode<N> node = getNodeOrFail(value);
+    return node.getInEdges().size() + node.getOutEdges().size();
+  }
+
+  @Override
+  public SubGraph<N, Branch> newSubGraph() {
+    return new CfgSubGraph<>(this);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T extends GraphNode<N, Branch>> T getNodeOrFail(N value) {
+    CfgNode<N> node = nodesByValue.get(value);
+    if (node == null) {
+      throw new IllegalArgumentException(value + " does not exist in graph");
+    }
+    return (T) node;
+  }
+
+  /** Computes the edge arrays, if the graph has changed since the last time. */
+  @SuppressWarnings("unchecked")
+  private void compact() {
+    if (outStart != null) {
+      return;
+    }
+    int nodeCount = nodes.size();
+    int[] outStart = new int[nodeCount + 1];
+    int[] inStart = new int[nodeCount + 1];
+    for (CfgEdge<N> edge : edges) {
+      outStart[edge.source.id + 1]++;
+      inStart[edge.dest.id + 1]++;
+    }
+    for (int i = 0; i < nodeCount; i++) {
+      outStart[i + 1] += outStart[i];
+      inStart[i + 1] += inStart[i];
+    }
+    CfgEdge<N>[] outEdges = new CfgEdge[edges.size()];
+    CfgEdge<N>[] inEdges = new CfgEdge[edges.size()];
+    int[] outNext = outStart.clone();
+    int[] inNext = inStart.clone();
+    for (CfgEdge<N> edge : edges) {
+      outEdges[outNext[edge.source.id]++] = edge;
+      inEdges[inNext[edge.dest.id]++] = edge;
+    }
+    this.outEdges = outEdges;
+    this.inEdges = inEdges;
+    this.inStart = inStart;
+    this.outStart = outStart;
+  }
+
+  /**
+   * A node of the graph. The out edges of the node are also linked to each
+   * other, so that edges can be looked up before the arrays are computed.
+   */
+  private static final class CfgNode<N>
+      implements DiGraphNode<N, Branch>, GraphvizNode {
+    private final ControlFlowGraph<N> graph;
+    private final int id;
+    private final N value;
+    private Annotation annotation;
+    private CfgEdge<N> firstOut;
+    private CfgEdge<N> lastOut;
+
+    CfgNode(ControlFlowGraph<N> graph, int id, N value) {
+      this.graph = graph;
+      this.id = id;
+      this.value = value;
+    }
+
+    @Override
+    public N getValue() {
+      return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <A extends Annotation> A getAnnotation() {
+      if (!graph.useNodeAnnotations) {
+        throw new UnsupportedOperationException(
+            "Graph initialized with node annotations turned off");
+      }
+      return (A) annotation;
+    }
+
+    @Override
+    public void setAnnotation(Annotation data) {
+      if (!graph.useNodeAnnotations) {
+        throw new UnsupportedOperationException(
+            "Graph initialized with node annotations turned off");
+      }
+      annotation = data;
+    }
+
+    /**
+     * Returns the out edges of the node. The list doesn't change when the
+     * graph does.
+     */
+    @Override
+    public List<DiGraphEdge<N, Branch>> getOutEdges() {
+      graph.compact();
+      return new EdgeList<>(
+          graph.outEdges, graph.outStart[id], graph.outStart[id + 1]);
+    }
+
+    /**
+     * Returns the in edges of the node. The list doesn't change when the
+     * graph does.
+     */
+    @Override
+    public List<DiGraphEdge<N, Branch>> getInEdges() {
+      graph.compact();
+      return new EdgeList<>(
+          graph.inEdges, graph.inStart[id], graph.inStart[id + 1]);
+    }
+
+    @Override
+    public String getColor() {
+      return "white";
+    }
+
+    @Override
+    public String getId() {
+      return "CFN" + id;
+    }
+
+    @Override
+    public String getLabel() {
+      return String.valueOf(value);
+    }
+
+    @Override
+    public String toString() {
+      return getLabel();
+    }
+  }
+
+  /**
+   * A subgraph, kept as the set of the ids of its nodes. A node is a
+   * neighbor of the subgraph when one of its in or out edges has its other
+   * end in the set, so checking a node only looks at the node's own edges.
+   */
+  private static final class CfgSubGraph<N> implements SubGraph<N, Branch> {
+    private final ControlFlowGraph<N> graph;
+    private final BitSet ids = new BitSet();
+
+    CfgSubGraph(ControlFlowGraph<N> graph) {
+      this.graph = graph;
+    }
+
+    @Override
+    public boolean isIndependentOf(N value) {
+      CfgNode<N> node = graph.nodesByValue.get(value);
+      if (node == null) {
+        return true;
+      }
+      graph.compact();
+      for (int i = graph.outStart[node.id];
+           i < graph.outStart[node.id + 1]; i++) {
+        if (ids.get(graph.outEdges[i].dest.id)) {
+          return false;
+        }
+      }
+      for (int i = graph.inStart[node.id];
+           i < graph.inStart[node.id + 1]; i++) {
+        if (ids.get(graph.inEdges[i].source.id)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public void addNode(N value) {
+      ids.set(graph.<CfgNode<N>>getNodeOrFail(value).id);
+    }
+  }
+
+  /** An edge of the graph. */
+  private static final class CfgEdge<N>
+      implements DiGraphEdge<N, Branch>, GraphvizEdge {
+    private final CfgNode<N> source;
+    private final CfgNode<N> dest;
+    private final Branch value;
+    private Annotation annotation;
+    // The next out edge of the source.
+    private CfgEdge<N> nextOut;
+
+    CfgEdge(CfgNode<N> source, Branch value, CfgNode<N> dest) {
+      this.source = source;
+      this.value = value;
+      this.dest = dest;
+    }
+
+    @Override
+    public DiGraphNode<N, Branch> getSource() {
+      return source;
+    }
+
+    @Override
+    public DiGraphNode<N, Branch> getDestination() {
+      return dest;
+    }
+
+    @Override
+    public void setSource(DiGraphNode<N, Branch> node) {
+      throw new UnsupportedOperationException(
+          "Edges of a control flow graph can't be moved");
+    }
+
+    @Override
+    public void setDestination(DiGraphNode<N, Branch> node) {
+      throw new UnsupportedOperationException(
+          "Edges of a control flow graph can't be moved");
+    }
+
+    @Override
+    public Branch getValue() {
+      return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <A extends Annotation> A getAnnotation() {
+      if (!source.graph.useEdgeAnnotations) {
+        throw new UnsupportedOperationException(
+            "Graph initialized with edge annotations turned off");
+      }
+      return (A) annotation;
+    }
+
+    @Override
+    public void setAnnotation(Annotation data) {
+      if (!source.graph.useEdgeAnnotations) {
+        throw new UnsupportedOperationException(
+            "Graph initialized with edge annotations turned off");
+      }
+      annotation = data;
+    }
+
+    @Override
+    public String getColor() {
+      return "black";
+    }
+
+    @Override
+    public String getLabel() {
+      return String.valueOf(value);
+    }
+
+    @Override
+    public String getNode1Id() {
+      return source.getId();
+    }
+
+    @Override
+    public String getNode2Id() {
+      return dest.getId();
+    }
+
+    @Override
+    public String toString() {
+      return source + " -> " + dest;
+    }
+
+    @Override
+    public GraphNode<N, Branch> getNodeA() {
+      return source;
+    }
+
+    @Override
+    public GraphNode<N, Branch> getNodeB() {
+      return dest;
+    }
+  }
+
+  /** An unmodifiable view of a range of one of the edge arrays. */
+  private static final class EdgeList<N>
+      extends AbstractList<DiGraphEdge<N, Branch>> implements RandomAccess {
+    private final CfgEdge<N>[] edges;
+    private final int start;
+    private final int end;
+
+    EdgeList(CfgEdge<N>[] edges, int start, int end) {
+      this.edges = edges;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    public DiGraphEdge<N, Branch> get(int index) {
+      Preconditions.checkElementIndex(index, end - start);
+      return edges[start + index];
+    }
+
+    @Override
+    public int size() {
+      return end - start;
+    }
+  }
 }
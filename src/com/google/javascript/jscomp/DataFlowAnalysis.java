@@ -27,13 +27,13 @@ import com.google.javascript.jscomp.parsing.parser.util.format.SimpleFormat;
 import com.google.javascript.rhino.Node;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.TreeSet;
 
 /**
  * A framework to help writing static program analysis. A subclass of
@@ -87,7 +87,18 @@ abstract class DataFlowAnalysis<N, L extends LatticeElement> {
 
   private final ControlFlowGraph<N> cfg;
   final JoinOp<L> joinOp;
-  protected final Set<DiGraphNode<N, Branch>> orderedWorkSet;
+  private final Comparator<DiGraphNode<N, Branch>> nodeComparator;
+
+  // The nodes of the graph, in the order of the comparator if there is one.
+  // The analysis refers to the nodes by their index in this list.
+  private List<DiGraphNode<N, Branch>> nodes;
+  // The indices of the nodes that a node flows into, and of the nodes whose
+  // states are joined into it: the successors and predecessors of a forward
+  // analysis, and the other way around for a backward analysis.
+  private int[][] flowTargets;
+  private int[][] flowSources;
+  private int implicitReturnIndex;
+  private WorkList workList;
 
   /*
    * Feel free to increase this to a reasonable number if you are finding that
@@ -121,13 +132,7 @@ abstract class DataFlowAnalysis<N, L extends LatticeElement> {
   DataFlowAnalysis(ControlFlowGraph<N> targetCfg, JoinOp<L> joinOp) {
     this.cfg = targetCfg;
     this.joinOp = joinOp;
-    Comparator<DiGraphNode<N, Branch>> nodeComparator =
-      cfg.getOptionalNodeComparator(isForward());
-    if (nodeComparator != null) {
-      this.orderedWorkSet = new TreeSet<>(nodeComparator);
-    } else {
-      this.orderedWorkSet = new LinkedHashSet<>();
-    }
+    this.nodeComparator = cfg.getOptionalNodeComparator(isForward());
   }
 
   /**
@@ -202,30 +207,26 @@ abstract class DataFlowAnalysis<N, L extends LatticeElement> {
   final void analyze(int maxSteps) {
     initialize();
     int step = 0;
-    while (!orderedWorkSet.isEmpty()) {
+    while (!workList.isEmpty()) {
       if (step > maxSteps) {
         throw new MaxIterationsExceededException(
           "Analysis did not terminate after " + maxSteps + " iterations");
       }
-      DiGraphNode<N, Branch> curNode = orderedWorkSet.iterator().next();
-      orderedWorkSet.remove(curNode);
-      joinInputs(curNode);
-      if (flow(curNode)) {
+      int current = workList.remove();
+      joinInputs(current);
+      if (flow(nodes.get(current))) {
         // If there is a change in the current node, we want to grab the list
         // of nodes that this node affects.
-        List<DiGraphNode<N, Branch>> nextNodes = isForward() ?
-            cfg.getDirectedSuccNodes(curNode) :
-            cfg.getDirectedPredNodes(curNode);
-        for (DiGraphNode<N, Branch> nextNode : nextNodes) {
-          if (nextNode != cfg.getImplicitReturn()) {
-            orderedWorkSet.add(nextNode);
+        for (int next : flowTargets[current]) {
+          if (next != implicitReturnIndex) {
+            workList.add(next);
           }
         }
       }
       step++;
     }
     if (isForward()) {
-      joinInputs(getCfg().getImplicitReturn());
+      joinInputs(implicitReturnIndex);
     }
   }
 
@@ -247,17 +248,73 @@ abstract class DataFlowAnalysis<N, L extends LatticeElement> {
    * Initializes the work list and the control flow graph.
    */
   protected void initialize() {
-    // TODO(user): Calling clear doesn't deallocate the memory in a
-    // LinkedHashSet. Consider creating a new work set if we plan to repeatedly
-    // call analyze.
-    orderedWorkSet.clear();
-    for (DiGraphNode<N, Branch> node : cfg.getDirectedGraphNodes()) {
+    indexNodes();
+    for (DiGraphNode<N, Branch> node : nodes) {
       node.setAnnotation(new FlowState<>(createInitialEstimateLattice(),
           createInitialEstimateLattice()));
-      if (node != cfg.getImplicitReturn()) {
-        orderedWorkSet.add(node);
+    }
+  }
+
+  /**
+   * Numbers the nodes of the graph, records the edges between them by their
+   * indices, and puts all the nodes but the implicit return in the work
+   * list.
+   */
+  final void indexNodes() {
+    // The implicit return is never in the work list, so it isn't ordered
+    // with the other nodes, and goes last.
+    nodes = new ArrayList<>();
+    boolean hasImplicitReturn = false;
+    for (DiGraphNode<N, Branch> node : cfg.getDirectedGraphNodes()) {
+      if (node == cfg.getImplicitReturn()) {
+        hasImplicitReturn = true;
+      } else {
+        nodes.add(node);
       }
     }
+    if (nodeComparator != null) {
+      Collections.sort(nodes, nodeComparator);
+    }
+    implicitReturnIndex = -1;
+    if (hasImplicitReturn) {
+      implicitReturnIndex = nodes.size();
+      nodes.add(cfg.getImplicitReturn());
+    }
+    int size = nodes.size();
+    // The indices of the nodes by graph node id.
+    int[] indices = new int[size];
+    for (int i = 0; i < size; i++) {
+      indices[cfg.getNodeId(nodes.get(i))] = i;
+    }
+    int[][] succs = new int[size][];
+    int[][] preds = new int[size][];
+    for (int i = 0; i < size; i++) {
+      DiGraphNode<N, Branch> node = nodes.get(i);
+      succs[i] = indicesOf(cfg.getDirectedSuccNodes(node), indices);
+      preds[i] = indicesOf(cfg.getDirectedPredNodes(node), indices);
+    }
+    flowTargets = isForward() ? succs : preds;
+    flowSources = isForward() ? preds : succs;
+    workList = new WorkList(size, nodeComparator != null);
+    for (int i = 0; i < size; i++) {
+      if (i != implicitReturnIndex) {
+        workList.add(i);
+      }
+    }
+  }
+
+  private int[] indicesOf(
+      List<DiGraphNode<N, Branch>> list, int[] indices) {
+    int[] result = new int[list.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = indices[cfg.getNodeId(list.get(i))];
+    }
+    return result;
+  }
+
+  /** Returns the node with the given index. */
+  final DiGraphNode<N, Branch> getNode(int index) {
+    return nodes.get(index);
   }
 
   /**
@@ -282,41 +339,43 @@ abstract class DataFlowAnalysis<N, L extends LatticeElement> {
    * Computes the new flow state at a given node's entry by merging the
    * output (input) lattice of the node's predecessor (successor).
    *
-   * @param node Node to compute new join.
+   * @param index Index of the node to compute new join.
    */
-  protected void joinInputs(DiGraphNode<N, Branch> node) {
+  protected void joinInputs(int index) {
+    DiGraphNode<N, Branch> node = nodes.get(index);
     FlowState<L> state = node.getAnnotation();
+    int[] inNodes = flowSources[index];
     if (isForward()) {
       if (cfg.getEntry() == node) {
         state.setIn(createEntryLattice());
       } else {
-        List<DiGraphNode<N, Branch>> inNodes = cfg.getDirectedPredNodes(node);
-        if (inNodes.size() == 1) {
-          FlowState<L> inNodeState = inNodes.get(0).getAnnotation();
+        if (inNodes.length == 1) {
+          FlowState<L> inNodeState = nodes.get(inNodes[0]).getAnnotation();
           state.setIn(inNodeState.getOut());
-        } else if (inNodes.size() > 1) {
-          List<L> values = new ArrayList<>(inNodes.size());
-          for (DiGraphNode<N, Branch> currentNode : inNodes) {
-            FlowState<L> currentNodeState = currentNode.getAnnotation();
+        } else if (inNodes.length > 1) {
+          List<L> values = new ArrayList<>(inNodes.length);
+          for (int currentNode : inNodes) {
+            FlowState<L> currentNodeState =
+                nodes.get(currentNode).getAnnotation();
             values.add(currentNodeState.getOut());
           }
           state.setIn(joinOp.apply(values));
         }
       }
     } else {
-      List<DiGraphNode<N, Branch>> inNodes = cfg.getDirectedSuccNodes(node);
-      if (inNodes.size() == 1) {
-        DiGraphNode<N, Branch> inNode = inNodes.get(0);
-        if (inNode == cfg.getImplicitReturn()) {
+      if (inNodes.length == 1) {
+        int inNode = inNodes[0];
+        if (inNode == implicitReturnIndex) {
           state.setOut(createEntryLattice());
         } else {
-          FlowState<L> inNodeState = inNode.getAnnotation();
+          FlowState<L> inNodeState = nodes.get(inNode).getAnnotation();
           state.setOut(inNodeState.getIn());
         }
-      } else if (inNodes.size() > 1) {
-        List<L> values = new ArrayList<>(inNodes.size());
-        for (DiGraphNode<N, Branch> currentNode : inNodes) {
-          FlowState<L> currentNodeState = currentNode.getAnnotation();
+      } else if (inNodes.length > 1) {
+        List<L> values = new ArrayList<>(inNodes.length);
+        for (int currentNode : inNodes) {
+          FlowState<L> currentNodeState =
+              nodes.get(currentNode).getAnnotation();
           values.add(currentNodeState.getIn());
         }
         state.setOut(joinOp.apply(values));
@@ -375,6 +434,79 @@ abstract class DataFlowAnalysis<N, L extends LatticeElement> {
     }
   }
 
+  /**
+   * The work list of an analysis: a binary heap of node indices ordered by
+   * their keys, with a bit set of the indices in the heap so that no node is
+   * in it twice. The key of a node is its index if the nodes are ordered by
+   * priority, and the number of nodes added before it otherwise, which
+   * makes the work list first in, first out.
+   */
+  static final class WorkList {
+    private final boolean prioritized;
+    private final int[] heap;
+    private final int[] keys;
+    private final BitSet inHeap;
+    private int size = 0;
+    private int nextKey = 0;
+
+    WorkList(int capacity, boolean prioritized) {
+      this.prioritized = prioritized;
+      this.heap = new int[capacity];
+      this.keys = new int[capacity];
+      this.inHeap = new BitSet(capacity);
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    /** Adds the node with the given index, unless it is already here. */
+    void add(int index) {
+      if (inHeap.get(index)) {
+        return;
+      }
+      inHeap.set(index);
+      int key = prioritized ? index : nextKey++;
+      keys[index] = key;
+      int i = size++;
+      while (i > 0) {
+        int parent = (i - 1) >>> 1;
+        if (keys[heap[parent]] <= key) {
+          break;
+        }
+        heap[i] = heap[parent];
+        i = parent;
+      }
+      heap[i] = index;
+    }
+
+    /** Removes and returns the index with the smallest key. */
+    int remove() {
+      Preconditions.checkState(size > 0);
+      int result = heap[0];
+      inHeap.clear(result);
+      int last = heap[--size];
+      int key = keys[last];
+      int i = 0;
+      while (true) {
+        int child = 2 * i + 1;
+        if (child >= size) {
+          break;
+        }
+        if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+          child++;
+        }
+        if (keys[heap[child]] >= key) {
+          break;
+        }
+        heap[i] = heap[child];
+        i = child;
+      }
+      heap[i] = last;
+      return result;
+    }
+  }
+
   /**
    * The exception to be thrown if the analysis has been running for a long
    * number of iterations. Chances are the analysis is not monotonic, a
@@ -392,7 +524,7 @@ abstract class DataFlowAnalysis<N, L extends LatticeElement> {
 
     @Override
     protected void initialize() {
-      orderedWorkSet.clear();
+      indexNodes();
       for (DiGraphNode<N, Branch> node : getCfg().getDirectedGraphNodes()) {
         int outEdgeCount = getCfg().getOutEdges(node.getValue()).size();
         List<L> outLattices = new ArrayList<>();
@@ -401,9 +533,6 @@ abstract class DataFlowAnalysis<N, L extends LatticeElement> {
         }
         node.setAnnotation(new BranchedFlowState<>(
             createInitialEstimateLattice(), outLattices));
-        if (node != getCfg().getImplicitReturn()) {
-          orderedWorkSet.add(node);
-        }
       }
     }
 
@@ -456,7 +585,8 @@ abstract class DataFlowAnalysis<N, L extends LatticeElement> {
     }
 
     @Override
-    protected void joinInputs(DiGraphNode<N, Branch> node) {
+    protected void joinInputs(int index) {
+      DiGraphNode<N, Branch> node = getNode(index);
       BranchedFlowState<L> state = node.getAnnotation();
       List<DiGraphNode<N, Branch>> predNodes =
           getCfg().getDirectedPredNodes(node);
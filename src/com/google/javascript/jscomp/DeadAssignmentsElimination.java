@@ -22,7 +22,7 @@ import com.google.common.base.Predicates;
 import com.google.javascript.jscomp.ControlFlowGraph.Branch;
 import com.google.javascript.jscomp.DataFlowAnalysis.FlowState;
 import com.google.javascript.jscomp.LiveVariablesAnalysis.LiveVariableLattice;
-import com.google.javascript.jscomp.NodeTraversal.AbstractPostOrderCallback;
+import com.google.javascript.jscomp.NodeTraversal.FunctionCallback;
 import com.google.javascript.jscomp.NodeTraversal.ScopedCallback;
 import com.google.javascript.jscomp.graph.DiGraph.DiGraphNode;
 import com.google.javascript.rhino.IR;
@@ -36,8 +36,8 @@ import com.google.javascript.rhino.Token;
  * current content of {@code x} will not be read and this assignment is useless.
  *
  */
-class DeadAssignmentsElimination extends AbstractPostOrderCallback implements
-    CompilerPass, ScopedCallback {
+class DeadAssignmentsElimination extends AbstractFunctionLocalPass
+    implements ScopedCallback {
 
   private final AbstractCompiler compiler;
   private LiveVariablesAnalysis liveness;
@@ -63,7 +63,59 @@ class DeadAssignmentsElimination extends AbstractPostOrderCallback implements
   public void process(Node externs, Node root) {
     Preconditions.checkNotNull(externs);
     Preconditions.checkNotNull(root);
-    NodeTraversal.traverseEs6(compiler, root, this);
+    // The analysis only looks at the body of a function, so a function that
+    // hasn't changed since the last run has no new dead assignments.
+    NodeTraversal.traverseChangedFunctions(compiler, new FunctionCallback() {
+        @Override
+        public void enterFunction(AbstractCompiler compiler, Node root) {
+          processFunction(root);
+        }
+      });
+  }
+
+  @Override
+  public void processFunction(Node root) {
+    // Do nothing on global scope / global blocks
+    if (!root.isFunction()) {
+      return;
+    }
+    // Only the variables declared in the function take part in the analysis,
+    // so the scopes that the function is nested in can be left empty.
+    Es6SyntacticScopeCreator scopeCreator =
+        new Es6SyntacticScopeCreator(compiler);
+    Scope scope = scopeCreator.createScope(
+        root, Scope.createGlobalScope(compiler.getJsRoot()));
+    new NodeTraversal(compiler, new FunctionBodyCallback(), scopeCreator)
+        .traverseAtScope(scope);
+  }
+
+  /**
+   * Visits the scopes of a function, but not the functions nested in it.
+   */
+  private class FunctionBodyCallback implements ScopedCallback {
+    @Override
+    public boolean shouldTraverse(NodeTraversal t, Node n, Node parent) {
+      return !n.isFunction();
+    }
+
+    @Override
+    public void visit(NodeTraversal t, Node n, Node parent) {
+    }
+
+    @Override
+    public void enterScope(NodeTraversal t) {
+      DeadAssignmentsElimination.this.enterScope(t);
+    }
+
+    @Override
+    public void exitScope(NodeTraversal t) {
+      DeadAssignmentsElimination.this.exitScope(t);
+    }
+  }
+
+  @Override
+  public boolean shouldTraverse(NodeTraversal t, Node n, Node parent) {
+    return true;
   }
 
   @Override
@@ -221,7 +273,7 @@ class DeadAssignmentsElimination extends AbstractPostOrderCallback implements
           n.isAssign()) {
         n.removeChild(rhs);
         n.getParent().replaceChild(n, rhs);
-        compiler.reportCodeChange();
+        compiler.reportChangeToEnclosingScope(rhs);
         return;
       }
 
@@ -271,7 +323,7 @@ class DeadAssignmentsElimination extends AbstractPostOrderCallback implements
         throw new IllegalStateException("Unknown statement");
       }
 
-      compiler.reportCodeChange();
+      compiler.reportChangeToEnclosingScope(parent);
       return;
 
     } else {
@@ -906,6 +906,11 @@ public final class DefaultPassConfig extends PassConfig {
       return combineChecks(compiler, sharedCallbacks);
     }
 
+    @Override
+    boolean isFusible() {
+      return true;
+    }
+
   };
 
   /** Verify that all the passes are one-time passes. */
@@ -1292,6 +1297,11 @@ public final class DefaultPassConfig extends PassConfig {
           compiler, options.checkMissingGetCssNameLevel,
           options.checkMissingGetCssNameBlacklist);
     }
+
+    @Override
+    boolean isFusible() {
+      return true;
+    }
   };
 
   /**
@@ -1479,7 +1489,7 @@ public final class DefaultPassConfig extends PassConfig {
         }
         @Override
         public void hotSwapScript(Node scriptRoot, Node originalRoot) {
-          makeTypeInference(compiler).inferAllScopes(scriptRoot);
+          makeTypeInference(compiler).hotSwapScript(scriptRoot, originalRoot);
         }
       };
     }
@@ -1562,6 +1572,11 @@ public final class DefaultPassConfig extends PassConfig {
       }
       return combineChecks(compiler, callbacks);
     }
+
+    @Override
+    boolean isFusible() {
+      return true;
+    }
   };
 
   /** Checks access controls. Depends on type-inference. */
@@ -1590,6 +1605,11 @@ public final class DefaultPassConfig extends PassConfig {
           .add(new ImplicitNullabilityCheck(compiler));
       return combineChecks(compiler, callbacks.build());
     }
+
+    @Override
+    boolean isFusible() {
+      return true;
+    }
   };
 
   private final HotSwapPassFactory checkRequiresAndProvidesSorted =
@@ -1600,6 +1620,14 @@ public final class DefaultPassConfig extends PassConfig {
     }
   };
 
+  /**
+   * Returns the passes that infer and check the types of a script again,
+   * after a script that it depends on was hot swapped.
+   */
+  List<PassFactory> getTypeRecheckPasses() {
+    return ImmutableList.<PassFactory>of(inferTypes, checkTypes);
+  }
+
   /** Executes the given callbacks with a {@link CombinedCompilerPass}. */
   private static HotSwapCompilerPass combineChecks(AbstractCompiler compiler,
       List<Callback> callbacks) {
@@ -1648,7 +1676,8 @@ public final class DefaultPassConfig extends PassConfig {
           // Create a global namespace for analysis by check passes.
           // Note that this class does all heavy computation lazily,
           // so it's OK to create it here.
-          namespaceForChecks = new GlobalNamespace(compiler, externs, jsRoot);
+          namespaceForChecks =
+              compiler.getAnalysisCache().getGlobalNamespace(externs, jsRoot);
           new CheckGlobalNames(compiler, options.checkGlobalNamesLevel)
               .injectNamespace(namespaceForChecks).process(externs, jsRoot);
         }
@@ -1709,6 +1738,7 @@ public final class DefaultPassConfig extends PassConfig {
           // Kill the global namespace so that it can be garbage collected
           // after all passes are through with it.
           namespaceForChecks = null;
+          compiler.getAnalysisCache().clear();
         }
 
         @Override
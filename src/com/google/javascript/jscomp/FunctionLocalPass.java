@@ -0,0 +1,55 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.javascript.rhino.Node;
+
+/**
+ * Interface for compiler passes that look at one function at a time.
+ * <p>
+ * Running such a pass must be the same as calling {@code processFunction} on
+ * the root of the JS tree and on every changed function, outer functions
+ * before the functions nested in them. A call may only read and change the
+ * code of its function that isn't inside a nested function; it may remove
+ * nested functions, but not look into them.
+ * <p>
+ * This lets the {@link PhaseOptimizer} run the pass on several functions at
+ * once, with one instance of the pass per thread. Passes that need no
+ * per-thread setup extend {@link AbstractFunctionLocalPass}.
+ */
+interface FunctionLocalPass extends CompilerPass {
+
+  /**
+   * Processes the code of a single function.
+   *
+   * @param root A FUNCTION node, or the root of the JS tree for the code
+   *     outside of all functions.
+   */
+  void processFunction(Node root);
+
+  /**
+   * Prepares this instance to process functions on the current thread.
+   * Called before the first {@code processFunction} call of a run.
+   */
+  void beginFunctions();
+
+  /**
+   * Releases what {@link #beginFunctions} set up. Called on the same thread
+   * after the last {@code processFunction} call of a run.
+   */
+  void endFunctions();
+}
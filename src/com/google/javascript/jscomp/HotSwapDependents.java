@@ -0,0 +1,146 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.javascript.rhino.JSDocInfo;
+import com.google.javascript.rhino.Node;
+
+import java.util.Set;
+
+/**
+ * Finds the scripts that depend on a hot-swapped script: the scripts that
+ * refer, in code or in JSDoc, to a global name that the old or the new
+ * version of the script declares or assigns to, like {@code ns} for
+ * {@code ns.label = 'a'}. The types that type inference gave to the nodes of
+ * such scripts may be stale.
+ *
+ * Names are matched without regard to shadowing, so a script may be found
+ * to depend on another one when it only has a local of the same name.
+ */
+final class HotSwapDependents {
+
+  private HotSwapDependents() {}
+
+  /**
+   * Adds to {@code names} the global names that the given script declares
+   * or assigns to. A name that is assigned to inside a function counts only
+   * if the global scope declares it.
+   */
+  static void addWrittenGlobalNames(
+      Node script, TypedScope topScope, Set<String> names) {
+    addWrittenGlobalNames(script, false, topScope, names);
+  }
+
+  private static void addWrittenGlobalNames(Node n, boolean inFunction,
+      TypedScope topScope, Set<String> names) {
+    Node written = null;
+    if (NodeUtil.isNameDeclaration(n)) {
+      for (Node name = n.getFirstChild(); name != null;
+           name = name.getNext()) {
+        if (name.isName() && !inFunction) {
+          names.add(name.getString());
+        }
+      }
+    } else if (NodeUtil.isFunctionDeclaration(n)
+        || NodeUtil.isClassDeclaration(n)) {
+      if (!inFunction) {
+        names.add(n.getFirstChild().getString());
+      }
+    } else if (NodeUtil.isAssignmentOp(n)) {
+      written = n.getFirstChild();
+    } else if (n.isExprResult() && n.getFirstChild().isGetProp()) {
+      // A stub declaration, like "ns.label;".
+      written = n.getFirstChild();
+    }
+    if (written != null && written.isQualifiedName()) {
+      Node root = NodeUtil.getRootOfQualifiedName(written);
+      if (root.isName() && (!inFunction
+          || topScope.getOwnSlot(root.getString()) != null)) {
+        names.add(root.getString());
+      }
+    }
+    for (Node child = n.getFirstChild(); child != null;
+         child = child.getNext()) {
+      addWrittenGlobalNames(
+          child, inFunction || n.isFunction(), topScope, names);
+    }
+  }
+
+  /**
+   * Forgets the types of the names that the given tree reads. Type
+   * inference keeps the type that a name already has when it cannot trust
+   * the type of its variable, and type checking then gives it the type of
+   * the variable, which may be stale.
+   */
+  static void clearNameTypes(Node n) {
+    if (n.isName() && !isDeclarationName(n)) {
+      n.setJSType(null);
+    }
+    for (Node child = n.getFirstChild(); child != null;
+         child = child.getNext()) {
+      clearNameTypes(child);
+    }
+  }
+
+  private static boolean isDeclarationName(Node n) {
+    Node parent = n.getParent();
+    return parent.isFunction() || parent.isCatch() || parent.isParamList()
+        || NodeUtil.isNameDeclaration(parent);
+  }
+
+  /**
+   * Whether the given tree refers to one of the given names, in code or as
+   * the root of a type name in its JSDoc.
+   */
+  static boolean refersTo(Node n, Set<String> names) {
+    if (n.isName() && names.contains(n.getString())) {
+      return true;
+    }
+    JSDocInfo info = n.getJSDocInfo();
+    if (info != null) {
+      for (Node typeNode : info.getTypeNodes()) {
+        if (typeRefersTo(typeNode, names)) {
+          return true;
+        }
+      }
+    }
+    for (Node child = n.getFirstChild(); child != null;
+         child = child.getNext()) {
+      if (refersTo(child, names)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean typeRefersTo(Node typeNode, Set<String> names) {
+    if (typeNode.isString()) {
+      String name = typeNode.getString();
+      int dot = name.indexOf('.');
+      if (names.contains(dot == -1 ? name : name.substring(0, dot))) {
+        return true;
+      }
+    }
+    for (Node child = typeNode.getFirstChild(); child != null;
+         child = child.getNext()) {
+      if (typeRefersTo(child, names)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -43,9 +43,8 @@ class InferConsts implements CompilerPass {
 
   @Override
   public void process(Node externs, Node js) {
-    ReferenceCollectingCallback collector = new ReferenceCollectingCallback(
-        compiler, ReferenceCollectingCallback.DO_NOTHING_BEHAVIOR);
-    NodeTraversal.traverseEs6(compiler, js, collector);
+    ReferenceCollectingCallback collector =
+        compiler.getAnalysisCache().getReferences(js);
 
     for (Var v : collector.getAllSymbols()) {
       considerVar(v, collector.getReferences(v));
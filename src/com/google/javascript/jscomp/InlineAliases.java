@@ -48,7 +48,7 @@ final class InlineAliases extends AbstractPostOrderCallback implements CompilerP
 
   @Override
   public void process(Node externs, Node root) {
-    namespace = new GlobalNamespace(compiler, root);
+    namespace = compiler.getAnalysisCache().getGlobalNamespace(root);
     NodeTraversal.traverseEs6(compiler, root, this);
   }
 
@@ -54,6 +54,10 @@ public final class JSModule implements DependencyInfo, Serializable {
   private final List<JSModule> deps = new ArrayList<>();
 
   private int depth;
+
+  /** The position of this module in its module graph, ordered by depth */
+  private int index;
+
   /**
    * Creates an instance.
    *
@@ -62,6 +66,7 @@ public final class JSModule implements DependencyInfo, Serializable {
   public JSModule(String name) {
     this.name = name;
     this.depth = -1;
+    this.index = -1;
   }
 
   /** Gets the module name. */
@@ -284,4 +289,18 @@ public final class JSModule implements DependencyInfo, Serializable {
   public int getDepth() {
     return depth;
   }
+
+  /**
+   * @param index the position of this module in its module graph
+   */
+  void setIndex(int index) {
+    this.index = index;
+  }
+
+  /**
+   * @return the position of this module in its module graph
+   */
+  int getIndex() {
+    return index;
+  }
 }
@@ -67,16 +67,35 @@ public final class JSModuleGraph {
   private List<List<JSModule>> modulesByDepth;
 
   /**
-   * dependencyMap is a cache of dependencies that makes the dependsOn
-   * function faster.  Each map entry associates a starting
-   * JSModule with the set of JSModules that are transitively dependent on the
-   * starting module.
+   * The modules ordered by depth, and in their original order at each depth.
+   * A module's index in this array is greater than the indices of its
+   * dependencies, and the deeper of two modules has the greater index, with
+   * ties broken by the original order (later meaning deeper).
+   */
+  private final JSModule[] modulesByIndex;
+
+  /**
+   * The index of the first module at the depth of each module, by index.
+   */
+  private final int[] depthStarts;
+
+  /**
+   * The transitive dependencies of each module, as a dense bit matrix: bit j
+   * of row i is set if the module with index i depends on the module with
+   * index j. The rows are arrays of 64 bit words.
+   *
+   * A row is filled in when it is first needed, as modules may get more
+   * dependencies after the graph is created. If a row is null, then it hasn't
+   * been filled in for that module.
+   */
+  private final long[][] transitiveDeps;
+
+  /**
+   * dependencyMap is a cache of the sets that getTransitiveDepsDeepestFirst
+   * returns.
    *
    * If the cache returns null, then the entry hasn't been filled in for that
    * module.
-   *
-   * dependencyMap should be filled from leaf to root so that
-   * getTransitiveDepsDeepestFirst can use its results directly.
    */
   private Map<JSModule, Set<JSModule>> dependencyMap = new HashMap<>();
 
@@ -116,6 +135,53 @@ public final class JSModuleGraph {
       }
       modulesByDepth.get(depth).add(module);
     }
+
+    modulesByIndex = new JSModule[modules.size()];
+    depthStarts = new int[modules.size()];
+    int index = 0;
+    for (List<JSModule> modulesAtDepth : modulesByDepth) {
+      int depthStart = index;
+      for (JSModule module : modulesAtDepth) {
+        module.setIndex(index);
+        depthStarts[index] = depthStart;
+        modulesByIndex[index++] = module;
+      }
+    }
+    transitiveDeps = new long[modules.size()][];
+  }
+
+  /**
+   * Returns the index of a module of this graph.
+   */
+  private int indexOf(JSModule module) {
+    int index = module.getIndex();
+    if (index < 0 || index >= modulesByIndex.length
+        || modulesByIndex[index] != module) {
+      throw new IllegalArgumentException(
+          "Module not in the module graph: " + module.getName());
+    }
+    return index;
+  }
+
+  /**
+   * Returns the row of the transitive dependencies of a module of this graph.
+   */
+  private long[] getTransitiveDepsRow(JSModule module) {
+    int index = indexOf(module);
+    long[] row = transitiveDeps[index];
+    if (row == null) {
+      row = new long[(modulesByIndex.length + 63) / 64];
+      for (JSModule dep : module.getDependencies()) {
+        int depIndex = indexOf(dep);
+        row[depIndex >>> 6] |= 1L << depIndex;
+        long[] depRow = getTransitiveDepsRow(dep);
+        for (int i = 0; i < row.length; i++) {
+          row[i] |= depRow[i];
+        }
+      }
+      transitiveDeps[index] = row;
+    }
+    return row;
   }
 
   /**
@@ -195,13 +261,8 @@ public final class JSModuleGraph {
    * module never depends on itself, as that dependency would be cyclic.
    */
   public boolean dependsOn(JSModule src, JSModule m) {
-    Set<JSModule> deps = dependencyMap.get(src);
-    if (deps == null) {
-      deps = getTransitiveDepsDeepestFirst(src);
-      dependencyMap.put(src, deps);
-    }
-
-    return deps.contains(m);
+    int index = indexOf(m);
+    return (getTransitiveDepsRow(src)[index >>> 6] & (1L << index)) != 0;
   }
 
   /**
@@ -214,19 +275,20 @@ public final class JSModuleGraph {
    *     they have no common dependencies
    */
   JSModule getDeepestCommonDependency(JSModule m1, JSModule m2) {
-    int m1Depth = m1.getDepth();
-    int m2Depth = m2.getDepth();
+    long[] deps1 = getTransitiveDepsRow(m1);
+    long[] deps2 = getTransitiveDepsRow(m2);
     // According our definition of depth, the result must have a strictly
-    // smaller depth than either m1 or m2.
-    for (int depth = Math.min(m1Depth, m2Depth) - 1; depth >= 0; depth--) {
-      List<JSModule> modulesAtDepth = modulesByDepth.get(depth);
-      // Look at the modules at this depth in reverse order, so that we use the
-      // original ordering of the modules to break ties (later meaning deeper).
-      for (int i = modulesAtDepth.size() - 1; i >= 0; i--) {
-        JSModule m = modulesAtDepth.get(i);
-        if (dependsOn(m1, m) && dependsOn(m2, m)) {
-          return m;
-        }
+    // smaller depth than either m1 or m2, so a smaller index than the first
+    // module at the depth of the shallower one. Of those, the deepest common
+    // dependency has the greatest index.
+    int limit = depthStarts[Math.min(indexOf(m1), indexOf(m2))];
+    for (int i = (limit - 1) >> 6; i >= 0; i--) {
+      long common = deps1[i] & deps2[i];
+      if (i == (limit - 1) >> 6) {
+        common &= -1L >>> (63 - ((limit - 1) & 63));
+      }
+      if (common != 0) {
+        return modulesByIndex[64 * i + 63 - Long.numberOfLeadingZeros(common)];
       }
     }
     return null;
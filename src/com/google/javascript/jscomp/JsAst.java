@@ -17,12 +17,18 @@
 package com.google.javascript.jscomp;
 
 import com.google.common.base.Preconditions;
+import com.google.javascript.jscomp.parsing.Config;
 import com.google.javascript.jscomp.parsing.ParserRunner;
+import com.google.javascript.rhino.ErrorReporter;
 import com.google.javascript.rhino.IR;
 import com.google.javascript.rhino.InputId;
 import com.google.javascript.rhino.Node;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
 
 /**
  * Generates an AST for a JavaScript source file.
@@ -36,6 +42,10 @@ public class JsAst implements SourceAst {
   private String fileName;
   private Node root;
 
+  // The result of a parse whose diagnostics have not been reported yet,
+  // consumed by the next call to getAstRoot.
+  private transient BufferedParseResult bufferedParseResult;
+
   public JsAst(SourceFile sourceFile) {
     this.inputId = new InputId(sourceFile.getName());
     this.sourceFile = sourceFile;
@@ -54,6 +64,7 @@ public class JsAst implements SourceAst {
   @Override
   public void clearAst() {
     root = null;
+    bufferedParseResult = null;
     // While we're at it, clear out any saved text in the source file on
     // the assumption that if we're dumping the parse tree, then we probably
     // assume regenerating everything else is a smart idea also.
@@ -76,23 +87,77 @@ public class JsAst implements SourceAst {
     sourceFile = file;
   }
 
+  /**
+   * Parses the source file without touching any compiler state, so that
+   * it is safe to call from a thread other than the compiler thread.
+   * Parser diagnostics are buffered, and are reported in their original
+   * order by the next call to {@link #getAstRoot}, which also finishes
+   * preparing the AST.
+   */
+  void preParse(Config config, @Nullable PersistentAstCache cache) {
+    if (root != null) {
+      return;
+    }
+    bufferedParseResult = parseBuffered(config, cache);
+  }
+
+  private BufferedParseResult parseBuffered(
+      Config config, @Nullable PersistentAstCache cache) {
+    BufferingErrorReporter reporter = new BufferingErrorReporter();
+    ParserRunner.ParseResult result = null;
+    boolean readError = false;
+    try {
+      String code = sourceFile.getCode();
+      if (cache != null) {
+        result = cache.load(sourceFile, code, config);
+      }
+      if (result == null) {
+        result = ParserRunner.parse(sourceFile, code, config, reporter);
+        // A cached tree is loaded without reporting anything, so only
+        // trees that parsed cleanly may be cached.
+        if (cache != null && result.ast != null && reporter.isEmpty()) {
+          cache.store(sourceFile, code, config, result);
+        }
+      }
+    } catch (IOException e) {
+      readError = true;
+    }
+    return new BufferedParseResult(result, reporter, readError);
+  }
+
   private void parse(AbstractCompiler compiler) {
     int startErrorCount = compiler.getErrorManager().getErrorCount();
-    try {
-      ParserRunner.ParseResult result = ParserRunner.parse(
-          sourceFile,
-          sourceFile.getCode(),
-          compiler.getParserConfig(sourceFile.isExtern()
-                        ? AbstractCompiler.ConfigContext.EXTERNS
-                        : AbstractCompiler.ConfigContext.DEFAULT),
-          compiler.getDefaultErrorReporter());
+    AbstractCompiler.ConfigContext context = sourceFile.isExtern()
+        ? AbstractCompiler.ConfigContext.EXTERNS
+        : AbstractCompiler.ConfigContext.DEFAULT;
+    PersistentAstCache cache = compiler.getAstCache(context);
+    if (bufferedParseResult == null && cache != null) {
+      bufferedParseResult =
+          parseBuffered(compiler.getParserConfig(context), cache);
+    }
+
+    ParserRunner.ParseResult result = null;
+    if (bufferedParseResult != null) {
+      result = bufferedParseResult.replay(compiler, sourceFile.getName());
+      bufferedParseResult = null;
+    } else {
+      try {
+        result = ParserRunner.parse(
+            sourceFile,
+            sourceFile.getCode(),
+            compiler.getParserConfig(context),
+            compiler.getDefaultErrorReporter());
+      } catch (IOException e) {
+        compiler.report(
+            JSError.make(AbstractCompiler.READ_ERROR, sourceFile.getName()));
+      }
+    }
+
+    if (result != null) {
       root = result.ast;
       if (compiler.isIdeMode()) {
         compiler.addComments(sourceFile.getName(), result.comments);
       }
-    } catch (IOException e) {
-      compiler.report(
-          JSError.make(AbstractCompiler.READ_ERROR, sourceFile.getName()));
     }
 
 
@@ -111,4 +176,82 @@ public class JsAst implements SourceAst {
     // the source file and module.
     root.setStaticSourceFile(sourceFile);
   }
+
+  /** A parse result whose diagnostics have not been reported yet. */
+  private static final class BufferedParseResult {
+    private final ParserRunner.ParseResult result;
+    private final BufferingErrorReporter reporter;
+    private final boolean readError;
+
+    BufferedParseResult(ParserRunner.ParseResult result,
+        BufferingErrorReporter reporter, boolean readError) {
+      this.result = result;
+      this.reporter = reporter;
+      this.readError = readError;
+    }
+
+    /**
+     * Reports the buffered diagnostics to the compiler and returns the
+     * parse result, or null if the source could not be read.
+     */
+    ParserRunner.ParseResult replay(
+        AbstractCompiler compiler, String sourceName) {
+      reporter.replay(compiler.getDefaultErrorReporter());
+      if (readError) {
+        compiler.report(
+            JSError.make(AbstractCompiler.READ_ERROR, sourceName));
+      }
+      return result;
+    }
+  }
+
+  /** Records parser diagnostics so they can be reported later. */
+  private static final class BufferingErrorReporter implements ErrorReporter {
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+
+    @Override
+    public void warning(String message, String sourceName, int line,
+        int lineOffset) {
+      diagnostics.add(
+          new Diagnostic(false, message, sourceName, line, lineOffset));
+    }
+
+    @Override
+    public void error(String message, String sourceName, int line,
+        int lineOffset) {
+      diagnostics.add(
+          new Diagnostic(true, message, sourceName, line, lineOffset));
+    }
+
+    boolean isEmpty() {
+      return diagnostics.isEmpty();
+    }
+
+    void replay(ErrorReporter target) {
+      for (Diagnostic d : diagnostics) {
+        if (d.isError) {
+          target.error(d.message, d.sourceName, d.line, d.lineOffset);
+        } else {
+          target.warning(d.message, d.sourceName, d.line, d.lineOffset);
+        }
+      }
+    }
+  }
+
+  private static final class Diagnostic {
+    final boolean isError;
+    final String message;
+    final String sourceName;
+    final int line;
+    final int lineOffset;
+
+    Diagnostic(boolean isError, String message, String sourceName, int line,
+        int lineOffset) {
+      this.isError = isError;
+      this.message = message;
+      this.sourceName = sourceName;
+      this.line = line;
+      this.lineOffset = lineOffset;
+    }
+  }
 }
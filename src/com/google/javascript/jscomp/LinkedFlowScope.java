@@ -262,10 +262,166 @@ class LinkedFlowScope implements FlowScope {
       if (linkedA.optimize() == linkedB.optimize()) {
         return linkedA.createChildFlowScope();
       }
+      // The initial estimate at the bottom of the lattice adds nothing.
+      if (linkedA.isEmptyBottom()) {
+        return linkedB.createChildFlowScope();
+      } else if (linkedB.isEmptyBottom()) {
+        return linkedA.createChildFlowScope();
+      }
+      Divergence divergence = new Divergence(linkedA, linkedB);
+      if (divergence.cache != null) {
+        return joinDiverged(linkedA, linkedB, divergence);
+      }
       return new LinkedFlowScope(new FlatFlowScopeCache(linkedA, linkedB));
     }
   }
 
+  /**
+   * Where two scopes that flow from the same entry parted: the closest cache
+   * they both flow from, the last slot defined on it that both scopes see,
+   * and the symbols that either scope has changed since.
+   */
+  private static class Divergence {
+    // The closest cache both scopes flow from, or null if there is none.
+    FlatFlowScopeCache cache = null;
+
+    // The last slot that both scopes see, and the length of its chain.
+    LinkedFlowSlot commonSlot = null;
+    int commonLength = 0;
+
+    final Set<String> changedSymbols = new HashSet<>();
+
+    Divergence(LinkedFlowScope a, LinkedFlowScope b) {
+      // Climb to the closest common cache. Every scope on the way holds
+      // the slots that changed since its own cache.
+      while (a.cache.level > b.cache.level) {
+        addChain(a.lastSlot);
+        a = a.cache.linkedEquivalent;
+      }
+      while (b.cache.level > a.cache.level) {
+        addChain(b.lastSlot);
+        b = b.cache.linkedEquivalent;
+      }
+      while (a.cache != b.cache) {
+        if (a.cache.linkedEquivalent == null) {
+          // The scopes come from different entries.
+          return;
+        }
+        addChain(a.lastSlot);
+        addChain(b.lastSlot);
+        a = a.cache.linkedEquivalent;
+        b = b.cache.linkedEquivalent;
+      }
+      cache = a.cache;
+
+      // Then find the last slot both chains share.
+      int lengthA = chainLength(a.lastSlot);
+      int lengthB = chainLength(b.lastSlot);
+      LinkedFlowSlot slotA = a.lastSlot;
+      LinkedFlowSlot slotB = b.lastSlot;
+      for (; lengthA > lengthB; lengthA--) {
+        changedSymbols.add(slotA.getName());
+        slotA = slotA.parent;
+      }
+      for (; lengthB > lengthA; lengthB--) {
+        changedSymbols.add(slotB.getName());
+        slotB = slotB.parent;
+      }
+      while (slotA != slotB) {
+        changedSymbols.add(slotA.getName());
+        changedSymbols.add(slotB.getName());
+        slotA = slotA.parent;
+        slotB = slotB.parent;
+        lengthA--;
+      }
+      commonSlot = slotA;
+      commonLength = lengthA;
+    }
+
+    private void addChain(LinkedFlowSlot slot) {
+      for (; slot != null; slot = slot.parent) {
+        changedSymbols.add(slot.getName());
+      }
+    }
+
+    private static int chainLength(LinkedFlowSlot slot) {
+      int length = 0;
+      for (; slot != null; slot = slot.parent) {
+        length++;
+      }
+      return length;
+    }
+  }
+
+  /**
+   * Joins two scopes that flow from the same cache. The slots the two scopes
+   * have in common are shared by the join, so only the symbols changed on
+   * either side since they parted need to be joined.
+   */
+  private static LinkedFlowScope joinDiverged(LinkedFlowScope linkedA,
+      LinkedFlowScope linkedB, Divergence divergence) {
+    LinkedFlowScope joined = new LinkedFlowScope(divergence.cache);
+    joined.lastSlot = divergence.commonSlot;
+    joined.depth = divergence.commonLength;
+    for (String name : divergence.changedSymbols) {
+      StaticTypedSlot<JSType> slot = joinSlots(name,
+          linkedA.getFlowSlot(name), linkedB.getFlowSlot(name),
+          linkedA, linkedB);
+      joined.inferSlotType(name, slot.getType());
+    }
+    return joined;
+  }
+
+  /**
+   * Joins the slots for a symbol in two scopes. A slot is null if the symbol
+   * hasn't changed in the flow of its scope.
+   *
+   * There are 5 different join cases:
+   * 1) The type is declared in joinedScopeA, not in joinedScopeB,
+   *    and not in functionScope. Just use the one in A.
+   * 2) The type is declared in joinedScopeB, not in joinedScopeA,
+   *    and not in functionScope. Just use the one in B.
+   * 3) The type is declared in functionScope and joinedScopeA, but
+   *    not in joinedScopeB. Join the two types.
+   * 4) The type is declared in functionScope and joinedScopeB, but
+   *    not in joinedScopeA. Join the two types.
+   * 5) The type is declared in joinedScopeA and joinedScopeB. Join
+   *    the two types.
+   */
+  private static StaticTypedSlot<JSType> joinSlots(String name,
+      StaticTypedSlot<JSType> slotA, StaticTypedSlot<JSType> slotB,
+      LinkedFlowScope joinedScopeA, LinkedFlowScope joinedScopeB) {
+    JSType joinedType = null;
+    if (slotB == null || slotB.getType() == null) {
+      StaticTypedSlot<JSType> fnSlot
+          = joinedScopeB.getFunctionScope().getSlot(name);
+      JSType fnSlotType = fnSlot == null ? null : fnSlot.getType();
+      if (fnSlotType == null) {
+        // Case #1
+        return slotA;
+      } else {
+        // Case #3
+        joinedType = slotA.getType().getLeastSupertype(fnSlotType);
+      }
+    } else if (slotA == null || slotA.getType() == null) {
+      StaticTypedSlot<JSType> fnSlot
+          = joinedScopeA.getFunctionScope().getSlot(name);
+      JSType fnSlotType = fnSlot == null ? null : fnSlot.getType();
+      if (fnSlotType == null) {
+        // Case #2
+        return slotB;
+      } else {
+        // Case #4
+        joinedType = slotB.getType().getLeastSupertype(fnSlotType);
+      }
+    } else {
+      // Case #5
+      joinedType =
+          slotA.getType().getLeastSupertype(slotB.getType());
+    }
+    return new SimpleSlot(name, joinedType, true);
+  }
+
   @Override
   public boolean equals(Object other) {
     if (other instanceof LinkedFlowScope) {
@@ -286,11 +442,12 @@ class LinkedFlowScope implements FlowScope {
         return false;
       }
 
-      if (cache == that.cache) {
-        // If the two flow scopes have the same cache, then we can check
-        // equality a lot faster: by just looking at the "dirty" elements
-        // in the cache, and comparing them in both scopes.
-        for (String name : cache.dirtySymbols) {
+      Divergence divergence = new Divergence(this, that);
+      if (divergence.cache != null) {
+        // If the two flow scopes flow from a common cache, then we can check
+        // equality a lot faster: by just looking at the symbols that changed
+        // since they parted, and comparing them in both scopes.
+        for (String name : divergence.changedSymbols) {
           if (diffSlots(getSlot(name), that.getSlot(name))) {
             return false;
           }
@@ -299,6 +456,12 @@ class LinkedFlowScope implements FlowScope {
         return true;
       }
 
+      if (!this.hasFlowSlots()) {
+        return !that.hasTypedFlowSlots();
+      } else if (!that.hasFlowSlots()) {
+        return !this.hasTypedFlowSlots();
+      }
+
       Map<String, StaticTypedSlot<JSType>> myFlowSlots = allFlowSlots();
       Map<String, StaticTypedSlot<JSType>> otherFlowSlots = that.allFlowSlots();
 
@@ -372,6 +535,50 @@ class LinkedFlowScope implements FlowScope {
     return slots;
   }
 
+  /** Whether any symbol has changed before this point in the flow. */
+  private boolean hasFlowSlots() {
+    return lastSlot != null || !cache.symbols.isEmpty();
+  }
+
+  /**
+   * Whether any symbol has a type that has changed before this point in the
+   * flow.
+   */
+  private boolean hasTypedFlowSlots() {
+    for (LinkedFlowSlot slot = lastSlot; slot != null; slot = slot.parent) {
+      if (slot.getType() != null) {
+        return true;
+      }
+    }
+    for (StaticTypedSlot<JSType> slot : cache.symbols.values()) {
+      if (slot.getType() != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Whether this is an initial estimate that flows from the bottom. */
+  private boolean isEmptyBottom() {
+    return flowsFromBottom() && !hasFlowSlots();
+  }
+
+  /**
+   * Gets the slot for the given symbol if it has changed before this point
+   * in the current flow, as {@link #allFlowSlots} would.
+   */
+  private StaticTypedSlot<JSType> getFlowSlot(String name) {
+    if (cache.dirtySymbols.contains(name)) {
+      for (LinkedFlowSlot slot = lastSlot;
+           slot != null; slot = slot.parent) {
+        if (slot.getName().equals(name)) {
+          return slot;
+        }
+      }
+    }
+    return cache.symbols.get(name);
+  }
+
   @Override
   public int hashCode() {
     throw new UnsupportedOperationException();
@@ -400,6 +607,10 @@ class LinkedFlowScope implements FlowScope {
     // The linked flow scope that this cache represents.
     private final LinkedFlowScope linkedEquivalent;
 
+    // The number of caches between this one and the cache at the entry or
+    // the join it flows from.
+    private final int level;
+
     // All the symbols defined before this point in the local flow.
     // May not include lazily declared qualified names.
     private Map<String, StaticTypedSlot<JSType>> symbols = new HashMap<>();
@@ -419,6 +630,7 @@ class LinkedFlowScope implements FlowScope {
       this.functionScope = functionScope;
       symbols = ImmutableMap.of();
       linkedEquivalent = null;
+      level = 0;
     }
 
     // A cache in the middle of a long scope chain.
@@ -428,12 +640,14 @@ class LinkedFlowScope implements FlowScope {
       functionScope = cache.functionScope;
       symbols = directParent.allFlowSlots();
       linkedEquivalent = directParent;
+      level = cache.level + 1;
     }
 
     // A cache at the join of two scope chains.
     FlatFlowScopeCache(LinkedFlowScope joinedScopeA,
         LinkedFlowScope joinedScopeB) {
       linkedEquivalent = null;
+      level = 0;
 
       // Always prefer the "real" function scope to the faked-out
       // bottom scope.
@@ -444,57 +658,20 @@ class LinkedFlowScope implements FlowScope {
       Map<String, StaticTypedSlot<JSType>> slotsB = joinedScopeB.allFlowSlots();
 
       symbols = slotsA;
-
-      // There are 5 different join cases:
-      // 1) The type is declared in joinedScopeA, not in joinedScopeB,
-      //    and not in functionScope. Just use the one in A.
-      // 2) The type is declared in joinedScopeB, not in joinedScopeA,
-      //    and not in functionScope. Just use the one in B.
-      // 3) The type is declared in functionScope and joinedScopeA, but
-      //    not in joinedScopeB. Join the two types.
-      // 4) The type is declared in functionScope and joinedScopeB, but
-      //    not in joinedScopeA. Join the two types.
-      // 5) The type is declared in joinedScopeA and joinedScopeB. Join
-      //    the two types.
-      Set<String> symbolNames = new HashSet<>(symbols.keySet());
-      symbolNames.addAll(slotsB.keySet());
-
-      for (String name : symbolNames) {
-        StaticTypedSlot<JSType> slotA = slotsA.get(name);
-        StaticTypedSlot<JSType> slotB = slotsB.get(name);
-
-        JSType joinedType = null;
-        if (slotB == null || slotB.getType() == null) {
-          StaticTypedSlot<JSType> fnSlot
-              = joinedScopeB.getFunctionScope().getSlot(name);
-          JSType fnSlotType = fnSlot == null ? null : fnSlot.getType();
-          if (fnSlotType == null) {
-            // Case #1 -- already inserted.
-          } else {
-            // Case #3
-            joinedType = slotA.getType().getLeastSupertype(fnSlotType);
-          }
-        } else if (slotA == null || slotA.getType() == null) {
-          StaticTypedSlot<JSType> fnSlot
-              = joinedScopeA.getFunctionScope().getSlot(name);
-          JSType fnSlotType = fnSlot == null ? null : fnSlot.getType();
-          if (fnSlotType == null) {
-            // Case #2
-            symbols.put(name, slotB);
-          } else {
-            // Case #4
-            joinedType = slotB.getType().getLeastSupertype(fnSlotType);
-          }
-        } else {
-          // Case #5
-          joinedType =
-              slotA.getType().getLeastSupertype(slotB.getType());
-        }
-
-        if (joinedType != null) {
-          symbols.put(name, new SimpleSlot(name, joinedType, true));
+      for (Map.Entry<String, StaticTypedSlot<JSType>> entry
+               : slotsA.entrySet()) {
+        String name = entry.getKey();
+        if (!slotsB.containsKey(name)) {
+          entry.setValue(joinSlots(name, entry.getValue(), null,
+              joinedScopeA, joinedScopeB));
         }
       }
+      for (Map.Entry<String, StaticTypedSlot<JSType>> entry
+               : slotsB.entrySet()) {
+        String name = entry.getKey();
+        symbols.put(name, joinSlots(name, slotsA.get(name), entry.getValue(),
+            joinedScopeA, joinedScopeB));
+      }
     }
 
     /**
@@ -17,9 +17,10 @@
 package com.google.javascript.jscomp;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
 import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.StaticSymbolTable;
 
@@ -47,6 +48,10 @@ import java.util.Map;
 class MemoizedScopeCreator implements ScopeCreator, StaticSymbolTable<TypedVar, TypedVar> {
 
   private final Map<Node, TypedScope> scopes = new LinkedHashMap<>();
+  // The roots of the memoized scopes, by the name of their script, so that
+  // the scopes of a script can be found and removed in hot-swap mode.
+  private final ListMultimap<String, Node> scopeRootsByScript =
+      ArrayListMultimap.create();
   private final ScopeCreator delegate;
 
   /**
@@ -86,6 +91,7 @@ class MemoizedScopeCreator implements ScopeCreator, StaticSymbolTable<TypedVar,
     if (scope == null) {
       scope = (TypedScope) delegate.createScope(n, typedParent);
       scopes.put(n, scope);
+      scopeRootsByScript.put(n.getSourceFileName(), n);
     } else {
       Preconditions.checkState(typedParent == scope.getParent());
     }
@@ -100,16 +106,26 @@ class MemoizedScopeCreator implements ScopeCreator, StaticSymbolTable<TypedVar,
     return Collections.unmodifiableCollection(temp);
   }
 
+  /**
+   * Returns the memoized scopes with root nodes from a given script file, in
+   * order of creation.
+   */
+  List<TypedScope> getScopesForScript(String scriptName) {
+    List<TypedScope> result = new ArrayList<>();
+    for (Node scopeRoot : scopeRootsByScript.get(scriptName)) {
+      result.add(scopes.get(scopeRoot));
+    }
+    return result;
+  }
+
   /**
    * Removes all scopes with root nodes from a given script file.
    *
    * @param scriptName the name of the script file to remove nodes for.
    */
   void removeScopesForScript(String scriptName) {
-    for (Node scopeRoot : ImmutableSet.copyOf(scopes.keySet())) {
-      if (scriptName.equals(scopeRoot.getSourceFileName())) {
-        scopes.remove(scopeRoot);
-      }
+    for (Node scopeRoot : scopeRootsByScript.removeAll(scriptName)) {
+      scopes.remove(scopeRoot);
     }
   }
 
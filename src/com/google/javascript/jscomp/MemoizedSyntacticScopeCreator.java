@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.javascript.rhino.Node;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Memoizes an untyped scope creator, and hands out a scope again for as long
+ * as the code in it hasn't changed.
+ *
+ * <p>Inside the optimization loop, the {@link PhaseOptimizer} stamps each
+ * function with the time of the last change reported in it. A scope stays
+ * valid while the function that contains it (or the JS root, for the global
+ * scope) keeps the stamp it had when the scope was built, and while its
+ * parent scope is the same object. Only the changes reported with
+ * {@link AbstractCompiler#reportChangeToEnclosingScope} are sure to be stamped
+ * on the function they are in, so the {@link AnalysisCache} drops all the
+ * scopes on any other code change, and on every change outside the loop.
+ *
+ * <p>Unlike the scopes of a plain creator, these scopes are shared by the
+ * passes that use it, so those passes must not declare or undeclare
+ * variables in them.
+ *
+ */
+final class MemoizedSyntacticScopeCreator implements ScopeCreator {
+
+  private final AbstractCompiler compiler;
+  private final ScopeCreator delegate;
+  private final Map<Node, MemoizedScope> scopes = new HashMap<>();
+  private int scopesBuilt = 0;
+  private int scopesReused = 0;
+
+  /**
+   * @param delegate The real source of Scope objects.
+   */
+  MemoizedSyntacticScopeCreator(
+      AbstractCompiler compiler, ScopeCreator delegate) {
+    this.compiler = compiler;
+    this.delegate = delegate;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  // The delegate is an untyped creator, so it builds the same kind of scope
+  // as the parent, and so does this one.
+  public synchronized <T extends Scope> T createScope(Node n, T parent) {
+    Node changeRoot = getChangeRoot(n);
+    MemoizedScope memoized = scopes.get(n);
+    if (memoized != null
+        && memoized.scope.getParent() == parent
+        && memoized.changeTime == changeRoot.getChangeTime()) {
+      scopesReused++;
+      return (T) memoized.scope;
+    }
+    T scope = delegate.createScope(n, parent);
+    scopes.put(n, new MemoizedScope(scope, changeRoot.getChangeTime()));
+    scopesBuilt++;
+    return scope;
+  }
+
+  @Override
+  public boolean hasBlockScope() {
+    return delegate.hasBlockScope();
+  }
+
+  /** Forgets all the scopes. */
+  synchronized void clear() {
+    scopes.clear();
+  }
+
+  /** The number of scopes that had to be built. */
+  synchronized int getScopesBuilt() {
+    return scopesBuilt;
+  }
+
+  /** The number of scopes that were handed out again instead of rebuilt. */
+  synchronized int getScopesReused() {
+    return scopesReused;
+  }
+
+  /**
+   * Returns the node that the PhaseOptimizer stamps when code changes in the
+   * scope rooted at the given node: the closest function, or else the JS
+   * root.
+   */
+  private Node getChangeRoot(Node n) {
+    Node last = n;
+    for (Node ancestor = n; ancestor != null;
+         ancestor = ancestor.getParent()) {
+      if (ancestor.isFunction()) {
+        return ancestor;
+      }
+      last = ancestor;
+    }
+    Node jsRoot = compiler.getJsRoot();
+    return jsRoot != null ? jsRoot : last;
+  }
+
+  private static final class MemoizedScope {
+    final Scope scope;
+    final int changeTime;
+
+    MemoizedScope(Scope scope, int changeTime) {
+      this.scope = scope;
+      this.changeTime = changeTime;
+    }
+  }
+}
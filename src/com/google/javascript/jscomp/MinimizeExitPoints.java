@@ -17,7 +17,9 @@
 package com.google.javascript.jscomp;
 
 import com.google.common.base.Preconditions;
-import com.google.javascript.jscomp.NodeTraversal.AbstractPostOrderCallback;
+import com.google.javascript.jscomp.NodeTraversal.Callback;
+import com.google.javascript.jscomp.NodeTraversal.AbstractShallowCallback;
+import com.google.javascript.jscomp.NodeTraversal.FunctionCallback;
 import com.google.javascript.rhino.IR;
 import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.Token;
@@ -32,8 +34,8 @@ import javax.annotation.Nullable;
  * @author johnlenz@google.com (John Lenz)
  */
 class MinimizeExitPoints
-    extends AbstractPostOrderCallback
-    implements CompilerPass {
+    extends AbstractFunctionLocalPass
+    implements Callback {
 
   AbstractCompiler compiler;
 
@@ -43,7 +45,36 @@ class MinimizeExitPoints
 
   @Override
   public void process(Node externs, Node root) {
-    NodeTraversal.traverseEs6(compiler, root, this);
+    // Exits are minimized within a function, so the functions that haven't
+    // changed since the last run can be skipped.
+    NodeTraversal.traverseChangedFunctions(compiler, new FunctionCallback() {
+        @Override
+        public void enterFunction(AbstractCompiler compiler, Node root) {
+          processFunction(root);
+        }
+      });
+  }
+
+  @Override
+  public void processFunction(Node root) {
+    Node body = root.isFunction() ? root.getLastChild() : root;
+    NodeTraversal.traverseEs6(compiler, body, new AbstractShallowCallback() {
+      @Override
+      public void visit(NodeTraversal t, Node n, Node parent) {
+        // Nested functions are entered on their own.
+        if (!n.isFunction()) {
+          MinimizeExitPoints.this.visit(t, n, parent);
+        }
+      }
+    });
+    if (root.isFunction()) {
+      tryMinimizeExits(body, Token.RETURN, null);
+    }
+  }
+
+  @Override
+  public boolean shouldTraverse(NodeTraversal t, Node n, Node parent) {
+    return true;
   }
 
   @Override
@@ -18,6 +18,7 @@ package com.google.javascript.jscomp;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.LinkedHashMultimap;
@@ -41,6 +42,7 @@ import com.google.javascript.rhino.TypeI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -48,6 +50,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * New type inference algorithm.
@@ -298,7 +307,17 @@ final class NewTypeInference implements CompilerPass {
 
   public static class WarningReporter {
     AbstractCompiler compiler;
-    WarningReporter(AbstractCompiler compiler) { this.compiler = compiler; }
+    // If not null, the warnings are kept here instead of being reported.
+    private final List<JSError> buffer;
+
+    WarningReporter(AbstractCompiler compiler) {
+      this(compiler, null);
+    }
+
+    private WarningReporter(AbstractCompiler compiler, List<JSError> buffer) {
+      this.compiler = compiler;
+      this.buffer = buffer;
+    }
 
     void add(JSError warning) {
       String filename = warning.node.getSourceFileName();
@@ -308,7 +327,19 @@ final class NewTypeInference implements CompilerPass {
           || JSType.mockToString) {
         return;
       }
-      compiler.report(warning);
+      if (buffer != null) {
+        buffer.add(warning);
+      } else {
+        compiler.report(warning);
+      }
+    }
+
+    /** Reports the warnings kept by a buffering reporter. */
+    void flush() {
+      for (JSError warning : buffer) {
+        compiler.report(warning);
+      }
+      buffer.clear();
     }
   }
 
@@ -345,7 +376,8 @@ final class NewTypeInference implements CompilerPass {
     this.compiler = compiler;
     this.convention = compiler.getCodingConvention();
     this.envs = new LinkedHashMap<>();
-    this.summaries = new LinkedHashMap<>();
+    // Concurrent, as the functions may be analyzed on several threads.
+    this.summaries = new ConcurrentHashMap<>();
     this.deferredChecks = new LinkedHashMap<>();
     this.ABSTRACT_METHOD_NAME = convention.getAbstractMethodName();
     assertionFunctionsMap = new LinkedHashMap<>();
@@ -356,6 +388,25 @@ final class NewTypeInference implements CompilerPass {
     }
   }
 
+  /**
+   * Creates an analyzer for one function of the given inference. It shares
+   * the summaries, but keeps the deferred checks and the warnings of the
+   * function, so that they can be merged in the order of a serial run.
+   */
+  private NewTypeInference(NewTypeInference parent) {
+    this.warnings =
+        new WarningReporter(parent.compiler, new ArrayList<JSError>());
+    this.compiler = parent.compiler;
+    this.convention = parent.convention;
+    this.envs = new LinkedHashMap<>();
+    this.summaries = parent.summaries;
+    this.deferredChecks = new LinkedHashMap<>();
+    this.ABSTRACT_METHOD_NAME = parent.ABSTRACT_METHOD_NAME;
+    this.assertionFunctionsMap = parent.assertionFunctionsMap;
+    this.symbolTable = parent.symbolTable;
+    this.commonTypes = parent.commonTypes;
+  }
+
   @VisibleForTesting // Only used from tests
   public NTIScope processForTesting(Node externs, Node root) {
     process(externs, root);
@@ -367,9 +418,14 @@ final class NewTypeInference implements CompilerPass {
     try {
       this.symbolTable = compiler.getSymbolTable();
       this.commonTypes = symbolTable.getTypesUtilObject();
-      for (NTIScope scope : symbolTable.getScopes()) {
-        analyzeFunction(scope);
-        envs.clear();
+      int parallelism = compiler.getOptions().newTypeInferenceParallelism;
+      if (parallelism > 1) {
+        analyzeFunctionsInParallel(parallelism);
+      } else {
+        for (NTIScope scope : symbolTable.getScopes()) {
+          analyzeFunction(scope);
+          envs.clear();
+        }
       }
       for (DeferredCheck check : deferredChecks.values()) {
         check.runCheck(summaries, warnings);
@@ -387,6 +443,87 @@ final class NewTypeInference implements CompilerPass {
     }
   }
 
+  /**
+   * Analyzes the functions on several threads. The analysis of a function
+   * only uses the summaries of the functions defined in it; the calls to
+   * other functions are checked by the deferred checks at the end. So a
+   * function is analyzed as soon as the functions nested in it are done,
+   * and the functions of different parts of the program are analyzed
+   * concurrently. The warnings and deferred checks of the functions are
+   * merged in the order of the serial analysis.
+   */
+  private void analyzeFunctionsInParallel(int parallelism) {
+    Collection<NTIScope> scopes = symbolTable.getScopes();
+    // The number of nested functions that each function waits for.
+    Map<NTIScope, Integer> pending = new HashMap<>();
+    for (NTIScope scope : scopes) {
+      pending.put(scope, 0);
+    }
+    for (NTIScope scope : scopes) {
+      NTIScope parent = scope.getParent();
+      if (parent != null && pending.containsKey(parent)) {
+        pending.put(parent, pending.get(parent) + 1);
+      }
+    }
+    Map<NTIScope, NewTypeInference> analyzers = new HashMap<>();
+    ExecutorService executor =
+        Compiler.newWorkerPool(parallelism, "jscompiler-typechecker");
+    try {
+      CompletionService<NewTypeInference> completionService =
+          new ExecutorCompletionService<>(executor);
+      Map<Future<NewTypeInference>, NTIScope> running = new HashMap<>();
+      for (NTIScope scope : scopes) {
+        if (pending.get(scope) == 0) {
+          running.put(submitAnalysis(completionService, scope), scope);
+        }
+      }
+      while (!running.isEmpty()) {
+        Future<NewTypeInference> done = completionService.take();
+        NTIScope scope = running.remove(done);
+        try {
+          analyzers.put(scope, done.get());
+        } catch (ExecutionException e) {
+          currentScope = scope;
+          throw Throwables.propagate(e.getCause());
+        }
+        NTIScope parent = scope.getParent();
+        if (parent != null && pending.containsKey(parent)) {
+          int count = pending.get(parent) - 1;
+          pending.put(parent, count);
+          if (count == 0) {
+            running.put(submitAnalysis(completionService, parent), parent);
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } finally {
+      executor.shutdownNow();
+    }
+    for (NTIScope scope : scopes) {
+      NewTypeInference analyzer = analyzers.get(scope);
+      analyzer.warnings.flush();
+      deferredChecks.putAll(analyzer.deferredChecks);
+    }
+  }
+
+  private Future<NewTypeInference> submitAnalysis(
+      CompletionService<NewTypeInference> completionService,
+      final NTIScope scope) {
+    return completionService.submit(new Callable<NewTypeInference>() {
+      @Override
+      public NewTypeInference call() {
+        NewTypeInference analyzer = new NewTypeInference(NewTypeInference.this);
+        analyzer.analyzeFunction(scope);
+        // Only the warnings and the deferred checks are needed from now on.
+        analyzer.envs = null;
+        analyzer.cfg = null;
+        return analyzer;
+      }
+    });
+  }
+
   static void updatePeakMem() {
     Runtime rt = Runtime.getRuntime();
     long currentUsedMem = (rt.totalMemory() - rt.freeMemory()) / (1024 * 1024);
@@ -4078,11 +4078,13 @@ public final class NodeUtil {
     Node thisChild = thisNode.getFirstChild();
     Node thatChild = thatNode.getFirstChild();
     while (thisChild != null && thatChild != null) {
-      if (thisChild.isFunction()) {
-        //  don't compare function name, parameters or bodies.
-        return thatChild.isFunction();
-      }
-      if (!isEquivalentToExcludingFunctions(thisChild, thatChild)) {
+      if (thisChild.isFunction() || thatChild.isFunction()) {
+        // Don't compare function name, parameters or bodies, but do compare
+        // the siblings that follow.
+        if (!thisChild.isFunction() || !thatChild.isFunction()) {
+          return false;
+        }
+      } else if (!isEquivalentToExcludingFunctions(thisChild, thatChild)) {
         return false;
       }
       thisChild = thisChild.getNext();
@@ -480,7 +480,7 @@ class OptimizeParameters
       stmt = IR.exprResult(value);
     }
     block.addChildToFront(stmt);
-    compiler.reportCodeChange();
+    compiler.reportChangeToEnclosingScope(stmt);
   }
 
   /**
@@ -504,7 +504,7 @@ class OptimizeParameters
       argNode.detachFromParent();
       Node var = IR.var(argNode).useSourceInfoIfMissingFrom(argNode);
       fnNode.getLastChild().addChildrenToFront(var);
-      compiler.reportCodeChange();
+      compiler.reportChangeToEnclosingScope(var);
       return true;
     }
     return false;
@@ -553,7 +553,7 @@ class OptimizeParameters
       if (p.getArg() != formalArgPtr) {
         removedNodes.add(formalArgPtr);
       }
-      compiler.reportCodeChange();
+      compiler.reportChangeToEnclosingScope(call);
     }
     return formalArgPtr;
   }
@@ -146,7 +146,7 @@ class OptimizeReturns
               node.getParent().addChildBefore(
                 IR.exprResult(result).srcref(result), node);
             }
-            compiler.reportCodeChange();
+            compiler.reportChangeToEnclosingScope(node);
           }
         }
       },
@@ -53,6 +53,16 @@ public abstract class PassFactory {
     return isOneTimePass;
   }
 
+  /**
+   * @return Whether the passes produced by this factory are
+   *     {@link ReadOnlyTraversalPass}es that may share a traversal with the
+   *     fusible passes next to them. The passes that share a traversal are
+   *     all created before it starts.
+   */
+  boolean isFusible() {
+    return false;
+  }
+
   /**
    * Creates a new compiler pass to be run.
    */
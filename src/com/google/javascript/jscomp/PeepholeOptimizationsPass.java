@@ -16,6 +16,7 @@
 
 package com.google.javascript.jscomp;
 
+import com.google.common.base.Preconditions;
 import com.google.javascript.jscomp.NodeTraversal.AbstractShallowCallback;
 import com.google.javascript.jscomp.NodeTraversal.FunctionCallback;
 import com.google.javascript.rhino.Node;
@@ -26,7 +27,7 @@ import com.google.javascript.rhino.Node;
  *
  * @author dcc@google.com (Devin Coughlin)
  */
-class PeepholeOptimizationsPass implements CompilerPass {
+class PeepholeOptimizationsPass implements FunctionLocalPass {
   private AbstractCompiler compiler;
 
   // Use an array here for faster iteration compared to ImmutableSet
@@ -34,6 +35,8 @@ class PeepholeOptimizationsPass implements CompilerPass {
 
   private boolean retraverseOnChange;
   private RecentChange handler;
+  // Forwards the changes of the thread that processes functions.
+  private CodeChangeHandler threadHandler;
 
   /**
    * Creates a peephole optimization pass that runs the given
@@ -58,19 +61,53 @@ class PeepholeOptimizationsPass implements CompilerPass {
     NodeTraversal.traverseChangedFunctions(compiler, new FunctionCallback() {
         @Override
         public void enterFunction(AbstractCompiler compiler, Node root) {
-          if (root.isFunction()) {
-            root = root.getLastChild();
-          }
-          do {
-            handler.reset();
-            NodeTraversal.traverseEs6(compiler, root, new PeepCallback());
-          } while (retraverseOnChange && handler.hasCodeChanged());
+          peepFunction(root);
         }
       });
     endTraversal();
     compiler.removeChangeHandler(handler);
   }
 
+  @Override
+  public void beginFunctions() {
+    // Other threads may be changing other functions at the same time, so
+    // only the changes made by this thread call for a retraversal.
+    final Thread thread = Thread.currentThread();
+    threadHandler = new CodeChangeHandler() {
+      @Override
+      public void reportChange() {
+        if (Thread.currentThread() == thread) {
+          handler.reportChange();
+        }
+      }
+    };
+    compiler.addChangeHandler(threadHandler);
+    beginTraversal();
+  }
+
+  @Override
+  public void processFunction(Node root) {
+    Preconditions.checkState(threadHandler != null);
+    peepFunction(root);
+  }
+
+  @Override
+  public void endFunctions() {
+    endTraversal();
+    compiler.removeChangeHandler(threadHandler);
+    threadHandler = null;
+  }
+
+  private void peepFunction(Node root) {
+    if (root.isFunction()) {
+      root = root.getLastChild();
+    }
+    do {
+      handler.reset();
+      NodeTraversal.traverseEs6(compiler, root, new PeepCallback());
+    } while (retraverseOnChange && handler.hasCodeChanged());
+  }
+
   private class PeepCallback extends AbstractShallowCallback {
     @Override
     public void visit(NodeTraversal t, Node n, Node parent) {
@@ -21,6 +21,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import com.google.common.annotations.GwtIncompatible;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.javascript.jscomp.CompilerOptions.TracerMode;
 import com.google.javascript.rhino.Node;
@@ -80,6 +81,20 @@ public final class PerformanceTracker {
   private int diff = 0;
   private int gzDiff = 0;
 
+  // Lookups in the persistent AST cache while parsing.
+  private int astCacheHits = 0;
+  private int astCacheMisses = 0;
+
+  // For each iteration of the optimization loops, the number of function
+  // scopes that the loopable passes asked about, and the number of those they
+  // skipped because the scope hadn't changed since the pass last ran.
+  private final List<Integer> loopScopes = new ArrayList<>();
+  private final List<Integer> loopSkippedScopes = new ArrayList<>();
+  // And the number of syntactic scopes that were built, and that were reused
+  // from the compiler's AnalysisCache instead.
+  private final List<Integer> loopBuiltScopes = new ArrayList<>();
+  private final List<Integer> loopReusedScopes = new ArrayList<>();
+
   private final Deque<Stats> currentPass = new ArrayDeque<>();
 
   /** Summary stats by pass name. */
@@ -184,6 +199,28 @@ public final class PerformanceTracker {
     }
   }
 
+  /**
+   * Records how many parsed files were loaded from, or missing from, the
+   * persistent AST cache.
+   */
+  void recordAstCacheStats(int hits, int misses) {
+    this.astCacheHits = hits;
+    this.astCacheMisses = misses;
+  }
+
+  /**
+   * Records how many function scopes the passes of an optimization loop
+   * iteration skipped as unchanged, and how many memoized scopes they reused
+   * instead of building them again.
+   */
+  void recordLoopIteration(int scopes, int skippedScopes,
+      int builtScopes, int reusedScopes) {
+    loopScopes.add(scopes);
+    loopSkippedScopes.add(skippedScopes);
+    loopBuiltScopes.add(builtScopes);
+    loopReusedScopes.add(reusedScopes);
+  }
+
   public boolean tracksSize() {
     return trackSize;
   }
@@ -231,6 +268,30 @@ public final class PerformanceTracker {
     return loopRuns;
   }
 
+  public int getAstCacheHits() {
+    return astCacheHits;
+  }
+
+  public int getAstCacheMisses() {
+    return astCacheMisses;
+  }
+
+  /**
+   * Returns, for each optimization loop iteration, the number of unchanged
+   * function scopes that the loopable passes skipped.
+   */
+  public ImmutableList<Integer> getLoopSkippedScopes() {
+    return ImmutableList.copyOf(loopSkippedScopes);
+  }
+
+  /**
+   * Returns, for each optimization loop iteration, the number of memoized
+   * scopes that the loopable passes reused instead of building them again.
+   */
+  public ImmutableList<Integer> getLoopReusedScopes() {
+    return ImmutableList.copyOf(loopReusedScopes);
+  }
+
   public ImmutableMap<String, Stats> getStats() {
     calcTotalStats();
     return summaryCopy;
@@ -293,7 +354,12 @@ public final class PerformanceTracker {
           + "\n#Changing runs: " + changes + "\n#Loopable runs: " + loopRuns
           + "\n#Changing loopable runs: " + loopChanges + "\nEstimated Reduction(bytes): " + diff
           + "\nEstimated GzReduction(bytes): " + gzDiff + "\nEstimated Size(bytes): " + codeSize
-          + "\nEstimated GzSize(bytes): " + gzCodeSize + "\n\n");
+          + "\nEstimated GzSize(bytes): " + gzCodeSize + "\n");
+      if (astCacheHits + astCacheMisses > 0) {
+        output.write("#AST cache hits: " + astCacheHits
+            + "\n#AST cache misses: " + astCacheMisses + "\n");
+      }
+      output.write("\n");
 
       output.write("Log:\n" +
           "pass,runtime,runs,changingRuns,reduction,gzReduction,size,gzSize\n");
@@ -303,6 +369,17 @@ public final class PerformanceTracker {
             stats.diff, stats.gzDiff, stats.size, stats.gzSize));
       }
       output.write("\n");
+
+      if (!loopScopes.isEmpty()) {
+        output.write("Loop iterations:\n"
+            + "iteration,scopes,skippedScopes,builtScopes,reusedScopes\n");
+        for (int i = 0; i < loopScopes.size(); i++) {
+          output.write(String.format("%d,%d,%d,%d,%d\n",
+              i + 1, loopScopes.get(i), loopSkippedScopes.get(i),
+              loopBuiltScopes.get(i), loopReusedScopes.get(i)));
+        }
+        output.write("\n");
+      }
       // output can be System.out, so don't close it to not lose subsequent
       // error messages. Flush to ensure that you will see the tracer report.
       output.flush();
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.javascript.jscomp.parsing.Config;
+import com.google.javascript.jscomp.parsing.ParserRunner.ParseResult;
+import com.google.javascript.jscomp.parsing.parser.trees.Comment;
+import com.google.javascript.jscomp.parsing.parser.util.SourcePosition;
+import com.google.javascript.jscomp.parsing.parser.util.SourceRange;
+import com.google.javascript.rhino.Node;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+/**
+ * An on-disk cache of parsed ASTs, shared between compilations. Entries are
+ * keyed by a hash of the name and code of the source file, of the parser
+ * configuration (which includes the language mode) and of the compiler
+ * version, so an entry is never stale; a changed file simply gets a new
+ * entry. The name is part of the key because the parser records it in
+ * places that aren't rewritten on load, like the type expressions in the
+ * JSDoc. Entries hold the tree, with its JSDoc, and the comments collected
+ * by the parser. They are written with Java serialization and read back
+ * through a memory-mapped buffer.
+ *
+ * The cache may be used from several parsing threads at once.
+ *
+ * Only the raw parser output is cached; the compiler still runs
+ * {@link PrepareAst} on every tree it loads. An entry that cannot be written
+ * or read is treated as a cache miss.
+ */
+@GwtIncompatible("java.io")
+final class PersistentAstCache {
+
+  // Bump this whenever the format of the entries changes.
+  private static final int FORMAT_VERSION = 4;
+
+  private static final String ENTRY_SUFFIX = ".ast";
+
+  private final File directory;
+
+  private final String versionKey;
+
+  private final AtomicInteger hits = new AtomicInteger();
+
+  private final AtomicInteger misses = new AtomicInteger();
+
+  PersistentAstCache(File directory) {
+    this.directory = Preconditions.checkNotNull(directory);
+    this.versionKey = FORMAT_VERSION + "|" + Compiler.getReleaseVersion();
+  }
+
+  /**
+   * Returns the cached parse result for the given source file and code, or
+   * null if there is no usable entry. The returned tree refers to
+   * {@code sourceFile} wherever the original tree referred to its source
+   * file.
+   */
+  @Nullable
+  ParseResult load(SourceFile sourceFile, String code, Config config) {
+    File entry = getEntry(sourceFile, code, config);
+    ParseResult result = read(entry, sourceFile, code);
+    (result == null ? misses : hits).incrementAndGet();
+    return result;
+  }
+
+  private static ParseResult read(
+      File entry, SourceFile sourceFile, String code) {
+    if (!entry.isFile()) {
+      return null;
+    }
+    try (RandomAccessFile file = new RandomAccessFile(entry, "r");
+         FileChannel channel = file.getChannel()) {
+      MappedByteBuffer buffer =
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      ObjectInputStream in = new SourceFileResolvingInputStream(
+          new ByteBufferInputStream(buffer), sourceFile);
+      Node root = (Node) in.readObject();
+      @SuppressWarnings("unchecked")
+      List<CachedComment> cachedComments =
+          (List<CachedComment>) in.readObject();
+      com.google.javascript.jscomp.parsing.parser.SourceFile parserFile =
+          new com.google.javascript.jscomp.parsing.parser.SourceFile(
+              sourceFile.getName(), code);
+      ImmutableList.Builder<Comment> comments = ImmutableList.builder();
+      for (CachedComment comment : cachedComments) {
+        comments.add(comment.toComment(parserFile));
+      }
+      return new ParseResult(root, comments.build());
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      return null;
+    } catch (StackOverflowError e) {
+      // Trees with very long sibling lists are too deep to deserialize.
+      return null;
+    }
+  }
+
+  /**
+   * Stores the result of parsing the given source code. The tree must not
+   * have a parent, and must not have been modified since it was parsed.
+   */
+  void store(
+      SourceFile sourceFile, String code, Config config, ParseResult result) {
+    Preconditions.checkState(result.ast.getParent() == null);
+    File entry = getEntry(sourceFile, code, config);
+    if (entry.isFile()) {
+      return;
+    }
+    ImmutableList.Builder<CachedComment> comments = ImmutableList.builder();
+    for (Comment comment : result.comments) {
+      comments.add(new CachedComment(comment));
+    }
+    File tempFile = null;
+    try {
+      directory.mkdirs();
+      tempFile = File.createTempFile("ast", ".tmp", directory);
+      try (OutputStream out =
+          new BufferedOutputStream(new FileOutputStream(tempFile))) {
+        ObjectOutputStream objectOut =
+            new SourceFileReplacingOutputStream(out, sourceFile);
+        objectOut.writeObject(result.ast);
+        objectOut.writeObject(comments.build());
+        objectOut.flush();
+      }
+      // Write to a temporary file and rename it, so that concurrent
+      // compilations never see a partially written entry.
+      if (tempFile.renameTo(entry)) {
+        tempFile = null;
+      }
+    } catch (IOException e) {
+      // Not caching the tree only costs a parse next time.
+    } catch (StackOverflowError e) {
+      // Trees with very long sibling lists are too deep to serialize.
+    } finally {
+      if (tempFile != null) {
+        tempFile.delete();
+      }
+    }
+  }
+
+  /** Returns the number of loads that found a usable entry. */
+  int getHits() {
+    return hits.get();
+  }
+
+  /** Returns the number of loads that found no usable entry. */
+  int getMisses() {
+    return misses.get();
+  }
+
+  private File getEntry(SourceFile sourceFile, String code, Config config) {
+    Hasher hasher = Hashing.sha1().newHasher();
+    hasher.putString(versionKey, UTF_8);
+    hasher.putChar('\0');
+    hasher.putString(config.getFingerprint(), UTF_8);
+    hasher.putChar('\0');
+    hasher.putString(sourceFile.getName(), UTF_8);
+    hasher.putChar('\0');
+    hasher.putString(code, UTF_8);
+    return new File(directory, hasher.hash() + ENTRY_SUFFIX);
+  }
+
+  /**
+   * A parser comment, without the reference to the parser's source file
+   * that its positions carry.
+   */
+  private static final class CachedComment implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String value;
+    private final Comment.Type type;
+    private final int[] start;
+    private final int[] end;
+
+    CachedComment(Comment comment) {
+      this.value = comment.value;
+      this.type = comment.type;
+      this.start = toArray(comment.location.start);
+      this.end = toArray(comment.location.end);
+    }
+
+    Comment toComment(
+        com.google.javascript.jscomp.parsing.parser.SourceFile parserFile) {
+      return new Comment(value,
+          new SourceRange(
+              toPosition(parserFile, start), toPosition(parserFile, end)),
+          type);
+    }
+
+    private static int[] toArray(SourcePosition position) {
+      return new int[] {position.offset, position.line, position.column};
+    }
+
+    private static SourcePosition toPosition(
+        com.google.javascript.jscomp.parsing.parser.SourceFile parserFile,
+        int[] position) {
+      return new SourcePosition(
+          parserFile, position[0], position[1], position[2]);
+    }
+  }
+
+  /**
+   * Stands in for the source file of a cached tree. Source files are not
+   * stored with the tree; each load resolves them to the file being parsed.
+   */
+  private static final class SourceFilePlaceholder implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final SourceFilePlaceholder INSTANCE =
+        new SourceFilePlaceholder();
+
+    private Object readResolve() throws ObjectStreamException {
+      return INSTANCE;
+    }
+  }
+
+  private static final class SourceFileReplacingOutputStream
+      extends ObjectOutputStream {
+    private final SourceFile sourceFile;
+
+    SourceFileReplacingOutputStream(OutputStream out, SourceFile sourceFile)
+        throws IOException {
+      super(out);
+      this.sourceFile = sourceFile;
+      enableReplaceObject(true);
+    }
+
+    @Override
+    protected Object replaceObject(Object obj) throws IOException {
+      if (obj == sourceFile) {
+        return SourceFilePlaceholder.INSTANCE;
+      } else if (obj instanceof SourceFile) {
+        throw new IOException("Tree refers to an unexpected source file");
+      }
+      return obj;
+    }
+  }
+
+  private static final class SourceFileResolvingInputStream
+      extends ObjectInputStream {
+    private final SourceFile sourceFile;
+
+    SourceFileResolvingInputStream(InputStream in, SourceFile sourceFile)
+        throws IOException {
+      super(in);
+      this.sourceFile = sourceFile;
+      enableResolveObject(true);
+    }
+
+    @Override
+    protected Object resolveObject(Object obj) {
+      return obj == SourceFilePlaceholder.INSTANCE ? sourceFile : obj;
+    }
+  }
+
+  /** Reads from a byte buffer, such as a memory-mapped file. */
+  private static final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      length = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, length);
+      return length;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
@@ -18,7 +18,11 @@ package com.google.javascript.jscomp;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.javascript.jscomp.NodeTraversal.Callback;
+import com.google.javascript.jscomp.NodeTraversal.ScopedCallback;
 import com.google.javascript.rhino.Node;
 
 import java.util.ArrayList;
@@ -27,6 +31,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
@@ -45,6 +54,9 @@ class PhaseOptimizer implements CompilerPass {
   private boolean inLoop;
   private PassFactory sanityCheck;
   private boolean printAstHashcodes = false;
+  private int parallelism = 1;
+  // Runs function-local passes when parallelism is more than 1.
+  private ExecutorService workerPool;
 
   private double progress = 0.0;
   private double progressStep = 0.0;
@@ -57,7 +69,8 @@ class PhaseOptimizer implements CompilerPass {
   private NamedPass currentPass;
   // For each pass, remember the time at the end of the pass's last run.
   private Map<NamedPass, Integer> lastRuns;
-  private Node currentScope;
+  // Function-local passes run on several threads, each in its own scope.
+  private final ThreadLocal<Node> currentScope = new ThreadLocal<>();
   // Starts at 0, increases as "interesting" things happen.
   // Nothing happens at time START_TIME, the first pass starts at time 1.
   // The correctness of scope-change tracking relies on Node/getIntProp
@@ -70,6 +83,10 @@ class PhaseOptimizer implements CompilerPass {
   // Compiler/reportChangeToScope must call reportCodeChange to update all
   // change handlers. This flag prevents double update in ScopedChangeHandler.
   private boolean crossScopeReporting;
+  // The number of function scopes that passes asked about in the current
+  // loop iteration, and the number of those that hadn't changed.
+  private int scopesQueried;
+  private int scopesSkipped;
 
   // Used for sanity checks between loopable passes
   private Node lastAst;
@@ -201,6 +218,14 @@ class PhaseOptimizer implements CompilerPass {
     this.printAstHashcodes = printAstHashcodes;
   }
 
+  /**
+   * Sets the number of threads that run the function-local passes.
+   */
+  void setParallelism(int parallelism) {
+    Preconditions.checkArgument(parallelism > 0);
+    this.parallelism = parallelism;
+  }
+
   /**
    * Run all the passes in the optimizer.
    */
@@ -213,10 +238,303 @@ class PhaseOptimizer implements CompilerPass {
           / passes.size();
       progress = progressRange.initialValue;
     }
-    for (CompilerPass pass : passes) {
-      pass.process(externs, root);
-      if (hasHaltingErrors()) {
-        return;
+    if (parallelism > 1) {
+      workerPool = Compiler.newWorkerPool(parallelism, "jscompiler-optimizer");
+    }
+    try {
+      int i = 0;
+      while (i < passes.size()) {
+        int end = i + 1;
+        while (end < passes.size() && isFusible(passes.get(i))
+            && isFusible(passes.get(end))) {
+          end++;
+        }
+        if (end - i > 1) {
+          processFused(passes.subList(i, end), externs, root);
+        } else {
+          passes.get(i).process(externs, root);
+        }
+        if (hasHaltingErrors()) {
+          return;
+        }
+        i = end;
+      }
+    } finally {
+      if (workerPool != null) {
+        workerPool.shutdownNow();
+        workerPool = null;
+      }
+    }
+  }
+
+  private static boolean isFusible(CompilerPass pass) {
+    if (!(pass instanceof NamedPass)) {
+      return false;
+    }
+    PassFactory factory = ((NamedPass) pass).factory;
+    return factory.isOneTimePass() && factory.isFusible();
+  }
+
+  /**
+   * Runs adjacent read-only traversal passes in a single traversal. The time
+   * spent in the callback of each pass is recorded as the runtime of that
+   * pass. The errors of each pass are buffered during the traversal and then
+   * reported pass by pass, up to the first pass that reports a halting error,
+   * as if the passes had run one after another.
+   */
+  private void processFused(
+      List<CompilerPass> group, Node externs, Node root) {
+    List<String> names = new ArrayList<>();
+    List<Callback> callbacks = new ArrayList<>();
+    List<FusedCallback> fusedCallbacks = new ArrayList<>();
+    for (CompilerPass namedPass : group) {
+      PassFactory factory = ((NamedPass) namedPass).factory;
+      String name = factory.getName();
+      logger.fine(name);
+      compiler.beforePass(name);
+      CompilerPass pass = factory.create(compiler);
+      Preconditions.checkState(pass instanceof ReadOnlyTraversalPass,
+          "%s is not a read-only traversal", name);
+      FusedCallback callback = new FusedCallback(compiler,
+          ((ReadOnlyTraversalPass) pass).getCallback(), tracker != null);
+      names.add(name);
+      callbacks.add(callback);
+      fusedCallbacks.add(callback);
+    }
+
+    Tracer tracer = new Tracer("JSCompiler");
+    new CombinedCompilerPass(compiler, callbacks).process(externs, root);
+    tracer.stop();
+
+    int passesRun = 0;
+    while (passesRun < names.size() && !hasHaltingErrors()) {
+      String name = names.get(passesRun);
+      FusedCallback callback = fusedCallbacks.get(passesRun);
+      passesRun++;
+      for (JSError error : callback.errors) {
+        compiler.report(error);
+      }
+      compiler.afterPass(name);
+      if (progressRange == null) {
+        compiler.setProgress(-1, name);
+      } else {
+        progress += progressStep;
+        compiler.setProgress(progress, name);
+      }
+      if (tracker != null) {
+        tracker.recordPassStart(name, true);
+        tracker.recordPassStop(
+            name, TimeUnit.NANOSECONDS.toMillis(callback.runtime));
+      }
+      maybePrintAstHashcodes(name, root);
+    }
+    try {
+      maybeSanityCheck(externs, root);
+    } catch (IllegalStateException e) {
+      throw new RuntimeException(
+          "Sanity check failed for " + names.get(passesRun - 1), e);
+    }
+  }
+
+  /**
+   * A callback that buffers the errors that the callback it wraps reports,
+   * and optionally adds up the time spent in it, so that fused passes can be
+   * reported and timed separately.
+   */
+  private static final class FusedCallback implements ScopedCallback {
+    private final AbstractCompiler compiler;
+    private final Callback callback;
+    private final boolean timed;
+    private final List<JSError> errors = new ArrayList<>();
+    // In nanoseconds.
+    private long runtime = 0;
+
+    FusedCallback(AbstractCompiler compiler, Callback callback,
+        boolean timed) {
+      this.compiler = compiler;
+      this.callback = callback;
+      this.timed = timed;
+    }
+
+    @Override
+    public boolean shouldTraverse(NodeTraversal t, Node n, Node parent) {
+      long start = begin();
+      try {
+        return callback.shouldTraverse(t, n, parent);
+      } finally {
+        end(start);
+      }
+    }
+
+    @Override
+    public void visit(NodeTraversal t, Node n, Node parent) {
+      long start = begin();
+      try {
+        callback.visit(t, n, parent);
+      } finally {
+        end(start);
+      }
+    }
+
+    @Override
+    public void enterScope(NodeTraversal t) {
+      if (callback instanceof ScopedCallback) {
+        long start = begin();
+        try {
+          ((ScopedCallback) callback).enterScope(t);
+        } finally {
+          end(start);
+        }
+      }
+    }
+
+    @Override
+    public void exitScope(NodeTraversal t) {
+      if (callback instanceof ScopedCallback) {
+        long start = begin();
+        try {
+          ((ScopedCallback) callback).exitScope(t);
+        } finally {
+          end(start);
+        }
+      }
+    }
+
+    private long begin() {
+      compiler.setReportBuffer(errors);
+      return timed ? System.nanoTime() : 0;
+    }
+
+    private void end(long start) {
+      if (timed) {
+        runtime += System.nanoTime() - start;
+      }
+      compiler.setReportBuffer(null);
+    }
+  }
+
+  /**
+   * Runs a function-local pass on the functions of one nesting depth at a
+   * time, outer functions first. The functions of the same depth don't
+   * contain each other, so they are processed concurrently. The errors that
+   * the pass reports are buffered per function and reported at the end in
+   * the order of a serial run.
+   */
+  private void processFunctions(FunctionLocalPass pass, PassFactory factory) {
+    Map<Node, List<JSError>> errors = new ConcurrentHashMap<>();
+    List<Node> functions = ImmutableList.of(jsRoot);
+    while (!functions.isEmpty()) {
+      List<Node> changed = new ArrayList<>();
+      for (Node fn : functions) {
+        if (compiler.hasScopeChanged(fn)) {
+          changed.add(fn);
+        }
+      }
+      if (changed.size() == 1) {
+        processChunk(pass, changed, errors);
+      } else if (!changed.isEmpty()) {
+        processFunctionsInParallel(factory, changed, errors);
+      }
+      // Collect the next depth only now, as the pass may have removed
+      // nested functions.
+      List<Node> nested = new ArrayList<>();
+      for (Node fn : functions) {
+        addNestedFunctions(fn, nested);
+      }
+      functions = nested;
+    }
+    reportInTraversalOrder(jsRoot, errors);
+    // Functions that were detached after they reported errors come last.
+    for (List<JSError> fnErrors : errors.values()) {
+      reportAll(fnErrors);
+    }
+  }
+
+  private void processFunctionsInParallel(PassFactory factory,
+      List<Node> functions, final Map<Node, List<JSError>> errors) {
+    // Several tasks per thread even out the differences in function size.
+    int chunkSize = Math.max(1, functions.size() / (4 * parallelism));
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (final List<Node> chunk : Lists.partition(functions, chunkSize)) {
+        final FunctionLocalPass pass =
+            (FunctionLocalPass) factory.create(compiler);
+        futures.add(workerPool.submit(new Runnable() {
+          @Override
+          public void run() {
+            processChunk(pass, chunk, errors);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  /**
+   * Runs the pass on the given functions on the current thread, and keeps
+   * the errors that each function reports in {@code errors}.
+   */
+  private void processChunk(FunctionLocalPass pass, List<Node> functions,
+      Map<Node, List<JSError>> errors) {
+    List<JSError> buffer = new ArrayList<>();
+    compiler.setReportBuffer(buffer);
+    pass.beginFunctions();
+    try {
+      for (Node fn : functions) {
+        setScope(fn);
+        pass.processFunction(fn);
+        if (!buffer.isEmpty()) {
+          errors.put(fn, buffer);
+          buffer = new ArrayList<>();
+          compiler.setReportBuffer(buffer);
+        }
+      }
+    } finally {
+      pass.endFunctions();
+      compiler.setReportBuffer(null);
+    }
+  }
+
+  /** Reports the buffered errors of the functions in n in pre-order. */
+  private void reportInTraversalOrder(
+      Node n, Map<Node, List<JSError>> errors) {
+    if (errors.isEmpty()) {
+      return;
+    }
+    List<JSError> fnErrors = errors.remove(n);
+    if (fnErrors != null) {
+      reportAll(fnErrors);
+    }
+    for (Node child = n.getFirstChild(); child != null;
+         child = child.getNext()) {
+      reportInTraversalOrder(child, errors);
+    }
+  }
+
+  private void reportAll(List<JSError> errors) {
+    for (JSError error : errors) {
+      compiler.report(error);
+    }
+  }
+
+  /**
+   * Adds the functions that are nested in n, but not in another function
+   * nested in n.
+   */
+  private static void addNestedFunctions(Node n, List<Node> functions) {
+    for (Node child = n.getFirstChild(); child != null;
+         child = child.getNext()) {
+      if (child.isFunction()) {
+        functions.add(child);
+      } else {
+        addNestedFunctions(child, functions);
       }
     }
   }
@@ -282,7 +600,12 @@ class PhaseOptimizer implements CompilerPass {
       // Delay the creation of the actual pass until *after* all previous passes
       // have been processed.
       // Some precondition checks rely on this, eg, in CoalesceVariableNames.
-      factory.create(compiler).process(externs, root);
+      CompilerPass pass = factory.create(compiler);
+      if (workerPool != null && pass instanceof FunctionLocalPass) {
+        processFunctions((FunctionLocalPass) pass, factory);
+      } else {
+        pass.process(externs, root);
+      }
 
       compiler.afterPass(name);
 
@@ -319,19 +642,24 @@ class PhaseOptimizer implements CompilerPass {
     // NodeTraversal causes setScope calls outside loops; ignore them.
     if (inLoop) {
       // Find the top-level node in the scope.
-      currentScope = n.isFunction() ? n : getEnclosingScope(n);
+      currentScope.set(n.isFunction() ? n : getEnclosingScope(n));
     }
   }
 
-  boolean hasScopeChanged(Node n) {
+  synchronized boolean hasScopeChanged(Node n) {
     // Outside loops we don't track changed scopes, so we visit them all.
     if (!inLoop) {
       return true;
     }
     int timeOfLastRun = lastRuns.get(currentPass);
     // A pass looks at all functions when it first runs
-    return timeOfLastRun == START_TIME
+    boolean changed = timeOfLastRun == START_TIME
         || n.getChangeTime() > timeOfLastRun;
+    scopesQueried++;
+    if (!changed) {
+      scopesSkipped++;
+    }
+    return changed;
   }
 
   private Node getEnclosingScope(Node n) {
@@ -344,7 +672,7 @@ class PhaseOptimizer implements CompilerPass {
     return n;
   }
 
-  void reportChangeToEnclosingScope(Node n) {
+  synchronized void reportChangeToEnclosingScope(Node n) {
     lastChange = timestamp;
     getEnclosingScope(n).setChangeTime(timestamp);
     // Every code change happens at a different time
@@ -377,15 +705,17 @@ class PhaseOptimizer implements CompilerPass {
 
     @Override
     public void reportChange() {
-      if (crossScopeReporting) {
-        // This call was caused by Compiler/reportChangeToEnclosingScope,
-        // do nothing.
-        return;
+      synchronized (PhaseOptimizer.this) {
+        if (crossScopeReporting) {
+          // This call was caused by Compiler/reportChangeToEnclosingScope,
+          // do nothing.
+          return;
+        }
+        lastChange = timestamp;
+        currentScope.get().setChangeTime(timestamp);
+        // Every code change happens at a different time
+        timestamp++;
       }
-      lastChange = timestamp;
-      currentScope.setChangeTime(timestamp);
-      // Every code change happens at a different time
-      timestamp++;
     }
 
     private boolean hasCodeChangedSinceLastCall() {
@@ -422,6 +752,7 @@ class PhaseOptimizer implements CompilerPass {
     public void process(Node externs, Node root) {
       Preconditions.checkState(!inLoop, "Nested loops are forbidden");
       inLoop = true;
+      compiler.getAnalysisCache().setTrackingChangedScopes(true);
       optimizePasses();
 
       // Set up function-change tracking
@@ -448,6 +779,9 @@ class PhaseOptimizer implements CompilerPass {
             compiler.throwInternalError(OPTIMIZE_LOOP_ERROR, null);
           }
           lastIterMadeChanges = false;
+          scopesQueried = scopesSkipped = 0;
+          int scopesBuilt = getMemoizedScopesBuilt();
+          int scopesReused = getMemoizedScopesReused();
           for (NamedPass pass : myPasses) {
             if ((state == State.RUN_PASSES_NOT_RUN_IN_PREV_ITER
                     && !runInPrevIter.contains(pass))
@@ -470,6 +804,9 @@ class PhaseOptimizer implements CompilerPass {
               runInPrevIter.remove(pass);
             }
           }
+          recordLoopIteration(count,
+              getMemoizedScopesBuilt() - scopesBuilt,
+              getMemoizedScopesReused() - scopesReused);
 
           if (state == State.RUN_PASSES_NOT_RUN_IN_PREV_ITER) {
             if (lastIterMadeChanges) {
@@ -485,10 +822,40 @@ class PhaseOptimizer implements CompilerPass {
         }
       } finally {
         inLoop = false;
+        compiler.getAnalysisCache().setTrackingChangedScopes(false);
         compiler.removeChangeHandler(scopeHandler);
       }
     }
 
+    /**
+     * Reports how many function scopes the passes of a loop iteration
+     * skipped because they hadn't changed since the pass last ran, and how
+     * many memoized scopes they reused instead of building them again.
+     */
+    private void recordLoopIteration(
+        int iteration, int scopesBuilt, int scopesReused) {
+      logger.fine("Loop iteration " + iteration + ": skipped " + scopesSkipped
+          + " of " + scopesQueried + " unchanged scopes, reused "
+          + scopesReused + " of " + (scopesBuilt + scopesReused)
+          + " memoized scopes");
+      if (tracker != null) {
+        tracker.recordLoopIteration(
+            scopesQueried, scopesSkipped, scopesBuilt, scopesReused);
+      }
+    }
+
+    private int getMemoizedScopesBuilt() {
+      AnalysisCache cache = compiler.getAnalysisCache();
+      return cache.getScopeCreator().getScopesBuilt()
+          + cache.getEs6ScopeCreator().getScopesBuilt();
+    }
+
+    private int getMemoizedScopesReused() {
+      AnalysisCache cache = compiler.getAnalysisCache();
+      return cache.getScopeCreator().getScopesReused()
+          + cache.getEs6ScopeCreator().getScopesReused();
+    }
+
     /** Re-arrange the passes in an optimal order. */
     private void optimizePasses() {
       // It's important that this ordering is deterministic, so that
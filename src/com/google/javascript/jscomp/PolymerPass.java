@@ -120,7 +120,7 @@ final class PolymerPass extends AbstractPostOrderCallback implements HotSwapComp
       return;
     }
 
-    globalNames = new GlobalNamespace(compiler, externs, root);
+    globalNames = compiler.getAnalysisCache().getGlobalNamespace(externs, root);
 
     hotSwapScript(root, null);
   }
@@ -117,7 +117,7 @@ class ProcessDefines implements CompilerPass {
   @Override
   public void process(Node externs, Node root) {
     if (namespace == null) {
-      namespace = new GlobalNamespace(compiler, root);
+      namespace = compiler.getAnalysisCache().getGlobalNamespace(root);
     }
     overrideDefines(collectDefines(root, namespace));
   }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.javascript.jscomp.NodeTraversal.Callback;
+
+/**
+ * Interface for check passes that are a single traversal of the JS tree.
+ * <p>
+ * Running such a pass must be the same as calling
+ * {@code NodeTraversal.traverseEs6} with its callback on the root of the JS
+ * tree. The traversal doesn't look at the externs and only builds syntactic
+ * scopes, so the scopes of all such passes agree. The callback must not
+ * change the AST, and may only affect the compiler by reporting errors: a
+ * fused pass runs even when an earlier one in its traversal reports a
+ * halting error, and only its errors are then dropped.
+ * <p>
+ * This lets the {@link PhaseOptimizer} run adjacent passes of this kind in
+ * one traversal, when their factories are {@link PassFactory#isFusible
+ * fusible}.
+ */
+interface ReadOnlyTraversalPass extends CompilerPass {
+
+  /** Returns the callback that the pass traverses the JS tree with. */
+  Callback getCallback();
+}
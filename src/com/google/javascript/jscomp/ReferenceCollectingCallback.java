@@ -112,7 +112,11 @@ class ReferenceCollectingCallback implements ScopedCallback,
    */
   @Override
   public void process(Node externs, Node root) {
-    NodeTraversal.traverseRoots(compiler, this, externs, root);
+    // Reuses the scopes of the functions that haven't changed since the
+    // last traversal.
+    new NodeTraversal(
+        compiler, this, compiler.getAnalysisCache().getDefaultScopeCreator())
+        .traverseRoots(externs, root);
   }
 
   /**
@@ -171,7 +171,7 @@ class RemoveUnusedVars
    * Traverses a node recursively. Call this once per pass.
    */
   private void traverseAndRemoveUnusedReferences(Node root) {
-    Scope scope = SyntacticScopeCreator.makeUntyped(compiler).createScope(root, null);
+    Scope scope = compiler.getAnalysisCache().getScopeCreator().createScope(root, null);
     traverseNode(root, null, scope);
 
     if (removeGlobals) {
@@ -340,7 +340,8 @@ class RemoveUnusedVars
     Preconditions.checkState(body.getNext() == null &&
             body.isBlock());
 
-    Scope fnScope = SyntacticScopeCreator.makeUntyped(compiler).createScope(n, parentScope);
+    Scope fnScope =
+        compiler.getAnalysisCache().getScopeCreator().createScope(n, parentScope);
     traverseNode(body, n, fnScope);
 
     collectMaybeUnreferencedVars(fnScope);
@@ -954,10 +954,7 @@ import java.util.Set;
       referencesByNameNode = new HashMap<>();
 
       ReferenceCollectingCallback callback =
-        new ReferenceCollectingCallback(compiler,
-            ReferenceCollectingCallback.DO_NOTHING_BEHAVIOR);
-
-      NodeTraversal.traverseEs6(compiler, root, callback);
+          compiler.getAnalysisCache().getReferences(root);
 
       for (Var variable : callback.getAllSymbols()) {
         ReferenceCollection referenceCollection =
@@ -16,6 +16,7 @@
 
 package com.google.javascript.jscomp;
 
+import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.debugging.sourcemap.FilePosition;
 import com.google.debugging.sourcemap.SourceMapFormat;
@@ -24,6 +25,7 @@ import com.google.debugging.sourcemap.SourceMapGeneratorFactory;
 import com.google.javascript.rhino.Node;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -104,19 +106,64 @@ public final class SourceMap {
     }
   }
 
+  /** A mapping recorded by a source map created with {@link #createRecorder}. */
+  private static final class RecordedMapping {
+    final Node node;
+    final FilePosition start;
+    final FilePosition end;
+
+    RecordedMapping(Node node, FilePosition start, FilePosition end) {
+      this.node = node;
+      this.start = start;
+      this.end = end;
+    }
+  }
+
+  /** The generator, or null if this source map only records its mappings. */
   private final SourceMapGenerator generator;
+  private final List<RecordedMapping> recordedMappings;
   private List<LocationMapping> prefixMappings = Collections.emptyList();
   private final Map<String, String> sourceLocationFixupCache =
        new HashMap<>();
 
   private SourceMap(SourceMapGenerator generator) {
     this.generator = generator;
+    this.recordedMappings = generator == null
+        ? new ArrayList<RecordedMapping>() : null;
+  }
+
+  /**
+   * Creates a source map that only records the mappings added to it, so that
+   * code can be printed without touching the real source map, e.g. on
+   * another thread. The recorded mappings are added to the real source map
+   * later with {@link #addRecordedMappings}.
+   */
+  static SourceMap createRecorder() {
+    return new SourceMap(null);
+  }
+
+  /**
+   * Adds the mappings recorded by the given recorder, as if the code they
+   * describe had been printed at the current starting position.
+   */
+  void addRecordedMappings(SourceMap recorder) {
+    Preconditions.checkState(generator != null);
+    Preconditions.checkArgument(recorder.recordedMappings != null);
+    for (RecordedMapping mapping : recorder.recordedMappings) {
+      addMapping(mapping.node, mapping.start, mapping.end);
+    }
   }
 
   public void addMapping(
       Node node,
       FilePosition outputStartPosition,
       FilePosition outputEndPosition) {
+    if (recordedMappings != null) {
+      recordedMappings.add(
+          new RecordedMapping(node, outputStartPosition, outputEndPosition));
+      return;
+    }
+
     String sourceFile = node.getSourceFileName();
 
     // If the node does not have an associated source file or
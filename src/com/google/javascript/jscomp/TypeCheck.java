@@ -419,7 +419,14 @@ public final class TypeCheck implements NodeTraversal.Callback, CompilerPass {
 
     NodeTraversal t = new NodeTraversal(compiler, this, scopeCreator);
     inExterns = externs;
-    t.traverseWithScope(node, topScope);
+    // Checking compares the same few types over and over, and rarely
+    // changes them.
+    typeRegistry.setCacheTypeRelations(true);
+    try {
+      t.traverseWithScope(node, topScope);
+    } finally {
+      typeRegistry.setCacheTypeRelations(false);
+    }
     if (externs) {
       inferJSDocInfo.process(node, null);
     } else {
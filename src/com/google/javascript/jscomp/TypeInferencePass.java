@@ -29,7 +29,7 @@ import java.util.Map;
  * A compiler pass to run the type inference analysis.
  *
  */
-class TypeInferencePass implements CompilerPass {
+class TypeInferencePass implements HotSwapCompilerPass {
 
   static final DiagnosticType DATAFLOW_ERROR = DiagnosticType.warning(
       "JSC_INTERNAL_ERROR_DATAFLOW",
@@ -73,6 +73,16 @@ class TypeInferencePass implements CompilerPass {
     inferAllScopes(externsAndJs);
   }
 
+  /**
+   * Entry point for type inference when a script is replaced in hot-swap mode.
+   * Only the scopes of the new script are created and inferred; the global
+   * scope must already have been patched with its declarations.
+   */
+  @Override
+  public void hotSwapScript(Node scriptRoot, Node originalRoot) {
+    inferAllScopes(scriptRoot);
+  }
+
   /** Entry point for type inference when running over part of the tree. */
   void inferAllScopes(Node node) {
     // Type analysis happens in two major phases.
@@ -102,8 +112,16 @@ class TypeInferencePass implements CompilerPass {
         compiler, new FirstScopeBuildingCallback(), scopeCreator))
         .traverseWithScope(node, topScope);
 
-    for (TypedScope s : scopeCreator.getAllMemoizedScopes()) {
-      s.resolveTypes();
+    if (node.isScript()) {
+      // The scopes of other scripts were resolved when they were created.
+      for (TypedScope s :
+          scopeCreator.getScopesForScript(node.getSourceFileName())) {
+        s.resolveTypes();
+      }
+    } else {
+      for (TypedScope s : scopeCreator.getAllMemoizedScopes()) {
+        s.resolveTypes();
+      }
     }
 
     (new NodeTraversal(
@@ -18,15 +18,19 @@ package com.google.javascript.jscomp;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.SetMultimap;
 import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.jstype.JSType;
 import com.google.javascript.rhino.jstype.ObjectType;
 import com.google.javascript.rhino.jstype.StaticTypedScope;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -51,6 +55,12 @@ public class TypedScope extends Scope implements StaticTypedScope<JSType> {
   private final TypedScope parent;
   /** Whether this is a bottom scope for the purposes of type inference. */
   private final boolean isBottom;
+  /**
+   * The names of the variables of a global scope by the name of the input
+   * that declares them, so that hot-swap mode can find the variables of a
+   * script without looking at all the others. Null for the other scopes.
+   */
+  private final SetMultimap<String, String> varNamesByInput;
   // Scope.java contains an arguments field.
   // We haven't added it here because it's unused by the passes that need typed scopes.
 
@@ -69,6 +79,8 @@ public class TypedScope extends Scope implements StaticTypedScope<JSType> {
     super(parent, rootNode);
     this.parent = parent;
     this.isBottom = false;
+    this.varNamesByInput =
+        parent == null ? HashMultimap.<String, String>create() : null;
   }
 
   /**
@@ -81,6 +93,7 @@ public class TypedScope extends Scope implements StaticTypedScope<JSType> {
     super(rootNode);
     this.parent = null;
     this.isBottom = isBottom;
+    this.varNamesByInput = isBottom ? null : HashMultimap.<String, String>create();
   }
 
   static TypedScope createGlobalScope(Node rootNode) {
@@ -157,7 +170,13 @@ public class TypedScope extends Scope implements StaticTypedScope<JSType> {
       JSType type, CompilerInput input, boolean inferred) {
     Preconditions.checkState(name != null && !name.isEmpty());
     TypedVar var = new TypedVar(inferred, name, nameNode, type, this, vars.size(), input);
-    vars.put(name, var);
+    TypedVar previous = vars.put(name, var);
+    if (varNamesByInput != null) {
+      if (previous != null) {
+        varNamesByInput.remove(previous.getInputName(), name);
+      }
+      varNamesByInput.put(var.getInputName(), name);
+    }
     return var;
   }
 
@@ -167,6 +186,21 @@ public class TypedScope extends Scope implements StaticTypedScope<JSType> {
     Preconditions.checkState(tvar.scope == this);
     Preconditions.checkState(vars.get(tvar.name) == tvar);
     vars.remove(tvar.name);
+    if (varNamesByInput != null) {
+      varNamesByInput.remove(tvar.getInputName(), tvar.name);
+    }
+  }
+
+  /**
+   * Returns the variables of this global scope that the given input declares.
+   */
+  List<TypedVar> getVarsDeclaredIn(String inputName) {
+    Preconditions.checkState(varNamesByInput != null);
+    List<TypedVar> result = new ArrayList<>();
+    for (String name : varNamesByInput.get(inputName)) {
+      result.add(vars.get(name));
+    }
+    return result;
   }
 
   @Override
@@ -277,24 +277,52 @@ final class TypedScopeCreator implements ScopeCreator {
     // TODO(bashir): Variable declaration is not the only side effect of last
     // global scope generation but here we only wipe that part off!
 
-    // Remove all variables that were previously declared in this scripts.
-    // First find all vars to remove then remove them because of iterator!
-    Iterator<TypedVar> varIter = globalScope.getVars();
-    List<TypedVar> varsToRemove = new ArrayList<>();
-    while (varIter.hasNext()) {
-      TypedVar oldVar = varIter.next();
-      if (scriptName.equals(oldVar.getInputName())) {
-        varsToRemove.add(oldVar);
+    // Remove all variables that were previously declared in this script,
+    // and the type names they declared, so that the new version of the
+    // script can declare them with their new types.
+    for (TypedVar var : globalScope.getVarsDeclaredIn(scriptName)) {
+      if (declaresTypeName(var)) {
+        typeRegistry.undeclareType(var.getName());
       }
-    }
-    for (TypedVar var : varsToRemove) {
       globalScope.undeclare(var);
       globalScope.getTypeOfThis().toObjectType().removeProperty(var.getName());
     }
 
-    // Now re-traverse the given script.
+    // Now re-traverse the given script, as createScope does for the whole
+    // program.
+    NodeTraversal.traverseTyped(
+        compiler, scriptRoot, new DiscoverEnumsAndTypedefs(typeRegistry));
     GlobalScopeBuilder scopeBuilder = new GlobalScopeBuilder(globalScope);
     NodeTraversal.traverseTyped(compiler, scriptRoot, scopeBuilder);
+    scopeBuilder.resolveStubDeclarations();
+    scopeBuilder.resolveTypes();
+  }
+
+  /**
+   * Whether the given global variable declared the type name that is its own
+   * name in the registry: a typedef, or a non-native constructor, interface
+   * or enum.
+   */
+  private boolean declaresTypeName(TypedVar var) {
+    JSType registered = typeRegistry.getType(var.getName());
+    ObjectType registeredObject = ObjectType.cast(registered);
+    if (registered == null
+        || (registeredObject != null && registeredObject.isNativeObjectType())) {
+      return false;
+    }
+    JSDocInfo info = var.getJSDocInfo();
+    if (info != null && info.hasTypedefType()) {
+      return true;
+    }
+    JSType type = var.getType();
+    if (type == null) {
+      return false;
+    } else if (type.isEnumType()) {
+      return registered == type.toMaybeEnumType().getElementsType();
+    }
+    FunctionType fnType = type.toMaybeFunctionType();
+    return fnType != null && (fnType.isConstructor() || fnType.isInterface())
+        && registered == fnType.getInstanceType();
   }
 
   /**
@@ -1663,7 +1691,8 @@ final class TypedScopeCreator implements ScopeCreator {
           stubDeclarations.add(new StubDeclaration(
               n,
               t.getInput() != null && t.getInput().isExtern(),
-              ownerName));
+              ownerName,
+              inputId));
         }
 
         return;
@@ -1823,6 +1852,10 @@ final class TypedScopeCreator implements ScopeCreator {
           continue;
         }
 
+        // Declare the slot in the input of the stub, not the input that was
+        // traversed last.
+        inputId = stub.inputId;
+
         // If we see a stub property, make sure to register this property
         // in the type registry.
         ObjectType ownerType = getObjectSlot(ownerName);
@@ -1849,11 +1882,14 @@ final class TypedScopeCreator implements ScopeCreator {
     private final Node node;
     private final boolean isExtern;
     private final String ownerName;
+    private final InputId inputId;
 
-    private StubDeclaration(Node node, boolean isExtern, String ownerName) {
+    private StubDeclaration(Node node, boolean isExtern, String ownerName,
+        InputId inputId) {
       this.node = node;
       this.isExtern = isExtern;
       this.ownerName = ownerName;
+      this.inputId = inputId;
     }
   }
 
@@ -48,7 +48,7 @@ import java.util.logging.Logger;
 // These things don't require reachability info, consider making them their own
 // pass or putting them in some other, more related pass.
 
-class UnreachableCodeElimination implements CompilerPass {
+class UnreachableCodeElimination extends AbstractFunctionLocalPass {
   private static final Logger logger =
     Logger.getLogger(UnreachableCodeElimination.class.getName());
   private final AbstractCompiler compiler;
@@ -66,24 +66,29 @@ class UnreachableCodeElimination implements CompilerPass {
     NodeTraversal.traverseChangedFunctions(compiler, new FunctionCallback() {
         @Override
         public void enterFunction(AbstractCompiler compiler, Node root) {
-          // Computes the control flow graph.
-          ControlFlowAnalysis cfa =
-              new ControlFlowAnalysis(compiler, false, false);
-          cfa.process(null, root);
-          ControlFlowGraph<Node> cfg = cfa.getCfg();
-          new GraphReachability<>(cfg)
-              .compute(cfg.getEntry().getValue());
-          if (root.isFunction()) {
-            root = root.getLastChild();
-          }
-          do {
-            codeChanged = false;
-            NodeTraversal.traverseEs6(compiler, root, new EliminationPass(cfg));
-          } while (codeChanged);
+          processFunction(root);
         }
       });
   }
 
+  @Override
+  public void processFunction(Node root) {
+    // Computes the control flow graph.
+    ControlFlowAnalysis cfa =
+        new ControlFlowAnalysis(compiler, false, false);
+    cfa.process(null, root);
+    ControlFlowGraph<Node> cfg = cfa.getCfg();
+    new GraphReachability<>(cfg)
+        .compute(cfg.getEntry().getValue());
+    if (root.isFunction()) {
+      root = root.getLastChild();
+    }
+    do {
+      codeChanged = false;
+      NodeTraversal.traverseEs6(compiler, root, new EliminationPass(cfg));
+    } while (codeChanged);
+  }
+
   private class EliminationPass extends AbstractShallowCallback {
     private final ControlFlowGraph<Node> cfg;
     private EliminationPass(ControlFlowGraph<Node> cfg) {
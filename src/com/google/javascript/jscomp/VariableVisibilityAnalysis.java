@@ -109,10 +109,7 @@ class VariableVisibilityAnalysis implements CompilerPass {
   @Override
   public void process(Node externs, Node root) {
     ReferenceCollectingCallback callback =
-      new ReferenceCollectingCallback(compiler,
-          ReferenceCollectingCallback.DO_NOTHING_BEHAVIOR);
-
-    NodeTraversal.traverseEs6(compiler, root, callback);
+        compiler.getAnalysisCache().getReferences(root);
 
     for (Var variable : callback.getAllSymbols()) {
       ReferenceCollection referenceCollection =
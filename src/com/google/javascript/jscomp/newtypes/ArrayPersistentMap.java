@@ -0,0 +1,169 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.newtypes;
+
+import com.google.common.base.Preconditions;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A persistent map of a few entries, kept in one array that is searched
+ * linearly. Most object types have only a few properties, and for them this
+ * is faster and smaller than hashing. When the map grows past
+ * {@link #MAX_SIZE} entries, it turns into a {@link HamtPersistentMap}.
+ */
+final class ArrayPersistentMap<K, V> extends PersistentMap<K, V> {
+  static final int MAX_SIZE = 8;
+
+  @SuppressWarnings("rawtypes")
+  private static final ArrayPersistentMap EMPTY =
+      new ArrayPersistentMap<>(new Object[0]);
+
+  // The keys and values, alternating.
+  private final Object[] array;
+  private int hashCode;
+
+  private ArrayPersistentMap(Object[] array) {
+    this.array = array;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <K, V> PersistentMap<K, V> empty() {
+    return EMPTY;
+  }
+
+  private int indexOf(Object key) {
+    for (int i = 0; i < array.length; i += 2) {
+      Object k = array[i];
+      if (k == key || k.equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public PersistentMap<K, V> with(K key, V value) {
+    Preconditions.checkNotNull(key);
+    int i = indexOf(key);
+    if (i >= 0) {
+      if (array[i + 1] == value) {
+        return this;
+      }
+      Object[] newArray = array.clone();
+      newArray[i + 1] = value;
+      return new ArrayPersistentMap<>(newArray);
+    }
+    if (array.length == 2 * MAX_SIZE) {
+      return HamtPersistentMap.<K, V>create(array).with(key, value);
+    }
+    Object[] newArray = new Object[array.length + 2];
+    System.arraycopy(array, 0, newArray, 0, array.length);
+    newArray[array.length] = key;
+    newArray[array.length + 1] = value;
+    return new ArrayPersistentMap<>(newArray);
+  }
+
+  @Override
+  public PersistentMap<K, V> without(K key) {
+    int i = indexOf(key);
+    if (i < 0) {
+      return this;
+    }
+    if (array.length == 2) {
+      return empty();
+    }
+    Object[] newArray = new Object[array.length - 2];
+    System.arraycopy(array, 0, newArray, 0, i);
+    System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+    return new ArrayPersistentMap<>(newArray);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    int i = key == null ? -1 : indexOf(key);
+    return i < 0 ? null : (V) array[i + 1];
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key != null && indexOf(key) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return array.length / 2;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return array.length == 0;
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    return new AbstractSet<Map.Entry<K, V>>() {
+      @Override
+      public Iterator<Map.Entry<K, V>> iterator() {
+        return new Iterator<Map.Entry<K, V>>() {
+          private int i = 0;
+
+          @Override
+          public boolean hasNext() {
+            return i < array.length;
+          }
+
+          @Override
+          @SuppressWarnings("unchecked")
+          public Map.Entry<K, V> next() {
+            if (i >= array.length) {
+              throw new NoSuchElementException();
+            }
+            Map.Entry<K, V> entry = new SimpleImmutableEntry<>(
+                (K) array[i], (V) array[i + 1]);
+            i += 2;
+            return entry;
+          }
+
+          @Override
+          public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return array.length / 2;
+      }
+    };
+  }
+
+  @Override
+  public int hashCode() {
+    // The map is immutable, so the hash code only needs to be computed once.
+    if (hashCode == 0) {
+      hashCode = super.hashCode();
+    }
+    return hashCode;
+  }
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.newtypes;
+
+import com.google.common.base.Preconditions;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A persistent map implemented as a hash array mapped trie (Bagwell, "Ideal
+ * Hash Trees", 2001).
+ * <p>
+ * Each level of the trie indexes its entries by the next five bits of the
+ * key hashes, and only stores the entries that are present, so a node has
+ * at most 32 of them. An update copies the nodes on the path from the root
+ * to the changed entry and shares all the others with the original map.
+ * Keys whose hashes are equal end up in the same collision node.
+ */
+final class HamtPersistentMap<K, V> extends PersistentMap<K, V> {
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  // Returned by the lookups of missing keys, as values may be null.
+  private static final Object NOT_FOUND = new Object();
+
+  private final TrieNode root;
+  private final int size;
+  private int hashCode;
+
+  private HamtPersistentMap(TrieNode root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  /** Creates a map of the given keys and values, which alternate. */
+  static <K, V> HamtPersistentMap<K, V> create(Object[] keysAndValues) {
+    TrieNode root = BitmapNode.EMPTY;
+    int size = 0;
+    for (int i = 0; i < keysAndValues.length; i += 2) {
+      Object key = keysAndValues[i];
+      Change change = new Change();
+      root = root.with(key, key.hashCode(), 0, keysAndValues[i + 1], change);
+      if (change.added) {
+        size++;
+      }
+    }
+    return new HamtPersistentMap<>(root, size);
+  }
+
+  @Override
+  public PersistentMap<K, V> with(K key, V value) {
+    Preconditions.checkNotNull(key);
+    Change change = new Change();
+    TrieNode newRoot = root.with(key, key.hashCode(), 0, value, change);
+    if (newRoot == root) {
+      return this;
+    }
+    return new HamtPersistentMap<>(newRoot, change.added ? size + 1 : size);
+  }
+
+  @Override
+  public PersistentMap<K, V> without(K key) {
+    TrieNode newRoot = root.without(key, key.hashCode(), 0);
+    if (newRoot == root) {
+      return this;
+    }
+    return new HamtPersistentMap<>(
+        newRoot == null ? BitmapNode.EMPTY : newRoot, size - 1);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    if (key == null) {
+      return null;
+    }
+    Object value = root.get(key, key.hashCode(), 0);
+    return value == NOT_FOUND ? null : (V) value;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key != null && root.get(key, key.hashCode(), 0) != NOT_FOUND;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    return new AbstractSet<Map.Entry<K, V>>() {
+      @Override
+      public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator<K, V>(root);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  @Override
+  public int hashCode() {
+    // The map is immutable, so the hash code only needs to be computed once.
+    if (hashCode == 0) {
+      hashCode = super.hashCode();
+    }
+    return hashCode;
+  }
+
+  /** Records whether an update added a key, rather than replacing one. */
+  private static final class Change {
+    boolean added;
+  }
+
+  /**
+   * A node of the trie. The nodes keep their keys and values in an array
+   * where they alternate.
+   */
+  private abstract static class TrieNode {
+    final Object[] array;
+
+    TrieNode(Object[] array) {
+      this.array = array;
+    }
+
+    /** Returns the value of the key, or NOT_FOUND. */
+    abstract Object get(Object key, int hash, int shift);
+
+    /** Returns the updated node, or this node if nothing changed. */
+    abstract TrieNode with(
+        Object key, int hash, int shift, Object value, Change change);
+
+    /**
+     * Returns the node without the key, this node if it doesn't have the
+     * key, or null if the node becomes empty.
+     */
+    abstract TrieNode without(Object key, int hash, int shift);
+  }
+
+  /**
+   * A node that holds the entries and subnodes of the hash prefixes that
+   * occur, in the order of the bits of its bitmap. A subnode has a null key.
+   */
+  private static final class BitmapNode extends TrieNode {
+    static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+    final int bitmap;
+
+    BitmapNode(int bitmap, Object[] array) {
+      super(array);
+      this.bitmap = bitmap;
+    }
+
+    private static int bit(int hash, int shift) {
+      return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private int index(int bit) {
+      return 2 * Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    Object get(Object key, int hash, int shift) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return NOT_FOUND;
+      }
+      int i = index(bit);
+      Object k = array[i];
+      if (k == null) {
+        return ((TrieNode) array[i + 1]).get(key, hash, shift + BITS);
+      }
+      return k == key || k.equals(key) ? array[i + 1] : NOT_FOUND;
+    }
+
+    @Override
+    TrieNode with(
+        Object key, int hash, int shift, Object value, Change change) {
+      int bit = bit(hash, shift);
+      int i = index(bit);
+      if ((bitmap & bit) == 0) {
+        Object[] newArray = new Object[array.length + 2];
+        System.arraycopy(array, 0, newArray, 0, i);
+        newArray[i] = key;
+        newArray[i + 1] = value;
+        System.arraycopy(array, i, newArray, i + 2, array.length - i);
+        change.added = true;
+        return new BitmapNode(bitmap | bit, newArray);
+      }
+      Object k = array[i];
+      Object v = array[i + 1];
+      if (k == null) {
+        TrieNode node =
+            ((TrieNode) v).with(key, hash, shift + BITS, value, change);
+        return node == v ? this : replace(i, null, node);
+      }
+      if (k == key || k.equals(key)) {
+        return v == value ? this : replace(i, k, value);
+      }
+      change.added = true;
+      return replace(i, null,
+          createNode(shift + BITS, k, v, key, hash, value));
+    }
+
+    private static TrieNode createNode(
+        int shift, Object k1, Object v1, Object k2, int hash2, Object v2) {
+      int hash1 = k1.hashCode();
+      if (hash1 == hash2) {
+        return new CollisionNode(hash1, new Object[] {k1, v1, k2, v2});
+      }
+      // Different hashes differ in the bits of some level, so this stops
+      // before all the bits are used up.
+      Change change = new Change();
+      return EMPTY
+          .with(k1, hash1, shift, v1, change)
+          .with(k2, hash2, shift, v2, change);
+    }
+
+    private BitmapNode replace(int i, Object key, Object value) {
+      Object[] newArray = array.clone();
+      newArray[i] = key;
+      newArray[i + 1] = value;
+      return new BitmapNode(bitmap, newArray);
+    }
+
+    @Override
+    TrieNode without(Object key, int hash, int shift) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int i = index(bit);
+      Object k = array[i];
+      if (k == null) {
+        TrieNode sub = (TrieNode) array[i + 1];
+        TrieNode node = sub.without(key, hash, shift + BITS);
+        if (node == sub) {
+          return this;
+        } else if (node != null) {
+          return replace(i, null, node);
+        }
+      } else if (!(k == key || k.equals(key))) {
+        return this;
+      }
+      if (bitmap == bit) {
+        return null;
+      }
+      Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, i);
+      System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+      return new BitmapNode(bitmap ^ bit, newArray);
+    }
+  }
+
+  /** A node that holds the entries of keys with the same hash. */
+  private static final class CollisionNode extends TrieNode {
+    final int hash;
+
+    CollisionNode(int hash, Object[] array) {
+      super(array);
+      this.hash = hash;
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < array.length; i += 2) {
+        Object k = array[i];
+        if (k == key || k.equals(key)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    Object get(Object key, int hash, int shift) {
+      int i = hash == this.hash ? indexOf(key) : -1;
+      return i < 0 ? NOT_FOUND : array[i + 1];
+    }
+
+    @Override
+    TrieNode with(
+        Object key, int hash, int shift, Object value, Change change) {
+      if (hash != this.hash) {
+        // Move this node one level down, next to the new key.
+        BitmapNode parent = new BitmapNode(
+            BitmapNode.bit(this.hash, shift), new Object[] {null, this});
+        return parent.with(key, hash, shift, value, change);
+      }
+      int i = indexOf(key);
+      if (i >= 0) {
+        if (array[i + 1] == value) {
+          return this;
+        }
+        Object[] newArray = array.clone();
+        newArray[i + 1] = value;
+        return new CollisionNode(hash, newArray);
+      }
+      Object[] newArray = new Object[array.length + 2];
+      System.arraycopy(array, 0, newArray, 0, array.length);
+      newArray[array.length] = key;
+      newArray[array.length + 1] = value;
+      change.added = true;
+      return new CollisionNode(hash, newArray);
+    }
+
+    @Override
+    TrieNode without(Object key, int hash, int shift) {
+      int i = hash == this.hash ? indexOf(key) : -1;
+      if (i < 0) {
+        return this;
+      }
+      if (array.length == 2) {
+        return null;
+      }
+      Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, i);
+      System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+      return new CollisionNode(hash, newArray);
+    }
+  }
+
+  /** Iterates over the entries of a trie, depth first. */
+  private static final class EntryIterator<K, V>
+      implements Iterator<Map.Entry<K, V>> {
+    // The nodes on the path to the next entry, and the positions in them.
+    // The 32 bits of a hash make for at most 7 levels of bitmap nodes, and a
+    // collision node at the bottom.
+    private final TrieNode[] nodes = new TrieNode[8];
+    private final int[] positions = new int[8];
+    private int depth = 0;
+
+    EntryIterator(TrieNode root) {
+      nodes[0] = root;
+      advance();
+    }
+
+    /** Moves to the next entry, or makes depth negative at the end. */
+    private void advance() {
+      while (depth >= 0) {
+        Object[] array = nodes[depth].array;
+        int i = positions[depth];
+        if (i >= array.length) {
+          depth--;
+        } else if (array[i] == null) {
+          positions[depth] += 2;
+          depth++;
+          nodes[depth] = (TrieNode) array[i + 1];
+          positions[depth] = 0;
+        } else {
+          return;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return depth >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map.Entry<K, V> next() {
+      if (depth < 0) {
+        throw new NoSuchElementException();
+      }
+      Object[] array = nodes[depth].array;
+      int i = positions[depth];
+      positions[depth] += 2;
+      Map.Entry<K, V> entry =
+          new SimpleImmutableEntry<>((K) array[i], (V) array[i + 1]);
+      advance();
+      return entry;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
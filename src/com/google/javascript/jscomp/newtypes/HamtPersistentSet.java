@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.newtypes;
+
+import java.util.Iterator;
+
+/**
+ * A persistent set that maps its elements to themselves in a
+ * {@link PersistentMap}, so it shares its structure the same way.
+ */
+final class HamtPersistentSet<K> extends PersistentSet<K> {
+  @SuppressWarnings("rawtypes")
+  private static final HamtPersistentSet EMPTY =
+      new HamtPersistentSet<>(PersistentMap.create());
+
+  private final PersistentMap<K, K> map;
+
+  private HamtPersistentSet(PersistentMap<K, K> map) {
+    this.map = map;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <K> PersistentSet<K> empty() {
+    return EMPTY;
+  }
+
+  @Override
+  public PersistentSet<K> with(K key) {
+    PersistentMap<K, K> newMap = map.with(key, key);
+    return newMap == map ? this : new HamtPersistentSet<>(newMap);
+  }
+
+  @Override
+  public PersistentSet<K> without(K key) {
+    PersistentMap<K, K> newMap = map.without(key);
+    return newMap == map ? this : new HamtPersistentSet<>(newMap);
+  }
+
+  @Override
+  public boolean contains(Object key) {
+    return map.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  @Override
+  public Iterator<K> iterator() {
+    return map.keySet().iterator();
+  }
+}
@@ -16,34 +16,30 @@
 
 package com.google.javascript.jscomp.newtypes;
 
-import com.google.common.annotations.GwtIncompatible;
-
 import java.util.AbstractMap;
-import java.util.Map;
 
-@GwtIncompatible("Class.forName")
-/** A persistent map with non-destructive additions and removals  */
+/**
+ * A persistent map with non-destructive additions and removals.
+ * <p>
+ * Small maps keep their entries in an array; larger ones are hash array
+ * mapped tries that share all but the changed path with the map they were
+ * made from.
+ */
 abstract class PersistentMap<K, V> extends AbstractMap<K, V> {
 
-  private static PersistentMap EMPTY;
-  static {
-    try {
-      @SuppressWarnings("unchecked")
-      Class<? extends Map> c =
-          (Class<? extends Map>) Class.forName("clojure.lang.PersistentHashMap");
-      EMPTY = ClojurePersistentHashMap.create(c);
-    } catch (ClassNotFoundException e) {
-      EMPTY = NaivePersistentMap.create();
-    }
-  }
-
+  /**
+   * Returns a map with the given key mapped to the given value, or this map
+   * if it already maps the key to the same value.
+   */
   public abstract PersistentMap<K, V> with(K key, V value);
 
+  /**
+   * Returns a map without the given key, or this map if it has no such key.
+   */
   public abstract PersistentMap<K, V> without(K key);
 
-  @SuppressWarnings("unchecked")
   public static <K, V> PersistentMap<K, V> create() {
-    return EMPTY;
+    return ArrayPersistentMap.empty();
   }
 
   public static <K, V> PersistentMap<K, V> of(K key, V value) {
@@ -17,31 +17,23 @@
 package com.google.javascript.jscomp.newtypes;
 
 import java.util.AbstractSet;
-import java.util.Set;
 
 /** A persistent set with non-destructive additions and removals */
 abstract class PersistentSet<K> extends AbstractSet<K> {
 
-  private static PersistentSet EMPTY;
-
-  static {
-    try {
-      @SuppressWarnings("unchecked")
-      Class<? extends Set> c =
-          (Class<? extends Set>) Class.forName("clojure.lang.PersistentHashSet");
-      EMPTY = ClojurePersistentHashSet.create(c);
-    } catch (ClassNotFoundException e) {
-      EMPTY = NaivePersistentSet.create();
-    }
-  }
-
+  /**
+   * Returns a set with the given element, or this set if it already has it.
+   */
   public abstract PersistentSet<K> with(K key);
 
+  /**
+   * Returns a set without the given element, or this set if it doesn't have
+   * it.
+   */
   public abstract PersistentSet<K> without(K key);
 
-  @SuppressWarnings("unchecked")
   public static <K> PersistentSet<K> create() {
-    return EMPTY;
+    return HamtPersistentSet.empty();
   }
 
 }
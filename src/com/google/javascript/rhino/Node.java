@@ -139,6 +139,40 @@ public class Node implements Serializable {
       CONSTRUCT_SIGNATURE = 83,   // This node is a TypeScript ConstructSignature
       ACCESS_MODIFIER = 84;       // TypeScript accessibility modifiers (public, protected, private)
 
+  /**
+   * The most common of the props that only ever hold a boolean, one for each
+   * bit of {@link #booleanProps}. These are stored as a bit, rather than in
+   * the property list, when their value is 1.
+   */
+  private static final int[] BOOLEAN_PROPS = {
+      FREE_CALL,
+      QUOTED_PROP,
+      IS_CONSTANT_NAME,
+      INCRDECR_PROP,
+      SYNTHETIC_BLOCK_PROP,
+      ADDED_BLOCK,
+      VAR_ARGS_NAME,
+      OPT_ARG_NAME,
+      IS_NAMESPACE,
+      DIRECT_EVAL,
+      SLASH_V,
+      IS_CONSTANT_VAR,
+      STATIC_MEMBER,
+      ARROW_FN,
+      ANALYZED_DURING_GTI,
+      CONSTANT_PROPERTY_DEF,
+  };
+
+  // Maps each prop type to its bit in booleanProps, or to 0.
+  private static final int[] BOOLEAN_PROP_BITS = new int[ACCESS_MODIFIER + 1];
+
+  static {
+    Preconditions.checkState(BOOLEAN_PROPS.length <= Short.SIZE);
+    for (int i = 0; i < BOOLEAN_PROPS.length; i++) {
+      BOOLEAN_PROP_BITS[BOOLEAN_PROPS[i]] = 1 << i;
+    }
+  }
+
   private static final String propToString(int propType) {
       switch (propType) {
         case VAR_ARGS_NAME:      return "var_args_name";
@@ -462,7 +496,7 @@ public class Node implements Serializable {
   }
 
   public Node(int nodeType) {
-    type = nodeType;
+    type = (short) nodeType;
     parent = null;
     sourcePosition = -1;
   }
@@ -473,7 +507,7 @@ public class Node implements Serializable {
     Preconditions.checkArgument(child.next == null,
         "new child has existing sibling");
 
-    type = nodeType;
+    type = (short) nodeType;
     parent = null;
     first = last = child;
     child.next = null;
@@ -490,7 +524,7 @@ public class Node implements Serializable {
         "second new child has existing parent");
     Preconditions.checkArgument(right.next == null,
         "second new child has existing sibling");
-    type = nodeType;
+    type = (short) nodeType;
     parent = null;
     first = left;
     last = right;
@@ -508,7 +542,7 @@ public class Node implements Serializable {
     Preconditions.checkArgument(mid.next == null);
     Preconditions.checkArgument(right.parent == null);
     Preconditions.checkArgument(right.next == null);
-    type = nodeType;
+    type = (short) nodeType;
     parent = null;
     first = left;
     last = right;
@@ -530,7 +564,7 @@ public class Node implements Serializable {
     Preconditions.checkArgument(mid2.next == null);
     Preconditions.checkArgument(right.parent == null);
     Preconditions.checkArgument(right.next == null);
-    type = nodeType;
+    type = (short) nodeType;
     parent = null;
     first = left;
     last = right;
@@ -546,7 +580,7 @@ public class Node implements Serializable {
   }
 
   public Node(int nodeType, int lineno, int charno) {
-    type = nodeType;
+    type = (short) nodeType;
     parent = null;
     sourcePosition = mergeLineCharNo(lineno, charno);
   }
@@ -579,7 +613,7 @@ public class Node implements Serializable {
   }
 
   public Node(int nodeType, Node[] children) {
-    this.type = nodeType;
+    this.type = (short) nodeType;
     parent = null;
     if (children.length != 0) {
       this.first = children[0];
@@ -633,7 +667,7 @@ public class Node implements Serializable {
   }
 
   public void setType(int type) {
-    this.type = type;
+    this.type = (short) type;
   }
 
   public boolean hasChildren() {
@@ -867,6 +901,15 @@ public class Node implements Serializable {
     child.parent = null;
   }
 
+  /**
+   * Returns the bit of {@link #booleanProps} that stores the given property,
+   * or 0 if the property is only ever stored in the property list.
+   */
+  private static int booleanPropBit(int propType) {
+    return propType < BOOLEAN_PROP_BITS.length
+        ? BOOLEAN_PROP_BITS[propType] : 0;
+  }
+
   @VisibleForTesting
   PropListItem lookupProperty(int propType) {
     PropListItem x = propListHead;
@@ -884,45 +927,63 @@ public class Node implements Serializable {
    * @return this node.
    */
   public Node clonePropsFrom(Node other) {
-    Preconditions.checkState(this.propListHead == null,
+    Preconditions.checkState(!this.hasProps(),
         "Node has existing properties.");
     this.propListHead = other.propListHead;
+    this.booleanProps = other.booleanProps;
     return this;
   }
 
   public void removeProp(int propType) {
-    PropListItem result = removeProp(propListHead, propType);
-    if (result != propListHead) {
-      propListHead = result;
+    int bit = booleanPropBit(propType);
+    if ((booleanProps & bit) != 0) {
+      // A property is never stored both as a bit and in the list.
+      booleanProps &= ~bit;
+    } else {
+      propListHead = removeProp(propListHead, propType);
     }
   }
 
   public boolean hasProps() {
-    return propListHead != null;
+    return propListHead != null || booleanProps != 0;
   }
 
   /**
-   * @param item The item to inspect
+   * @param head The list to remove the property from
    * @param propType The property to look for
    * @return The replacement list if the property was removed, or
-   *   'item' otherwise.
+   *   'head' otherwise. Only the items in front of the removed one are
+   *   copied, as the rest of the list may be shared.
    */
-  private PropListItem removeProp(PropListItem item, int propType) {
+  private static PropListItem removeProp(PropListItem head, int propType) {
+    int index = 0;
+    PropListItem item = head;
+    while (item != null && item.getType() != propType) {
+      item = item.getNext();
+      index++;
+    }
     if (item == null) {
-      return null;
-    } else if (item.getType() == propType) {
-      return item.getNext();
-    } else {
-      PropListItem result = removeProp(item.getNext(), propType);
-      if (result != item.getNext()) {
-        return item.chain(result);
-      } else {
-        return item;
+      return head;
+    }
+    PropListItem result = item.getNext();
+    if (index > 0) {
+      PropListItem[] prefix = new PropListItem[index];
+      PropListItem x = head;
+      for (int i = 0; i < index; i++) {
+        prefix[i] = x;
+        x = x.getNext();
+      }
+      for (int i = index - 1; i >= 0; i--) {
+        result = prefix[i].chain(result);
       }
     }
+    return result;
   }
 
   public Object getProp(int propType) {
+    if ((booleanProps & booleanPropBit(propType)) != 0) {
+      throw new UnsupportedOperationException();
+    }
     PropListItem item = lookupProperty(propType);
     if (item == null) {
       return null;
@@ -939,6 +1000,9 @@ public class Node implements Serializable {
    * is not defined.
    */
   public int getIntProp(int propType) {
+    if ((booleanProps & booleanPropBit(propType)) != 0) {
+      return 1;
+    }
     PropListItem item = lookupProperty(propType);
     if (item == null) {
       return 0;
@@ -947,6 +1011,9 @@ public class Node implements Serializable {
   }
 
   public int getExistingIntProp(int propType) {
+    if ((booleanProps & booleanPropBit(propType)) != 0) {
+      return 1;
+    }
     PropListItem item = lookupProperty(propType);
     if (item == null) {
       throw new IllegalStateException("missing prop: " + propType);
@@ -967,7 +1034,10 @@ public class Node implements Serializable {
 
   public void putIntProp(int propType, int value) {
     removeProp(propType);
-    if (value != 0) {
+    int bit = booleanPropBit(propType);
+    if (value == 1 && bit != 0) {
+      booleanProps |= bit;
+    } else if (value != 0) {
       propListHead = createProp(propType, value, propListHead);
     }
   }
@@ -1006,7 +1076,7 @@ public class Node implements Serializable {
 
   // Gets all the property types, in sorted order.
   private int[] getSortedPropTypes() {
-    int count = 0;
+    int count = Integer.bitCount(booleanProps & 0xffff);
     for (PropListItem x = propListHead; x != null; x = x.getNext()) {
       count++;
     }
@@ -1016,6 +1086,12 @@ public class Node implements Serializable {
       count--;
       keys[count] = x.getType();
     }
+    for (int i = 0; i < BOOLEAN_PROPS.length; i++) {
+      if ((booleanProps & (1 << i)) != 0) {
+        count--;
+        keys[count] = BOOLEAN_PROPS[i];
+      }
+    }
 
     Arrays.sort(keys);
     return keys;
@@ -1123,7 +1199,8 @@ public class Node implements Serializable {
         String value;
         switch (type) {
           default:
-            value = x.toString();
+            // Props stored as bits of booleanProps have the value 1.
+            value = x == null ? "1" : x.toString();
             break;
         }
         sb.append(value);
@@ -1173,7 +1250,9 @@ public class Node implements Serializable {
     }
   }
 
-  int type;              // type of the node; Token.NAME for example
+  // The type of the node; Token.NAME for example. All the token types fit in
+  // a short, which leaves room for booleanProps in the same word.
+  short type;
   Node next;             // next sibling
   private Node first;    // first element of a linked list of children
   private Node last;     // last element of a linked list of children
@@ -1182,10 +1261,18 @@ public class Node implements Serializable {
    * Linked list of properties. Since vast majority of nodes would have
    * no more then 2 properties, linked list saves memory and provides
    * fast lookup. If this does not holds, propListHead can be replaced
-   * by UintMap.
+   * by UintMap. The items are immutable, so that cloned nodes can share
+   * the list.
    */
   private PropListItem propListHead;
 
+  /**
+   * The props in {@link #BOOLEAN_PROPS} that are set to 1, one bit each.
+   * Each would otherwise cost an item in the property list. Cloned nodes
+   * copy the bits along with the head of the list.
+   */
+  private short booleanProps;
+
   /**
    * COLUMN_BITS represents how many of the lower-order bits of
    * sourcePosition are reserved for storing the column number.
@@ -1959,6 +2046,7 @@ public class Node implements Serializable {
     dst.setSourceEncodedPosition(this.sourcePosition);
     dst.setTypeI(this.typei);
     dst.setPropListHead(this.propListHead);
+    ((Node) dst).booleanProps = this.booleanProps;
     return dst;
   }
 
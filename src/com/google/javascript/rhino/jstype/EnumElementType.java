@@ -159,11 +159,6 @@ public class EnumElementType extends ObjectType {
     return true;
   }
 
-  @Override
-  public boolean isSubtype(JSType that) {
-    return isSubtype(that, ImplCache.create());
-  }
-
   @Override
   protected boolean isSubtype(JSType that,
       ImplCache implicitImplCache) {
@@ -469,6 +469,7 @@ public class FunctionType extends PrototypeObjectType implements FunctionTypeI {
 
     this.prototypeSlot = new Property("prototype", prototype, true,
         propertyNode == null ? source : propertyNode);
+    registry.clearTypeRelationCache();
     prototype.setOwnerFunction(this);
 
     if (oldPrototype != null) {
@@ -590,6 +591,7 @@ public class FunctionType extends PrototypeObjectType implements FunctionTypeI {
         typeOfThis.extendTemplateTypeMap(type.getTemplateTypeMap());
       }
       this.implementedInterfaces = ImmutableList.copyOf(implementedInterfaces);
+      registry.clearTypeRelationCache();
     } else {
       throw new UnsupportedOperationException();
     }
@@ -623,6 +625,7 @@ public class FunctionType extends PrototypeObjectType implements FunctionTypeI {
     throws UnsupportedOperationException {
     if (isInterface()) {
       this.extendedInterfaces = ImmutableList.copyOf(extendedInterfaces);
+      registry.clearTypeRelationCache();
       for (ObjectType extendedInterface : this.extendedInterfaces) {
         typeOfThis.extendTemplateTypeMap(
             extendedInterface.getTemplateTypeMap());
@@ -1099,11 +1102,6 @@ public class FunctionType extends PrototypeObjectType implements FunctionTypeI {
    * subtyping and {@code this} is a subtype of {@code that} with regard to
    * the prototype chain.
    */
-  @Override
-  public boolean isSubtype(JSType that) {
-    return isSubtype(that, ImplCache.create());
-  }
-
   @Override
   protected boolean isSubtype(JSType that,
       ImplCache implicitImplCache) {
@@ -1180,6 +1178,7 @@ public class FunctionType extends PrototypeObjectType implements FunctionTypeI {
    */
   void setInstanceType(ObjectType instanceType) {
     typeOfThis = instanceType;
+    registry.clearTypeRelationCache();
   }
 
   /**
@@ -1431,6 +1430,7 @@ public class FunctionType extends PrototypeObjectType implements FunctionTypeI {
   public void setImplicitMatch(boolean flag) {
     Preconditions.checkState(isInterface());
     isStructuralInterface = flag;
+    registry.clearTypeRelationCache();
   }
 
   @Override
@@ -450,6 +450,9 @@ public abstract class JSType implements TypeI, Serializable {
    */
   public void extendTemplateTypeMap(TemplateTypeMap otherMap) {
     templateTypeMap = templateTypeMap.extend(otherMap);
+    if (registry != null) {
+      registry.clearTypeRelationCache();
+    }
   }
 
   /**
@@ -529,14 +532,42 @@ public abstract class JSType implements TypeI, Serializable {
    */
   @Override
   public final boolean isEquivalentTo(TypeI that) {
-    return checkEquivalenceHelper((JSType) that, EquivalenceMethod.IDENTITY);
+    return isEquivalentTo(that, true);
   }
 
   public final boolean isEquivalentTo(TypeI that, boolean isStructural) {
+    JSType thatType = (JSType) that;
+    TypeRelationCache relations = getTypeRelationCache(thatType);
+    if (relations == null) {
+      return checkEquivalenceHelper(thatType, isStructural);
+    }
+    TypeRelationCache.Relation relation = isStructural
+        ? TypeRelationCache.Relation.EQUIVALENT
+        : TypeRelationCache.Relation.NOMINALLY_EQUIVALENT;
+    Boolean result = relations.get(relation, this, thatType);
+    if (result == null) {
+      result = checkEquivalenceHelper(thatType, isStructural);
+      relations.put(relation, this, thatType, result);
+    }
+    return result;
+  }
+
+  private boolean checkEquivalenceHelper(JSType that, boolean isStructural) {
     EqCache eqCache = isStructural ? EqCache.create()
         : EqCache.createWithoutStructuralTyping();
-    return checkEquivalenceHelper((JSType) that,
-        EquivalenceMethod.IDENTITY, eqCache);
+    return checkEquivalenceHelper(that, EquivalenceMethod.IDENTITY, eqCache);
+  }
+
+  /**
+   * Returns the memoized relations between types, if the registry memoizes
+   * them and it is worth looking this pair up there.
+   */
+  private TypeRelationCache getTypeRelationCache(JSType that) {
+    if (this == that || registry == null) {
+      // Identical types are cheap to compare.
+      return null;
+    }
+    return registry.getTypeRelationCache();
   }
 
   /**
@@ -987,10 +1018,15 @@ public abstract class JSType implements TypeI, Serializable {
    * getLeastSupertype implementations.
    */
   static JSType getLeastSupertype(JSType thisType, JSType thatType) {
-    boolean areEquivalent = thisType.isEquivalentTo(thatType);
-    return areEquivalent ? thisType :
-        filterNoResolvedType(
-            thisType.registry.createUnionType(thisType, thatType));
+    JSTypeRegistry registry = thisType.registry;
+    JSType result = registry.getMemoizedLeastSupertype(thisType, thatType);
+    if (result == null) {
+      boolean areEquivalent = thisType.isEquivalentTo(thatType);
+      result = areEquivalent ? thisType :
+          filterNoResolvedType(registry.createUnionType(thisType, thatType));
+      registry.memoizeLeastSupertype(thisType, thatType, result);
+    }
+    return result;
   }
 
   /**
@@ -1305,9 +1341,18 @@ public abstract class JSType implements TypeI, Serializable {
    *
    * @return <code>this &lt;: that</code>
    */
-  public boolean isSubtype(JSType that) {
-    return isSubtypeHelper(this, that,
-        ImplCache.create());
+  public final boolean isSubtype(JSType that) {
+    TypeRelationCache relations = getTypeRelationCache(that);
+    if (relations == null) {
+      return isSubtype(that, ImplCache.create());
+    }
+    Boolean result =
+        relations.get(TypeRelationCache.Relation.SUBTYPE, this, that);
+    if (result == null) {
+      result = isSubtype(that, ImplCache.create());
+      relations.put(TypeRelationCache.Relation.SUBTYPE, this, that, result);
+    }
+    return result;
   }
 
   /**
@@ -178,6 +178,14 @@ public class JSTypeRegistry implements TypeIRegistry, Serializable {
   // there are no template types.
   private final TemplateTypeMap emptyTemplateTypeMap;
 
+  // Memoized subtype and equivalence results, while they are being memoized.
+  private transient TypeRelationCache typeRelationCache = null;
+  private transient int typeRelationCacheHits = 0;
+  private transient int typeRelationCacheMisses = 0;
+
+  // Interned unions and memoized joins.
+  private transient UnionTypeTable unionTypes = null;
+
   // string names used in JSDoc declaration for IObject
   private static final String I_OBJECT_INTERFACE_NAME = "IObject";
   private static final String I_OBJECT_KEY_NAME = "KEY1";
@@ -279,6 +287,12 @@ public class JSTypeRegistry implements TypeIRegistry, Serializable {
    * Reset to run the TypeCheck pass.
    */
   public void resetForTypeCheck() {
+    if (typeRelationCache != null) {
+      typeRelationCache = new TypeRelationCache();
+    }
+    typeRelationCacheHits = 0;
+    typeRelationCacheMisses = 0;
+    unionTypes = null;
     typesIndexedByProperty.clear();
     eachRefTypeIndexedByProperty.clear();
     initializeBuiltInTypes();
@@ -286,6 +300,97 @@ public class JSTypeRegistry implements TypeIRegistry, Serializable {
     initializeRegistry();
   }
 
+  /**
+   * Starts or stops memoizing the results of {@link JSType#isSubtype} and
+   * {@link JSType#isEquivalentTo} between pairs of types. This pays off in
+   * phases that compare the same types over and over without changing them
+   * much, like type checking. Any change to a property, prototype or
+   * interface of a type drops the memoized results.
+   */
+  public void setCacheTypeRelations(boolean cache) {
+    if (cache && typeRelationCache == null) {
+      typeRelationCache = new TypeRelationCache();
+    } else if (!cache && typeRelationCache != null) {
+      typeRelationCacheHits += typeRelationCache.getHits();
+      typeRelationCacheMisses += typeRelationCache.getMisses();
+      typeRelationCache = null;
+    }
+  }
+
+  /**
+   * Returns how many subtype and equivalence checks were answered from
+   * memoized results since the last reset for type checking.
+   */
+  public int getTypeRelationCacheHits() {
+    return typeRelationCacheHits
+        + (typeRelationCache == null ? 0 : typeRelationCache.getHits());
+  }
+
+  /**
+   * Returns how many subtype and equivalence checks had to be computed while
+   * memoizing, since the last reset for type checking.
+   */
+  public int getTypeRelationCacheMisses() {
+    return typeRelationCacheMisses
+        + (typeRelationCache == null ? 0 : typeRelationCache.getMisses());
+  }
+
+  /** Returns the memoized type relations, or null if they aren't memoized. */
+  TypeRelationCache getTypeRelationCache() {
+    return typeRelationCache;
+  }
+
+  /** Drops the memoized type relations, when a type changes. */
+  void clearTypeRelationCache() {
+    if (typeRelationCache != null) {
+      typeRelationCache.clear();
+    }
+    if (unionTypes != null) {
+      unionTypes.clearJoins();
+    }
+  }
+
+  private UnionTypeTable getUnionTypeTable() {
+    if (unionTypes == null) {
+      unionTypes = new UnionTypeTable();
+    }
+    return unionTypes;
+  }
+
+  /**
+   * Returns the union of the given alternates, sharing one instance between
+   * all unions of the same alternates.
+   */
+  UnionType internUnionType(Collection<JSType> alternates) {
+    return getUnionTypeTable().intern(this, alternates);
+  }
+
+  /**
+   * Returns the memoized least supertype of the two types, or null if it
+   * isn't known.
+   */
+  JSType getMemoizedLeastSupertype(JSType left, JSType right) {
+    return getUnionTypeTable().getJoin(left, right);
+  }
+
+  void memoizeLeastSupertype(JSType left, JSType right, JSType result) {
+    getUnionTypeTable().putJoin(left, right, result);
+  }
+
+  /** Returns how many distinct unions were interned since the last reset. */
+  int getInternedUnionTypeCount() {
+    return unionTypes == null ? 0 : unionTypes.getUnionCount();
+  }
+
+  /**
+   * Returns how many unions were answered with an interned instance or a
+   * memoized join since the last reset.
+   */
+  int getUnionTypeTableHits() {
+    return unionTypes == null
+        ? 0 : unionTypes.getUnionHits() + unionTypes.getJoinHits();
+  }
+
   private void initializeBuiltInTypes() {
     iobjectIndexTemplateKey = new TemplateType(this, I_OBJECT_INDEX_TEMPLATE);
     iobjectElementTemplateKey = new TemplateType(this, I_OBJECT_ELEMENT_TEMPLATE);
@@ -874,6 +979,14 @@ public class JSTypeRegistry implements TypeIRegistry, Serializable {
     register(t, name);
   }
 
+  /**
+   * Removes a declared global type name, so that it can be declared again.
+   * Used when the code that declared it is replaced in hot-swap mode.
+   */
+  public void undeclareType(String name) {
+    namesToTypes.remove(name);
+  }
+
   /**
    * Records a forward-declared type name. We will not emit errors if this
    * type name never resolves to anything.
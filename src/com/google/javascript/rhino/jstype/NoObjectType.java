@@ -71,11 +71,6 @@ public class NoObjectType extends FunctionType {
     this.setInstanceType(this);
   }
 
-  @Override
-  public boolean isSubtype(JSType that) {
-    return isSubtype(that, ImplCache.create());
-  }
-
   @Override
   protected boolean isSubtype(JSType that,
       ImplCache implicitImplCache) {
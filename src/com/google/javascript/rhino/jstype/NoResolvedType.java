@@ -73,11 +73,6 @@ class NoResolvedType extends NoType {
     return false;
   }
 
-  @Override
-  public boolean isSubtype(JSType that) {
-    return isSubtype(that, ImplCache.create());
-  }
-
   @Override
   protected boolean isSubtype(JSType that,
       ImplCache implicitImplCache) {
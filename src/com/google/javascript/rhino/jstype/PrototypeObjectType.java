@@ -187,11 +187,13 @@ public class PrototypeObjectType extends ObjectType {
     Property newProp = new Property(
         name, type, inferred, propertyNode);
     properties.putProperty(name, newProp);
+    registry.clearTypeRelationCache();
     return true;
   }
 
   @Override
   public boolean removeProperty(String name) {
+    registry.clearTypeRelationCache();
     return properties.removeProperty(name);
   }
 
@@ -350,6 +352,7 @@ public class PrototypeObjectType extends ObjectType {
   final void setImplicitPrototype(ObjectType implicitPrototype) {
     checkState(!hasCachedValues());
     this.implicitPrototypeFallback = implicitPrototype;
+    registry.clearTypeRelationCache();
   }
 
   @Override
@@ -372,11 +375,6 @@ public class PrototypeObjectType extends ObjectType {
     return anonymousType;
   }
 
-  @Override
-  public boolean isSubtype(JSType that) {
-    return isSubtype(that, ImplCache.create());
-  }
-
   @Override
   protected boolean isSubtype(JSType that,
       ImplCache implicitImplCache) {
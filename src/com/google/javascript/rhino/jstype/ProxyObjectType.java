@@ -85,6 +85,7 @@ public class ProxyObjectType extends ObjectType {
 
   void setReferencedType(JSType referencedType) {
     this.referencedType = referencedType;
+    registry.clearTypeRelationCache();
     if (referencedType instanceof ObjectType) {
       this.referencedObjType = (ObjectType) referencedType;
     } else {
@@ -230,11 +231,6 @@ public class ProxyObjectType extends ObjectType {
     return referencedType.testForEquality(that);
   }
 
-  @Override
-  public boolean isSubtype(JSType that) {
-    return referencedType.isSubtype(that, ImplCache.create());
-  }
-
   @Override
   protected boolean isSubtype(JSType that,
       ImplCache implicitImplCache) {
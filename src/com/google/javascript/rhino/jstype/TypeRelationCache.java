@@ -0,0 +1,122 @@
+/*
+ *
+ * ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is Rhino code, released
+ * May 6, 1999.
+ *
+ * The Initial Developer of the Original Code is
+ * Netscape Communications Corporation.
+ * Portions created by the Initial Developer are Copyright (C) 1997-1999
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Google Inc.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * the GNU General Public License Version 2 or later (the "GPL"), in which
+ * case the provisions of the GPL are applicable instead of those above. If
+ * you wish to allow use of your version of this file only under the terms of
+ * the GPL and not to allow others to use your version of this file under the
+ * MPL, indicate your decision by deleting the provisions above and replacing
+ * them with the notice and other provisions required by the GPL. If you do
+ * not delete the provisions above, a recipient may use your version of this
+ * file under either the MPL or the GPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+package com.google.javascript.rhino.jstype;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Memoized results of subtype and equivalence checks between pairs of types.
+ * Types are keyed by identity rather than by equivalence, so a lookup costs
+ * two hash probes on object addresses instead of a structural comparison.
+ *
+ * <p>The results are only valid while the types don't change, so the
+ * {@link JSTypeRegistry} clears them whenever a property, prototype or
+ * interface of a type changes, or a proxy is redirected.
+ *
+ */
+final class TypeRelationCache {
+
+  /** The relations between two types that are memoized. */
+  enum Relation {
+    /** {@link JSType#isSubtype(JSType)}. */
+    SUBTYPE,
+    /** {@link JSType#isEquivalentTo(com.google.javascript.rhino.TypeI)}. */
+    EQUIVALENT,
+    /** Equivalence without structural interface matching. */
+    NOMINALLY_EQUIVALENT
+  }
+
+  private final Map<JSType, Map<JSType, Boolean>>[] results;
+  private boolean empty = true;
+  private int hits = 0;
+  private int misses = 0;
+
+  @SuppressWarnings("unchecked")
+  TypeRelationCache() {
+    results = new Map[Relation.values().length];
+    for (int i = 0; i < results.length; i++) {
+      results[i] = new IdentityHashMap<>();
+    }
+  }
+
+  /**
+   * Returns the memoized result of the relation between the two types, or
+   * null if it isn't known.
+   */
+  Boolean get(Relation relation, JSType left, JSType right) {
+    Map<JSType, Boolean> row = results[relation.ordinal()].get(left);
+    Boolean result = row == null ? null : row.get(right);
+    if (result == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return result;
+  }
+
+  void put(Relation relation, JSType left, JSType right, boolean result) {
+    Map<JSType, Map<JSType, Boolean>> table = results[relation.ordinal()];
+    Map<JSType, Boolean> row = table.get(left);
+    if (row == null) {
+      row = new IdentityHashMap<>();
+      table.put(left, row);
+    }
+    row.put(right, result);
+    empty = false;
+  }
+
+  /** Drops all the results, but keeps the hit and miss counts. */
+  void clear() {
+    if (!empty) {
+      for (Map<JSType, Map<JSType, Boolean>> table : results) {
+        table.clear();
+      }
+      empty = true;
+    }
+  }
+
+  int getHits() {
+    return hits;
+  }
+
+  int getMisses() {
+    return misses;
+  }
+}
@@ -181,6 +181,11 @@ public class UnionTypeBuilder implements Serializable {
           boolean removeCurrent = false;
           JSType current = it.next();
 
+          if (alternate == current) {
+            // Joins add the same types over and over; skip the checks.
+            return this;
+          }
+
           // Unknown and NoResolved types may just be names that haven't
           // been resolved yet. So keep these in the union, and just use
           // equality checking for simple de-duping.
@@ -340,7 +345,7 @@ public class UnionTypeBuilder implements Serializable {
     if (result == null) {
       result = reduceAlternatesWithoutUnion();
       if (result == null) {
-        result = new UnionType(registry, getAlternateListCopy());
+        result = registry.internUnionType(getAlternateListCopy());
       }
     }
     return result;
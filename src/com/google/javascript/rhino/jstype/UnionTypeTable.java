@@ -0,0 +1,196 @@
+/*
+ *
+ * ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is Rhino code, released
+ * May 6, 1999.
+ *
+ * The Initial Developer of the Original Code is
+ * Netscape Communications Corporation.
+ * Portions created by the Initial Developer are Copyright (C) 1997-1999
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Google Inc.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * the GNU General Public License Version 2 or later (the "GPL"), in which
+ * case the provisions of the GPL are applicable instead of those above. If
+ * you wish to allow use of your version of this file only under the terms of
+ * the GPL and not to allow others to use your version of this file under the
+ * MPL, indicate your decision by deleting the provisions above and replacing
+ * them with the notice and other provisions required by the GPL. If you do
+ * not delete the provisions above, a recipient may use your version of this
+ * file under either the MPL or the GPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+package com.google.javascript.rhino.jstype;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Hash-consed union types and memoized joins of pairs of types.
+ *
+ * <p>A union is keyed by the identities of its alternates, sorted by their
+ * identity hash codes, so unions with the same alternates in any order share
+ * one {@link UnionType}. Interned unions stay valid when the alternates
+ * change, in the same way that unions built before the change do.
+ *
+ * <p>Joins, on the other hand, depend on the subtype relations between the
+ * types, so the {@link JSTypeRegistry} clears them along with the memoized
+ * type relations whenever a type changes.
+ *
+ */
+final class UnionTypeTable {
+
+  private final Map<Key, UnionType> unions = new HashMap<>();
+  private final Map<JSType, Map<JSType, JSType>> joins =
+      new IdentityHashMap<>();
+  private boolean noJoins = true;
+  private int unionHits = 0;
+  private int joinHits = 0;
+
+  /**
+   * Returns the union of the given alternates, which must be the alternates
+   * of a union as built by a {@link UnionTypeBuilder}.
+   */
+  UnionType intern(JSTypeRegistry registry, Collection<JSType> alternates) {
+    for (JSType alternate : alternates) {
+      if (alternate instanceof NamedType) {
+        // The name may resolve to a union, and then the alternates of the
+        // union are rebuilt. Don't share it.
+        return new UnionType(registry, alternates);
+      }
+    }
+    Key key = new Key(alternates);
+    UnionType union = unions.get(key);
+    if (union == null) {
+      union = new UnionType(registry, alternates);
+      unions.put(key, union);
+    } else {
+      unionHits++;
+    }
+    return union;
+  }
+
+  /** Returns the memoized join of the two types, or null if it isn't known. */
+  JSType getJoin(JSType left, JSType right) {
+    Map<JSType, JSType> row = joins.get(left);
+    JSType result = row == null ? null : row.get(right);
+    if (result != null) {
+      joinHits++;
+    }
+    return result;
+  }
+
+  void putJoin(JSType left, JSType right, JSType result) {
+    Map<JSType, JSType> row = joins.get(left);
+    if (row == null) {
+      row = new IdentityHashMap<>();
+      joins.put(left, row);
+    }
+    row.put(right, result);
+    noJoins = false;
+  }
+
+  /** Drops the memoized joins, but keeps the interned unions. */
+  void clearJoins() {
+    if (!noJoins) {
+      joins.clear();
+      noJoins = true;
+    }
+  }
+
+  int getUnionCount() {
+    return unions.size();
+  }
+
+  int getUnionHits() {
+    return unionHits;
+  }
+
+  int getJoinHits() {
+    return joinHits;
+  }
+
+  /** The identities of the alternates of a union, in a canonical order. */
+  private static final class Key {
+    private final JSType[] alternates;
+    private final int[] hashes;
+    private final int hashCode;
+
+    Key(Collection<JSType> alternates) {
+      JSType[] sorted = alternates.toArray(new JSType[alternates.size()]);
+      int[] hashes = new int[sorted.length];
+      for (int i = 0; i < sorted.length; i++) {
+        hashes[i] = System.identityHashCode(sorted[i]);
+      }
+      // Insertion sort; unions are capped at a few dozen alternates.
+      for (int i = 1; i < sorted.length; i++) {
+        JSType type = sorted[i];
+        int hash = hashes[i];
+        int j = i - 1;
+        for (; j >= 0 && hashes[j] > hash; j--) {
+          sorted[j + 1] = sorted[j];
+          hashes[j + 1] = hashes[j];
+        }
+        sorted[j + 1] = type;
+        hashes[j + 1] = hash;
+      }
+      this.alternates = sorted;
+      this.hashes = hashes;
+      this.hashCode = Arrays.hashCode(hashes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      if (hashCode != that.hashCode || !Arrays.equals(hashes, that.hashes)) {
+        return false;
+      }
+      for (int i = 0; i < alternates.length; i++) {
+        if (alternates[i] != that.alternates[i] && !contains(that, i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Whether the alternate at the given position in this key is among the
+     * alternates of that key with the same identity hash code.
+     */
+    private boolean contains(Key that, int i) {
+      for (int j = 0; j < that.alternates.length; j++) {
+        if (that.hashes[j] == hashes[i] && that.alternates[j] == alternates[i]) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
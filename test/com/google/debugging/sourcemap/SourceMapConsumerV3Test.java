@@ -18,11 +18,19 @@ package com.google.debugging.sourcemap;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import com.google.common.base.Joiner;
+import com.google.common.io.Files;
+import com.google.debugging.sourcemap.SourceMapConsumerV3.EntryVisitor;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 
 import junit.framework.TestCase;
 
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -115,4 +123,116 @@ public final class SourceMapConsumerV3Test extends TestCase {
     assertThat(((JsonElement) exts.get("x_org_int")).getAsInt()).isEqualTo(2);
     assertThat(((JsonArray) exts.get("x_org_array")).size()).isEqualTo(0);
   }
+
+  public void testLazyParsing() throws Exception {
+    // Enough lines that not all of them stay decoded.
+    SourceMapGeneratorV3 generator = new SourceMapGeneratorV3();
+    int lineCount = 3 * SourceMapConsumerV3.DECODED_LINE_CACHE_SIZE;
+    for (int line = 0; line < lineCount; line++) {
+      if (line % 3 == 2) {
+        continue;
+      }
+      for (int column = 0; column < 40; column += 10) {
+        generator.addMapping(
+            line % 2 == 0 ? "a.js" : "b.js",
+            column == 10 ? "name" + line % 7 : null,
+            new FilePosition(line / 2, column / 2),
+            new FilePosition(line, column),
+            new FilePosition(line, column + 5));
+      }
+    }
+    generator.addExtension("x_org_int", 2);
+    StringBuilder sb = new StringBuilder();
+    generator.appendTo(sb, "testcode.js");
+    String sourceMap = sb.toString();
+
+    SourceMapConsumerV3 consumer = new SourceMapConsumerV3();
+    consumer.parse(sourceMap);
+    SourceMapConsumerV3 lazyConsumer = new SourceMapConsumerV3();
+    lazyConsumer.parseLazily(toBuffer(sourceMap), null);
+
+    assertThat(lazyConsumer.getOriginalSources())
+        .containsExactly("a.js", "b.js").inOrder();
+    assertThat(lazyConsumer.getExtensions()).containsKey("x_org_int");
+    // Look the lines up backwards too, which decodes them in another order.
+    for (int line = 1; line <= lineCount + 1; line++) {
+      for (int column = 1; column < 50; column += 3) {
+        assertEquals(consumer.getMappingForLine(line, column),
+            lazyConsumer.getMappingForLine(line, column));
+        int otherLine = lineCount + 2 - line;
+        assertEquals(consumer.getMappingForLine(otherLine, column),
+            lazyConsumer.getMappingForLine(otherLine, column));
+      }
+    }
+    assertEquals(consumer.getReverseMapping("b.js", 100, 1),
+        lazyConsumer.getReverseMapping("b.js", 100, 1));
+    assertEquals(visitMappings(consumer), visitMappings(lazyConsumer));
+  }
+
+  public void testLazyParsingOfFile() throws Exception {
+    String sourceMap =  "{\n" +
+                        "\"version\":3,\n" +
+                        "\"file\":\"testcode\",\n" +
+                        "\"sourcesContent\":[\"var s = \\\"}\\\";\"],\n" +
+                        "\"mappings\":\"AAAAA,QAASA,UAAS,EAAG;;CAAC\",\n" +
+                        "\"sources\":[\"testcode\"],\n" +
+                        "\"names\":[\"__BASIC__\"]\n" +
+                        "}\n";
+    File file = File.createTempFile("sourcemap", ".js.map");
+    file.deleteOnExit();
+    Files.write(sourceMap, file, StandardCharsets.UTF_8);
+
+    SourceMapConsumerV3 consumer = new SourceMapConsumerV3();
+    consumer.parse(sourceMap);
+    SourceMapConsumerV3 lazyConsumer = new SourceMapConsumerV3();
+    lazyConsumer.parseLazily(file, null);
+
+    for (int line = 1; line <= 4; line++) {
+      for (int column = 1; column < 30; column++) {
+        assertEquals(consumer.getMappingForLine(line, column),
+            lazyConsumer.getMappingForLine(line, column));
+      }
+    }
+    assertEquals(visitMappings(consumer), visitMappings(lazyConsumer));
+  }
+
+  public void testLazyParsingOfInvalidMaps() throws Exception {
+    String sourceMap =  "{\n" +
+                        "\"version\":3,\n" +
+                        "\"mappings\":\"AAAAA,QAASA,UA;\",\n" +
+                        "\"sources\":[\"testcode\"],\n" +
+                        "\"names\":[\"__BASIC__\"]\n" +
+                        "}\n";
+    try {
+      new SourceMapConsumerV3().parseLazily(toBuffer(sourceMap), null);
+      fail();
+    } catch (SourceMapParseException expected) {}
+
+    try {
+      new SourceMapConsumerV3().parseLazily(
+          toBuffer("{\"version\":3,\"mappings\":\"AA"), null);
+      fail();
+    } catch (SourceMapParseException expected) {}
+  }
+
+  private static ByteBuffer toBuffer(String sourceMap) {
+    return ByteBuffer.wrap(sourceMap.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static List<String> visitMappings(SourceMapConsumerV3 consumer) {
+    final List<String> mappings = new ArrayList<>();
+    consumer.visitMappings(new EntryVisitor() {
+      @Override
+      public void visit(String sourceName, String symbolName,
+          FilePosition sourceStartPosition, FilePosition startPosition,
+          FilePosition endPosition) {
+        mappings.add(Joiner.on(' ').useForNull("-").join(
+            sourceName, symbolName,
+            sourceStartPosition.getLine(), sourceStartPosition.getColumn(),
+            startPosition.getLine(), startPosition.getColumn(),
+            endPosition.getLine(), endPosition.getColumn()));
+      }
+    });
+    return mappings;
+  }
 }
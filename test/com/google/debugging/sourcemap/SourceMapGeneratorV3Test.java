@@ -33,6 +33,8 @@ import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author johnlenz@google.com (John Lenz)
@@ -493,6 +495,87 @@ public final class SourceMapGeneratorV3Test extends SourceMapTestCase {
     check(inputs, output.toString(), mapContents.toString());
   }
 
+  public void testParallelSourceMapMerging() throws Exception {
+    LinkedHashMap<String, String> inputs = new LinkedHashMap<>();
+    for (int i = 0; i < 6; i++) {
+      inputs.put("file" + i,
+          "var __FOO" + i + "__ = 1;\nfunction f" + i + "(a) { return a; }");
+    }
+
+    StringBuilder output = new StringBuilder();
+    final Map<String, String> maps = new LinkedHashMap<>();
+    List<SourceMapSection> sections = new ArrayList<>();
+    SourceMapGeneratorV3 serialGenerator = new SourceMapGeneratorV3();
+    for (String input : inputs.keySet()) {
+      RunResult result = compile(inputs.get(input), input);
+      FilePosition offset = count(output.toString());
+      // Refer to every other section by URL.
+      if (maps.size() % 2 == 0) {
+        maps.put(input + ".map", result.sourceMapFileContent);
+        sections.add(SourceMapSection.forURL(
+            input + ".map", offset.getLine(), offset.getColumn()));
+      } else {
+        sections.add(SourceMapSection.forMap(
+            result.sourceMapFileContent, offset.getLine(), offset.getColumn()));
+      }
+      serialGenerator.mergeMapSection(offset.getLine(), offset.getColumn(),
+          result.sourceMapFileContent);
+      output.append(result.generatedSource);
+    }
+    SourceMapSupplier supplier = new SourceMapSupplier() {
+      @Override
+      public String getSourceMap(String url) {
+        return maps.get(url);
+      }
+    };
+
+    StringBuilder serialContents = new StringBuilder();
+    serialGenerator.appendTo(serialContents, "out.js");
+    for (int parallelism : new int[] {1, 4}) {
+      SourceMapGeneratorV3 generator = new SourceMapGeneratorV3();
+      generator.mergeMapSections(sections, supplier, parallelism);
+      StringBuilder mapContents = new StringBuilder();
+      generator.appendTo(mapContents, "out.js");
+      assertEquals(serialContents.toString(), mapContents.toString());
+    }
+    check(inputs, output.toString(), serialContents.toString());
+
+    try {
+      new SourceMapGeneratorV3().mergeMapSections(sections, null, 4);
+      fail();
+    } catch (SourceMapParseException expected) {}
+  }
+
+  public void testParallelSourceMapMergingParsesAWindowOfSections()
+      throws Exception {
+    final String map = compile("var x = 1;", "in").sourceMapFileContent;
+    List<SourceMapSection> sections = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      sections.add(SourceMapSection.forURL("s" + i + ".map", i, 0));
+    }
+    final AtomicInteger requested = new AtomicInteger();
+    final AtomicInteger requestedWhileFirstParses = new AtomicInteger();
+    SourceMapSupplier supplier = new SourceMapSupplier() {
+      @Override
+      public String getSourceMap(String url) {
+        requested.incrementAndGet();
+        if (url.equals("s0.map")) {
+          // Give the other threads time to run ahead of the first section.
+          try {
+            Thread.sleep(200);
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+          requestedWhileFirstParses.set(requested.get());
+        }
+        return map;
+      }
+    };
+    new SourceMapGeneratorV3().mergeMapSections(sections, supplier, 2);
+    assertEquals(20, requested.get());
+    assertThat(requestedWhileFirstParses.get()).isAtMost(3);
+  }
+
   public void testSourceMapExtensions() throws Exception {
     //generating the json
     SourceMapGeneratorV3 mapper = new SourceMapGeneratorV3();
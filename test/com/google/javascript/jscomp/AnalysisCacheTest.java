@@ -0,0 +1,96 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.rhino.Node;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link AnalysisCache}.
+ *
+ */
+public final class AnalysisCacheTest extends TestCase {
+
+  private Compiler compiler;
+  private Node externs;
+  private Node root;
+
+  @Override
+  protected void setUp() {
+    compiler = new Compiler();
+    compiler.init(
+        ImmutableList.of(SourceFile.fromCode("externs.js", "var window;")),
+        ImmutableList.of(SourceFile.fromCode(
+            "in.js", "var a = {}; a.b = 1; function f(x) {}")),
+        new CompilerOptions());
+    Node all = compiler.parseInputs();
+    externs = all.getFirstChild();
+    root = all.getLastChild();
+  }
+
+  public void testGlobalNamespaceReusedUntilCodeChange() {
+    AnalysisCache cache = compiler.getAnalysisCache();
+    GlobalNamespace namespace = cache.getGlobalNamespace(root);
+    assertNotNull(namespace.getSlot("a.b"));
+    assertSame(namespace, cache.getGlobalNamespace(root));
+
+    root.getFirstChild().removeFirstChild();
+    compiler.reportCodeChange();
+    GlobalNamespace rebuilt = cache.getGlobalNamespace(root);
+    assertNotSame(namespace, rebuilt);
+    assertNull(rebuilt.getSlot("a"));
+  }
+
+  public void testGlobalNamespaceDependsOnRoots() {
+    AnalysisCache cache = compiler.getAnalysisCache();
+    GlobalNamespace namespace = cache.getGlobalNamespace(root);
+    GlobalNamespace withExterns = cache.getGlobalNamespace(externs, root);
+    assertNotSame(namespace, withExterns);
+    assertTrue(withExterns.hasExternsRoot());
+    assertNotNull(withExterns.getSlot("window"));
+    assertSame(withExterns, cache.getGlobalNamespace(externs, root));
+  }
+
+  public void testReferencesReusedUntilCodeChange() {
+    AnalysisCache cache = compiler.getAnalysisCache();
+    ReferenceCollectingCallback references = cache.getReferences(root);
+    assertSame(references, cache.getReferences(root));
+
+    compiler.reportChangeToEnclosingScope(
+        root.getFirstChild().getLastChild());
+    assertNotSame(references, cache.getReferences(root));
+  }
+
+  public void testReferencesCoverAllVariables() {
+    int count = 0;
+    for (Var v : compiler.getAnalysisCache().getReferences(root)
+        .getAllSymbols()) {
+      count++;
+    }
+    // a, f and x.
+    assertEquals(3, count);
+  }
+
+  public void testClear() {
+    AnalysisCache cache = compiler.getAnalysisCache();
+    GlobalNamespace namespace = cache.getGlobalNamespace(root);
+    cache.clear();
+    assertNotSame(namespace, cache.getGlobalNamespace(root));
+  }
+}
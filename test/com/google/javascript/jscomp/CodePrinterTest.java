@@ -22,6 +22,7 @@ import com.google.javascript.rhino.IR;
 import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.Token;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -654,6 +655,31 @@ public final class CodePrinterTest extends CodePrinterTestBase {
         "\"123456789012345678901234567890\";\n\"12345678901234567890\";\n");
   }
 
+  public void testWriteToMatchesBuild() throws IOException {
+    // Enough code to be flushed several times, with many line cuts.
+    StringBuilder js = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      js.append("var x" + i + " = f(" + i + ", 'abc') + g;");
+    }
+    js.append("h();");
+    Node root = parse(js.toString());
+
+    for (boolean prettyPrint : new boolean[] {false, true}) {
+      CompilerOptions options = new CompilerOptions();
+      options.setLanguageOut(languageMode);
+      options.setPrettyPrint(prettyPrint);
+      options.setLineLengthThreshold(30);
+      options.setPreferLineBreakAtEndOfFile(true);
+      String expected =
+          new CodePrinter.Builder(root).setCompilerOptions(options).build();
+      assertTrue(expected.length() > 4 * CodePrinter.FLUSH_THRESHOLD);
+
+      StringBuilder out = new StringBuilder();
+      new CodePrinter.Builder(root).setCompilerOptions(options).writeTo(out);
+      assertEquals(expected, out.toString());
+    }
+  }
+
   private void assertLineBreakAtEndOfFile(String js,
       String expectedWithoutBreakAtEnd, String expectedWithBreakAtEnd) {
     assertEquals(expectedWithoutBreakAtEnd,
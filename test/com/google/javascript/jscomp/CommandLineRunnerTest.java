@@ -26,6 +26,10 @@ import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
 import com.google.javascript.jscomp.AbstractCommandLineRunner.FlagUsageException;
 import com.google.javascript.jscomp.CompilerOptions.LanguageMode;
 import com.google.javascript.jscomp.SourceMap.LocationMapping;
@@ -33,6 +37,7 @@ import com.google.javascript.rhino.Node;
 
 import junit.framework.TestCase;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -1185,6 +1190,51 @@ public final class CommandLineRunnerTest extends TestCase {
         .startsWith("Closure Compiler (http://github.com/google/closure-compiler)\nVersion: ");
   }
 
+  public void testWorkerMode() throws Exception {
+    File input = File.createTempFile("worker", ".js");
+    input.deleteOnExit();
+    try (FileOutputStream stream = new FileOutputStream(input)) {
+      stream.write("var   x = 1;".getBytes(UTF_8));
+    }
+    JsonArray request = new JsonArray();
+    for (String arg : new String[] {"--js", input.getAbsolutePath(),
+                                    "--compilation_level", "WHITESPACE_ONLY"}) {
+      request.add(new JsonPrimitive(arg));
+    }
+
+    CommandLineRunner worker = new CommandLineRunner(
+        new String[] {"--worker_mode"},
+        new PrintStream(outReader),
+        new PrintStream(errReader));
+    assertThat(worker.shouldRunCompiler()).isTrue();
+    ByteArrayOutputStream responses = new ByteArrayOutputStream();
+    worker.runWorker(
+        new ByteArrayInputStream((request + "\n\n" + request + "\n").getBytes(UTF_8)),
+        responses);
+
+    String[] lines = new String(responses.toByteArray(), UTF_8).split("\n");
+    assertThat(lines).hasLength(2);
+    for (String line : lines) {
+      JsonObject response = new JsonParser().parse(line).getAsJsonObject();
+      assertThat(response.get("exitCode").getAsInt()).isEqualTo(0);
+      assertThat(response.get("stdout").getAsString()).isEqualTo("var x=1;\n");
+      assertThat(response.has("elapsedMillis")).isTrue();
+    }
+  }
+
+  public void testWorkerModeMalformedRequest() throws Exception {
+    CommandLineRunner worker = new CommandLineRunner(
+        new String[] {"--worker_mode"},
+        new PrintStream(outReader),
+        new PrintStream(errReader));
+    for (String request : new String[] {"--js foo.js", "{\"js\": 1}", "[[\"--js\"]]"}) {
+      JsonObject response =
+          new JsonParser().parse(worker.processWorkerRequest(request)).getAsJsonObject();
+      assertThat(response.get("exitCode").getAsInt()).isEqualTo(-1);
+      assertThat(response.get("stderr").getAsString()).contains("Malformed worker request");
+    }
+  }
+
   public void testPrintAstFlag() {
     args.add("--print_ast=true");
     testSame("");
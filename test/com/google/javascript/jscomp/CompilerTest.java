@@ -25,6 +25,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.debugging.sourcemap.FilePosition;
 import com.google.debugging.sourcemap.SourceMapGeneratorV3;
 import com.google.debugging.sourcemap.proto.Mapping.OriginalMapping;
+import com.google.javascript.jscomp.CompilerOptions.LanguageMode;
 import com.google.javascript.rhino.InputId;
 import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.Token;
@@ -38,6 +39,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -361,6 +363,243 @@ public final class CompilerTest extends TestCase {
     assertFalse(compiler.getInput(new InputId("in2")).isExtern());
   }
 
+  public void testParallelParseMatchesSerialParse() {
+    List<SourceFile> inputs = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      inputs.add(SourceFile.fromCode("in" + i,
+          i % 7 == 3
+              ? "var x" + i + " = ;"
+              : "/** @type {number} */ var x" + i + " = " + i + ";"));
+    }
+
+    Compiler serial = new Compiler();
+    CompilerOptions options = new CompilerOptions();
+    serial.init(EMPTY_EXTERNS, inputs, options);
+    serial.parseInputs();
+
+    Compiler parallel = new Compiler();
+    options = new CompilerOptions();
+    options.setParseParallelism(4);
+    parallel.init(EMPTY_EXTERNS, inputs, options);
+    parallel.parseInputs();
+
+    assertEquals(serial.toSource(), parallel.toSource());
+    assertEquals(3, parallel.getErrorCount());
+    JSError[] serialErrors = serial.getErrors();
+    JSError[] parallelErrors = parallel.getErrors();
+    assertEquals(serialErrors.length, parallelErrors.length);
+    for (int i = 0; i < serialErrors.length; i++) {
+      assertEquals(serialErrors[i].toString(), parallelErrors[i].toString());
+    }
+  }
+
+  public void testParallelPrintMatchesSerialPrint() throws Exception {
+    String[] serialMaps = new String[5];
+    String[] parallelMaps = new String[5];
+    String[] serial = printModules(1, serialMaps);
+    String[] parallel = printModules(4, parallelMaps);
+    assertEquals(Arrays.asList(serial), Arrays.asList(parallel));
+    assertEquals(Arrays.asList(serialMaps), Arrays.asList(parallelMaps));
+  }
+
+  public void testParallelPrintLooksAheadAWindowOfModules() {
+    List<JSModule> modules = createPrintedModules();
+    Compiler compiler = new Compiler();
+    CompilerOptions options = new CompilerOptions();
+    options.setPrintParallelism(2);
+    compiler.compileModules(EMPTY_EXTERNS, modules, options);
+
+    // Printing the first module starts on the next two as well.
+    compiler.toSource(modules.get(0));
+    assertEquals(8, compiler.getPrePrintedScriptCount());
+    compiler.toSource(modules.get(1));
+    assertEquals(8, compiler.getPrePrintedScriptCount());
+    for (int i = 2; i < modules.size(); i++) {
+      compiler.toSource(modules.get(i));
+    }
+    assertEquals(0, compiler.getPrePrintedScriptCount());
+  }
+
+  private static String[] printModules(
+      int printParallelism, String[] sourceMaps) throws IOException {
+    List<JSModule> modules = createPrintedModules();
+
+    Compiler compiler = new Compiler();
+    CompilerOptions options = new CompilerOptions();
+    options.setLanguageOut(LanguageMode.ECMASCRIPT5_STRICT);
+    options.setPrintInputDelimiter(true);
+    options.setSourceMapOutputPath("out.map");
+    options.setPrintParallelism(printParallelism);
+    compiler.compileModules(EMPTY_EXTERNS, modules, options);
+
+    String[] sources = new String[modules.size()];
+    for (int i = 0; i < modules.size(); i++) {
+      compiler.getSourceMap().reset();
+      sources[i] = compiler.toSource(modules.get(i));
+      StringBuilder sb = new StringBuilder();
+      compiler.getSourceMap().appendTo(sb, modules.get(i).getName());
+      sourceMaps[i] = sb.toString();
+    }
+    assertTrue(sources[1].contains("'use strict';"));
+    return sources;
+  }
+
+  /** Returns five modules of four scripts each. */
+  private static List<JSModule> createPrintedModules() {
+    List<JSModule> modules = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      JSModule module = new JSModule("m" + i);
+      for (int j = 0; j < 4; j++) {
+        module.add(SourceFile.fromCode("in" + i + "_" + j,
+            "/** @license L" + j + " */\n"
+            + "function f" + i + j + "(a) {\n  return a + " + j + ";\n}\n"
+            + "var x" + i + j + " = f" + i + j + "(" + i + ")"));
+      }
+      if (i > 0) {
+        module.addDependency(modules.get(0));
+      }
+      modules.add(module);
+    }
+    return modules;
+  }
+
+  public void testParallelOptimizationsMatchSerialOptimizations() {
+    assertEquals(optimize(1), optimize(4));
+  }
+
+  private static String optimize(int optimizationParallelism) {
+    List<SourceFile> inputs = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      inputs.add(SourceFile.fromCode("in" + i,
+          "function f" + i + "(a, b) {\n"
+          + "  var x = a + " + i + ";\n"
+          + "  x = b;\n"
+          + "  if (a) { return x; } else { x = 2; }\n"
+          + "  function g(c) {\n"
+          + "    var y = c * 2; y = 3;\n"
+          + "    if (c) { return; } c++; return;\n"
+          + "    while (false) { c(); }\n"
+          + "  }\n"
+          + "  g(x);\n"
+          + "  return x + (1 + 2);\n"
+          + "}\n"
+          + "window.f" + i + " = f" + i + ";"));
+    }
+    Compiler compiler = new Compiler();
+    CompilerOptions options = new CompilerOptions();
+    CompilationLevel.SIMPLE_OPTIMIZATIONS.setOptionsForCompilationLevel(
+        options);
+    options.setOptimizationParallelism(optimizationParallelism);
+    compiler.compile(EMPTY_EXTERNS, inputs, options);
+    assertEquals(0, compiler.getErrorCount());
+    return compiler.toSource();
+  }
+
+  public void testParallelOptimizationsReportWarningsInSerialOrder() {
+    List<String> serial = optimizationWarnings(1);
+    assertThat(serial).isNotEmpty();
+    assertEquals(serial, optimizationWarnings(4));
+  }
+
+  private static List<String> optimizationWarnings(
+      int optimizationParallelism) {
+    List<SourceFile> inputs = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      inputs.add(SourceFile.fromCode("in" + i,
+          "window.a" + i + " = 1 << 40;\n"
+          + "function f" + i + "(a) {\n"
+          + "  function g(b) { return [b, 1 << 33][2]; }\n"
+          + "  window.b = [a][1];\n"
+          + "  return g(a);\n"
+          + "}\n"
+          + "function h" + i + "(c) { return [c, c][5]; }\n"
+          + "window.f" + i + " = f" + i + ";\n"
+          + "window.h" + i + " = h" + i + ";"));
+    }
+    Compiler compiler = new Compiler();
+    CompilerOptions options = new CompilerOptions();
+    CompilationLevel.SIMPLE_OPTIMIZATIONS.setOptionsForCompilationLevel(
+        options);
+    options.setOptimizationParallelism(optimizationParallelism);
+    // The error manager sorts what it keeps, so record the reporting order.
+    final List<String> warnings = new ArrayList<>();
+    options.setErrorHandler(new ErrorHandler() {
+      @Override
+      public void report(CheckLevel level, JSError error) {
+        warnings.add(error.toString());
+      }
+    });
+    compiler.compile(EMPTY_EXTERNS, inputs, options);
+    return warnings;
+  }
+
+  public void testParallelNewTypeInferenceMatchesSerialNewTypeInference() {
+    List<String> serial = typeCheck(1);
+    assertThat(serial).isNotEmpty();
+    assertEquals(serial, typeCheck(4));
+  }
+
+  private static List<String> typeCheck(int parallelism) {
+    List<SourceFile> inputs = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      inputs.add(SourceFile.fromCode("in" + i,
+          "/** @param {number} a */\n"
+          + "function f" + i + "(a) {\n"
+          + "  function g(b) { return b - 1; }\n"
+          + "  function h() { var s = 'a'; s = s - " + i + "; return g(s); }\n"
+          + "  return g(a) + h();\n"
+          + "}\n"
+          + "function u" + i + "(x) { return x * 2; }\n"
+          + "f" + i + "('" + i + "');\n"
+          + "u" + i + "('" + i + "');"));
+    }
+    Compiler compiler = new Compiler();
+    CompilerOptions options = new CompilerOptions();
+    options.setNewTypeInference(true);
+    options.setWarningLevel(DiagnosticGroups.NEW_CHECK_TYPES, CheckLevel.ERROR);
+    options.setNewTypeInferenceParallelism(parallelism);
+    compiler.compile(
+        ImmutableList.of(SourceFile.fromCode(
+            "externs", NewTypeInferenceTestBase.DEFAULT_EXTERNS)),
+        inputs, options);
+    List<String> errors = new ArrayList<>();
+    for (JSError error : compiler.getErrors()) {
+      errors.add(error.toString());
+    }
+    return errors;
+  }
+
+  public void testStreamedSourceMatchesSource() throws IOException {
+    List<SourceFile> inputs = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      StringBuilder js = new StringBuilder();
+      for (int j = 0; j < 500; j++) {
+        js.append("var x" + i + "_" + j + " = f(" + j + ") + 'abc';\n");
+      }
+      inputs.add(SourceFile.fromCode("in" + i, js.toString()));
+    }
+
+    Compiler compiler = new Compiler();
+    CompilerOptions options = new CompilerOptions();
+    options.setPrintInputDelimiter(true);
+    options.setLineLengthThreshold(40);
+    options.setSourceMapOutputPath("out.map");
+    compiler.compile(EMPTY_EXTERNS, inputs, options);
+
+    String expected = compiler.toSource();
+    StringBuilder expectedMap = new StringBuilder();
+    compiler.getSourceMap().appendTo(expectedMap, "out.js");
+
+    compiler.getSourceMap().reset();
+    StringBuilder out = new StringBuilder();
+    compiler.toSource(out);
+    StringBuilder map = new StringBuilder();
+    compiler.getSourceMap().appendTo(map, "out.js");
+
+    assertEquals(expected, out.toString());
+    assertEquals(expectedMap.toString(), map.toString());
+  }
+
   public void testRebuildInputsFromModule() {
     List<JSModule> modules = ImmutableList.of(
         new JSModule("m1"), new JSModule("m2"));
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.javascript.jscomp.ControlFlowGraph.Branch;
+import com.google.javascript.jscomp.graph.Annotation;
+import com.google.javascript.jscomp.graph.DiGraph.DiGraphEdge;
+import com.google.javascript.jscomp.graph.DiGraph.DiGraphNode;
+import com.google.javascript.jscomp.graph.SubGraph;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link ControlFlowGraph}.
+ *
+ */
+public final class ControlFlowGraphTest extends TestCase {
+
+  private ControlFlowGraph<String> cfg;
+
+  @Override
+  public void setUp() {
+    cfg = new ControlFlowGraph<>("a", true, true);
+    cfg.createNode("b");
+    cfg.createNode("c");
+  }
+
+  public void testNodeIds() {
+    assertEquals(4, cfg.getNodeCount());
+    assertEquals(0, cfg.getNodeId(cfg.getImplicitReturn()));
+    assertEquals(1, cfg.getNodeId(cfg.getEntry()));
+    assertEquals(2, cfg.getNodeId(cfg.getDirectedGraphNode("b")));
+    assertSame(cfg.getEntry(), cfg.createDirectedGraphNode("a"));
+    assertEquals(4, cfg.getNodeCount());
+  }
+
+  public void testEdgesKeepTheirOrder() {
+    cfg.connect("a", Branch.ON_TRUE, "c");
+    cfg.connect("b", Branch.UNCOND, "c");
+    cfg.connect("a", Branch.ON_FALSE, "b");
+    cfg.connect("c", Branch.UNCOND, null);
+
+    assertEquals(
+        "[a -> c, a -> b]", cfg.getOutEdges("a").toString());
+    assertEquals(
+        "[a -> c, b -> c]", cfg.getInEdges("c").toString());
+    assertEquals(
+        "[c, b]", cfg.getDirectedSuccNodes("a").toString());
+    assertEquals(
+        "[a, b]", cfg.getDirectedPredNodes("c").toString());
+    assertThat(cfg.getDirectedPredNodes(cfg.getImplicitReturn()))
+        .containsExactly(cfg.getDirectedGraphNode("c"));
+    assertThat(cfg.getEdges()).hasSize(4);
+    assertEquals(3, cfg.getNodeDegree("c"));
+  }
+
+  public void testChangesAfterReads() {
+    cfg.connect("a", Branch.ON_TRUE, "b");
+    assertThat(cfg.getOutEdges("a")).hasSize(1);
+
+    cfg.createNode("d");
+    cfg.connect("a", Branch.ON_FALSE, "d");
+    cfg.connect("d", Branch.UNCOND, "b");
+    assertEquals("[b, d]", cfg.getDirectedSuccNodes("a").toString());
+    assertEquals("[a, d]", cfg.getDirectedPredNodes("b").toString());
+
+    cfg.disconnect("a", "b");
+    assertEquals("[d]", cfg.getDirectedSuccNodes("a").toString());
+    assertEquals("[d]", cfg.getDirectedPredNodes("b").toString());
+    assertFalse(cfg.isConnected("a", "b"));
+    assertTrue(cfg.isConnectedInDirection("a", Branch.ON_FALSE, "d"));
+  }
+
+  public void testConnectIfNotFound() {
+    cfg.connectIfNotFound("a", Branch.UNCOND, "b");
+    cfg.connectIfNotFound("a", Branch.UNCOND, "b");
+    cfg.connectIfNotFound("a", Branch.ON_EX, "b");
+    cfg.connectIfNotFound("b", Branch.UNCOND, "a");
+    assertThat(cfg.getEdges()).hasSize(2);
+    assertThat(cfg.getDirectedGraphEdges("a", "b")).hasSize(2);
+    assertThat(cfg.getEdges("a", "b")).hasSize(2);
+  }
+
+  public void testSubGraphs() {
+    cfg.createNode("d");
+    cfg.connect("a", Branch.UNCOND, "b");
+    cfg.connect("c", Branch.UNCOND, "b");
+    SubGraph<String, Branch> subGraph = cfg.newSubGraph();
+    assertTrue(subGraph.isIndependentOf("b"));
+    subGraph.addNode("b");
+    // Neighbors in either direction count.
+    assertFalse(subGraph.isIndependentOf("a"));
+    assertFalse(subGraph.isIndependentOf("c"));
+    assertTrue(subGraph.isIndependentOf("d"));
+    assertTrue(subGraph.isIndependentOf("not in graph"));
+
+    // Edges added later count as well.
+    cfg.connect("b", Branch.UNCOND, "d");
+    assertFalse(subGraph.isIndependentOf("d"));
+    try {
+      subGraph.addNode("not in graph");
+      fail();
+    } catch (IllegalArgumentException expected) {}
+  }
+
+  public void testAnnotations() {
+    cfg.connect("a", Branch.UNCOND, "b");
+    DiGraphNode<String, Branch> b = cfg.getDirectedGraphNode("b");
+    DiGraphEdge<String, Branch> edge = b.getInEdges().get(0);
+    cfg.pushNodeAnnotations();
+    b.setAnnotation(new Annotation() {});
+    cfg.popNodeAnnotations();
+    assertNull(b.getAnnotation());
+    edge.setAnnotation(new Annotation() {});
+    cfg.clearEdgeAnnotations();
+    assertNull(edge.getAnnotation());
+
+    ControlFlowGraph<String> noAnnotations =
+        new ControlFlowGraph<>("a", false, false);
+    try {
+      noAnnotations.getEntry().getAnnotation();
+      fail();
+    } catch (UnsupportedOperationException expected) {}
+  }
+
+  public void testLargeGraph() {
+    List<String> values = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      values.add("n" + i);
+      cfg.createNode("n" + i);
+    }
+    for (int i = 0; i < 1000; i++) {
+      cfg.connectIfNotFound(values.get(i), Branch.UNCOND,
+          values.get((i + 1) % 1000));
+      cfg.connectIfNotFound(values.get(i), Branch.ON_EX,
+          values.get((i * 7) % 1000));
+    }
+    for (int i = 0; i < 1000; i++) {
+      DiGraphNode<String, Branch> node =
+          cfg.getDirectedGraphNode(values.get(i));
+      assertEquals(values.get((i + 1) % 1000),
+          node.getOutEdges().get(0).getDestination().getValue());
+      assertThat(cfg.getDirectedPredNodes(node))
+          .contains(cfg.getDirectedGraphNode(values.get((i + 999) % 1000)));
+    }
+  }
+}
@@ -21,6 +21,7 @@ import com.google.javascript.jscomp.DataFlowAnalysis.BranchedFlowState;
 import com.google.javascript.jscomp.DataFlowAnalysis.BranchedForwardDataFlowAnalysis;
 import com.google.javascript.jscomp.DataFlowAnalysis.FlowState;
 import com.google.javascript.jscomp.DataFlowAnalysis.MaxIterationsExceededException;
+import com.google.javascript.jscomp.DataFlowAnalysis.WorkList;
 import com.google.javascript.jscomp.JoinOp.BinaryJoinOp;
 import com.google.javascript.jscomp.graph.DiGraph.DiGraphEdge;
 import com.google.javascript.jscomp.graph.GraphNode;
@@ -776,6 +777,40 @@ public final class DataFlowAnalysisTest extends TestCase {
     }
   }
 
+  public void testPrioritizedWorkList() {
+    WorkList workList = new WorkList(10, true);
+    workList.add(7);
+    workList.add(3);
+    workList.add(9);
+    workList.add(3);
+    workList.add(0);
+    assertEquals(0, workList.remove());
+    workList.add(5);
+    assertEquals(3, workList.remove());
+    assertEquals(5, workList.remove());
+    assertEquals(7, workList.remove());
+    workList.add(7);
+    assertEquals(7, workList.remove());
+    assertEquals(9, workList.remove());
+    assertTrue(workList.isEmpty());
+  }
+
+  public void testFirstInFirstOutWorkList() {
+    WorkList workList = new WorkList(10, false);
+    workList.add(7);
+    workList.add(3);
+    workList.add(9);
+    workList.add(7);
+    assertEquals(7, workList.remove());
+    workList.add(7);
+    workList.add(0);
+    assertEquals(3, workList.remove());
+    assertEquals(9, workList.remove());
+    assertEquals(7, workList.remove());
+    assertEquals(0, workList.remove());
+    assertTrue(workList.isEmpty());
+  }
+
   static void verifyInHas(GraphNode<Instruction, Branch> node, Variable var,
       Integer constant) {
     FlowState<ConstPropLatticeElement> fState = node.getAnnotation();
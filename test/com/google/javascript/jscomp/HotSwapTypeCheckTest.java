@@ -0,0 +1,214 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.rhino.InputId;
+import com.google.javascript.rhino.Node;
+import com.google.javascript.rhino.jstype.JSType;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tests that type checking a replaced script in hot-swap mode gives the same
+ * results as type checking the whole program again.
+ *
+ */
+public final class HotSwapTypeCheckTest extends TestCase {
+
+  private static final String EXTERNS =
+      "/** @constructor */ function Object() {}\n"
+      + "/** @constructor */ function Function() {}\n"
+      + "/** @constructor @param {*=} x @return {string} */"
+      + " function String(x) {}\n"
+      + "/** @constructor @param {*=} x @return {number} */"
+      + " function Number(x) {}";
+
+  private static final String LIB =
+      "/** @constructor */ function Lib() {}\n"
+      + "/** @return {number} */ Lib.prototype.count = function() { return 1; };\n"
+      + "var ns = {};\n"
+      + "var lib = new Lib();";
+
+  private static final String USER =
+      "var total = lib.count() + ns.offset;\n"
+      + "var name = useName(ns.label);\n"
+      + "/** @type {string} */ var label = ns.label;\n"
+      + "function user() { var local = ns.offset; return local + total; }";
+
+  public void testChangedFunctionSignature() {
+    assertHotSwapMatchesFullCompile(
+        "/** @param {string} s @return {string} */"
+        + " function useName(s) { return s; }\n"
+        + "ns.label = 'a'; ns.offset = 1;",
+        "/** @param {number} n @return {number} */"
+        + " function useName(n) { return n; }\n"
+        + "ns.label = 2; ns.offset = 'b';");
+  }
+
+  public void testChangedConstructor() {
+    assertHotSwapMatchesFullCompile(
+        "/** @constructor @param {number} x */ function Point(x) {"
+        + " this.x = x; }\n"
+        + "/** @return {number} */ Point.prototype.getX = function() {"
+        + " return this.x; };\n"
+        + "function useName(s) { return new Point(1).getX(); }\n"
+        + "ns.label = 'a'; ns.offset = 1;",
+        "/** @constructor @param {string} x @extends {Lib} */"
+        + " function Point(x) { this.x = x; }\n"
+        + "/** @return {string} */ Point.prototype.getX = function() {"
+        + " var inner = function() { return this.x; }; return this.x; };\n"
+        + "function useName(s) { return new Point('a').getX(); }\n"
+        + "ns.label = 'a'; ns.offset = new Point('b').count();");
+  }
+
+  public void testStubDeclarations() {
+    assertHotSwapMatchesFullCompile(
+        "function useName(s) { return s; }\n"
+        + "ns.label = 'a'; ns.offset = 1;",
+        "function useName(s) { return s; }\n"
+        + "/** @type {string} */ ns.label;\n"
+        + "ns.offset;\n"
+        + "/** @type {number} */ Lib.prototype.size;");
+  }
+
+  public void testTypedefsAndEnums() {
+    assertHotSwapMatchesFullCompile(
+        "/** @typedef {string} */ var Name;\n"
+        + "/** @param {Name} s */ function useName(s) { return s; }\n"
+        + "ns.label = 'a'; ns.offset = 1;",
+        "/** @typedef {number} */ var Name;\n"
+        + "/** @enum {string} */ var Color = {RED: 'r', GREEN: 'g'};\n"
+        + "/** @param {Name} n @return {Color} */"
+        + " function useName(n) { return Color.RED; }\n"
+        + "/** @type {Name} */ ns.label = 1; ns.offset = Color.GREEN;");
+  }
+
+  public void testRemovedDeclarations() {
+    assertHotSwapMatchesFullCompile(
+        "function useName(s) { return s; }\n"
+        + "/** @const */ ns.sub = {};\n"
+        + "/** @return {number} */ ns.sub.fn = function() { return 1; };\n"
+        + "var removed = ns.sub.fn();\n"
+        + "ns.label = 'a'; ns.offset = 1;",
+        "function useName(s) { return s; }\n"
+        + "ns.label = 'a'; ns.offset = 1;");
+  }
+
+  /**
+   * Compiles a library, the given script and a user of both. Then replaces
+   * the script with its new version in hot-swap mode, and checks that the
+   * types in the new script, its global variables and the warnings in it are
+   * those of a full compile of the new version.
+   */
+  private void assertHotSwapMatchesFullCompile(
+      String oldSource, String newSource) {
+    Compiler full = compile(newSource);
+
+    Compiler hotSwapped = compile(oldSource);
+    CollectingErrorManager hotSwapErrors = new CollectingErrorManager();
+    hotSwapped.setErrorManager(hotSwapErrors);
+    hotSwapped.replaceScript(new JsAst(SourceFile.fromCode("b.js", newSource)));
+
+    assertEquals(
+        getVarTypes(full.getTopScope()),
+        getVarTypes(hotSwapped.getTopScope()));
+    for (String script : new String[] {"b.js", "c.js"}) {
+      assertEquals(
+          getNodeTypes(full, script), getNodeTypes(hotSwapped, script));
+    }
+    assertEquals(
+        getWarnings(full.getWarnings()),
+        getWarnings(hotSwapErrors.getWarnings()));
+  }
+
+  private static Compiler compile(String source) {
+    CompilerOptions options = new CompilerOptions();
+    options.setLanguageIn(CompilerOptions.LanguageMode.ECMASCRIPT5);
+    options.setCheckTypes(true);
+    options.ideMode = true;
+    Compiler compiler = new Compiler();
+    compiler.setErrorManager(new CollectingErrorManager());
+    compiler.compile(
+        ImmutableList.of(SourceFile.fromCode("externs.js", EXTERNS)),
+        ImmutableList.of(
+            SourceFile.fromCode("a.js", LIB),
+            SourceFile.fromCode("b.js", source),
+            SourceFile.fromCode("c.js", USER)),
+        options);
+    return compiler;
+  }
+
+  /** Returns the types of the global variables that b.js declares. */
+  private static Map<String, String> getVarTypes(TypedScope scope) {
+    Map<String, String> types = new TreeMap<>();
+    for (Iterator<TypedVar> i = scope.getVars(); i.hasNext();) {
+      TypedVar var = i.next();
+      if (var.getInputName().equals("b.js")) {
+        types.put(var.getName(), String.valueOf(var.getType()));
+      }
+    }
+    return types;
+  }
+
+  /** Returns the types of the nodes of a script, in pre-order. */
+  private static List<String> getNodeTypes(Compiler compiler, String script) {
+    List<String> types = new ArrayList<>();
+    addNodeTypes(
+        compiler.getInput(new InputId(script)).getAstRoot(compiler), types);
+    return types;
+  }
+
+  private static void addNodeTypes(Node n, List<String> types) {
+    JSType type = n.getJSType();
+    types.add(n.getLineno() + ":" + n.getCharno() + " " + n.getType()
+        + " " + (type == null ? "-" : type.toString()));
+    for (Node child = n.getFirstChild(); child != null;
+         child = child.getNext()) {
+      addNodeTypes(child, types);
+    }
+  }
+
+  /** Returns the warnings in b.js and c.js, in full, sorted by position. */
+  private static List<String> getWarnings(JSError[] warnings) {
+    Map<String, String> result = new TreeMap<>();
+    for (JSError warning : warnings) {
+      if ("b.js".equals(warning.sourceName)
+          || "c.js".equals(warning.sourceName)) {
+        result.put(warning.sourceName + ":" + warning.lineNumber + ":"
+            + warning.getCharno() + " " + warning.getType().key,
+            warning.toString());
+      }
+    }
+    return new ArrayList<>(result.values());
+  }
+
+  private static final class CollectingErrorManager
+      extends BasicErrorManager {
+    @Override
+    public void println(CheckLevel level, JSError error) {}
+
+    @Override
+    protected void printSummary() {}
+  }
+}
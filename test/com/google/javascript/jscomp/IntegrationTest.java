@@ -23,6 +23,7 @@ import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.javascript.jscomp.CompilerOptions.DevMode;
 import com.google.javascript.jscomp.CompilerOptions.LanguageMode;
 import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.Token;
@@ -726,6 +727,20 @@ public final class IntegrationTest extends IntegrationTestCase {
     test(options, code, "function f() { var a = true; return a;} f();");
   }
 
+  public void testOptimizeParametersInLoopWithSanityCheck() {
+    // Moving a parameter into a var changes the callee, not the function
+    // being traversed, and the sanity check verifies that the loop knows.
+    String code = "function f(a, p) { var y = p; alert(a + y); }"
+        + "f(1, q()); f(3, q());";
+
+    CompilerOptions options = createCompilerOptions();
+    CompilationLevel.ADVANCED_OPTIMIZATIONS
+        .setOptionsForCompilationLevel(options);
+    options.setDevMode(DevMode.EVERY_PASS);
+    test(options, code,
+        "var a = q(); alert(1 + a); var b = q(); alert(3 + b);");
+  }
+
   public void testOptimizeReturns() {
     String code = "function f(a) { return a; } f(true);";
 
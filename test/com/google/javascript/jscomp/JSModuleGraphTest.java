@@ -30,6 +30,8 @@ import junit.framework.TestCase;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 /**
  * Tests for {@link JSModuleGraph}
@@ -129,6 +131,56 @@ public final class JSModuleGraphTest extends TestCase {
     assertTransitiveDepsDeepestFirst(F, E, C, B, A);
   }
 
+  public void testDependencyAddedAfterCreation() {
+    JSModule x = new JSModule("X");
+    JSModule y = new JSModule("Y");
+    JSModuleGraph graph = new JSModuleGraph(new JSModule[] {x, y});
+    y.addDependency(x);
+    assertTrue(graph.dependsOn(y, x));
+    assertFalse(graph.dependsOn(x, y));
+    assertEquals(x, graph.getDeepestCommonDependencyInclusive(x, y));
+  }
+
+  public void testLargeGraph() {
+    // Each module depends on the first one and a few random earlier ones.
+    Random random = new Random(42);
+    List<JSModule> modules = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      JSModule module = new JSModule("m" + i);
+      if (i > 0) {
+        module.addDependency(modules.get(0));
+        for (int j = random.nextInt(3); j > 0; j--) {
+          module.addDependency(modules.get(random.nextInt(i)));
+        }
+      }
+      modules.add(module);
+    }
+    graph = new JSModuleGraph(modules);
+
+    for (int i = 0; i < 2000; i++) {
+      JSModule m1 = modules.get(random.nextInt(modules.size()));
+      JSModule m2 = modules.get(random.nextInt(modules.size()));
+      Set<JSModule> deps1 = graph.getTransitiveDepsDeepestFirst(m1);
+      Set<JSModule> deps2 = graph.getTransitiveDepsDeepestFirst(m2);
+      assertEquals(deps1.contains(m2), graph.dependsOn(m1, m2));
+
+      // The deepest common dependency, with ties going to the later module.
+      JSModule expected = null;
+      for (JSModule m : modules) {
+        if (deps1.contains(m) && deps2.contains(m)
+            && (expected == null || m.getDepth() >= expected.getDepth())) {
+          expected = m;
+        }
+      }
+      assertDeepestCommonDepOneWay(expected, m1, m2, false);
+    }
+
+    try {
+      graph.dependsOn(A, modules.get(0));
+      fail();
+    } catch (IllegalArgumentException expected) {}
+  }
+
   public void testCoalesceDuplicateFiles() {
     A.add(SourceFile.fromCode("a.js", ""));
 
@@ -142,6 +142,32 @@ public final class LinkedFlowScopeTest extends CompilerTypeTestCase {
         join(childB, childA), join(childA, childB));
   }
 
+  public void testJoinAfterCommonSlots() {
+    localScope.declare("localC", null, STRING_TYPE, null);
+
+    FlowScope common = localEntry.createChildFlowScope();
+    common.inferSlotType("localA", STRING_TYPE);
+    common.inferSlotType("localC", NUMBER_TYPE);
+
+    FlowScope childA = common.createChildFlowScope();
+    childA.inferSlotType("localB", NUMBER_TYPE);
+    childA.inferSlotType("localB", STRING_TYPE);
+
+    FlowScope childB = common.createChildFlowScope();
+    childB.inferSlotType("localB", BOOLEAN_TYPE);
+    childB.inferSlotType("globalA", NUMBER_TYPE);
+
+    FlowScope joined = join(childA, childB);
+    assertTypeEquals(STRING_TYPE, joined.getSlot("localA").getType());
+    assertTypeEquals(NUMBER_TYPE, joined.getSlot("localC").getType());
+    assertTypeEquals(createUnionType(STRING_TYPE, BOOLEAN_TYPE),
+        joined.getSlot("localB").getType());
+    assertTypeEquals(NUMBER_TYPE, joined.getSlot("globalA").getType());
+
+    assertEquals("Join should be symmetric",
+        join(childB, childA), join(childA, childB));
+  }
+
   /**
    * Create a long chain of flow scopes where each link in the chain
    * contains one slot.
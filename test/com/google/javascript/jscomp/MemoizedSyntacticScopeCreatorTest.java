@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.rhino.Node;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link MemoizedSyntacticScopeCreator}.
+ *
+ */
+public final class MemoizedSyntacticScopeCreatorTest extends TestCase {
+
+  private Compiler compiler;
+  private Node root;
+  private Node f;
+  private Node g;
+
+  @Override
+  protected void setUp() {
+    compiler = new Compiler();
+    compiler.init(
+        ImmutableList.<SourceFile>of(),
+        ImmutableList.of(SourceFile.fromCode(
+            "in.js", "var a; function f(x) { var y; } function g() {}")),
+        new CompilerOptions());
+    root = compiler.parseInputs().getLastChild();
+    Node script = root.getFirstChild();
+    f = script.getChildAtIndex(1);
+    g = script.getLastChild();
+  }
+
+  public void testReusesUnchangedScopes() {
+    MemoizedSyntacticScopeCreator creator = newCreator();
+    Scope global = creator.createScope(root, null);
+    Scope fScope = creator.createScope(f, global);
+    assertTrue(fScope.isDeclared("y", false));
+
+    assertSame(global, creator.createScope(root, null));
+    assertSame(fScope, creator.createScope(f, global));
+    assertEquals(2, creator.getScopesBuilt());
+    assertEquals(2, creator.getScopesReused());
+  }
+
+  public void testRebuildsChangedFunction() {
+    MemoizedSyntacticScopeCreator creator = newCreator();
+    Scope global = creator.createScope(root, null);
+    Scope fScope = creator.createScope(f, global);
+    Scope gScope = creator.createScope(g, global);
+
+    // The PhaseOptimizer stamps the functions that change in its loops.
+    f.getLastChild().removeChildren();
+    f.setChangeTime(1);
+    Scope newFScope = creator.createScope(f, global);
+    assertNotSame(fScope, newFScope);
+    assertFalse(newFScope.isDeclared("y", false));
+    assertSame(global, creator.createScope(root, null));
+    assertSame(gScope, creator.createScope(g, global));
+  }
+
+  public void testRebuildsChildrenOfRebuiltScopes() {
+    MemoizedSyntacticScopeCreator creator = newCreator();
+    Scope global = creator.createScope(root, null);
+    Scope fScope = creator.createScope(f, global);
+
+    root.setChangeTime(1);
+    Scope newGlobal = creator.createScope(root, null);
+    assertNotSame(global, newGlobal);
+    Scope newFScope = creator.createScope(f, newGlobal);
+    assertNotSame(fScope, newFScope);
+    assertSame(newGlobal, newFScope.getParent());
+  }
+
+  public void testAnalysisCacheDropsScopesOnUntrackedChanges() {
+    AnalysisCache cache = compiler.getAnalysisCache();
+    Scope global = cache.getScopeCreator().createScope(root, null);
+    compiler.reportCodeChange();
+    assertNotSame(global, cache.getScopeCreator().createScope(root, null));
+  }
+
+  public void testAnalysisCacheKeepsScopesOnTrackedChanges() {
+    AnalysisCache cache = compiler.getAnalysisCache();
+    cache.setTrackingChangedScopes(true);
+    Scope global = cache.getScopeCreator().createScope(root, null);
+    cache.reportStampedChange();
+    assertSame(global, cache.getScopeCreator().createScope(root, null));
+
+    cache.setTrackingChangedScopes(false);
+    assertNotSame(global, cache.getScopeCreator().createScope(root, null));
+  }
+
+  public void testAnalysisCacheDropsScopesOnUnstampedChangesInLoops() {
+    // A plain code change may be in any function, whichever one the
+    // PhaseOptimizer stamps.
+    AnalysisCache cache = compiler.getAnalysisCache();
+    cache.setTrackingChangedScopes(true);
+    Scope global = cache.getScopeCreator().createScope(root, null);
+    compiler.reportCodeChange();
+    assertNotSame(global, cache.getScopeCreator().createScope(root, null));
+  }
+
+  private MemoizedSyntacticScopeCreator newCreator() {
+    return new MemoizedSyntacticScopeCreator(
+        compiler, SyntacticScopeCreator.makeUntyped(compiler));
+  }
+}
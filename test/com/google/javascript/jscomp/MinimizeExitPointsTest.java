@@ -22,8 +22,13 @@ import com.google.javascript.rhino.Node;
  * @author johnlenz@google.com (John Lenz)
  */
 public final class MinimizeExitPointsTest extends CompilerTestCase {
+  private boolean runPass = false;
+
   @Override
   protected CompilerPass getProcessor(final Compiler compiler) {
+    if (runPass) {
+      return new MinimizeExitPoints(compiler);
+    }
     return new CompilerPass() {
       @Override
       public void process(Node externs, Node js) {
@@ -78,6 +83,15 @@ public final class MinimizeExitPointsTest extends CompilerTestCase {
          "f:g:{if(a()){}else{}}");
   }
 
+  public void testNestedFunctionsWithChangedFunctionTraversal() {
+    runPass = true;
+    fold("function f(){if(a())return;b();"
+         + "function g(){if(c())return;d();return}}",
+         "function f(){if(a());else{function g(){if(c());else d()}b()}}");
+    fold("var g=function(){if(x)return;x=3;return}",
+         "var g=function(){if(x);else x=3}");
+  }
+
   public void testFunctionReturnOptimization() throws Exception {
     fold("function f(){if(a()){b();if(c())return;}}",
          "function f(){if(a()){b();if(c());}}");
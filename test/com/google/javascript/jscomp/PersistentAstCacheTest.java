@@ -0,0 +1,209 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+import com.google.javascript.jscomp.CompilerOptions.TracerMode;
+import com.google.javascript.jscomp.parsing.Config;
+import com.google.javascript.jscomp.parsing.ParserRunner;
+import com.google.javascript.jscomp.parsing.ParserRunner.ParseResult;
+import com.google.javascript.jscomp.parsing.parser.trees.Comment;
+import com.google.javascript.rhino.Node;
+import com.google.javascript.rhino.SimpleErrorReporter;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Tests for {@link PersistentAstCache}.
+ */
+public final class PersistentAstCacheTest extends TestCase {
+  private static final String CODE =
+      "/** @constructor */ function Foo() {}\n"
+      + "/** @param {number} x */ Foo.prototype.bar = function(x) {};";
+
+  private File directory;
+
+  @Override
+  public void setUp() {
+    directory = Files.createTempDir();
+  }
+
+  @Override
+  public void tearDown() {
+    for (File file : directory.listFiles()) {
+      file.delete();
+    }
+    directory.delete();
+  }
+
+  public void testRoundTrip() throws Exception {
+    Config config = createConfig(Config.LanguageMode.ECMASCRIPT5);
+    SourceFile file = SourceFile.fromCode("foo.js", CODE);
+    ParseResult result = parse(file, config);
+    Node root = result.ast;
+    PersistentAstCache cache = new PersistentAstCache(directory);
+
+    assertNull(cache.load(file, CODE, config));
+    cache.store(file, CODE, config, result);
+
+    SourceFile otherFile = SourceFile.fromCode("foo.js", CODE);
+    Node loaded = cache.load(otherFile, CODE, config).ast;
+    assertNotNull(loaded);
+    assertTrue(root.isEquivalentTo(loaded));
+    assertSame(otherFile, loaded.getStaticSourceFile());
+    Node function = loaded.getFirstChild();
+    assertSame(otherFile, function.getStaticSourceFile());
+    assertTrue(function.getJSDocInfo().isConstructor());
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+  }
+
+  public void testComments() throws Exception {
+    String code = "// line\nvar x; /* block */";
+    Config config = ParserRunner.createConfig(
+        true, Config.LanguageMode.ECMASCRIPT5, ImmutableSet.<String>of());
+    SourceFile file = SourceFile.fromCode("foo.js", code);
+    PersistentAstCache cache = new PersistentAstCache(directory);
+    ParseResult result = parse(file, config);
+    cache.store(file, code, config, result);
+
+    List<Comment> comments = cache.load(file, code, config).comments;
+    assertThat(comments).hasSize(2);
+    for (int i = 0; i < comments.size(); i++) {
+      Comment expected = result.comments.get(i);
+      Comment actual = comments.get(i);
+      assertEquals(expected.value, actual.value);
+      assertEquals(expected.type, actual.type);
+      assertEquals(
+          expected.getAbsolutePosition(), actual.getAbsolutePosition());
+      assertEquals(expected.getLength(), actual.getLength());
+      assertEquals(expected.location.start.line, actual.location.start.line);
+      assertEquals(expected.location.end.column, actual.location.end.column);
+    }
+  }
+
+  public void testMissOnDifferentNameCodeOrConfig() throws Exception {
+    Config config = createConfig(Config.LanguageMode.ECMASCRIPT5);
+    SourceFile file = SourceFile.fromCode("foo.js", CODE);
+    PersistentAstCache cache = new PersistentAstCache(directory);
+    cache.store(file, CODE, config, parse(file, config));
+
+    assertNull(cache.load(file, CODE + "\nvar x;", config));
+    assertNull(cache.load(SourceFile.fromCode("bar.js", CODE), CODE, config));
+    assertNull(cache.load(
+        file, CODE, createConfig(Config.LanguageMode.ECMASCRIPT6)));
+  }
+
+  public void testCorruptEntryIsAMiss() throws Exception {
+    Config config = createConfig(Config.LanguageMode.ECMASCRIPT5);
+    SourceFile file = SourceFile.fromCode("foo.js", CODE);
+    PersistentAstCache cache = new PersistentAstCache(directory);
+    cache.store(file, CODE, config, parse(file, config));
+
+    File[] entries = directory.listFiles();
+    assertThat(entries).hasLength(1);
+    Files.write(new byte[] {1, 2, 3}, entries[0]);
+    assertNull(cache.load(file, CODE, config));
+  }
+
+  public void testCompileWithCachedAsts() {
+    String externs = "/** @constructor */ function Window() {}\n"
+        + "/** @type {number} */ Window.prototype.innerWidth;";
+    String input = "var w = new Window(); alert(w.innerWidth);";
+
+    Compiler compiler = compile(externs, input);
+    String firstOutput = compiler.toSource();
+    assertThat(directory.listFiles()).hasLength(2);
+    assertEquals(0, compiler.tracker.getAstCacheHits());
+    assertEquals(2, compiler.tracker.getAstCacheMisses());
+
+    compiler = compile(externs, input);
+    assertEquals(firstOutput, compiler.toSource());
+    assertThat(directory.listFiles()).hasLength(2);
+    assertEquals(2, compiler.tracker.getAstCacheHits());
+    assertEquals(0, compiler.tracker.getAstCacheMisses());
+  }
+
+  public void testSameCodeInDifferentFiles() {
+    String externs = "/** @type {Unknown_E} */ var y;";
+    String input = "/** @type {Unknown_T} */ var x = 1;";
+
+    JSError[] warnings = compileVerbose(
+        new Compiler(), "a_externs.js", externs, "a.js", input).warnings;
+    assertThat(warnings).hasLength(2);
+    assertEquals("a.js", warnings[0].sourceName);
+    assertEquals("a_externs.js", warnings[1].sourceName);
+
+    Compiler compiler = new Compiler();
+    warnings = compileVerbose(
+        compiler, "b_externs.js", externs, "b.js", input).warnings;
+    assertThat(warnings).hasLength(2);
+    assertEquals("b.js", warnings[0].sourceName);
+    assertEquals("b_externs.js", warnings[1].sourceName);
+    assertEquals(0, compiler.tracker.getAstCacheHits());
+  }
+
+  private Compiler compile(String externs, String input) {
+    Compiler compiler = new Compiler();
+    Result result = compile(compiler, createOptions(),
+        "externs.js", externs, "input.js", input);
+    assertTrue(result.success);
+    return compiler;
+  }
+
+  private Result compileVerbose(Compiler compiler, String externsName,
+      String externs, String inputName, String input) {
+    CompilerOptions options = createOptions();
+    WarningLevel.VERBOSE.setOptionsForWarningLevel(options);
+    return compile(
+        compiler, options, externsName, externs, inputName, input);
+  }
+
+  private static Result compile(Compiler compiler, CompilerOptions options,
+      String externsName, String externs, String inputName, String input) {
+    return compiler.compile(
+        ImmutableList.of(SourceFile.fromCode(externsName, externs)),
+        ImmutableList.of(SourceFile.fromCode(inputName, input)),
+        options);
+  }
+
+  private CompilerOptions createOptions() {
+    CompilerOptions options = new CompilerOptions();
+    CompilationLevel.ADVANCED_OPTIMIZATIONS
+        .setOptionsForCompilationLevel(options);
+    options.setAstCacheDirectory(directory.getPath());
+    options.setTracerMode(TracerMode.TIMING_ONLY);
+    return options;
+  }
+
+  private static Config createConfig(Config.LanguageMode mode) {
+    return ParserRunner.createConfig(false, mode, ImmutableSet.<String>of());
+  }
+
+  private static ParseResult parse(SourceFile file, Config config)
+      throws Exception {
+    return ParserRunner.parse(
+        file, file.getCode(), config, new SimpleErrorReporter());
+  }
+}
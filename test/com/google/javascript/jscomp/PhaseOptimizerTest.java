@@ -27,6 +27,7 @@ import com.google.javascript.rhino.Token;
 import junit.framework.TestCase;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -35,6 +36,11 @@ import java.util.Random;
  * @author nicksantos@google.com (Nick Santos)
  */
 public final class PhaseOptimizerTest extends TestCase {
+  private static final DiagnosticType FUSED_WARNING =
+      DiagnosticType.warning("FUSED_WARNING", "warning");
+  private static final DiagnosticType FUSED_ERROR =
+      DiagnosticType.error("FUSED_ERROR", "error");
+
   private final List<String> passesRun = new ArrayList<>();
   private final Node dummyRoot = new Node(Token.BLOCK);
   private PhaseOptimizer optimizer;
@@ -94,6 +100,154 @@ public final class PhaseOptimizerTest extends TestCase {
     }
   }
 
+  public void testLoopSkipsUnchangedScopes() {
+    final Node f = new Node(Token.FUNCTION, new Node(Token.BLOCK));
+    final Node g = new Node(Token.FUNCTION, new Node(Token.BLOCK));
+    Loop loop = optimizer.addFixedPointLoop();
+    // x changes f in its first run; y only looks at f and g.
+    loop.addLoopedPass(createPassFactory("x", new CompilerPass() {
+      private boolean changed = false;
+
+      @Override
+      public void process(Node externs, Node root) {
+        if (!changed) {
+          optimizer.reportChangeToEnclosingScope(f.getFirstChild());
+          optimizer.startCrossScopeReporting();
+          compiler.reportCodeChange();
+          optimizer.endCrossScopeReporting();
+          changed = true;
+        }
+      }
+    }, false));
+    final List<Boolean> changedScopes = new ArrayList<>();
+    loop.addLoopedPass(createPassFactory("y", new CompilerPass() {
+      @Override
+      public void process(Node externs, Node root) {
+        changedScopes.add(optimizer.hasScopeChanged(f));
+        changedScopes.add(optimizer.hasScopeChanged(g));
+      }
+    }, false));
+    optimizer.process(null, dummyRoot);
+
+    // y looks at all scopes in its first run, and at none in its second run
+    // since nothing changed after its first run.
+    assertEquals(ImmutableList.of(true, true, false, false), changedScopes);
+    assertEquals(ImmutableList.of(0, 0, 2), tracker.getLoopSkippedScopes());
+  }
+
+  public void testParallelFunctionLocalPass() {
+    compiler.init(
+        ImmutableList.<SourceFile>of(),
+        ImmutableList.of(SourceFile.fromCode("in",
+            "function f() { function g() {} } function h() {}")),
+        compiler.getOptions());
+    compiler.parse();
+    Node root = compiler.getJsRoot();
+    final Node f = root.getFirstChild().getFirstChild();
+    final Node g = f.getLastChild().getFirstChild();
+    final Node h = f.getNext();
+    final List<Node> processed =
+        Collections.synchronizedList(new ArrayList<Node>());
+    optimizer = new PhaseOptimizer(compiler, null, null);
+    optimizer.setParallelism(4);
+    Loop loop = optimizer.addFixedPointLoop();
+    loop.addLoopedPass(new PassFactory("x", false) {
+      @Override
+      protected CompilerPass create(final AbstractCompiler compiler) {
+        return new AbstractFunctionLocalPass() {
+          @Override
+          public void process(Node externs, Node root) {
+            fail("Expected the pass to run on each function");
+          }
+
+          @Override
+          public void processFunction(Node root) {
+            processed.add(root);
+            if (root == h && processed.size() <= 4) {
+              compiler.reportCodeChange();
+            }
+          }
+        };
+      }
+    });
+    optimizer.process(null, root);
+
+    // The first run looks at every function, outer functions first.
+    List<Node> firstRun = processed.subList(0, 4);
+    assertThat(firstRun).containsExactly(root, f, g, h);
+    assertEquals(root, firstRun.get(0));
+    assertTrue(firstRun.indexOf(f) < firstRun.indexOf(g));
+    // The change was reported from another thread, but in the scope of h.
+    assertTrue(h.getChangeTime() > 0);
+    assertEquals(0, f.getChangeTime());
+    assertEquals(0, g.getChangeTime());
+  }
+
+  public void testFusedReadOnlyPasses() {
+    compiler.init(
+        ImmutableList.<SourceFile>of(),
+        ImmutableList.of(SourceFile.fromCode("in", "var x = 1; f(x);")),
+        compiler.getOptions());
+    compiler.parse();
+    Node root = compiler.getJsRoot();
+    final List<String> visits = new ArrayList<>();
+    optimizer = new PhaseOptimizer(compiler, tracker, null);
+    optimizer.consume(
+        ImmutableList.of(
+            createFusiblePassFactory("a", visits),
+            createFusiblePassFactory("b", visits),
+            createPassFactory("c", 0, true)));
+    optimizer.process(null, root);
+
+    // Both callbacks saw every node, in the same traversal.
+    assertFalse(visits.isEmpty());
+    for (int i = 0; i < visits.size(); i += 2) {
+      assertEquals("a", visits.get(i));
+      assertEquals("b", visits.get(i + 1));
+    }
+    assertEquals(ImmutableList.of("c"), passesRun);
+    // Each fused pass keeps its own entry in the tracker.
+    assertThat(tracker.getStats().keySet()).containsAllOf("a", "b", "c");
+    assertEquals(1, tracker.getStats().get("a").runs);
+    assertEquals(1, tracker.getStats().get("b").runs);
+  }
+
+  public void testFusedPassesStopAtHaltingError() {
+    final List<String> reported = new ArrayList<>();
+    compiler.getOptions().setErrorHandler(new ErrorHandler() {
+      @Override
+      public void report(CheckLevel level, JSError error) {
+        reported.add(error.getType().key);
+      }
+    });
+    compiler.init(
+        ImmutableList.<SourceFile>of(),
+        ImmutableList.of(SourceFile.fromCode("in", "var x = 1; f(x);")),
+        compiler.getOptions());
+    compiler.parse();
+    Node root = compiler.getJsRoot();
+    List<String> visits = new ArrayList<>();
+    optimizer = new PhaseOptimizer(compiler, tracker, null);
+    optimizer.consume(
+        ImmutableList.of(
+            createFusiblePassFactory("a", visits, FUSED_WARNING),
+            createFusiblePassFactory("b", visits, FUSED_ERROR),
+            createFusiblePassFactory("c", visits, FUSED_WARNING),
+            createPassFactory("d", 0, true)));
+    optimizer.process(null, root);
+
+    // The diagnostics come pass by pass, as in separate traversals, and
+    // nothing after the first halting error is reported or run.
+    assertEquals(
+        ImmutableList.of(
+            "FUSED_WARNING", "FUSED_WARNING", "FUSED_WARNING",
+            "FUSED_ERROR", "FUSED_ERROR", "FUSED_ERROR"),
+        reported);
+    assertEquals(ImmutableList.of(), passesRun);
+    assertThat(tracker.getStats().keySet()).containsAllOf("a", "b");
+    assertThat(tracker.getStats().keySet()).doesNotContain("c");
+  }
+
   public void testSchedulingOfAnyKindOfPasses1() {
     addOneTimePass("a");
     Loop loop = optimizer.addFixedPointLoop();
@@ -211,6 +365,39 @@ public final class PhaseOptimizerTest extends TestCase {
     };
   }
 
+  private PassFactory createFusiblePassFactory(
+      String name, List<String> visits) {
+    return createFusiblePassFactory(name, visits, null);
+  }
+
+  /**
+   * Returns a factory of fusible passes that record their visits, and report
+   * the given diagnostic on each name if it isn't null.
+   */
+  private PassFactory createFusiblePassFactory(final String name,
+      final List<String> visits, final DiagnosticType diagnostic) {
+    return new PassFactory(name, true) {
+      @Override
+      protected CompilerPass create(final AbstractCompiler compiler) {
+        return new CombinedCompilerPass(compiler,
+            new NodeTraversal.AbstractPostOrderCallback() {
+              @Override
+              public void visit(NodeTraversal t, Node n, Node parent) {
+                visits.add(name);
+                if (diagnostic != null && n.isName()) {
+                  t.report(n, diagnostic);
+                }
+              }
+            });
+      }
+
+      @Override
+      boolean isFusible() {
+        return true;
+      }
+    };
+  }
+
   private CompilerPass createPass(final String name, int numChanges) {
     final int[] numChangesClosure = new int[] {numChanges};
     return new CompilerPass() {
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.newtypes;
+
+import junit.framework.TestCase;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Tests for {@link PersistentMap} and {@link PersistentSet}.
+ */
+public final class PersistentMapTest extends TestCase {
+
+  public void testWithAndWithout() {
+    PersistentMap<String, Integer> empty = PersistentMap.create();
+    PersistentMap<String, Integer> m1 = empty.with("a", 1);
+    PersistentMap<String, Integer> m2 = m1.with("b", 2).with("a", 3);
+
+    assertTrue(empty.isEmpty());
+    assertEquals(1, m1.size());
+    assertEquals(Integer.valueOf(1), m1.get("a"));
+    assertEquals(2, m2.size());
+    assertEquals(Integer.valueOf(3), m2.get("a"));
+    assertEquals(Integer.valueOf(2), m2.get("b"));
+    assertNull(m2.get("c"));
+    assertEquals(m1, m2.without("b").with("a", 1));
+    assertSame(m2, m2.without("c"));
+    assertSame(m2, m2.with("b", m2.get("b")));
+    assertTrue(m2.without("a").without("b").isEmpty());
+  }
+
+  public void testLargeMapsShareUnchangedEntries() {
+    PersistentMap<String, Integer> m = PersistentMap.create();
+    for (int i = 0; i < 1000; i++) {
+      m = m.with("k" + i, i);
+    }
+    PersistentMap<String, Integer> changed = m.with("k1", -1).without("k2");
+
+    assertEquals(1000, m.size());
+    assertEquals(Integer.valueOf(1), m.get("k1"));
+    assertEquals(Integer.valueOf(2), m.get("k2"));
+    assertEquals(999, changed.size());
+    assertEquals(Integer.valueOf(-1), changed.get("k1"));
+    assertFalse(changed.containsKey("k2"));
+    assertEquals(m, changed.with("k1", 1).with("k2", 2));
+    assertEquals(m.hashCode(), changed.with("k1", 1).with("k2", 2).hashCode());
+  }
+
+  public void testMatchesHashMap() {
+    Random random = new Random(42);
+    PersistentMap<Key, Integer> map = PersistentMap.create();
+    Map<Key, Integer> expected = new HashMap<>();
+    for (int i = 0; i < 20000; i++) {
+      // Few distinct hashes, so that many keys collide, in the low bits or
+      // in the high bits that the deepest levels of the trie look at.
+      int hash = random.nextInt(50);
+      Key key = new Key(random.nextInt(300),
+          random.nextBoolean() ? hash : Integer.rotateRight(hash, 3));
+      if (random.nextInt(3) == 0) {
+        map = map.without(key);
+        expected.remove(key);
+      } else {
+        map = map.with(key, i);
+        expected.put(key, i);
+      }
+      assertEquals(expected.size(), map.size());
+      assertEquals(expected.get(key), map.get(key));
+    }
+    assertEquals(expected, map);
+    assertEquals(expected.hashCode(), map.hashCode());
+    assertEquals(expected.keySet(), new HashSet<>(map.keySet()));
+  }
+
+  public void testSet() {
+    PersistentSet<Key> set = PersistentSet.create();
+    Set<Key> expected = new HashSet<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 2000; i++) {
+      Key key = new Key(random.nextInt(100), random.nextInt(20));
+      if (random.nextBoolean()) {
+        set = set.without(key);
+        expected.remove(key);
+      } else {
+        set = set.with(key);
+        expected.add(key);
+      }
+      assertEquals(expected.contains(key), set.contains(key));
+    }
+    assertEquals(expected, set);
+    assertEquals(expected, new HashSet<>(set));
+  }
+
+  /** A key with a hash code that is chosen independently of its identity. */
+  private static final class Key {
+    private final int id;
+    private final int hash;
+
+    Key(int id, int hash) {
+      this.id = id;
+      this.hash = hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key && ((Key) o).id == id && ((Key) o).hash == hash;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -415,20 +415,53 @@ public class NodeTest extends TestCase {
 
     n.putBooleanProp(Node.IS_CONSTANT_NAME, false);
 
-    assertNull(n.lookupProperty(Node.IS_CONSTANT_NAME));
+    assertFalse(n.hasProps());
     assertFalse(n.getBooleanProp(Node.IS_CONSTANT_NAME));
 
     n.putBooleanProp(Node.IS_CONSTANT_NAME, true);
 
-    assertNotNull(n.lookupProperty(Node.IS_CONSTANT_NAME));
+    assertTrue(n.hasProps());
+    assertNull(n.getPropListHeadForTesting());
     assertTrue(n.getBooleanProp(Node.IS_CONSTANT_NAME));
 
     n.putBooleanProp(Node.IS_CONSTANT_NAME, false);
 
-    assertNull(n.lookupProperty(Node.IS_CONSTANT_NAME));
+    assertFalse(n.hasProps());
     assertFalse(n.getBooleanProp(Node.IS_CONSTANT_NAME));
   }
 
+  public void testBooleanPropWithOtherIntValue() {
+    Node n = getVarRef("a");
+
+    n.putIntProp(Node.QUOTED_PROP, 2);
+    assertNotNull(n.lookupProperty(Node.QUOTED_PROP));
+    assertEquals(2, n.getIntProp(Node.QUOTED_PROP));
+
+    n.putIntProp(Node.QUOTED_PROP, 1);
+    assertNull(n.lookupProperty(Node.QUOTED_PROP));
+    assertEquals(1, n.getExistingIntProp(Node.QUOTED_PROP));
+
+    n.removeProp(Node.QUOTED_PROP);
+    assertFalse(n.hasProps());
+  }
+
+  public void testSharedBooleanProps() {
+    Node n = getVarRef("A");
+    n.putBooleanProp(Node.FREE_CALL, true);
+    n.putIntProp(Node.SIDE_EFFECT_FLAGS, 5);
+    Node m = new Node(Token.TRUE);
+    m.clonePropsFrom(n);
+    assertTrue(m.getBooleanProp(Node.FREE_CALL));
+
+    m.putBooleanProp(Node.FREE_CALL, false);
+    m.putBooleanProp(Node.QUOTED_PROP, true);
+    assertTrue(n.getBooleanProp(Node.FREE_CALL));
+    assertFalse(n.getBooleanProp(Node.QUOTED_PROP));
+    assertEquals(5, m.getIntProp(Node.SIDE_EFFECT_FLAGS));
+    assertEquals("TRUE [quoted: 1] [side_effect_flags: 5]",
+        m.toString(false, true, false));
+  }
+
   // Verify that annotations on cloned nodes are properly handled.
   public void testCloneAnnontations2() {
     Node n = getVarRef("a");
@@ -84,6 +84,64 @@ public class JSTypeRegistryTest extends TestCase {
     assertFalse(typeRegistry.getGreatestSubtypeWithProperty(type, "foo").isUnknownType());
   }
 
+  public void testTypeRelationsMemoized() {
+    JSTypeRegistry typeRegistry = new JSTypeRegistry(null);
+    JSType number = typeRegistry.getNativeType(JSTypeNative.NUMBER_TYPE);
+    JSType union = typeRegistry.createUnionType(
+        number, typeRegistry.getNativeType(JSTypeNative.STRING_TYPE));
+
+    typeRegistry.setCacheTypeRelations(true);
+    assertTrue(number.isSubtype(union));
+    assertTrue(number.isSubtype(union));
+    assertFalse(union.isEquivalentTo(number));
+    assertFalse(union.isEquivalentTo(number));
+    typeRegistry.setCacheTypeRelations(false);
+    assertEquals(2, typeRegistry.getTypeRelationCacheHits());
+    assertTrue(typeRegistry.getTypeRelationCacheMisses() >= 2);
+
+    // Nothing is memoized when memoizing is off.
+    assertTrue(number.isSubtype(union));
+    assertEquals(2, typeRegistry.getTypeRelationCacheHits());
+
+    typeRegistry.resetForTypeCheck();
+    assertEquals(0, typeRegistry.getTypeRelationCacheHits());
+    assertEquals(0, typeRegistry.getTypeRelationCacheMisses());
+  }
+
+  public void testTypeRelationsForgottenOnPropertyChange() {
+    JSTypeRegistry typeRegistry = new JSTypeRegistry(null);
+    JSType record = new RecordTypeBuilder(typeRegistry)
+        .addProperty("a",
+            typeRegistry.getNativeType(JSTypeNative.NUMBER_TYPE), null)
+        .build();
+    ObjectType object = typeRegistry.createAnonymousObjectType(null);
+
+    typeRegistry.setCacheTypeRelations(true);
+    assertFalse(object.isSubtype(record));
+    object.defineDeclaredProperty("a",
+        typeRegistry.getNativeType(JSTypeNative.NUMBER_TYPE), null);
+    assertTrue(object.isSubtype(record));
+    assertEquals(0, typeRegistry.getTypeRelationCacheHits());
+  }
+
+  public void testJoinsMemoized() {
+    JSTypeRegistry typeRegistry = new JSTypeRegistry(null);
+    JSType number = typeRegistry.getNativeType(JSTypeNative.NUMBER_TYPE);
+    JSType string = typeRegistry.getNativeType(JSTypeNative.STRING_TYPE);
+
+    // The join is the native (number|string) union.
+    JSType join = number.getLeastSupertype(string);
+    assertSame(
+        typeRegistry.getNativeType(JSTypeNative.NUMBER_STRING), join);
+    int hits = typeRegistry.getUnionTypeTableHits();
+    assertSame(join, number.getLeastSupertype(string));
+    assertEquals(hits + 1, typeRegistry.getUnionTypeTableHits());
+    assertSame(join, string.getLeastSupertype(number));
+
+    typeRegistry.resetForTypeCheck();
+    assertEquals(0, typeRegistry.getUnionTypeTableHits());
+  }
+
   private void assertTypeEquals(JSType a, JSType b) {
     Asserts.assertTypeEquals(a, b);
   }
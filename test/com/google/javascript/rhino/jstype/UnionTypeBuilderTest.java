@@ -120,6 +120,22 @@ public class UnionTypeBuilderTest extends BaseJSTypeTestCase {
     assertEquals("(Error|function (): Error)", union.toString());
   }
 
+  public void testEqualUnionsShared() {
+    JSType union = registry.createUnionType(STRING_TYPE, OBJECT_TYPE);
+    assertSame(union, registry.createUnionType(STRING_TYPE, OBJECT_TYPE));
+    assertSame(union, registry.createUnionType(OBJECT_TYPE, STRING_TYPE));
+    assertSame(union, union.getLeastSupertype(STRING_TYPE));
+    assertNotSame(union, registry.createUnionType(STRING_TYPE, NUMBER_TYPE));
+  }
+
+  public void testUnionsOfNamesNotShared() {
+    JSType unresolvedName =
+        new NamedType(registry, "not.resolved.A", null, -1, -1);
+    assertNotSame(
+        registry.createUnionType(unresolvedName, OBJECT_TYPE),
+        registry.createUnionType(unresolvedName, OBJECT_TYPE));
+  }
+
   public void assertUnion(String expected, JSType ... types) {
     UnionTypeBuilder builder = new UnionTypeBuilder(registry);
     for (JSType type : types) {